@@ -0,0 +1,20 @@
+package com.ruleengine.cache;
+
+/**
+ * A value ReadCache can hold. The cache keeps a copy of its own and hands
+ * every caller a fresh one, so cached state is never shared with code that
+ * modifies what it reads.
+ */
+public interface CachedValue<T> {
+
+    /**
+     * A deep copy: nothing mutable is shared with this value.
+     */
+    T copy();
+
+    /**
+     * Rough heap footprint in bytes, computed from the sizes already at hand
+     * (string lengths, element counts) rather than by walking the value.
+     */
+    long estimatedSize();
+}
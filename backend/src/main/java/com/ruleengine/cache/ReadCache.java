@@ -0,0 +1,166 @@
+package com.ruleengine.cache;
+
+import com.ruleengine.dto.CacheStatsDto;
+import com.ruleengine.multitenancy.TenantContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * Read-through cache for the DTOs of rarely changing entities (schemas,
+ * rules, projects), one region per entity. Keys are scoped to the current
+ * tenant; the service that changes an entity evicts its region (and the
+ * regions whose DTOs embed it), now and again when its transaction completes.
+ *
+ * Values are copied into the cache and copied again for every hit, so
+ * callers own what they get and may modify it. Each region is bounded by
+ * the estimated size of its values.
+ *
+ * Reads may be served by a lagging read replica, so for max-lag-ms after an
+ * eviction loaded values are returned but not cached: the replica may not
+ * have the change yet.
+ */
+@Component
+public class ReadCache {
+
+    public static final String SCHEMAS = "schemas";
+    public static final String RULES = "rules";
+    public static final String PROJECTS = "projects";
+
+    private final boolean enabled;
+    private final long replicaMaxLagMs;
+    private final Map<String, WeightedLruCache<String, Object>> regions = new LinkedHashMap<>();
+
+    // Bumped on every eviction; a value loaded across one is not cached
+    private long generation;
+    private long evictedAt;
+
+    public ReadCache(@Value("${truly.cache.enabled:true}") boolean enabled,
+            @Value("${truly.cache.schemas.max-bytes:16777216}") long schemasMaxBytes,
+            @Value("${truly.cache.rules.max-bytes:33554432}") long rulesMaxBytes,
+            @Value("${truly.cache.projects.max-bytes:4194304}") long projectsMaxBytes,
+            @Value("${truly.datasource.replica.max-lag-ms:0}") long replicaMaxLagMs) {
+        this.enabled = enabled;
+        this.replicaMaxLagMs = replicaMaxLagMs;
+        regions.put(SCHEMAS, new WeightedLruCache<>(schemasMaxBytes));
+        regions.put(RULES, new WeightedLruCache<>(rulesMaxBytes));
+        regions.put(PROJECTS, new WeightedLruCache<>(projectsMaxBytes));
+    }
+
+    /**
+     * A copy of the cached value of key in region, loading and caching it on
+     * a miss.
+     */
+    public <T extends CachedValue<T>> T get(String region, String key, Supplier<T> loader) {
+        return get(region, key, loader, CachedValue::copy, CachedValue::estimatedSize);
+    }
+
+    /**
+     * A copy of the cached list of key in region, loading and caching it on a
+     * miss.
+     */
+    public <T extends CachedValue<T>> List<T> getList(String region, String key, Supplier<List<T>> loader) {
+        return get(region, key, loader, ReadCache::copyAll,
+                values -> values.stream().mapToLong(CachedValue::estimatedSize).sum() + 16L * values.size());
+    }
+
+    @SuppressWarnings("unchecked")
+    private <V> V get(String region, String key, Supplier<V> loader, UnaryOperator<V> copier,
+            ToLongFunction<V> weigher) {
+        if (!enabled) {
+            return loader.get();
+        }
+        WeightedLruCache<String, Object> cache = region(region);
+        String tenantKey = tenantPrefix(TenantContext.getTenantId()) + key;
+        Object cached = cache.get(tenantKey);
+        if (cached != null) {
+            return copier.apply((V) cached);
+        }
+
+        long loadedAt;
+        synchronized (this) {
+            loadedAt = generation;
+        }
+        V value = loader.get();
+        if (value != null) {
+            V copy = copier.apply(value);
+            long weight = weigher.applyAsLong(copy);
+            synchronized (this) {
+                if (generation == loadedAt && System.currentTimeMillis() - evictedAt >= replicaMaxLagMs) {
+                    cache.put(tenantKey, copy, weight);
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Evict the current tenant's entries of the given regions now and again
+     * when the transaction completes, so neither a read in between nor a read
+     * of the rolled-back changes stays cached.
+     */
+    public void evict(String... regionNames) {
+        String prefix = tenantPrefix(TenantContext.getTenantId());
+        Runnable eviction = () -> {
+            synchronized (this) {
+                generation++;
+                evictedAt = System.currentTimeMillis();
+                for (String regionName : regionNames) {
+                    region(regionName).removeIf(key -> key.startsWith(prefix));
+                }
+            }
+        };
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    eviction.run();
+                }
+            });
+        }
+    }
+
+    public void clear() {
+        synchronized (this) {
+            generation++;
+            regions.values().forEach(WeightedLruCache::clear);
+        }
+    }
+
+    public List<CacheStatsDto> getStats() {
+        return regions.entrySet().stream()
+                .map(e -> CacheStatsDto.of(e.getKey(), e.getValue().stats()))
+                .collect(Collectors.toList());
+    }
+
+    private WeightedLruCache<String, Object> region(String name) {
+        WeightedLruCache<String, Object> region = regions.get(name);
+        if (region == null) {
+            throw new IllegalArgumentException("Unknown cache region: " + name);
+        }
+        return region;
+    }
+
+    private static <T extends CachedValue<T>> List<T> copyAll(List<T> values) {
+        List<T> copies = new ArrayList<>(values.size());
+        for (T value : values) {
+            copies.add(value.copy());
+        }
+        return copies;
+    }
+
+    private static String tenantPrefix(String tenantId) {
+        return (tenantId != null ? tenantId : "default") + ":";
+    }
+}
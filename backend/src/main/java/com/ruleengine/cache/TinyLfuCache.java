@@ -0,0 +1,410 @@
+package com.ruleengine.cache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * A thread-safe cache bounded by the total weight of its values, with
+ * W-TinyLFU eviction: new entries enter a small LRU window; when the window
+ * overflows, its oldest entry only displaces an entry of the main space if
+ * it has been used more often recently, as estimated by a count-min sketch
+ * of access frequencies. Entries used once (a scan, a one-off run) so do not
+ * flush the ones in regular use. The main space is a segmented LRU: entries
+ * used again while on probation move to the protected segment.
+ *
+ * Entries belong to a group (such as a tenant) with a weight budget of its
+ * own; a group over its budget evicts its own entries, least valuable first.
+ * Misses on keys that were recently evicted for capacity are counted as
+ * reloads, the cost of the cache being too small.
+ */
+public class TinyLfuCache<K, V> {
+
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+
+    private final long maxWeight;
+    private final long windowMaxWeight;
+    private final long protectedMaxWeight;
+    private final long groupMaxWeight;
+    private final Function<K, String> groupOf;
+    private final FrequencySketch sketch;
+
+    private final Map<K, Node<K, V>> data = new HashMap<>();
+    // Least recently used first
+    private final LinkedHashMap<K, Node<K, V>> window = new LinkedHashMap<>();
+    private final LinkedHashMap<K, Node<K, V>> probation = new LinkedHashMap<>();
+    private final LinkedHashMap<K, Node<K, V>> protectedSegment = new LinkedHashMap<>();
+    private final Map<String, Counters> groups = new TreeMap<>();
+    private final Counters total = new Counters();
+    // Keys evicted for capacity, oldest first
+    private final LinkedHashMap<K, Boolean> evictedKeys;
+    private long windowWeight;
+    private long protectedWeight;
+
+    /**
+     * @param maxWeight       budget of the whole cache
+     * @param groupMaxWeight  budget of each group
+     * @param groupOf         the group of a key
+     * @param expectedEntries roughly how many entries the cache will hold;
+     *                        sizes the frequency sketch
+     */
+    public TinyLfuCache(long maxWeight, long groupMaxWeight, Function<K, String> groupOf, int expectedEntries) {
+        this.maxWeight = maxWeight;
+        this.windowMaxWeight = Math.max(1, maxWeight / 100);
+        this.protectedMaxWeight = (maxWeight - windowMaxWeight) * 4 / 5;
+        this.groupMaxWeight = Math.min(groupMaxWeight, maxWeight);
+        this.groupOf = groupOf;
+        this.sketch = new FrequencySketch(expectedEntries);
+        int evictedCapacity = Math.max(1024, 4 * expectedEntries);
+        this.evictedKeys = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Boolean> eldest) {
+                return size() > evictedCapacity;
+            }
+        };
+    }
+
+    public synchronized V get(K key) {
+        sketch.increment(key);
+        Node<K, V> node = data.get(key);
+        Counters group = group(groupOf.apply(key));
+        if (node == null) {
+            total.misses++;
+            group.misses++;
+            if (evictedKeys.remove(key) != null) {
+                total.reloads++;
+                group.reloads++;
+            }
+            return null;
+        }
+        total.hits++;
+        group.hits++;
+        onAccess(node);
+        return node.value;
+    }
+
+    /**
+     * Add or replace an entry. Values heavier than their group's budget are
+     * not cached; the new entry itself may be evicted right away when the
+     * main space holds entries used more often.
+     */
+    public synchronized void put(K key, V value, long weight) {
+        remove(key);
+        if (weight > groupMaxWeight) {
+            return;
+        }
+        Node<K, V> node = new Node<>(key, value, weight, group(groupOf.apply(key)));
+        data.put(key, node);
+        window.put(key, node);
+        windowWeight += weight;
+        node.group.weight += weight;
+        node.group.size++;
+        total.weight += weight;
+        total.size++;
+        evict();
+        evictGroup(node.group);
+    }
+
+    /**
+     * Remove an entry, as when it is invalidated; not counted as an eviction.
+     */
+    public synchronized void remove(K key) {
+        evictedKeys.remove(key);
+        Node<K, V> node = data.get(key);
+        if (node != null) {
+            unlink(node);
+        }
+    }
+
+    public synchronized void removeIf(Predicate<K> predicate) {
+        evictedKeys.keySet().removeIf(predicate);
+        data.values().stream()
+                .filter(node -> predicate.test(node.key))
+                .collect(Collectors.toList())
+                .forEach(this::unlink);
+    }
+
+    public synchronized void clear() {
+        removeIf(key -> true);
+    }
+
+    public synchronized Stats stats() {
+        return total.toStats(maxWeight);
+    }
+
+    /**
+     * Stats of each group that has used the cache, by group.
+     */
+    public synchronized Map<String, Stats> groupStats() {
+        Map<String, Stats> stats = new LinkedHashMap<>();
+        groups.forEach((name, counters) -> stats.put(name, counters.toStats(groupMaxWeight)));
+        return stats;
+    }
+
+    private void onAccess(Node<K, V> node) {
+        switch (node.queue) {
+            case WINDOW:
+                window.remove(node.key);
+                window.put(node.key, node);
+                break;
+            case PROBATION:
+                probation.remove(node.key);
+                node.queue = PROTECTED;
+                protectedSegment.put(node.key, node);
+                protectedWeight += node.weight;
+                demoteProtected();
+                break;
+            default:
+                protectedSegment.remove(node.key);
+                protectedSegment.put(node.key, node);
+        }
+    }
+
+    private void demoteProtected() {
+        Iterator<Node<K, V>> it = protectedSegment.values().iterator();
+        while (protectedWeight > protectedMaxWeight && it.hasNext()) {
+            Node<K, V> demoted = it.next();
+            it.remove();
+            protectedWeight -= demoted.weight;
+            demoted.queue = PROBATION;
+            probation.put(demoted.key, demoted);
+        }
+    }
+
+    /**
+     * Move the window's overflow to probation as candidates, then, while
+     * over budget, let each candidate compete with the probation's least
+     * recently used entry: the one used less often is evicted.
+     */
+    private void evict() {
+        LinkedHashMap<K, Node<K, V>> candidates = new LinkedHashMap<>();
+        Iterator<Node<K, V>> overflow = window.values().iterator();
+        while (windowWeight > windowMaxWeight && overflow.hasNext()) {
+            Node<K, V> candidate = overflow.next();
+            overflow.remove();
+            windowWeight -= candidate.weight;
+            candidate.queue = PROBATION;
+            probation.put(candidate.key, candidate);
+            candidates.put(candidate.key, candidate);
+        }
+
+        while (total.weight > maxWeight) {
+            Node<K, V> victim = firstOf(probation, candidates);
+            Node<K, V> candidate = candidates.isEmpty() ? null : candidates.values().iterator().next();
+            if (victim == null) {
+                // Probation holds only candidates, or nothing
+                victim = candidate != null ? candidate : firstOf(protectedSegment, null);
+                if (victim == null) {
+                    victim = firstOf(window, null);
+                }
+            } else if (candidate != null && sketch.frequency(candidate.key) <= sketch.frequency(victim.key)) {
+                victim = candidate;
+            }
+            candidates.remove(victim.key);
+            evict(victim);
+        }
+    }
+
+    /**
+     * Evict a group over its budget down to it, window and probation first.
+     */
+    private void evictGroup(Counters group) {
+        for (LinkedHashMap<K, Node<K, V>> queue : List.of(probation, window, protectedSegment)) {
+            Iterator<Node<K, V>> it = new ArrayList<>(queue.values()).iterator();
+            while (group.weight > groupMaxWeight && it.hasNext()) {
+                Node<K, V> node = it.next();
+                if (node.group == group) {
+                    evict(node);
+                }
+            }
+        }
+    }
+
+    private Node<K, V> firstOf(LinkedHashMap<K, Node<K, V>> queue, Map<K, Node<K, V>> excluded) {
+        for (Node<K, V> node : queue.values()) {
+            if (excluded == null || !excluded.containsKey(node.key)) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    private void evict(Node<K, V> node) {
+        unlink(node);
+        total.evictions++;
+        node.group.evictions++;
+        evictedKeys.put(node.key, Boolean.TRUE);
+    }
+
+    private void unlink(Node<K, V> node) {
+        data.remove(node.key);
+        switch (node.queue) {
+            case WINDOW:
+                window.remove(node.key);
+                windowWeight -= node.weight;
+                break;
+            case PROBATION:
+                probation.remove(node.key);
+                break;
+            default:
+                protectedSegment.remove(node.key);
+                protectedWeight -= node.weight;
+        }
+        node.group.weight -= node.weight;
+        node.group.size--;
+        total.weight -= node.weight;
+        total.size--;
+    }
+
+    private Counters group(String name) {
+        return groups.computeIfAbsent(name, k -> new Counters());
+    }
+
+    private static final class Node<K, V> {
+        private final K key;
+        private final V value;
+        private final long weight;
+        private final Counters group;
+        private int queue = WINDOW;
+
+        private Node(K key, V value, long weight, Counters group) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            this.group = group;
+        }
+    }
+
+    private static final class Counters {
+        private int size;
+        private long weight;
+        private long hits;
+        private long misses;
+        private long evictions;
+        private long reloads;
+
+        private Stats toStats(long maxWeight) {
+            return new Stats(size, weight, maxWeight, hits, misses, evictions, reloads);
+        }
+    }
+
+    /**
+     * Count-min sketch of recent access frequencies: four 4-bit counters per
+     * key, its frequency the smallest of them. All counters are halved once
+     * ten times as many accesses as counters per row have been recorded, so
+     * old popularity fades.
+     */
+    static final class FrequencySketch {
+        private static final int[] SEEDS = { 0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F };
+
+        private final byte[][] rows = new byte[SEEDS.length][];
+        private final int mask;
+        private final int resetAfter;
+        private int additions;
+
+        FrequencySketch(int expectedEntries) {
+            int width = Integer.highestOneBit(Math.max(16, expectedEntries - 1) << 1);
+            for (int i = 0; i < rows.length; i++) {
+                rows[i] = new byte[width];
+            }
+            this.mask = width - 1;
+            this.resetAfter = 10 * width;
+        }
+
+        void increment(Object key) {
+            int hash = key.hashCode();
+            for (int i = 0; i < rows.length; i++) {
+                int index = index(hash, i);
+                if (rows[i][index] < 15) {
+                    rows[i][index]++;
+                }
+            }
+            if (++additions >= resetAfter) {
+                for (byte[] row : rows) {
+                    for (int j = 0; j < row.length; j++) {
+                        row[j] >>= 1;
+                    }
+                }
+                additions /= 2;
+            }
+        }
+
+        int frequency(Object key) {
+            int hash = key.hashCode();
+            int frequency = 15;
+            for (int i = 0; i < rows.length; i++) {
+                frequency = Math.min(frequency, rows[i][index(hash, i)]);
+            }
+            return frequency;
+        }
+
+        private int index(int hash, int row) {
+            int h = (hash ^ SEEDS[row]) * SEEDS[(row + 1) % SEEDS.length];
+            return (h ^ (h >>> 16)) & mask;
+        }
+    }
+
+    /**
+     * Point-in-time counters; hits, misses, evictions and reloads are since
+     * startup.
+     */
+    public static final class Stats {
+        private final int size;
+        private final long weight;
+        private final long maxWeight;
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final long reloads;
+
+        public Stats(int size, long weight, long maxWeight, long hits, long misses, long evictions, long reloads) {
+            this.size = size;
+            this.weight = weight;
+            this.maxWeight = maxWeight;
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.reloads = reloads;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public long getWeight() {
+            return weight;
+        }
+
+        public long getMaxWeight() {
+            return maxWeight;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public long getEvictions() {
+            return evictions;
+        }
+
+        /**
+         * Misses on keys evicted for capacity.
+         */
+        public long getReloads() {
+            return reloads;
+        }
+    }
+}
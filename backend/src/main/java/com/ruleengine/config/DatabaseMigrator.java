@@ -0,0 +1,247 @@
+package com.ruleengine.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Applies versioned SQL migrations to the default database at startup.
+ *
+ * Tables are still created and extended by Hibernate (ddl-auto=update);
+ * migrations hold what Hibernate does not manage well across dialects, such
+ * as the composite indexes of the execution path. Scripts live in
+ * db/migration/{sqlite,postgresql,mysql,h2}/V{version}__{description}.sql and
+ * run once each, in version order, after Hibernate has updated the tables.
+ * Applied versions and their checksums are kept in database_migrations; a
+ * script changed after it was applied stops startup.
+ */
+@Component
+public class DatabaseMigrator {
+
+    private static final Logger log = LoggerFactory.getLogger(DatabaseMigrator.class);
+
+    private static final Pattern SCRIPT_NAME = Pattern.compile("V(\\d+)__(.+)\\.sql");
+
+    private static final String HISTORY_TABLE = "CREATE TABLE IF NOT EXISTS database_migrations ("
+            + "version INTEGER NOT NULL PRIMARY KEY, "
+            + "description VARCHAR(200) NOT NULL, "
+            + "checksum BIGINT NOT NULL, "
+            + "installed_at TIMESTAMP NOT NULL, "
+            + "execution_time_ms BIGINT NOT NULL)";
+
+    // MySQL has no CREATE INDEX IF NOT EXISTS
+    private static final int MYSQL_DUPLICATE_KEY_NAME = 1061;
+
+    private final DataSource dataSource;
+    private final boolean enabled;
+    private final String location;
+
+    /**
+     * Depends on the EntityManagerFactory so the tables exist before
+     * migrations run.
+     */
+    public DatabaseMigrator(DataSource dataSource, EntityManagerFactory entityManagerFactory,
+            @Value("${truly.migrations.enabled:true}") boolean enabled,
+            @Value("${truly.migrations.location:db/migration}") String location) {
+        this.dataSource = dataSource;
+        this.enabled = enabled;
+        this.location = location;
+    }
+
+    @PostConstruct
+    public void migrate() {
+        if (!enabled) {
+            log.info("Database migrations disabled");
+            return;
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            migrate(connection);
+        } catch (SQLException | IOException e) {
+            throw new IllegalStateException("Database migration failed", e);
+        }
+    }
+
+    void migrate(Connection connection) throws SQLException, IOException {
+        String vendor = vendor(connection.getMetaData().getDatabaseProductName());
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(HISTORY_TABLE);
+        }
+        Map<Integer, Long> applied = appliedChecksums(connection);
+
+        int count = 0;
+        for (Migration migration : migrations(vendor)) {
+            Long checksum = applied.get(migration.version);
+            if (checksum != null) {
+                if (checksum != migration.checksum) {
+                    throw new IllegalStateException("Migration V" + migration.version + " (" + migration.description
+                            + ") was changed after it was applied");
+                }
+                continue;
+            }
+            apply(connection, vendor, migration);
+            count++;
+        }
+        if (count > 0) {
+            log.info("Applied {} {} database migration(s)", count, vendor);
+        }
+    }
+
+    private void apply(Connection connection, String vendor, Migration migration) throws SQLException {
+        long start = System.currentTimeMillis();
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            try (Statement statement = connection.createStatement()) {
+                for (String sql : statements(migration.script)) {
+                    execute(statement, vendor, sql);
+                }
+            }
+            try (PreparedStatement insert = connection.prepareStatement("INSERT INTO database_migrations "
+                    + "(version, description, checksum, installed_at, execution_time_ms) VALUES (?, ?, ?, ?, ?)")) {
+                insert.setInt(1, migration.version);
+                insert.setString(2, migration.description);
+                insert.setLong(3, migration.checksum);
+                insert.setTimestamp(4, new Timestamp(System.currentTimeMillis()));
+                insert.setLong(5, System.currentTimeMillis() - start);
+                insert.executeUpdate();
+            }
+            connection.commit();
+            log.info("Applied migration V{} ({}) in {} ms", migration.version, migration.description,
+                    System.currentTimeMillis() - start);
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private void execute(Statement statement, String vendor, String sql) throws SQLException {
+        try {
+            statement.execute(sql);
+        } catch (SQLException e) {
+            // An index Hibernate already created from an @Index
+            if ("mysql".equals(vendor) && e.getErrorCode() == MYSQL_DUPLICATE_KEY_NAME) {
+                log.debug("Skipping existing index: {}", sql);
+                return;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * The statements of a script: ";" ends a statement, "--" starts a
+     * comment line. Scripts must not use ";" inside string literals.
+     */
+    static List<String> statements(String script) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (String line : script.split("\\R")) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                continue;
+            }
+            current.append(current.length() > 0 ? " " : "").append(trimmed);
+            if (trimmed.endsWith(";")) {
+                current.setLength(current.length() - 1);
+                statements.add(current.toString());
+                current.setLength(0);
+            }
+        }
+        if (current.length() > 0) {
+            statements.add(current.toString());
+        }
+        return statements;
+    }
+
+    private Map<Integer, Long> appliedChecksums(Connection connection) throws SQLException {
+        Map<Integer, Long> applied = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery("SELECT version, checksum FROM database_migrations")) {
+            while (rs.next()) {
+                applied.put(rs.getInt(1), rs.getLong(2));
+            }
+        }
+        return applied;
+    }
+
+    private List<Migration> migrations(String vendor) throws IOException {
+        Resource[] resources = new PathMatchingResourcePatternResolver()
+                .getResources("classpath*:" + location + "/" + vendor + "/V*__*.sql");
+        List<Migration> migrations = new ArrayList<>();
+        for (Resource resource : resources) {
+            Matcher matcher = SCRIPT_NAME.matcher(resource.getFilename());
+            if (!matcher.matches()) {
+                throw new IllegalStateException("Invalid migration script name: " + resource.getFilename());
+            }
+            String script = StreamUtils.copyToString(resource.getInputStream(), StandardCharsets.UTF_8);
+            migrations.add(new Migration(Integer.parseInt(matcher.group(1)), matcher.group(2).replace('_', ' '),
+                    script));
+        }
+        migrations.sort(Comparator.comparingInt(m -> m.version));
+        return migrations;
+    }
+
+    /**
+     * Migration directory for a JDBC database product name; libSQL (Turso)
+     * uses the SQLite scripts.
+     */
+    static String vendor(String productName) {
+        String name = productName.toLowerCase(Locale.ROOT);
+        if (name.contains("sqlite") || name.contains("libsql")) {
+            return "sqlite";
+        }
+        if (name.contains("postgres")) {
+            return "postgresql";
+        }
+        if (name.contains("mysql") || name.contains("mariadb")) {
+            return "mysql";
+        }
+        if (name.equals("h2")) {
+            return "h2";
+        }
+        throw new IllegalStateException("No database migrations for " + productName);
+    }
+
+    private static final class Migration {
+        private final int version;
+        private final String description;
+        private final String script;
+        private final long checksum;
+
+        private Migration(int version, String description, String script) {
+            this.version = version;
+            this.description = description;
+            this.script = script;
+            CRC32 crc = new CRC32();
+            // Line endings differ between checkouts
+            crc.update(script.replace("\r\n", "\n").getBytes(StandardCharsets.UTF_8));
+            this.checksum = crc.getValue();
+        }
+    }
+}
@@ -259,7 +259,8 @@ public class SampleDataLoader implements CommandLineRunner {
             // Generate DRL using the transpiler
             try {
                 RuleDefinition definition = objectMapper.readValue(ruleJson, RuleDefinition.class);
-                String drl = transpiler.transpile(definition, "com.ruleengine.generated", schema.getName());
+                String drl = transpiler.transpile(definition, "com.ruleengine.generated", schema.getName(),
+                        schema.getJsonSchema());
                 rule.setGeneratedDrl(drl);
                 logger.debug("Generated DRL for rule '{}': {}", rule.getName(), drl);
             } catch (Exception drlEx) {
@@ -0,0 +1,55 @@
+package com.ruleengine.controller;
+
+import com.ruleengine.cache.ReadCache;
+import com.ruleengine.dto.CacheStatsDto;
+import com.ruleengine.parser.ParsedSchemaCache;
+import com.ruleengine.service.ExecutionPlanCache;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * REST controller for in-process cache statistics.
+ */
+@RestController
+@RequestMapping("/api/cache")
+public class CacheController {
+
+    private final ReadCache readCache;
+    private final ExecutionPlanCache executionPlanCache;
+    private final ParsedSchemaCache parsedSchemaCache;
+
+    public CacheController(ReadCache readCache, ExecutionPlanCache executionPlanCache,
+            ParsedSchemaCache parsedSchemaCache) {
+        this.readCache = readCache;
+        this.executionPlanCache = executionPlanCache;
+        this.parsedSchemaCache = parsedSchemaCache;
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<List<CacheStatsDto>> getStats() {
+        List<CacheStatsDto> stats = new ArrayList<>(readCache.getStats());
+        stats.add(parsedSchemaCache.getStats());
+        return ResponseEntity.ok(stats);
+    }
+
+    /**
+     * Compiled execution plans; reloads count recompiles of evicted plans.
+     */
+    @GetMapping("/execution-plans")
+    public ResponseEntity<CacheStatsDto> getExecutionPlanStats() {
+        return ResponseEntity.ok(executionPlanCache.getStats());
+    }
+
+    /**
+     * Compiled execution plans, one entry per tenant.
+     */
+    @GetMapping("/execution-plans/tenants")
+    public ResponseEntity<List<CacheStatsDto>> getExecutionPlanTenantStats() {
+        return ResponseEntity.ok(executionPlanCache.getTenantStats());
+    }
+}
@@ -0,0 +1,52 @@
+package com.ruleengine.controller;
+
+import com.ruleengine.dto.ReferenceDataSetDto;
+import com.ruleengine.dto.UploadReferenceDataRequest;
+import com.ruleengine.service.ReferenceDataService;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * REST controller for project reference data sets (lookup tables used by
+ * memberOf/notMemberOf conditions).
+ */
+@RestController
+@RequestMapping("/api/projects/{projectId}/reference-data")
+public class ReferenceDataController {
+
+    private final ReferenceDataService referenceDataService;
+
+    public ReferenceDataController(ReferenceDataService referenceDataService) {
+        this.referenceDataService = referenceDataService;
+    }
+
+    @GetMapping
+    public ResponseEntity<List<ReferenceDataSetDto>> getReferenceDataSets(@PathVariable Long projectId) {
+        return ResponseEntity.ok(referenceDataService.getReferenceDataSets(projectId));
+    }
+
+    @GetMapping("/{name}")
+    public ResponseEntity<ReferenceDataSetDto> getReferenceDataSet(@PathVariable Long projectId,
+            @PathVariable String name) {
+        return ResponseEntity.ok(referenceDataService.getReferenceDataSet(projectId, name));
+    }
+
+    /**
+     * Upload a set. Uploading an existing name replaces its entries and bumps
+     * the version; rules pick it up on their next execution.
+     */
+    @PutMapping
+    public ResponseEntity<ReferenceDataSetDto> uploadReferenceData(@PathVariable Long projectId,
+            @Valid @RequestBody UploadReferenceDataRequest request) {
+        return ResponseEntity.ok(referenceDataService.uploadReferenceData(projectId, request));
+    }
+
+    @DeleteMapping("/{name}")
+    public ResponseEntity<Void> deleteReferenceData(@PathVariable Long projectId, @PathVariable String name) {
+        referenceDataService.deleteReferenceData(projectId, name);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,7 +1,10 @@
 package com.ruleengine.controller;
 
+import com.ruleengine.drools.RuleDependencyGraph;
 import com.ruleengine.dto.CreateProjectRequest;
+import com.ruleengine.dto.ExecutionDailyRollupDto;
 import com.ruleengine.dto.ExecutionHistoryDto;
+import com.ruleengine.dto.ExecutionHistorySliceDto;
 import com.ruleengine.dto.RuleDto;
 import com.ruleengine.dto.RuleProjectDto;
 import com.ruleengine.dto.SchemaDto;
@@ -52,6 +55,11 @@ public class RuleProjectController {
         return ResponseEntity.ok(ruleService.getRulesByProject(id));
     }
 
+    @GetMapping("/{id}/rule-dependencies")
+    public ResponseEntity<RuleDependencyGraph> getRuleDependencies(@PathVariable Long id) {
+        return ResponseEntity.ok(ruleService.getRuleDependencies(id));
+    }
+
     @PostMapping("/{id}/execute")
     public ResponseEntity<com.ruleengine.dto.ExecuteRulesResponse> executeProject(
             @PathVariable Long id,
@@ -77,6 +85,19 @@ public class RuleProjectController {
         return ResponseEntity.ok(projectService.getExecutionHistory(id, pageable));
     }
 
+    @GetMapping("/{id}/executions/summaries")
+    public ResponseEntity<ExecutionHistorySliceDto> getProjectExecutionSummaries(
+            @PathVariable Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(projectService.getExecutionSummaries(id, cursor, size));
+    }
+
+    @GetMapping("/{id}/executions/rollups")
+    public ResponseEntity<List<ExecutionDailyRollupDto>> getProjectExecutionRollups(@PathVariable Long id) {
+        return ResponseEntity.ok(projectService.getDailyRollups(id));
+    }
+
     @GetMapping("/executions")
     public ResponseEntity<List<ExecutionHistoryDto>> getAllExecutionHistory() {
         return ResponseEntity.ok(projectService.getAllExecutionHistory());
@@ -88,6 +109,13 @@ public class RuleProjectController {
         return ResponseEntity.ok(projectService.getAllExecutionHistory(pageable));
     }
 
+    @GetMapping("/executions/summaries")
+    public ResponseEntity<ExecutionHistorySliceDto> getAllExecutionSummaries(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(projectService.getAllExecutionSummaries(cursor, size));
+    }
+
     @GetMapping("/executions/{executionId}")
     public ResponseEntity<ExecutionHistoryDto> getExecutionHistoryById(@PathVariable Long executionId) {
         return ResponseEntity.ok(projectService.getExecutionHistoryById(executionId));
@@ -0,0 +1,29 @@
+package com.ruleengine.controller;
+
+import com.ruleengine.dto.TenantPoolStatsDto;
+import com.ruleengine.multitenancy.TenantDatabaseManager;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * REST controller for tenant connection pool metrics.
+ */
+@RestController
+@RequestMapping("/api/tenants")
+public class TenantPoolController {
+
+    private final TenantDatabaseManager tenantDatabaseManager;
+
+    public TenantPoolController(TenantDatabaseManager tenantDatabaseManager) {
+        this.tenantDatabaseManager = tenantDatabaseManager;
+    }
+
+    @GetMapping("/pools")
+    public ResponseEntity<List<TenantPoolStatsDto>> getPoolStats() {
+        return ResponseEntity.ok(tenantDatabaseManager.getPoolStats());
+    }
+}
@@ -0,0 +1,55 @@
+package com.ruleengine.controller;
+
+import com.ruleengine.dto.ExecuteRulesResponse.WebhookResult;
+import com.ruleengine.dto.WebhookHostStatsDto;
+import com.ruleengine.dto.WebhookOutboxStatsDto;
+import com.ruleengine.service.WebhookOutboxService;
+import com.ruleengine.webhook.WebhookDispatch;
+import com.ruleengine.webhook.WebhookDispatcher;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * REST controller for webhook dispatches queued by rule executions.
+ */
+@RestController
+@RequestMapping("/api/webhooks")
+public class WebhookController {
+
+    private final WebhookDispatcher webhookDispatcher;
+    private final WebhookOutboxService webhookOutboxService;
+
+    public WebhookController(WebhookDispatcher webhookDispatcher, WebhookOutboxService webhookOutboxService) {
+        this.webhookDispatcher = webhookDispatcher;
+        this.webhookOutboxService = webhookOutboxService;
+    }
+
+    /**
+     * Result of a dispatch returned by an ASYNC (or timed-out WAIT) execution,
+     * or of a QUEUED outbox call. Still-running calls are reported as PENDING.
+     */
+    @GetMapping("/dispatches/{dispatchId}")
+    public ResponseEntity<WebhookResult> getDispatch(@PathVariable String dispatchId) {
+        WebhookResult result = webhookDispatcher.findDispatch(dispatchId)
+                .map(WebhookDispatch::resultOrPending)
+                .or(() -> webhookOutboxService.findResult(dispatchId))
+                .orElseThrow(() -> new EntityNotFoundException("Webhook dispatch not found: " + dispatchId));
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Outbox backlog depth and delivery lag.
+     */
+    @GetMapping("/outbox")
+    public ResponseEntity<WebhookOutboxStatsDto> getOutboxStats() {
+        return ResponseEntity.ok(webhookOutboxService.getStats());
+    }
+
+    @GetMapping("/hosts")
+    public ResponseEntity<List<WebhookHostStatsDto>> getHostStats() {
+        return ResponseEntity.ok(webhookDispatcher.getHostStats());
+    }
+}
@@ -2,15 +2,24 @@ package com.ruleengine.drools;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ruleengine.dto.ExecuteRulesResponse.WebhookResult;
+import com.ruleengine.multitenancy.TenantContext;
+import com.ruleengine.webhook.QueuedWebhooks;
+import com.ruleengine.webhook.WebhookBatcher;
+import com.ruleengine.webhook.WebhookDispatch;
+import com.ruleengine.webhook.WebhookDispatcher;
+import com.ruleengine.webhook.WebhookRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.http.*;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 /**
  * Context object passed to rules for executing actions.
@@ -20,15 +29,23 @@ import java.util.Map;
 public class ActionContext {
 
     private static final Logger log = LoggerFactory.getLogger(ActionContext.class);
-    private final RestTemplate restTemplate;
+    private final WebhookDispatcher webhookDispatcher;
+    private final WebhookBatcher webhookBatcher;
     private final ObjectMapper objectMapper;
 
-    // Thread-local storage for webhook results (since rules execute synchronously)
-    private final ThreadLocal<List<WebhookResult>> webhookResults = ThreadLocal.withInitial(ArrayList::new);
+    // Thread-local storage for queued webhooks (since rules execute synchronously)
+    private final ThreadLocal<List<PendingWebhook>> pendingWebhooks = ThreadLocal.withInitial(ArrayList::new);
+    // Batched webhook payloads collected while firing, by URL/method/headers/batch settings
+    private final ThreadLocal<Map<String, PendingBatch>> pendingBatches = ThreadLocal.withInitial(LinkedHashMap::new);
     private final ThreadLocal<List<String>> auditLogs = ThreadLocal.withInitial(ArrayList::new);
+    // Set for executions whose webhooks go to the outbox instead of being sent
+    private final ThreadLocal<Boolean> deferWebhooks = ThreadLocal.withInitial(() -> Boolean.FALSE);
+    private final ThreadLocal<List<WebhookDispatch>> deferredWebhooks = ThreadLocal.withInitial(ArrayList::new);
 
-    public ActionContext(RestTemplate restTemplate, ObjectMapper objectMapper) {
-        this.restTemplate = restTemplate;
+    public ActionContext(WebhookDispatcher webhookDispatcher, WebhookBatcher webhookBatcher,
+            ObjectMapper objectMapper) {
+        this.webhookDispatcher = webhookDispatcher;
+        this.webhookBatcher = webhookBatcher;
         this.objectMapper = objectMapper;
     }
 
@@ -42,50 +59,120 @@ public class ActionContext {
     }
 
     /**
-     * Execute a webhook call.
+     * Queue a webhook call with the whole fact as its body.
      */
     public void executeWebhook(String url, String method, DynamicFact fact, Map<String, String> headers) {
-        try {
-            HttpHeaders httpHeaders = new HttpHeaders();
-            httpHeaders.setContentType(MediaType.APPLICATION_JSON);
+        executeWebhook(url, method, fact, headers, (WebhookBodyTemplate) null);
+    }
 
-            if (headers != null) {
-                headers.forEach(httpHeaders::set);
+    /**
+     * Queue a webhook call. The body (the rendered template, or the whole
+     * fact without one) is built now; the call itself runs on the dispatcher
+     * so rule firing does not wait for the network, or is left for the
+     * outbox when webhooks are deferred.
+     */
+    public void executeWebhook(String url, String method, DynamicFact fact, Map<String, String> headers,
+            WebhookBodyTemplate bodyTemplate) {
+        WebhookDispatch dispatch;
+        try {
+            byte[] body = body(fact, bodyTemplate);
+            WebhookRequest request = new WebhookRequest(url, method, headers, body);
+            if (deferWebhooks.get()) {
+                dispatch = WebhookDispatch.deferred(TenantContext.getTenantId(), request);
+                deferredWebhooks.get().add(dispatch);
+            } else {
+                dispatch = webhookDispatcher.dispatch(request);
             }
+        } catch (Exception e) {
+            log.error("Webhook execution failed: {} {}", method, url, e);
+            dispatch = WebhookDispatch.failed(TenantContext.getTenantId(),
+                    new WebhookRequest(url, method, headers, null), e.getMessage());
+        }
+        pendingWebhooks.get().add(new PendingWebhook(fact, dispatch.getResult(), dispatch::resultOrPending));
+    }
 
-            String body = objectMapper.writeValueAsString(fact.getData());
-            HttpEntity<String> entity = new HttpEntity<>(body, httpHeaders);
-
-            HttpMethod httpMethod = HttpMethod.valueOf(method.toUpperCase());
-            ResponseEntity<String> response = restTemplate.exchange(url, httpMethod, entity, String.class);
+    /**
+     * Webhook call of DRL generated with the template source inline; the
+     * template is parsed on every call until the rule is regenerated.
+     */
+    public void executeWebhook(String url, String method, DynamicFact fact, Map<String, String> headers,
+            String bodyTemplate) {
+        executeWebhook(url, method, fact, headers, WebhookBodyTemplate.compile(bodyTemplate));
+    }
 
-            webhookResults.get().add(WebhookResult.builder()
-                    .url(url)
-                    .statusCode(response.getStatusCode().value())
-                    .response(response.getBody())
-                    .success(response.getStatusCode().is2xxSuccessful())
-                    .build());
+    public void executeBatchedWebhook(String url, String method, DynamicFact fact, Map<String, String> headers,
+            int maxSize, long lingerMs) {
+        executeBatchedWebhook(url, method, fact, headers, maxSize, lingerMs, (WebhookBodyTemplate) null);
+    }
 
-            log.info("Webhook executed: {} {} -> {}", method, url, response.getStatusCode());
+    /**
+     * Batched webhook of DRL generated with the template source inline; see
+     * executeWebhook.
+     */
+    public void executeBatchedWebhook(String url, String method, DynamicFact fact, Map<String, String> headers,
+            int maxSize, long lingerMs, String bodyTemplate) {
+        executeBatchedWebhook(url, method, fact, headers, maxSize, lingerMs,
+                WebhookBodyTemplate.compile(bodyTemplate));
+    }
 
+    /**
+     * Collect a payload for a batched webhook. Payloads of the same URL,
+     * method and headers are sent as one JSON array request of at most
+     * maxSize entries once firing is done, or after lingerMs to pick up
+     * payloads of other executions as well.
+     */
+    public void executeBatchedWebhook(String url, String method, DynamicFact fact, Map<String, String> headers,
+            int maxSize, long lingerMs, WebhookBodyTemplate bodyTemplate) {
+        try {
+            byte[] body = body(fact, bodyTemplate);
+            WebhookRequest target = new WebhookRequest(url, method, headers, null);
+            String key = target.getMethod() + "|" + url + "|" + new TreeMap<>(target.getHeaders()) + "|" + maxSize
+                    + "|" + lingerMs;
+            PendingWebhook pending = new PendingWebhook(fact, null, null);
+            pendingBatches.get().computeIfAbsent(key, k -> new PendingBatch(target, maxSize, lingerMs))
+                    .add(pending, body);
+            pendingWebhooks.get().add(pending);
         } catch (Exception e) {
             log.error("Webhook execution failed: {} {}", method, url, e);
-            webhookResults.get().add(WebhookResult.builder()
-                    .url(url)
-                    .statusCode(0)
-                    .response(e.getMessage())
-                    .success(false)
-                    .build());
+            WebhookDispatch failed = WebhookDispatch.failed(TenantContext.getTenantId(),
+                    new WebhookRequest(url, method, headers, null), e.getMessage());
+            pendingWebhooks.get().add(new PendingWebhook(fact, failed.getResult(), failed::resultOrPending));
         }
     }
 
     /**
-     * Get and clear webhook results for the current thread.
+     * Take the webhooks queued on the current thread, handing collected
+     * batches over first. The caller waits for them with QueuedWebhooks.await,
+     * once it holds no session or transaction.
+     *
+     * @param factIndexes position of each session fact in resultFacts, so
+     *                    results can be mapped back to the fact that triggered them
+     */
+    public QueuedWebhooks takeWebhooks(Map<DynamicFact, Integer> factIndexes) {
+        sendBatches();
+        QueuedWebhooks queued = new QueuedWebhooks(webhookDispatcher);
+        for (PendingWebhook pending : pendingWebhooks.get()) {
+            queued.add(pending.result, pending.resultOrPending, factIndexes.get(pending.fact));
+        }
+        pendingWebhooks.get().clear();
+        return queued;
+    }
+
+    /**
+     * Defer the current thread's webhooks to the outbox (true) or send them
+     * right away (false).
+     */
+    public void setDeferWebhooks(boolean defer) {
+        deferWebhooks.set(defer);
+    }
+
+    /**
+     * Get and clear the webhooks deferred on the current thread.
      */
-    public List<WebhookResult> getAndClearWebhookResults() {
-        List<WebhookResult> results = new ArrayList<>(webhookResults.get());
-        webhookResults.get().clear();
-        return results;
+    public List<WebhookDispatch> takeDeferredWebhooks() {
+        List<WebhookDispatch> deferred = new ArrayList<>(deferredWebhooks.get());
+        deferredWebhooks.get().clear();
+        return deferred;
     }
 
     /**
@@ -101,7 +188,93 @@ public class ActionContext {
      * Clear all thread-local state.
      */
     public void clear() {
-        webhookResults.get().clear();
+        pendingWebhooks.get().clear();
+        pendingBatches.get().clear();
+        deferredWebhooks.get().clear();
+        deferWebhooks.remove();
         auditLogs.get().clear();
     }
+
+    private byte[] body(DynamicFact fact, WebhookBodyTemplate bodyTemplate) throws IOException {
+        if (bodyTemplate == null) {
+            return objectMapper.writeValueAsBytes(fact.getData());
+        }
+        return bodyTemplate.render(fact, objectMapper);
+    }
+
+    /**
+     * Hand the batches collected while firing to the batcher, or write them
+     * to the outbox as one entry per chunk when webhooks are deferred.
+     */
+    private void sendBatches() {
+        Map<String, PendingBatch> batches = pendingBatches.get();
+        for (PendingBatch batch : batches.values()) {
+            if (deferWebhooks.get()) {
+                int size = Math.max(1, batch.maxSize);
+                for (int from = 0; from < batch.items.size(); from += size) {
+                    int to = Math.min(from + size, batch.items.size());
+                    byte[] body = WebhookBatcher.jsonArray(batch.payloads.subList(from, to));
+                    WebhookDispatch dispatch = WebhookDispatch.deferred(TenantContext.getTenantId(),
+                            new WebhookRequest(batch.target.getUrl(), batch.target.getMethod(),
+                                    batch.target.getHeaders(), body));
+                    deferredWebhooks.get().add(dispatch);
+                    for (int i = from; i < to; i++) {
+                        WebhookResult queued = dispatch.resultOrPending().copy();
+                        queued.setBatchIndex(i - from);
+                        queued.setBatchSize(to - from);
+                        batch.items.get(i).complete(CompletableFuture.completedFuture(queued), () -> queued);
+                    }
+                }
+            } else {
+                List<WebhookBatcher.BatchedCall> calls = webhookBatcher.submit(batch.target, batch.payloads,
+                        batch.maxSize, batch.lingerMs);
+                for (int i = 0; i < calls.size(); i++) {
+                    WebhookBatcher.BatchedCall call = calls.get(i);
+                    batch.items.get(i).complete(call.getResult(), call::resultOrPending);
+                }
+            }
+        }
+        batches.clear();
+    }
+
+    /**
+     * A webhook of the current execution and the fact that triggered it.
+     * Batched webhooks get their result once the batch is handed over.
+     */
+    private static final class PendingWebhook {
+        private final DynamicFact fact;
+        private CompletableFuture<WebhookResult> result;
+        private Supplier<WebhookResult> resultOrPending;
+
+        private PendingWebhook(DynamicFact fact, CompletableFuture<WebhookResult> result,
+                Supplier<WebhookResult> resultOrPending) {
+            this.fact = fact;
+            this.result = result;
+            this.resultOrPending = resultOrPending;
+        }
+
+        private void complete(CompletableFuture<WebhookResult> result, Supplier<WebhookResult> resultOrPending) {
+            this.result = result;
+            this.resultOrPending = resultOrPending;
+        }
+    }
+
+    private static final class PendingBatch {
+        private final WebhookRequest target;
+        private final int maxSize;
+        private final long lingerMs;
+        private final List<PendingWebhook> items = new ArrayList<>();
+        private final List<byte[]> payloads = new ArrayList<>();
+
+        private PendingBatch(WebhookRequest target, int maxSize, long lingerMs) {
+            this.target = target;
+            this.maxSize = maxSize;
+            this.lingerMs = lingerMs;
+        }
+
+        private void add(PendingWebhook item, byte[] payload) {
+            items.add(item);
+            payloads.add(payload);
+        }
+    }
 }
@@ -3,12 +3,14 @@ package com.ruleengine.drools;
 import com.ruleengine.dto.ExecuteRulesResponse;
 import com.ruleengine.dto.ExecuteRulesResponse.FiredRule;
 import com.ruleengine.model.Rule;
+import com.ruleengine.webhook.QueuedWebhooks;
 import org.kie.api.KieBase;
 import org.kie.api.KieServices;
 import org.kie.api.builder.KieBuilder;
 import org.kie.api.builder.KieFileSystem;
 import org.kie.api.builder.Message;
 import org.kie.api.event.rule.AfterMatchFiredEvent;
+import org.kie.api.event.rule.BeforeMatchFiredEvent;
 import org.kie.api.event.rule.DefaultAgendaEventListener;
 import org.kie.api.runtime.KieContainer;
 import org.kie.api.runtime.KieSession;
@@ -17,7 +19,6 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /**
@@ -27,15 +28,15 @@ import java.util.stream.Collectors;
 public class DroolsService {
 
     private static final Logger log = LoggerFactory.getLogger(DroolsService.class);
+    // getValue(path, Integer.class) as emitted by older versions of the transpiler
+    private static final String LEGACY_INTEGER_ACCESSOR = ", Integer.class)";
+
     private final ActionContext actionContext;
 
     public DroolsService(ActionContext actionContext) {
         this.actionContext = actionContext;
     }
 
-    // Cache of compiled knowledge bases by schema ID
-    private final Map<Long, KieBase> kieBaseCache = new ConcurrentHashMap<>();
-
     /**
      * Compile DRL rules into a KieBase.
      */
@@ -67,16 +68,55 @@ public class DroolsService {
      * Execute rules against facts.
      */
     public ExecuteRulesResponse executeRules(List<Rule> rules, List<DynamicFact> facts) {
-        long startTime = System.currentTimeMillis();
+        return executeRules(rules, facts, RuleExecutionOptions.defaults());
+    }
 
+    /**
+     * Execute rules against facts with per-execution options, waiting for
+     * their webhooks up to the configured default.
+     */
+    public ExecuteRulesResponse executeRules(List<Rule> rules, List<DynamicFact> facts,
+            RuleExecutionOptions options) {
+        long startTime = System.currentTimeMillis();
+        KieBase kieBase;
+        Map<String, Long> ruleIds;
         try {
-            // Compile rules
-            List<String> drlContents = rules.stream()
-                    .map(Rule::getGeneratedDrl)
-                    .filter(drl -> drl != null && !drl.isEmpty())
-                    .collect(Collectors.toList());
+            List<String> drlContents = drlOf(rules);
+            kieBase = drlContents.isEmpty() ? null : compileRules(drlContents);
+            ruleIds = ruleIdsByName(rules);
+        } catch (Exception e) {
+            return failed(e, startTime);
+        }
+        ExecuteRulesResponse response = executeRules(kieBase, ruleIds, facts, options);
+        awaitWebhooks(response, null);
+        return response;
+    }
+
+    /**
+     * Wait up to waitMs for the webhooks an execution queued and replace its
+     * webhook results with theirs. Callers run it once they no longer hold a
+     * transaction, so a slow endpoint does not keep a connection busy. A null
+     * wait uses the configured default, 0 keeps the PENDING results.
+     */
+    public void awaitWebhooks(ExecuteRulesResponse response, Long waitMs) {
+        QueuedWebhooks webhooks = response.getQueuedWebhooks();
+        if (webhooks != null) {
+            response.setWebhookResults(webhooks.await(waitMs));
+            response.setQueuedWebhooks(null);
+        }
+    }
 
-            if (drlContents.isEmpty()) {
+    /**
+     * Execute facts against an already compiled KieBase. A null KieBase (no
+     * rule has DRL) returns the facts unchanged. Webhook results are those
+     * known right after firing; see awaitWebhooks.
+     */
+    public ExecuteRulesResponse executeRules(KieBase kieBase, Map<String, Long> ruleIdsByName,
+            List<DynamicFact> facts, RuleExecutionOptions options) {
+        long startTime = System.currentTimeMillis();
+
+        try {
+            if (kieBase == null) {
                 return ExecuteRulesResponse.builder()
                         .success(true)
                         .resultFacts(facts.stream().map(DynamicFact::getData).collect(Collectors.toList()))
@@ -85,22 +125,46 @@ public class DroolsService {
                         .build();
             }
 
-            KieBase kieBase = compileRules(drlContents);
+            Map<String, WebhookBodyTemplate> webhookBodies = webhookBodies(kieBase, options);
             KieSession kieSession = kieBase.newKieSession();
 
             // Set globals
             kieSession.setGlobal("actionContext", actionContext);
+            actionContext.setDeferWebhooks(options.isDeferWebhooks());
+            if (declaresGlobal(kieBase, ReferenceDataLookup.GLOBAL_NAME)) {
+                kieSession.setGlobal(ReferenceDataLookup.GLOBAL_NAME, options.getReferenceData() != null
+                        ? options.getReferenceData()
+                        : ReferenceDataLookup.empty());
+            }
+            webhookBodies.forEach(kieSession::setGlobal);
 
-            // Track fired rules
+            // Track fired rules and the time spent in their consequences
             Map<String, Integer> firedRuleCounts = new HashMap<>();
+            Map<String, Long> firedRuleNanos = new HashMap<>();
             kieSession.addEventListener(new DefaultAgendaEventListener() {
+                private long firedAt;
+
+                @Override
+                public void beforeMatchFired(BeforeMatchFiredEvent event) {
+                    firedAt = System.nanoTime();
+                }
+
                 @Override
                 public void afterMatchFired(AfterMatchFiredEvent event) {
                     String ruleName = event.getMatch().getRule().getName();
                     firedRuleCounts.merge(ruleName, 1, Integer::sum);
+                    firedRuleNanos.merge(ruleName, System.nanoTime() - firedAt, Long::sum);
                 }
             });
 
+            // Only re-fire rules whose read fields changed when the rule set has MODIFY actions
+            FieldChangeAgendaFilter changeFilter = null;
+            RuleDependencyGraph graph = options.getDependencyGraph();
+            if (graph != null && graph.hasWrites()) {
+                changeFilter = new FieldChangeAgendaFilter(graph);
+                kieSession.addEventListener(changeFilter);
+            }
+
             // Insert facts
             for (DynamicFact fact : facts) {
                 kieSession.insert(fact);
@@ -109,8 +173,13 @@ public class DroolsService {
             // Fire rules with a limit to prevent infinite loops
             // (modify() can cause rules to re-fire)
             int maxRuleFirings = 1000;
-            int rulesFired = kieSession.fireAllRules(maxRuleFirings);
+            int rulesFired = changeFilter != null
+                    ? kieSession.fireAllRules(changeFilter, maxRuleFirings)
+                    : kieSession.fireAllRules(maxRuleFirings);
             log.info("Fired {} rules (max: {})", rulesFired, maxRuleFirings);
+            if (changeFilter != null && changeFilter.getSuppressed() > 0) {
+                log.debug("Suppressed {} re-activations with unchanged inputs", changeFilter.getSuppressed());
+            }
 
             if (rulesFired >= maxRuleFirings) {
                 log.warn(
@@ -124,42 +193,103 @@ public class DroolsService {
                     .collect(Collectors.toList());
 
             // Build fired rules list
-            Map<String, Long> ruleNameToId = rules.stream()
-                    .collect(Collectors.toMap(Rule::getName, Rule::getId));
-
             List<FiredRule> firedRules = firedRuleCounts.entrySet().stream()
                     .map(e -> FiredRule.builder()
                             .ruleName(e.getKey())
-                            .ruleId(ruleNameToId.get(e.getKey()))
+                            .ruleId(ruleIdsByName.get(e.getKey()))
                             .fireCount(e.getValue())
+                            .executionTimeMicros(firedRuleNanos.getOrDefault(e.getKey(), 0L) / 1000)
                             .build())
                     .collect(Collectors.toList());
 
-            // Get webhook results
-            List<ExecuteRulesResponse.WebhookResult> webhookResults = actionContext.getAndClearWebhookResults();
-
             kieSession.dispose();
 
-            return ExecuteRulesResponse.builder()
+            // Webhooks were only queued while firing; the caller waits for them (see awaitWebhooks)
+            Map<DynamicFact, Integer> factIndexes = new IdentityHashMap<>();
+            for (int i = 0; i < facts.size(); i++) {
+                factIndexes.put(facts.get(i), i);
+            }
+            QueuedWebhooks webhooks = actionContext.takeWebhooks(factIndexes);
+
+            ExecuteRulesResponse response = ExecuteRulesResponse.builder()
                     .success(true)
                     .resultFacts(resultFacts)
                     .firedRules(firedRules)
-                    .webhookResults(webhookResults)
+                    .webhookResults(webhooks.await(0L))
                     .executionTimeMs(System.currentTimeMillis() - startTime)
                     .build();
+            response.setQueuedWebhooks(webhooks);
+            response.setDeferredWebhooks(actionContext.takeDeferredWebhooks());
+            actionContext.setDeferWebhooks(false);
+            return response;
 
         } catch (Exception e) {
-            log.error("Rule execution failed", e);
-            actionContext.clear();
-
-            return ExecuteRulesResponse.builder()
-                    .success(false)
-                    .errorMessage(e.getMessage())
-                    .executionTimeMs(System.currentTimeMillis() - startTime)
-                    .build();
+            return failed(e, startTime);
         }
     }
 
+    private ExecuteRulesResponse failed(Exception e, long startTime) {
+        log.error("Rule execution failed", e);
+        actionContext.clear();
+
+        return ExecuteRulesResponse.builder()
+                .success(false)
+                .errorMessage(e.getMessage())
+                .executionTimeMs(System.currentTimeMillis() - startTime)
+                .build();
+    }
+
+    /**
+     * The generated DRL of the rules that have one. DRL stored before integer
+     * comparisons were widened to Long is upgraded on the way, so wide values
+     * keep matching without regenerating every rule.
+     */
+    public List<String> drlOf(List<Rule> rules) {
+        return rules.stream()
+                .map(Rule::getGeneratedDrl)
+                .filter(drl -> drl != null && !drl.isEmpty())
+                .map(drl -> drl.replace(LEGACY_INTEGER_ACCESSOR, ", Long.class)"))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Rule IDs by DRL rule name, as fired rules are reported by name.
+     */
+    public Map<String, Long> ruleIdsByName(List<Rule> rules) {
+        return rules.stream()
+                .collect(Collectors.toMap(Rule::getName, Rule::getId));
+    }
+
+    /**
+     * Only rules that use the global declare it, and setting an undeclared
+     * global fails.
+     */
+    private boolean declaresGlobal(KieBase kieBase, String name) {
+        return kieBase.getKiePackages().stream()
+                .flatMap(p -> p.getGlobalVariables().stream())
+                .anyMatch(g -> name.equals(g.getName()));
+    }
+
+    /**
+     * The compiled body template of each webhook body global the rules
+     * declare, from the execution options.
+     */
+    private Map<String, WebhookBodyTemplate> webhookBodies(KieBase kieBase, RuleExecutionOptions options) {
+        Map<String, WebhookBodyTemplate> bodies = new HashMap<>();
+        kieBase.getKiePackages().stream()
+                .flatMap(p -> p.getGlobalVariables().stream())
+                .map(g -> g.getName())
+                .filter(name -> name.startsWith(WebhookBodyTemplate.GLOBAL_PREFIX))
+                .forEach(name -> {
+                    WebhookBodyTemplate template = options.getWebhookBodies().get(name);
+                    if (template == null) {
+                        throw new IllegalStateException("No compiled webhook body template for " + name);
+                    }
+                    bodies.put(name, template);
+                });
+        return bodies;
+    }
+
     /**
      * Validate DRL syntax without executing.
      */
@@ -179,18 +309,4 @@ public class DroolsService {
             return Collections.singletonList("ERROR: " + e.getMessage());
         }
     }
-
-    /**
-     * Invalidate cached KieBase for a schema.
-     */
-    public void invalidateCache(Long schemaId) {
-        kieBaseCache.remove(schemaId);
-    }
-
-    /**
-     * Clear all cached KieBases.
-     */
-    public void clearCache() {
-        kieBaseCache.clear();
-    }
 }
@@ -1,7 +1,10 @@
 package com.ruleengine.drools;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A dynamic fact that can hold any data structure.
@@ -12,6 +15,10 @@ public class DynamicFact {
     private String factType;
     private Map<String, Object> data;
 
+    // Field-level change tracking: version of the last write per path
+    private long version;
+    private final Map<String, Long> fieldVersions = new HashMap<>();
+
     public String getFactType() {
         return factType;
     }
@@ -53,50 +60,41 @@ public class DynamicFact {
     /**
      * Get a value by path (supports nested paths like "customer.address.city").
      * For simple top-level fields, use get(key) instead for better performance.
+     * Nested paths are parsed once and reused (see Path.of).
      */
-    @SuppressWarnings("unchecked")
     public Object getValue(String path) {
         if (path == null || path.isEmpty()) {
             return null;
         }
 
         // For simple paths (no dots), use direct map access
-        if (!path.contains(".") && !path.contains("[")) {
+        if (path.indexOf('.') < 0 && path.indexOf('[') < 0) {
             return get(path);
         }
+        return getValue(Path.of(path));
+    }
 
-        String[] parts = path.split("\\.");
+    /**
+     * Get a value by a precompiled path. Same semantics as getValue(String)
+     * without re-parsing the path on every call.
+     */
+    @SuppressWarnings("unchecked")
+    public Object getValue(Path path) {
         Object current = data;
-
-        for (String part : parts) {
-            if (current == null) {
+        for (int i = 0; i < path.fields.length; i++) {
+            if (!(current instanceof Map)) {
                 return null;
             }
-
-            // Handle array index notation like "items[0]"
-            if (part.contains("[") && part.contains("]")) {
-                String fieldName = part.substring(0, part.indexOf('['));
-                int index = Integer.parseInt(part.substring(part.indexOf('[') + 1, part.indexOf(']')));
-
-                if (current instanceof Map) {
-                    current = ((Map<String, Object>) current).get(fieldName);
-                }
-
-                if (current instanceof java.util.List) {
-                    java.util.List<?> list = (java.util.List<?>) current;
-                    if (index >= 0 && index < list.size()) {
-                        current = list.get(index);
-                    } else {
-                        return null;
-                    }
+            current = ((Map<String, Object>) current).get(path.fields[i]);
+            int index = path.indexes[i];
+            if (index >= 0 && current instanceof java.util.List) {
+                java.util.List<?> list = (java.util.List<?>) current;
+                if (index >= list.size()) {
+                    return null;
                 }
-            } else if (current instanceof Map) {
-                current = ((Map<String, Object>) current).get(part);
-            } else {
-                return null;
+                current = list.get(index);
             }
         }
-
         return current;
     }
 
@@ -132,6 +130,51 @@ public class DynamicFact {
 
         // Set the final value
         current.put(parts[parts.length - 1], value);
+        fieldVersions.put(path, ++version);
+    }
+
+    /**
+     * Current write version of this fact. Increases on every setValue.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Check whether any of the given paths was written after the given version.
+     */
+    public boolean changedSince(long sinceVersion, Iterable<String> paths) {
+        if (version <= sinceVersion) {
+            return false;
+        }
+        for (Map.Entry<String, Long> entry : fieldVersions.entrySet()) {
+            if (entry.getValue() <= sinceVersion) {
+                continue;
+            }
+            for (String path : paths) {
+                if (pathsOverlap(entry.getKey(), path)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Two paths overlap when they are equal or one is a parent of the other
+     * (e.g. "customer" and "customer.tier", or "items" and "items[0].price").
+     */
+    public static boolean pathsOverlap(String a, String b) {
+        if (a.equals(b)) {
+            return true;
+        }
+        String shorter = a.length() < b.length() ? a : b;
+        String longer = a.length() < b.length() ? b : a;
+        if (!longer.startsWith(shorter)) {
+            return false;
+        }
+        char next = longer.charAt(shorter.length());
+        return next == '.' || next == '[';
     }
 
     /**
@@ -158,7 +201,12 @@ public class DynamicFact {
             return (T) value.toString();
         }
         if (type == Integer.class && value instanceof Number) {
-            return (T) Integer.valueOf(((Number) value).intValue());
+            long longValue = ((Number) value).longValue();
+            if (longValue < Integer.MIN_VALUE || longValue > Integer.MAX_VALUE) {
+                // Neither truncate nor pretend the value is missing; wide values are read as Long
+                throw new ArithmeticException("Value of '" + path + "' does not fit an Integer: " + longValue);
+            }
+            return (T) Integer.valueOf((int) longValue);
         }
         if (type == Long.class && value instanceof Number) {
             return (T) Long.valueOf(((Number) value).longValue());
@@ -172,6 +220,97 @@ public class DynamicFact {
         return null;
     }
 
+    /**
+     * Get a value normalized for use as a join key: integral numbers become
+     * Long and everything else its string form, so an id sent as 42, 42L or
+     * "42" joins the same way and hashes to the same index bucket.
+     */
+    public Object getKey(String path) {
+        Object value = getValue(path);
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Long) {
+            return value;
+        }
+        if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return ((Number) value).longValue();
+        }
+        if (value instanceof Number) {
+            double d = ((Number) value).doubleValue();
+            return d == Math.rint(d) && Math.abs(d) < 0x1p63 ? (Object) (long) d : value.toString();
+        }
+        String text = value.toString();
+        // Codes with leading zeros ("02134") stay strings
+        boolean leadingZero = text.length() > 1 && text.charAt(0) == '0';
+        if (!text.isEmpty() && text.length() <= 19 && !leadingZero
+                && (Character.isDigit(text.charAt(0)) || text.charAt(0) == '-')) {
+            try {
+                return Long.parseLong(text);
+            } catch (NumberFormatException e) {
+                // not an integer, keep the string
+            }
+        }
+        return text;
+    }
+
+    /**
+     * Check if the value at a path is numeric. Guards getLong/getDouble, whose
+     * sentinels would otherwise take part in comparisons.
+     */
+    public boolean isNumber(String path) {
+        return getValue(path) instanceof Number;
+    }
+
+    /**
+     * Get a numeric value as a primitive long, without boxing.
+     * Returns Long.MIN_VALUE when the value is missing or not a number.
+     */
+    public long getLong(String path) {
+        Object value = getValue(path);
+        return value instanceof Number ? ((Number) value).longValue() : Long.MIN_VALUE;
+    }
+
+    /**
+     * Get a numeric value as a primitive double, without boxing.
+     * Returns NaN when the value is missing or not a number.
+     */
+    public double getDouble(String path) {
+        Object value = getValue(path);
+        return value instanceof Number ? ((Number) value).doubleValue() : Double.NaN;
+    }
+
+    /**
+     * Get a numeric value as an exact BigDecimal, for money and other decimal
+     * fields. Doubles are converted through their shortest decimal form, so
+     * 0.1 stays 0.1. Returns null when the value is missing or not numeric.
+     */
+    public BigDecimal getDecimal(String path) {
+        Object value = getValue(path);
+        if (value instanceof BigDecimal) {
+            return (BigDecimal) value;
+        }
+        if (value instanceof BigInteger) {
+            return new BigDecimal((BigInteger) value);
+        }
+        if (value instanceof Double || value instanceof Float) {
+            double d = ((Number) value).doubleValue();
+            return Double.isFinite(d) ? BigDecimal.valueOf(d) : null;
+        }
+        if (value instanceof Number) {
+            return BigDecimal.valueOf(((Number) value).longValue());
+        }
+        if (value instanceof String) {
+            // Money is often sent as a string to keep its precision
+            try {
+                return new BigDecimal((String) value);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
     /**
      * Create a copy of this fact.
      */
@@ -194,4 +333,70 @@ public class DynamicFact {
         }
         return copy;
     }
+
+    /**
+     * A field path ("customer.address.city", "items[0].sku") parsed once,
+     * for code that reads the same field of many facts.
+     */
+    public static final class Path {
+        private static final int MAX_CACHED_PATHS = 10_000;
+        private static final Map<String, Path> CACHE = new ConcurrentHashMap<>();
+
+        private final String text;
+        private final String[] fields;
+        // Array index applied after each field, -1 for none
+        private final int[] indexes;
+
+        private Path(String text, String[] fields, int[] indexes) {
+            this.text = text;
+            this.fields = fields;
+            this.indexes = indexes;
+        }
+
+        /**
+         * The compiled form of a path, shared between calls. Rules name the
+         * same few paths on every evaluation; past MAX_CACHED_PATHS distinct
+         * paths, further ones are compiled per call.
+         */
+        public static Path of(String path) {
+            Path compiled = CACHE.get(path);
+            if (compiled == null) {
+                compiled = compile(path);
+                if (CACHE.size() < MAX_CACHED_PATHS) {
+                    CACHE.putIfAbsent(path, compiled);
+                }
+            }
+            return compiled;
+        }
+
+        public static Path compile(String path) {
+            if (path == null || path.isEmpty()) {
+                throw new IllegalArgumentException("Path must not be empty");
+            }
+            String[] parts = path.split("\\.");
+            String[] fields = new String[parts.length];
+            int[] indexes = new int[parts.length];
+            for (int i = 0; i < parts.length; i++) {
+                String part = parts[i];
+                int open = part.indexOf('[');
+                if (open >= 0 && part.endsWith("]")) {
+                    fields[i] = part.substring(0, open);
+                    try {
+                        indexes[i] = Integer.parseInt(part.substring(open + 1, part.length() - 1));
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("Invalid array index in path: " + path);
+                    }
+                } else {
+                    fields[i] = part;
+                    indexes[i] = -1;
+                }
+            }
+            return new Path(path, fields, indexes);
+        }
+
+        @Override
+        public String toString() {
+            return text;
+        }
+    }
 }
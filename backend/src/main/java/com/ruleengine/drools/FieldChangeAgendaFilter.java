@@ -0,0 +1,87 @@
+package com.ruleengine.drools;
+
+import org.kie.api.event.rule.AfterMatchFiredEvent;
+import org.kie.api.event.rule.DefaultAgendaEventListener;
+import org.kie.api.runtime.rule.AgendaFilter;
+import org.kie.api.runtime.rule.Match;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Agenda filter that lets a rule re-fire on a fact only when a field the rule
+ * reads was written since the rule last fired on that fact.
+ *
+ * modify() re-evaluates every rule against the fact, so without this filter a
+ * MODIFY on one field re-fires every other rule that still matches. Rules
+ * that are not part of the dependency graph are always accepted. Register it
+ * as an agenda listener too, so that a rule's own writes are recorded as seen.
+ */
+public class FieldChangeAgendaFilter extends DefaultAgendaEventListener implements AgendaFilter {
+
+    private final RuleDependencyGraph graph;
+
+    // rule name -> fact -> fact version when the rule last fired on it
+    private final Map<String, Map<DynamicFact, Long>> lastFired = new HashMap<>();
+
+    private int suppressed;
+
+    public FieldChangeAgendaFilter(RuleDependencyGraph graph) {
+        this.graph = graph;
+    }
+
+    @Override
+    public boolean accept(Match match) {
+        String ruleName = match.getRule().getName();
+        Set<String> reads = graph.readsOf(ruleName);
+        if (reads == null) {
+            return true;
+        }
+
+        Map<DynamicFact, Long> firedOn = lastFired.getOrDefault(ruleName, Map.of());
+        boolean accept = false;
+        boolean sawFact = false;
+
+        for (Object object : match.getObjects()) {
+            if (!(object instanceof DynamicFact)) {
+                continue;
+            }
+            sawFact = true;
+            DynamicFact fact = (DynamicFact) object;
+            Long since = firedOn.get(fact);
+            if (since == null || fact.changedSince(since, reads)) {
+                accept = true;
+            }
+        }
+
+        if (sawFact && !accept) {
+            suppressed++;
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void afterMatchFired(AfterMatchFiredEvent event) {
+        Match match = event.getMatch();
+        if (graph.readsOf(match.getRule().getName()) == null) {
+            return;
+        }
+        Map<DynamicFact, Long> firedOn = lastFired.computeIfAbsent(match.getRule().getName(),
+                k -> new IdentityHashMap<>());
+        for (Object object : match.getObjects()) {
+            if (object instanceof DynamicFact) {
+                firedOn.put((DynamicFact) object, ((DynamicFact) object).getVersion());
+            }
+        }
+    }
+
+    /**
+     * Number of activations that were dropped because nothing they read changed.
+     */
+    public int getSuppressed() {
+        return suppressed;
+    }
+}
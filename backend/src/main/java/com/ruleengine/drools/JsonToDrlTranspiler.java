@@ -1,16 +1,24 @@
 package com.ruleengine.drools;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ruleengine.dto.RuleDefinition;
 import com.ruleengine.dto.RuleDefinition.Condition;
 import com.ruleengine.dto.RuleDefinition.ConditionGroup;
+import com.ruleengine.dto.RuleDefinition.Join;
+import com.ruleengine.dto.RuleDefinition.JoinKey;
 import com.ruleengine.dto.RuleDefinition.RuleAction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -70,10 +78,77 @@ public class JsonToDrlTranspiler {
             Map.entry("finishedBy", "finishedby"),
             Map.entry("coincides", "coincides"));
 
+    private static final Set<String> NUMERIC_OPERATORS = Set.of("==", "!=", ">", ">=", "<", "<=");
+
+    // Schema formats compared exactly with BigDecimal instead of double
+    private static final Set<String> DECIMAL_FORMATS = Set.of("decimal", "money", "currency");
+
+    // Payloads per request for batched webhooks without an explicit size
+    private static final int DEFAULT_WEBHOOK_BATCH_SIZE = 100;
+
+    private enum NumericKind {
+        LONG, DOUBLE, DECIMAL
+    }
+
     /**
      * Transpile a rule definition to DRL.
+     * Numeric comparisons are typed from the literal values only.
      */
     public String transpile(RuleDefinition rule, String packageName, String factClassName) {
+        return transpile(rule, packageName, factClassName, null);
+    }
+
+    /**
+     * Transpile a rule definition to DRL, using the fact type's JSON schema to
+     * pick primitive (integer, number) or BigDecimal (decimal/money formats)
+     * comparisons.
+     */
+    public String transpile(RuleDefinition rule, String packageName, String factClassName, String jsonSchema) {
+        return transpile(rule, packageName, factClassName, jsonSchema, Map.of());
+    }
+
+    /**
+     * Transpile a rule definition with joins to DRL. joinSchemas maps the fact
+     * type of each joined schema to its JSON schema.
+     */
+    public String transpile(RuleDefinition rule, String packageName, String factClassName, String jsonSchema,
+            Map<String, String> joinSchemas) {
+        return generateDrl(rule, packageName, factClassName,
+                new TranspileContext(parseSchemaProperties(jsonSchema), joinSchemas != null ? joinSchemas : Map.of(),
+                        new LinkedHashSet<>()));
+    }
+
+    /**
+     * State of one transpile call, passed down instead of kept on this
+     * shared bean.
+     */
+    private static final class TranspileContext {
+        // Schema "properties" node of the fact type whose pattern is generated,
+        // used to type numeric comparisons
+        private final JsonNode schemaProperties;
+        // JSON schemas of joined fact types, keyed by fact type
+        private final Map<String, String> joinSchemas;
+        // Sources of the webhook body templates the actions use, declared as globals
+        private final Set<String> webhookBodies;
+
+        private TranspileContext(JsonNode schemaProperties, Map<String, String> joinSchemas,
+                Set<String> webhookBodies) {
+            this.schemaProperties = schemaProperties;
+            this.joinSchemas = joinSchemas;
+            this.webhookBodies = webhookBodies;
+        }
+
+        /**
+         * The same call, generating a pattern of a fact type with the given
+         * schema properties.
+         */
+        private TranspileContext withSchema(JsonNode schemaProperties) {
+            return new TranspileContext(schemaProperties, joinSchemas, webhookBodies);
+        }
+    }
+
+    private String generateDrl(RuleDefinition rule, String packageName, String factClassName,
+            TranspileContext context) {
         log.info("Transpiling rule '{}' with factClassName: '{}'", rule.getName(), factClassName);
         StringBuilder drl = new StringBuilder();
 
@@ -84,10 +159,30 @@ public class JsonToDrlTranspiler {
         drl.append("import java.util.*;\n");
         drl.append("import java.time.*;\n");
         drl.append("import com.ruleengine.drools.DynamicFact;\n");
-        drl.append("import com.ruleengine.drools.ActionContext;\n\n");
+        drl.append("import com.ruleengine.drools.ActionContext;\n");
+        // Actions first, for the body template globals they use
+        String rhs = generateRHS(rule.getActions(), context);
+        if (!context.webhookBodies.isEmpty()) {
+            drl.append("import com.ruleengine.drools.WebhookBodyTemplate;\n");
+        }
+        boolean usesReferenceData = usesReferenceData(rule.getConditions())
+                || (rule.getJoins() != null && rule.getJoins().stream()
+                        .anyMatch(j -> j != null && usesReferenceData(j.getConditions())));
+        if (usesReferenceData) {
+            drl.append("import com.ruleengine.drools.ReferenceDataLookup;\n");
+        }
+        drl.append("\n");
 
         // Global for action executor
-        drl.append("global ActionContext actionContext;\n\n");
+        drl.append("global ActionContext actionContext;\n");
+        if (usesReferenceData) {
+            drl.append("global ReferenceDataLookup ").append(ReferenceDataLookup.GLOBAL_NAME).append(";\n");
+        }
+        for (String bodyTemplate : context.webhookBodies) {
+            drl.append("global WebhookBodyTemplate ").append(WebhookBodyTemplate.globalName(bodyTemplate))
+                    .append(";\n");
+        }
+        drl.append("\n");
 
         // Rule definition
         drl.append("rule \"").append(escapeString(rule.getName())).append("\"\n");
@@ -134,13 +229,12 @@ public class JsonToDrlTranspiler {
         drl.append("    when\n");
 
         // Generate LHS (conditions)
-        String lhs = generateLHS(rule.getConditions(), factClassName);
+        String lhs = generateLHS(rule.getConditions(), factClassName, activeJoins(rule.getJoins()), context);
         drl.append(lhs);
 
         drl.append("    then\n");
 
-        // Generate RHS (actions)
-        String rhs = generateRHS(rule.getActions());
+        // RHS (actions)
         drl.append(rhs);
 
         drl.append("end\n");
@@ -151,44 +245,124 @@ public class JsonToDrlTranspiler {
     /**
      * Generate the Left-Hand Side (conditions) of the rule.
      */
-    private String generateLHS(ConditionGroup conditions, String factClassName) {
+    private String generateLHS(ConditionGroup conditions, String factClassName, List<Join> joins,
+            TranspileContext context) {
         StringBuilder lhs = new StringBuilder();
 
+        // Join keys are bound in the pattern of the fact they are read from and
+        // compared with == in the joined pattern, which Drools hash-indexes.
+        // Drools treats null == null as true, so a joined fact without the key
+        // never matches: facts missing their keys do not join each other
+        Map<String, List<String>> keyBindings = new HashMap<>();
+        List<List<String>> keyConstraints = new ArrayList<>();
+        Map<String, String> aliasTypes = new HashMap<>();
+        for (int j = 0; j < joins.size(); j++) {
+            Join join = joins.get(j);
+            String source = join.getSourceAlias() != null ? join.getSourceAlias().trim() : "";
+            String sourceType = source.isEmpty() ? factClassName : aliasTypes.get(source);
+            List<String> constraints = new ArrayList<>();
+            for (int k = 0; k < join.getOn().size(); k++) {
+                JoinKey key = join.getOn().get(k);
+                String variable = "$jk" + j + "_" + k;
+                keyBindings.computeIfAbsent(source, a -> new ArrayList<>())
+                        .add(String.format("%s : getKey(\"%s\")", variable, sanitizePath(key.getField(), sourceType)));
+                String joinField = sanitizePath(key.getJoinField(), join.getFactType());
+                constraints.add(String.format("getKey(\"%s\") != null", joinField));
+                constraints.add(String.format("getKey(\"%s\") == %s", joinField, variable));
+            }
+            keyConstraints.add(constraints);
+            aliasTypes.put(join.getAlias(), join.getFactType());
+        }
+
         // Bind the main fact
-        lhs.append("        $fact : DynamicFact(\n");
-        lhs.append("            factType == \"").append(factClassName).append("\"");
+        lhs.append(generatePattern("$fact : ", factClassName, conditions, List.of(),
+                keyBindings.getOrDefault("", List.of()), context));
+
+        // Joined facts
+        for (int j = 0; j < joins.size(); j++) {
+            Join join = joins.get(j);
+            TranspileContext joinContext = context.withSchema(
+                    parseSchemaProperties(context.joinSchemas.get(join.getFactType())));
+            String prefix = join.isNegated() ? "not " : "$" + join.getAlias() + " : ";
+            lhs.append(generatePattern(prefix, join.getFactType(), join.getConditions(), keyConstraints.get(j),
+                    keyBindings.getOrDefault(join.getAlias(), List.of()), joinContext));
+        }
+
+        return lhs.toString();
+    }
 
+    private String generatePattern(String prefix, String factType, ConditionGroup conditions,
+            List<String> keyConstraints, List<String> bindings, TranspileContext context) {
+        StringBuilder pattern = new StringBuilder();
+        pattern.append("        ").append(prefix).append("DynamicFact(\n");
+        pattern.append("            factType == \"").append(factType).append("\"");
+
+        List<String> constraints = new ArrayList<>(keyConstraints);
         if (conditions != null && conditions.getConditions() != null && !conditions.getConditions().isEmpty()) {
             // Store fact class name for path sanitization
-            this.currentFactType = factClassName;
-            List<String> conditionStrings = conditions.getConditions().stream()
-                    .map(this::generateCondition)
-                    .filter(s -> s != null && !s.isEmpty())
-                    .collect(Collectors.toList());
-
-            if (!conditionStrings.isEmpty()) {
-                lhs.append(",\n            ");
-                lhs.append(String.join(",\n            ", conditionStrings));
-            }
+            this.currentFactType = factType;
+            conditions.getConditions().stream()
+                    .map(c -> generateCondition(c, context))
+                    .filter(c -> c != null && !c.isEmpty())
+                    .forEach(constraints::add);
             this.currentFactType = null;
         }
+        constraints.addAll(bindings);
 
-        lhs.append("\n        )\n");
+        if (!constraints.isEmpty()) {
+            pattern.append(",\n            ");
+            pattern.append(String.join(",\n            ", constraints));
+        }
 
-        return lhs.toString();
+        pattern.append("\n        )\n");
+        return pattern.toString();
+    }
+
+    /**
+     * Joins with a fact type, an alias and at least one complete key pair.
+     * Keys may only come from the rule's fact or an earlier, non-negated join.
+     */
+    private List<Join> activeJoins(List<Join> joins) {
+        if (joins == null) {
+            return List.of();
+        }
+        List<Join> active = new ArrayList<>();
+        Set<String> aliases = new HashSet<>();
+        for (Join join : joins) {
+            if (join == null || join.getFactType() == null || join.getOn() == null || join.getOn().isEmpty()
+                    || join.getOn().stream().anyMatch(k -> k.getField() == null || k.getJoinField() == null)) {
+                log.warn("Skipping incomplete join: {}", join != null ? join.getAlias() : null);
+                continue;
+            }
+            if (join.getAlias() == null || !join.getAlias().matches("^[A-Za-z][A-Za-z0-9_]*$")
+                    || "fact".equals(join.getAlias()) || !aliases.add(join.getAlias())) {
+                throw new IllegalArgumentException("Invalid or duplicate join alias: " + join.getAlias());
+            }
+            String source = join.getSourceAlias();
+            if (source != null && !source.isEmpty()) {
+                boolean knownSource = active.stream()
+                        .anyMatch(j -> source.equals(j.getAlias()) && !j.isNegated());
+                if (!knownSource) {
+                    throw new IllegalArgumentException(
+                            "Join '" + join.getAlias() + "' takes keys from unknown or negated join: " + source);
+                }
+            }
+            active.add(join);
+        }
+        return active;
     }
 
     /**
      * Generate a single condition expression.
      */
-    private String generateCondition(Condition condition) {
+    private String generateCondition(Condition condition, TranspileContext context) {
         if (condition == null) {
             return null;
         }
 
         // Handle nested condition groups
         if (condition.getNested() != null) {
-            return generateNestedCondition(condition.getNested());
+            return generateNestedCondition(condition.getNested(), context);
         }
 
         String fact = condition.getFact();
@@ -268,6 +442,13 @@ public class JsonToDrlTranspiler {
                     sanitizedPath, sanitizedPath, valueExpr);
         }
 
+        // Membership in a project reference data set (blocklists, allowlists)
+        if (("memberOf".equals(operator) || "notMemberOf".equals(operator)) && hasReferenceSet(condition)) {
+            String not = "notMemberOf".equals(operator) ? "!" : "";
+            return String.format("%s%s.contains(\"%s\", %s(\"%s\"))", not, ReferenceDataLookup.GLOBAL_NAME,
+                    escapeString(condition.getReferenceSet()), getterMethod, sanitizedPath);
+        }
+
         // Handle collection operators
         if ("memberOf".equals(operator) || "notMemberOf".equals(operator)) {
             String not = "notMemberOf".equals(operator) ? "!" : "";
@@ -278,10 +459,213 @@ public class JsonToDrlTranspiler {
                     not, collectionPath, valueExpr);
         }
 
+        // Numeric comparison on primitives (or BigDecimal for money)
+        NumericKind numericKind = resolveNumericKind(sanitizedPath, value, condition.isValueIsField(), context);
+        if (numericKind != null && NUMERIC_OPERATORS.contains(droolsOperator)) {
+            String otherPath = condition.isValueIsField() ? sanitizePath(String.valueOf(value)) : null;
+            return generateNumericComparison(sanitizedPath, droolsOperator, numericKind, value, otherPath);
+        }
+
         // Standard comparison with strict type checking
         return generateStrictComparison(sanitizedPath, droolsOperator, valueExpr, value);
     }
 
+    /**
+     * Decide how to compare a field numerically. The schema's declared type
+     * wins; without one, the literal's type is used. Field-to-field
+     * comparisons widen to the wider of the two declared types.
+     */
+    private NumericKind resolveNumericKind(String path, Object value, boolean valueIsField,
+            TranspileContext context) {
+        JsonNode property = findSchemaProperty(path, context);
+        if (valueIsField) {
+            NumericKind kind = schemaNumericKind(property, null);
+            if (kind == null) {
+                return null;
+            }
+            NumericKind otherKind = schemaNumericKind(
+                    findSchemaProperty(sanitizePath(String.valueOf(value)), context), null);
+            if (kind == NumericKind.DECIMAL || otherKind == NumericKind.DECIMAL) {
+                return NumericKind.DECIMAL;
+            }
+            return kind == NumericKind.LONG && otherKind == NumericKind.LONG ? NumericKind.LONG : NumericKind.DOUBLE;
+        }
+
+        if (property != null) {
+            return schemaNumericKind(property, value);
+        }
+        if (value instanceof Integer || value instanceof Long) {
+            return NumericKind.LONG;
+        }
+        if (value instanceof Number) {
+            return NumericKind.DOUBLE;
+        }
+        return null;
+    }
+
+    private NumericKind schemaNumericKind(JsonNode property, Object value) {
+        if (property == null) {
+            return null;
+        }
+        String type = property.path("type").asText("");
+        String format = property.path("format").asText("");
+        if (DECIMAL_FORMATS.contains(format) && ("number".equals(type) || "string".equals(type))) {
+            return NumericKind.DECIMAL;
+        }
+        if ("integer".equals(type)) {
+            // A fractional literal against an integer field still needs double
+            return isFractional(value) ? NumericKind.DOUBLE : NumericKind.LONG;
+        }
+        if ("number".equals(type)) {
+            return NumericKind.DOUBLE;
+        }
+        return null;
+    }
+
+    /**
+     * Generate a numeric comparison that does not box per evaluation.
+     * isNumber guards the sentinel returned by getLong/getDouble for missing
+     * or non-numeric values.
+     */
+    private String generateNumericComparison(String path, String operator, NumericKind kind, Object value,
+            String otherPath) {
+        switch (kind) {
+            case LONG:
+                if (otherPath != null) {
+                    return String.format("isNumber(\"%s\"), isNumber(\"%s\"), getLong(\"%s\") %s getLong(\"%s\")",
+                            path, otherPath, path, operator, otherPath);
+                }
+                return String.format("isNumber(\"%s\"), getLong(\"%s\") %s %s",
+                        path, path, operator, formatLong(value));
+            case DOUBLE:
+                if (otherPath != null) {
+                    return String.format(
+                            "isNumber(\"%s\"), isNumber(\"%s\"), getDouble(\"%s\") %s getDouble(\"%s\")",
+                            path, otherPath, path, operator, otherPath);
+                }
+                return String.format("isNumber(\"%s\"), getDouble(\"%s\") %s %s",
+                        path, path, operator, formatDouble(value));
+            default:
+                // compareTo ignores scale, so 10.0 equals 10.00
+                if (otherPath != null) {
+                    return String.format(
+                            "getDecimal(\"%s\") != null, getDecimal(\"%s\") != null, getDecimal(\"%s\").compareTo(getDecimal(\"%s\")) %s 0",
+                            path, otherPath, path, otherPath, operator);
+                }
+                return String.format("getDecimal(\"%s\") != null, getDecimal(\"%s\").compareTo(%s) %s 0",
+                        path, path, formatDecimal(value), operator);
+        }
+    }
+
+    private boolean isFractional(Object value) {
+        if (value instanceof Double || value instanceof Float) {
+            double d = ((Number) value).doubleValue();
+            return d != Math.rint(d);
+        }
+        return value instanceof java.math.BigDecimal && ((java.math.BigDecimal) value).stripTrailingZeros().scale() > 0;
+    }
+
+    private String formatLong(Object value) {
+        long l = ((Number) toNumber(value)).longValue();
+        return l + "L";
+    }
+
+    private String formatDouble(Object value) {
+        return Double.toString(((Number) toNumber(value)).doubleValue());
+    }
+
+    /**
+     * DRL BigDecimal literal (e.g. 19.99B), created once when the rule is
+     * compiled instead of on every evaluation.
+     */
+    private String formatDecimal(Object value) {
+        Object number = toNumber(value);
+        String text = number instanceof Double || number instanceof Float
+                ? java.math.BigDecimal.valueOf(((Number) number).doubleValue()).toPlainString()
+                : new java.math.BigDecimal(number.toString()).toPlainString();
+        return text + "B";
+    }
+
+    /**
+     * Numeric literal of a condition. Validation lets numeric strings through
+     * only for decimal fields.
+     */
+    private Object toNumber(Object value) {
+        if (value instanceof Number) {
+            return value;
+        }
+        try {
+            return new java.math.BigDecimal(String.valueOf(value));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Expected a numeric value but got: " + value);
+        }
+    }
+
+    private JsonNode parseSchemaProperties(String jsonSchema) {
+        if (jsonSchema == null || jsonSchema.isEmpty()) {
+            return null;
+        }
+        try {
+            JsonNode properties = objectMapper.readTree(jsonSchema).get("properties");
+            return properties != null && properties.isObject() ? properties : null;
+        } catch (Exception e) {
+            log.warn("Failed to parse schema for typed comparisons, falling back to value types");
+            return null;
+        }
+    }
+
+    /**
+     * Look up a (possibly nested) property in the schema of the fact type
+     * being generated. Array paths are not typed.
+     */
+    private JsonNode findSchemaProperty(String path, TranspileContext context) {
+        if (context.schemaProperties == null || path == null || path.contains("[")) {
+            return null;
+        }
+        JsonNode properties = context.schemaProperties;
+        JsonNode current = null;
+        for (String part : path.split("\\.")) {
+            if (properties == null || !properties.has(part)) {
+                return null;
+            }
+            current = properties.get(part);
+            properties = current.get("properties");
+        }
+        return current;
+    }
+
+    private boolean hasReferenceSet(Condition condition) {
+        return condition.getReferenceSet() != null && !condition.getReferenceSet().isEmpty();
+    }
+
+    private boolean usesReferenceData(ConditionGroup group) {
+        if (group == null || group.getConditions() == null) {
+            return false;
+        }
+        for (Condition condition : group.getConditions()) {
+            if (condition == null) {
+                continue;
+            }
+            if (condition.getNested() != null ? usesReferenceData(condition.getNested()) : hasReferenceSet(condition)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Sanitize a path of the given fact type (e.g. a joined fact).
+     */
+    private String sanitizePath(String path, String factType) {
+        String previous = currentFactType;
+        currentFactType = factType;
+        try {
+            return sanitizePath(path);
+        } finally {
+            currentFactType = previous;
+        }
+    }
+
     /**
      * Sanitize path by removing fact type prefix if present.
      * Example: "Order.id" -> "id", "Customer.address.city" -> "address.city"
@@ -352,8 +736,8 @@ public class JsonToDrlTranspiler {
         // For numeric comparisons, use getValue with appropriate type
         if (value instanceof Number) {
             if (value instanceof Integer || value instanceof Long) {
-                // Integer comparison - comma-separated null check and comparison
-                return String.format("getValue(\"%s\", Integer.class) != null, getValue(\"%s\", Integer.class) %s %s",
+                // Integer comparison, widened to Long - comma-separated null check and comparison
+                return String.format("getValue(\"%s\", Long.class) != null, getValue(\"%s\", Long.class) %s %s",
                         path, path, operator, valueExpr);
             } else if (value instanceof Double || value instanceof Float) {
                 // Double comparison - comma-separated null check and comparison
@@ -404,7 +788,7 @@ public class JsonToDrlTranspiler {
     /**
      * Generate a nested condition group.
      */
-    private String generateNestedCondition(ConditionGroup group) {
+    private String generateNestedCondition(ConditionGroup group, TranspileContext context) {
         if (group.getConditions() == null || group.getConditions().isEmpty()) {
             return null;
         }
@@ -412,7 +796,7 @@ public class JsonToDrlTranspiler {
         String joiner = "all".equalsIgnoreCase(group.getOperator()) ? " && " : " || ";
 
         List<String> conditions = group.getConditions().stream()
-                .map(this::generateCondition)
+                .map(c -> generateCondition(c, context))
                 .filter(s -> s != null && !s.isEmpty())
                 .collect(Collectors.toList());
 
@@ -426,7 +810,7 @@ public class JsonToDrlTranspiler {
     /**
      * Generate the Right-Hand Side (actions) of the rule.
      */
-    private String generateRHS(List<RuleAction> actions) {
+    private String generateRHS(List<RuleAction> actions, TranspileContext context) {
         if (actions == null || actions.isEmpty()) {
             return "        // No actions defined\n";
         }
@@ -448,7 +832,7 @@ public class JsonToDrlTranspiler {
                     rhs.append(generateLogAction(action));
                     break;
                 case "WEBHOOK":
-                    rhs.append(generateWebhookAction(action));
+                    rhs.append(generateWebhookAction(action, context));
                     break;
                 default:
                     log.warn("Unknown action type: {}", action.getType());
@@ -485,9 +869,10 @@ public class JsonToDrlTranspiler {
                 escapeString(action.getLogMessage()));
     }
 
-    private String generateWebhookAction(RuleAction action) {
+    private String generateWebhookAction(RuleAction action, TranspileContext context) {
+        boolean batched = Boolean.TRUE.equals(action.getWebhookBatch());
         StringBuilder sb = new StringBuilder();
-        sb.append("        actionContext.executeWebhook(\n");
+        sb.append(batched ? "        actionContext.executeBatchedWebhook(\n" : "        actionContext.executeWebhook(\n");
         sb.append("            \"").append(escapeString(action.getWebhookUrl())).append("\",\n");
         sb.append("            \"").append(action.getWebhookMethod() != null ? action.getWebhookMethod() : "POST")
                 .append("\",\n");
@@ -502,6 +887,22 @@ public class JsonToDrlTranspiler {
         } else {
             sb.append("            java.util.Collections.emptyMap()");
         }
+        if (batched) {
+            int maxSize = action.getWebhookBatchMaxSize() != null && action.getWebhookBatchMaxSize() > 0
+                    ? action.getWebhookBatchMaxSize()
+                    : DEFAULT_WEBHOOK_BATCH_SIZE;
+            long lingerMs = action.getWebhookBatchLingerMs() != null
+                    ? Math.max(0, action.getWebhookBatchLingerMs())
+                    : 0;
+            sb.append(",\n            ").append(maxSize).append(", ").append(lingerMs).append("L");
+        }
+        String bodyTemplate = action.getWebhookBodyTemplate();
+        if (bodyTemplate != null && !bodyTemplate.isBlank()) {
+            // Fail on a malformed template when the rule is saved, not when it fires
+            WebhookBodyTemplate.compile(bodyTemplate);
+            context.webhookBodies.add(bodyTemplate);
+            sb.append(",\n            ").append(WebhookBodyTemplate.globalName(bodyTemplate));
+        }
         sb.append("\n        );\n");
 
         return sb.toString();
@@ -0,0 +1,107 @@
+package com.ruleengine.drools;
+
+/**
+ * Open-addressing hash set of primitive longs. Holds large id sets in a single
+ * long[] (about 16 bytes per entry) instead of boxed Longs in a HashSet
+ * (about 50), and contains() does not allocate.
+ *
+ * Built once and then only read, so it is safe to share between sessions.
+ */
+public final class LongHashSet {
+
+    private static final long EMPTY = 0L;
+    private static final long PHI = 0x9E3779B97F4A7C15L;
+
+    private long[] table;
+    private int mask;
+    private int size;
+    // 0 marks empty slots, so it is tracked separately
+    private boolean containsZero;
+
+    public LongHashSet(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize) * 2 - 1) << 1;
+        this.table = new long[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Add a value. Returns true if it was not present.
+     */
+    public boolean add(long value) {
+        if (value == EMPTY) {
+            if (containsZero) {
+                return false;
+            }
+            containsZero = true;
+            size++;
+            return true;
+        }
+
+        int slot = slot(value);
+        while (table[slot] != EMPTY) {
+            if (table[slot] == value) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = value;
+        size++;
+
+        // Keep load at or below 1/2 so probe chains stay short
+        if ((size - (containsZero ? 1 : 0)) * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+        return true;
+    }
+
+    public boolean contains(long value) {
+        if (value == EMPTY) {
+            return containsZero;
+        }
+        int slot = slot(value);
+        long current;
+        while ((current = table[slot]) != EMPTY) {
+            if (current == value) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Approximate heap footprint in bytes.
+     */
+    public long estimatedBytes() {
+        return 16L + (long) table.length * Long.BYTES;
+    }
+
+    private int slot(long value) {
+        // Fibonacci hashing spreads sequential ids across the table
+        return (int) ((value * PHI) >>> 32) & mask;
+    }
+
+    private void rehash(int capacity) {
+        long[] old = table;
+        table = new long[capacity];
+        mask = capacity - 1;
+        for (long value : old) {
+            if (value != EMPTY) {
+                int slot = slot(value);
+                while (table[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = value;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "LongHashSet{size=" + size + ", capacity=" + table.length + "}";
+    }
+}
@@ -0,0 +1,127 @@
+package com.ruleengine.drools;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * DRL global ("referenceData") giving rules O(1) membership checks against
+ * the reference data sets of the executing project.
+ *
+ * The sets are loaded outside the KieBase, so uploading a new version only
+ * swaps what the next session sees, without recompiling rules.
+ */
+public class ReferenceDataLookup {
+
+    public static final String GLOBAL_NAME = "referenceData";
+
+    private static final ReferenceDataLookup EMPTY = new ReferenceDataLookup(Collections.emptyMap());
+
+    private final Map<String, ReferenceSet> sets;
+
+    public ReferenceDataLookup(Map<String, ReferenceSet> sets) {
+        this.sets = sets;
+    }
+
+    public static ReferenceDataLookup empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Check whether a fact value is in the named set. Missing sets and null
+     * values never match.
+     */
+    public boolean contains(String setName, Object value) {
+        ReferenceSet set = sets.get(setName);
+        return set != null && value != null && set.contains(value);
+    }
+
+    public boolean hasSet(String setName) {
+        return sets.containsKey(setName);
+    }
+
+    public Set<String> getSetNames() {
+        return sets.keySet();
+    }
+
+    /**
+     * A loaded reference data set.
+     */
+    public interface ReferenceSet {
+        boolean contains(Object value);
+
+        int size();
+
+        int version();
+    }
+
+    /**
+     * Numeric ids. Matches integral numbers and numeric strings.
+     */
+    public static final class LongReferenceSet implements ReferenceSet {
+        private final LongHashSet values;
+        private final int version;
+
+        public LongReferenceSet(LongHashSet values, int version) {
+            this.values = values;
+            this.version = version;
+        }
+
+        @Override
+        public boolean contains(Object value) {
+            if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                return values.contains(((Number) value).longValue());
+            }
+            if (value instanceof Number) {
+                double d = ((Number) value).doubleValue();
+                return d == Math.rint(d) && values.contains((long) d);
+            }
+            if (value instanceof String) {
+                try {
+                    return values.contains(Long.parseLong((String) value));
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public int size() {
+            return values.size();
+        }
+
+        @Override
+        public int version() {
+            return version;
+        }
+    }
+
+    /**
+     * String codes. Other values are matched by their string form.
+     */
+    public static final class StringReferenceSet implements ReferenceSet {
+        private final Set<String> values;
+        private final int version;
+
+        public StringReferenceSet(Set<String> values, int version) {
+            this.values = values;
+            this.version = version;
+        }
+
+        @Override
+        public boolean contains(Object value) {
+            return values.contains(value instanceof String ? (String) value : value.toString());
+        }
+
+        @Override
+        public int size() {
+            return values.size();
+        }
+
+        @Override
+        public int version() {
+            return version;
+        }
+    }
+}
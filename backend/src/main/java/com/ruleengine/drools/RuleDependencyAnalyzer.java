@@ -0,0 +1,234 @@
+package com.ruleengine.drools;
+
+import com.ruleengine.dto.RuleDefinition;
+import com.ruleengine.dto.RuleDefinition.Condition;
+import com.ruleengine.dto.RuleDefinition.ConditionGroup;
+import com.ruleengine.dto.RuleDefinition.Join;
+import com.ruleengine.dto.RuleDefinition.JoinKey;
+import com.ruleengine.dto.RuleDefinition.RuleAction;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Compile-time analysis of which fields each rule reads (conditions) and
+ * writes (MODIFY actions). Used to report re-activation cycles when rules are
+ * saved and to skip re-firing rules whose inputs did not change.
+ */
+@Component
+public class RuleDependencyAnalyzer {
+
+    /**
+     * Build the dependency graph for a rule set.
+     */
+    public RuleDependencyGraph analyze(List<RuleDefinition> rules) {
+        Map<String, Set<String>> reads = new LinkedHashMap<>();
+        Map<String, Set<String>> writes = new LinkedHashMap<>();
+
+        for (RuleDefinition rule : rules) {
+            if (rule == null || rule.getName() == null) {
+                continue;
+            }
+            reads.put(rule.getName(), readFields(rule));
+            writes.put(rule.getName(), writeFields(rule));
+        }
+
+        // Edge writer -> reader whenever a written path overlaps a read path
+        Map<String, Set<String>> dependents = new LinkedHashMap<>();
+        for (Map.Entry<String, Set<String>> writer : writes.entrySet()) {
+            Set<String> targets = new LinkedHashSet<>();
+            for (Map.Entry<String, Set<String>> reader : reads.entrySet()) {
+                if (anyOverlap(writer.getValue(), reader.getValue())) {
+                    targets.add(reader.getKey());
+                }
+            }
+            dependents.put(writer.getKey(), targets);
+        }
+
+        List<List<String>> components = stronglyConnectedComponents(reads.keySet(), dependents);
+
+        List<List<String>> cycles = new ArrayList<>();
+        for (List<String> component : components) {
+            if (component.size() > 1) {
+                cycles.add(component);
+            }
+        }
+
+        Map<String, Integer> strata = computeStrata(reads.keySet(), components, dependents);
+        return new RuleDependencyGraph(reads, writes, dependents, cycles, strata);
+    }
+
+    /**
+     * Fields referenced by a rule's conditions, including field-to-field
+     * comparisons.
+     */
+    public Set<String> readFields(RuleDefinition rule) {
+        Set<String> fields = new LinkedHashSet<>();
+        collectReads(rule.getConditions(), fields);
+        // Join keys and joined-fact conditions are reads too. Paths are not
+        // qualified by fact type, which only errs towards re-firing.
+        if (rule.getJoins() != null) {
+            for (Join join : rule.getJoins()) {
+                if (join == null) {
+                    continue;
+                }
+                collectReads(join.getConditions(), fields);
+                if (join.getOn() != null) {
+                    for (JoinKey key : join.getOn()) {
+                        if (key.getField() != null) {
+                            fields.add(normalizePath(key.getField()));
+                        }
+                        if (key.getJoinField() != null) {
+                            fields.add(normalizePath(key.getJoinField()));
+                        }
+                    }
+                }
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * Fields assigned by a rule's MODIFY actions.
+     */
+    public Set<String> writeFields(RuleDefinition rule) {
+        Set<String> fields = new LinkedHashSet<>();
+        if (rule.getActions() == null) {
+            return fields;
+        }
+        for (RuleAction action : rule.getActions()) {
+            if (action != null && "MODIFY".equalsIgnoreCase(action.getType()) && action.getTargetField() != null) {
+                fields.add(normalizePath(action.getTargetField()));
+            }
+        }
+        return fields;
+    }
+
+    private void collectReads(ConditionGroup group, Set<String> fields) {
+        if (group == null || group.getConditions() == null) {
+            return;
+        }
+        for (Condition condition : group.getConditions()) {
+            if (condition == null) {
+                continue;
+            }
+            if (condition.getNested() != null) {
+                collectReads(condition.getNested(), fields);
+                continue;
+            }
+            if (condition.getFact() != null) {
+                fields.add(normalizePath(condition.getFact()));
+            }
+            if (condition.isValueIsField() && condition.getValue() != null) {
+                fields.add(normalizePath(String.valueOf(condition.getValue())));
+            }
+        }
+    }
+
+    /**
+     * Strip a leading type name (e.g. "Order.amount" -> "amount"), matching the
+     * transpiler's path sanitization.
+     */
+    private String normalizePath(String path) {
+        String[] parts = path.split("\\.");
+        if (parts.length > 1 && parts[0].matches("^[A-Z][a-zA-Z0-9]*$")) {
+            return path.substring(parts[0].length() + 1);
+        }
+        return path;
+    }
+
+    private boolean anyOverlap(Set<String> written, Set<String> read) {
+        for (String w : written) {
+            for (String r : read) {
+                if (DynamicFact.pathsOverlap(w, r)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Tarjan's algorithm. Components are returned in reverse topological order
+     * of the condensed graph.
+     */
+    private List<List<String>> stronglyConnectedComponents(Set<String> nodes, Map<String, Set<String>> edges) {
+        Map<String, Integer> index = new HashMap<>();
+        Map<String, Integer> lowLink = new HashMap<>();
+        Deque<String> stack = new ArrayDeque<>();
+        Set<String> onStack = new HashSet<>();
+        List<List<String>> components = new ArrayList<>();
+        int[] counter = { 0 };
+
+        for (String node : nodes) {
+            if (!index.containsKey(node)) {
+                strongConnect(node, edges, index, lowLink, stack, onStack, components, counter);
+            }
+        }
+        return components;
+    }
+
+    private void strongConnect(String node, Map<String, Set<String>> edges, Map<String, Integer> index,
+            Map<String, Integer> lowLink, Deque<String> stack, Set<String> onStack,
+            List<List<String>> components, int[] counter) {
+        index.put(node, counter[0]);
+        lowLink.put(node, counter[0]);
+        counter[0]++;
+        stack.push(node);
+        onStack.add(node);
+
+        for (String next : edges.getOrDefault(node, Collections.emptySet())) {
+            if (!index.containsKey(next)) {
+                strongConnect(next, edges, index, lowLink, stack, onStack, components, counter);
+                lowLink.put(node, Math.min(lowLink.get(node), lowLink.get(next)));
+            } else if (onStack.contains(next)) {
+                lowLink.put(node, Math.min(lowLink.get(node), index.get(next)));
+            }
+        }
+
+        if (lowLink.get(node).equals(index.get(node))) {
+            List<String> component = new ArrayList<>();
+            String member;
+            do {
+                member = stack.pop();
+                onStack.remove(member);
+                component.add(member);
+            } while (!member.equals(node));
+            Collections.reverse(component);
+            components.add(component);
+        }
+    }
+
+    /**
+     * Longest-path layering of the condensed graph: a component sits one
+     * stratum above the highest component that writes into it.
+     */
+    private Map<String, Integer> computeStrata(Set<String> nodes, List<List<String>> components,
+            Map<String, Set<String>> edges) {
+        Map<String, Integer> componentOf = new HashMap<>();
+        for (int i = 0; i < components.size(); i++) {
+            for (String member : components.get(i)) {
+                componentOf.put(member, i);
+            }
+        }
+
+        // Tarjan emits sinks first, so walk backwards to visit writers before readers
+        int[] componentStratum = new int[components.size()];
+        for (int i = components.size() - 1; i >= 0; i--) {
+            for (String member : components.get(i)) {
+                for (String next : edges.getOrDefault(member, Collections.emptySet())) {
+                    int target = componentOf.get(next);
+                    if (target != i) {
+                        componentStratum[target] = Math.max(componentStratum[target], componentStratum[i] + 1);
+                    }
+                }
+            }
+        }
+
+        Map<String, Integer> strata = new LinkedHashMap<>();
+        for (String node : nodes) {
+            strata.put(node, componentStratum[componentOf.get(node)]);
+        }
+        return strata;
+    }
+}
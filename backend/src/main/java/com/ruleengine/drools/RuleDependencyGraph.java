@@ -0,0 +1,85 @@
+package com.ruleengine.drools;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Static read/write dependency graph of a rule set.
+ * An edge A -> B means rule A modifies a field that rule B reads in its
+ * conditions, so firing A can re-activate B.
+ */
+public class RuleDependencyGraph {
+
+    private final Map<String, Set<String>> reads;
+    private final Map<String, Set<String>> writes;
+    private final Map<String, Set<String>> dependents;
+    private final List<List<String>> cycles;
+    private final Map<String, Integer> strata;
+
+    public RuleDependencyGraph(Map<String, Set<String>> reads, Map<String, Set<String>> writes,
+            Map<String, Set<String>> dependents, List<List<String>> cycles, Map<String, Integer> strata) {
+        this.reads = Collections.unmodifiableMap(reads);
+        this.writes = Collections.unmodifiableMap(writes);
+        this.dependents = Collections.unmodifiableMap(dependents);
+        this.cycles = Collections.unmodifiableList(cycles);
+        this.strata = Collections.unmodifiableMap(strata);
+    }
+
+    /**
+     * Fields read by each rule's conditions, keyed by rule name.
+     */
+    public Map<String, Set<String>> getReads() {
+        return reads;
+    }
+
+    /**
+     * Fields written by each rule's MODIFY actions, keyed by rule name.
+     */
+    public Map<String, Set<String>> getWrites() {
+        return writes;
+    }
+
+    /**
+     * Rules that can be re-activated by each rule, keyed by rule name.
+     */
+    public Map<String, Set<String>> getDependents() {
+        return dependents;
+    }
+
+    /**
+     * Groups of two or more rules that can re-activate each other indefinitely.
+     * A rule that only modifies its own inputs is not reported, since no-loop
+     * already covers it.
+     */
+    public List<List<String>> getCycles() {
+        return cycles;
+    }
+
+    /**
+     * Stratum per rule: writers are always in a lower stratum than the rules
+     * that read what they write, except inside a cycle.
+     */
+    public Map<String, Integer> getStrata() {
+        return strata;
+    }
+
+    public Set<String> readsOf(String ruleName) {
+        return reads.get(ruleName);
+    }
+
+    public boolean hasWrites() {
+        return writes.values().stream().anyMatch(w -> !w.isEmpty());
+    }
+
+    /**
+     * Get the cycles that include the given rule.
+     */
+    public List<List<String>> cyclesContaining(String ruleName) {
+        return cycles.stream()
+                .filter(cycle -> cycle.contains(ruleName))
+                .collect(Collectors.toList());
+    }
+}
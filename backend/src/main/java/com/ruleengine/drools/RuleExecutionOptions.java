@@ -0,0 +1,90 @@
+package com.ruleengine.drools;
+
+import java.util.Map;
+
+/**
+ * Per-execution settings passed from the service layer to DroolsService.
+ */
+public class RuleExecutionOptions {
+
+    private final RuleDependencyGraph dependencyGraph;
+    private final ReferenceDataLookup referenceData;
+    private final Map<String, WebhookBodyTemplate> webhookBodies;
+    private final boolean deferWebhooks;
+
+    private RuleExecutionOptions(Builder builder) {
+        this.dependencyGraph = builder.dependencyGraph;
+        this.referenceData = builder.referenceData;
+        this.webhookBodies = builder.webhookBodies;
+        this.deferWebhooks = builder.deferWebhooks;
+    }
+
+    public static RuleExecutionOptions defaults() {
+        return builder().build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Read/write graph of the rules being executed. When present, rules are
+     * only re-fired after a MODIFY if a field they read has changed.
+     */
+    public RuleDependencyGraph getDependencyGraph() {
+        return dependencyGraph;
+    }
+
+    /**
+     * Reference data sets bound to the "referenceData" global.
+     */
+    public ReferenceDataLookup getReferenceData() {
+        return referenceData;
+    }
+
+    /**
+     * Compiled webhook body templates by the name of their global.
+     */
+    public Map<String, WebhookBodyTemplate> getWebhookBodies() {
+        return webhookBodies;
+    }
+
+    /**
+     * Leave webhooks for the outbox instead of sending them; they are
+     * returned as QUEUED results and in the response's deferred webhooks.
+     */
+    public boolean isDeferWebhooks() {
+        return deferWebhooks;
+    }
+
+    public static class Builder {
+        private RuleDependencyGraph dependencyGraph;
+        private ReferenceDataLookup referenceData;
+        private Map<String, WebhookBodyTemplate> webhookBodies = Map.of();
+        private boolean deferWebhooks;
+
+        public Builder dependencyGraph(RuleDependencyGraph dependencyGraph) {
+            this.dependencyGraph = dependencyGraph;
+            return this;
+        }
+
+        public Builder referenceData(ReferenceDataLookup referenceData) {
+            this.referenceData = referenceData;
+            return this;
+        }
+
+        public Builder webhookBodies(Map<String, WebhookBodyTemplate> webhookBodies) {
+            this.webhookBodies = webhookBodies != null ? webhookBodies : Map.of();
+            return this;
+        }
+
+        public Builder deferWebhooks(boolean deferWebhooks) {
+            this.deferWebhooks = deferWebhooks;
+            return this;
+        }
+
+        public RuleExecutionOptions build() {
+            return new RuleExecutionOptions(this);
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package com.ruleengine.drools;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Webhook body with ${path} placeholders, e.g.
+ * {"orderId": ${id}, "customer": ${customer.name}, "note": "Order ${id} flagged"}.
+ *
+ * The template is parsed once into literal byte segments and precompiled
+ * fact paths. Rendering writes straight into a per-thread buffer, so only
+ * the referenced fields are encoded instead of the whole fact. A placeholder
+ * outside quotes is replaced by the field's JSON value (null when missing);
+ * inside a JSON string it is replaced by the escaped text of the value.
+ *
+ * Generated rules refer to a template through a Drools global named after
+ * its source (see globalName); the execution plan compiles each template
+ * once and DroolsService binds it to every session.
+ */
+public final class WebhookBodyTemplate {
+
+    public static final String GLOBAL_PREFIX = "webhookBody_";
+
+    // Larger buffers are dropped after use instead of being kept per thread
+    private static final int MAX_POOLED_BUFFER = 256 * 1024;
+
+    private static final ThreadLocal<RenderBuffer> BUFFERS = ThreadLocal.withInitial(RenderBuffer::new);
+
+    private final String source;
+    private final List<Segment> segments;
+    private final int literalLength;
+
+    private WebhookBodyTemplate(String source, List<Segment> segments) {
+        this.source = source;
+        this.segments = segments;
+        this.literalLength = segments.stream().mapToInt(s -> s.literal != null ? s.literal.length : 0).sum();
+    }
+
+    /**
+     * Name of the Drools global holding the compiled template of a source.
+     * Derived from the source, so rules using the same template share one
+     * global within a rule set.
+     */
+    public static String globalName(String source) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(source.getBytes(StandardCharsets.UTF_8));
+            return GLOBAL_PREFIX + HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Parse a template.
+     *
+     * @throws IllegalArgumentException if a placeholder is unterminated or empty
+     */
+    public static WebhookBodyTemplate compile(String source) {
+        List<Segment> segments = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        boolean inString = false;
+        int i = 0;
+        while (i < source.length()) {
+            char c = source.charAt(i);
+            if (c == '$' && i + 1 < source.length() && source.charAt(i + 1) == '{') {
+                int end = source.indexOf('}', i + 2);
+                if (end < 0) {
+                    throw new IllegalArgumentException("Unterminated placeholder in webhook body template at " + i);
+                }
+                String path = source.substring(i + 2, end).trim();
+                if (path.isEmpty()) {
+                    throw new IllegalArgumentException("Empty placeholder in webhook body template at " + i);
+                }
+                if (literal.length() > 0) {
+                    segments.add(Segment.literal(literal.toString()));
+                    literal.setLength(0);
+                }
+                segments.add(Segment.placeholder(DynamicFact.Path.compile(path), inString));
+                i = end + 1;
+                continue;
+            }
+            if (c == '"') {
+                inString = !inString;
+            } else if (c == '\\' && inString && i + 1 < source.length()) {
+                // Keep escaped characters (including \") inside the string
+                literal.append(c).append(source.charAt(i + 1));
+                i += 2;
+                continue;
+            }
+            literal.append(c);
+            i++;
+        }
+        if (literal.length() > 0) {
+            segments.add(Segment.literal(literal.toString()));
+        }
+        return new WebhookBodyTemplate(source, List.copyOf(segments));
+    }
+
+    /**
+     * Render the body for a fact. Non-scalar values (objects, arrays) are
+     * encoded with the given ObjectMapper.
+     */
+    public byte[] render(DynamicFact fact, ObjectMapper objectMapper) throws IOException {
+        RenderBuffer buffer = BUFFERS.get();
+        buffer.reset(literalLength + 16 * segments.size());
+        try {
+            for (Segment segment : segments) {
+                if (segment.literal != null) {
+                    buffer.write(segment.literal);
+                } else if (segment.quoted) {
+                    writeText(buffer, fact.getValue(segment.path), objectMapper);
+                } else {
+                    writeJson(buffer, fact.getValue(segment.path), objectMapper);
+                }
+            }
+            return buffer.toByteArray();
+        } finally {
+            if (buffer.capacity() > MAX_POOLED_BUFFER) {
+                BUFFERS.remove();
+            }
+        }
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    private static void writeJson(RenderBuffer buffer, Object value, ObjectMapper objectMapper) throws IOException {
+        if (value == null) {
+            buffer.writeAscii("null");
+        } else if (value instanceof String) {
+            buffer.write('"');
+            buffer.writeEscaped((String) value);
+            buffer.write('"');
+        } else if (value instanceof Boolean || value instanceof Integer || value instanceof Long
+                || value instanceof Short || value instanceof Byte || value instanceof BigInteger
+                || value instanceof BigDecimal) {
+            buffer.writeAscii(value.toString());
+        } else if (value instanceof Double || value instanceof Float) {
+            double d = ((Number) value).doubleValue();
+            buffer.writeAscii(Double.isFinite(d) ? value.toString() : "null");
+        } else {
+            buffer.write(objectMapper.writeValueAsBytes(value));
+        }
+    }
+
+    private static void writeText(RenderBuffer buffer, Object value, ObjectMapper objectMapper) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value instanceof String || value instanceof Number || value instanceof Boolean) {
+            buffer.writeEscaped(value.toString());
+        } else {
+            buffer.writeEscaped(objectMapper.writeValueAsString(value));
+        }
+    }
+
+    private static final class Segment {
+        private final byte[] literal;
+        private final DynamicFact.Path path;
+        // Placeholder inside a JSON string literal
+        private final boolean quoted;
+
+        private Segment(byte[] literal, DynamicFact.Path path, boolean quoted) {
+            this.literal = literal;
+            this.path = path;
+            this.quoted = quoted;
+        }
+
+        private static Segment literal(String text) {
+            return new Segment(text.getBytes(StandardCharsets.UTF_8), null, false);
+        }
+
+        private static Segment placeholder(DynamicFact.Path path, boolean quoted) {
+            return new Segment(null, path, quoted);
+        }
+    }
+
+    /**
+     * Growable byte buffer reused across renders on the same thread.
+     */
+    private static final class RenderBuffer {
+        private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+        private byte[] bytes = new byte[1024];
+        private int length;
+
+        private void reset(int expected) {
+            length = 0;
+            ensure(expected);
+        }
+
+        private int capacity() {
+            return bytes.length;
+        }
+
+        private void ensure(int additional) {
+            if (length + additional > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + additional));
+            }
+        }
+
+        private void write(int b) {
+            ensure(1);
+            bytes[length++] = (byte) b;
+        }
+
+        private void write(byte[] data) {
+            ensure(data.length);
+            System.arraycopy(data, 0, bytes, length, data.length);
+            length += data.length;
+        }
+
+        private void writeAscii(String text) {
+            ensure(text.length());
+            for (int i = 0; i < text.length(); i++) {
+                bytes[length++] = (byte) text.charAt(i);
+            }
+        }
+
+        /**
+         * JSON string escaping, encoded as UTF-8.
+         */
+        private void writeEscaped(String text) {
+            ensure(text.length());
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c == '"' || c == '\\') {
+                    write('\\');
+                    write(c);
+                } else if (c < 0x20) {
+                    writeControl(c);
+                } else if (c < 0x80) {
+                    write(c);
+                } else if (c < 0x800) {
+                    write(0xC0 | (c >> 6));
+                    write(0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < text.length()
+                        && Character.isLowSurrogate(text.charAt(i + 1))) {
+                    int cp = Character.toCodePoint(c, text.charAt(++i));
+                    write(0xF0 | (cp >> 18));
+                    write(0x80 | ((cp >> 12) & 0x3F));
+                    write(0x80 | ((cp >> 6) & 0x3F));
+                    write(0x80 | (cp & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    // Unpaired surrogate; not representable in UTF-8
+                    write('?');
+                } else {
+                    write(0xE0 | (c >> 12));
+                    write(0x80 | ((c >> 6) & 0x3F));
+                    write(0x80 | (c & 0x3F));
+                }
+            }
+        }
+
+        private void writeControl(char c) {
+            write('\\');
+            switch (c) {
+                case '\n':
+                    write('n');
+                    break;
+                case '\r':
+                    write('r');
+                    break;
+                case '\t':
+                    write('t');
+                    break;
+                case '\b':
+                    write('b');
+                    break;
+                case '\f':
+                    write('f');
+                    break;
+                default:
+                    write('u');
+                    write('0');
+                    write('0');
+                    write(HEX[c >> 4]);
+                    write(HEX[c & 0xF]);
+            }
+        }
+
+        private byte[] toByteArray() {
+            return Arrays.copyOf(bytes, length);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.ruleengine.dto;
+
+import com.ruleengine.cache.TinyLfuCache;
+import com.ruleengine.cache.WeightedLruCache;
+
+/**
+ * Size and hit counters of one cache region.
+ */
+public class CacheStatsDto {
+
+    private String name;
+    private int size;
+    private long weightBytes;
+    private long maxWeightBytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+    // Misses on entries evicted for capacity; only tracked by some caches
+    private long reloads;
+    private double hitRate;
+
+    public CacheStatsDto() {
+    }
+
+    public CacheStatsDto(String name, int size, long weightBytes, long maxWeightBytes, long hits, long misses,
+            long evictions) {
+        this.name = name;
+        this.size = size;
+        this.weightBytes = weightBytes;
+        this.maxWeightBytes = maxWeightBytes;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.hitRate = hits + misses > 0 ? (double) hits / (hits + misses) : 0;
+    }
+
+    public static CacheStatsDto of(String name, WeightedLruCache.Stats stats) {
+        return new CacheStatsDto(name, stats.getSize(), stats.getWeight(), stats.getMaxWeight(), stats.getHits(),
+                stats.getMisses(), stats.getEvictions());
+    }
+
+    public static CacheStatsDto of(String name, TinyLfuCache.Stats stats) {
+        CacheStatsDto dto = new CacheStatsDto(name, stats.getSize(), stats.getWeight(), stats.getMaxWeight(),
+                stats.getHits(), stats.getMisses(), stats.getEvictions());
+        dto.setReloads(stats.getReloads());
+        return dto;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public long getWeightBytes() {
+        return weightBytes;
+    }
+
+    public void setWeightBytes(long weightBytes) {
+        this.weightBytes = weightBytes;
+    }
+
+    public long getMaxWeightBytes() {
+        return maxWeightBytes;
+    }
+
+    public void setMaxWeightBytes(long maxWeightBytes) {
+        this.maxWeightBytes = maxWeightBytes;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public void setHits(long hits) {
+        this.hits = hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public void setMisses(long misses) {
+        this.misses = misses;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public void setEvictions(long evictions) {
+        this.evictions = evictions;
+    }
+
+    public long getReloads() {
+        return reloads;
+    }
+
+    public void setReloads(long reloads) {
+        this.reloads = reloads;
+    }
+
+    public double getHitRate() {
+        return hitRate;
+    }
+
+    public void setHitRate(double hitRate) {
+        this.hitRate = hitRate;
+    }
+}
@@ -0,0 +1,55 @@
+package com.ruleengine.dto;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * Deep copies of the collections and JSON values DTOs hold.
+ */
+final class Copies {
+
+    private Copies() {
+    }
+
+    static <T> List<T> list(List<T> list, UnaryOperator<T> copier) {
+        if (list == null) {
+            return null;
+        }
+        List<T> copy = new ArrayList<>(list.size());
+        for (T element : list) {
+            copy.add(element != null ? copier.apply(element) : null);
+        }
+        return copy;
+    }
+
+    static <V> Map<String, V> map(Map<String, V> map, UnaryOperator<V> copier) {
+        if (map == null) {
+            return null;
+        }
+        Map<String, V> copy = new LinkedHashMap<>();
+        map.forEach((key, value) -> copy.put(key, value != null ? copier.apply(value) : null));
+        return copy;
+    }
+
+    /**
+     * A JSON value as Jackson binds it to Object: maps and lists are copied,
+     * strings, numbers and booleans are immutable and shared.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T value(T value) {
+        if (value instanceof Map) {
+            return (T) map((Map<String, Object>) value, Copies::value);
+        }
+        if (value instanceof List) {
+            return (T) list((List<Object>) value, Copies::value);
+        }
+        return value;
+    }
+
+    static long length(String value) {
+        return value != null ? value.length() : 0;
+    }
+}
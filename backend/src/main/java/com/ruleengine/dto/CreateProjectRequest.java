@@ -2,6 +2,7 @@ package com.ruleengine.dto;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
@@ -67,4 +68,16 @@ public class CreateProjectRequest {
     public void setAllowedOutputTypes(String allowedOutputTypes) {
         this.allowedOutputTypes = allowedOutputTypes;
     }
+
+    // Days execution history is kept (0 = forever); unset uses the tenant's default
+    @Min(0)
+    private Integer historyRetentionDays;
+
+    public Integer getHistoryRetentionDays() {
+        return historyRetentionDays;
+    }
+
+    public void setHistoryRetentionDays(Integer historyRetentionDays) {
+        this.historyRetentionDays = historyRetentionDays;
+    }
 }
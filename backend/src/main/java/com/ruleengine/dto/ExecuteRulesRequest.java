@@ -1,5 +1,8 @@
 package com.ruleengine.dto;
 
+import com.ruleengine.webhook.WebhookMode;
+
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -11,7 +14,12 @@ public class ExecuteRulesRequest {
     private Long schemaId;
     private List<Long> ruleIds;
     private List<Map<String, Object>> facts;
+    // Facts keyed by schema name, for sessions over several input schemas
+    private Map<String, List<Map<String, Object>>> factsBySchema;
     private boolean dryRun;
+    // WAIT (default) waits for webhook calls up to webhookWaitMs; ASYNC returns dispatch IDs right away
+    private WebhookMode webhookMode;
+    private Long webhookWaitMs;
 
     public ExecuteRulesRequest() {
     }
@@ -27,7 +35,10 @@ public class ExecuteRulesRequest {
         private Long schemaId;
         private List<Long> ruleIds;
         private List<Map<String, Object>> facts;
+        private Map<String, List<Map<String, Object>>> factsBySchema;
         private boolean dryRun;
+        private WebhookMode webhookMode;
+        private Long webhookWaitMs;
 
         public ExecuteRulesRequestBuilder schemaId(Long schemaId) {
             this.schemaId = schemaId;
@@ -44,13 +55,32 @@ public class ExecuteRulesRequest {
             return this;
         }
 
+        public ExecuteRulesRequestBuilder factsBySchema(Map<String, List<Map<String, Object>>> factsBySchema) {
+            this.factsBySchema = factsBySchema;
+            return this;
+        }
+
         public ExecuteRulesRequestBuilder dryRun(boolean dryRun) {
             this.dryRun = dryRun;
             return this;
         }
 
+        public ExecuteRulesRequestBuilder webhookMode(WebhookMode webhookMode) {
+            this.webhookMode = webhookMode;
+            return this;
+        }
+
+        public ExecuteRulesRequestBuilder webhookWaitMs(Long webhookWaitMs) {
+            this.webhookWaitMs = webhookWaitMs;
+            return this;
+        }
+
         public ExecuteRulesRequest build() {
-            return new ExecuteRulesRequest(schemaId, ruleIds, facts, dryRun);
+            ExecuteRulesRequest request = new ExecuteRulesRequest(schemaId, ruleIds, facts, dryRun);
+            request.setFactsBySchema(factsBySchema);
+            request.setWebhookMode(webhookMode);
+            request.setWebhookWaitMs(webhookWaitMs);
+            return request;
         }
     }
 
@@ -82,6 +112,34 @@ public class ExecuteRulesRequest {
         this.facts = facts;
     }
 
+    public Map<String, List<Map<String, Object>>> getFactsBySchema() {
+        return factsBySchema;
+    }
+
+    public void setFactsBySchema(Map<String, List<Map<String, Object>>> factsBySchema) {
+        this.factsBySchema = factsBySchema;
+    }
+
+    /**
+     * All input facts in session order: untyped facts first, then the facts
+     * of each schema. Matches the order of the response's resultFacts.
+     */
+    public List<Map<String, Object>> allFacts() {
+        if (factsBySchema == null || factsBySchema.isEmpty()) {
+            return facts;
+        }
+        List<Map<String, Object>> all = new ArrayList<>();
+        if (facts != null) {
+            all.addAll(facts);
+        }
+        factsBySchema.values().forEach(schemaFacts -> {
+            if (schemaFacts != null) {
+                all.addAll(schemaFacts);
+            }
+        });
+        return all;
+    }
+
     public boolean isDryRun() {
         return dryRun;
     }
@@ -89,4 +147,28 @@ public class ExecuteRulesRequest {
     public void setDryRun(boolean dryRun) {
         this.dryRun = dryRun;
     }
+
+    public WebhookMode getWebhookMode() {
+        return webhookMode;
+    }
+
+    public void setWebhookMode(WebhookMode webhookMode) {
+        this.webhookMode = webhookMode;
+    }
+
+    public Long getWebhookWaitMs() {
+        return webhookWaitMs;
+    }
+
+    public void setWebhookWaitMs(Long webhookWaitMs) {
+        this.webhookWaitMs = webhookWaitMs;
+    }
+
+    /**
+     * Wait for the execution's webhooks: 0 in ASYNC mode, otherwise the
+     * requested wait (null for the configured default).
+     */
+    public Long webhookWaitDeadlineMs() {
+        return webhookMode == WebhookMode.ASYNC ? Long.valueOf(0L) : webhookWaitMs;
+    }
 }
@@ -1,19 +1,38 @@
 package com.ruleengine.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.databind.util.RawValue;
+import com.ruleengine.webhook.QueuedWebhooks;
+import com.ruleengine.webhook.WebhookDispatch;
+
 import java.util.List;
 import java.util.Map;
 
 /**
  * Response DTO for rule execution results.
  */
+@JsonPropertyOrder({ "success", "resultFacts" })
 public class ExecuteRulesResponse {
 
     private boolean success;
     private List<Map<String, Object>> resultFacts;
+    // Result facts keyed by schema name, when the request used factsBySchema
+    private Map<String, List<Map<String, Object>>> resultFactsBySchema;
     private List<FiredRule> firedRules;
     private long executionTimeMs;
     private String errorMessage;
     private List<WebhookResult> webhookResults;
+    // Webhooks left for the outbox; written with the execution history, never serialized
+    @JsonIgnore
+    private List<WebhookDispatch> deferredWebhooks;
+    // Facts already encoded for the audit log and history; reused when writing resultFacts
+    @JsonIgnore
+    private ExecutionPayloads payloads;
+    // Webhooks sent by this execution and not waited for yet; never serialized
+    @JsonIgnore
+    private QueuedWebhooks queuedWebhooks;
 
     public ExecuteRulesResponse() {
     }
@@ -84,14 +103,60 @@ public class ExecuteRulesResponse {
         this.success = success;
     }
 
+    @JsonIgnore
     public List<Map<String, Object>> getResultFacts() {
         return resultFacts;
     }
 
+    @JsonProperty("resultFacts")
     public void setResultFacts(List<Map<String, Object>> resultFacts) {
         this.resultFacts = resultFacts;
     }
 
+    /**
+     * The result facts as written to JSON: the already encoded payload when
+     * there is one, so the facts are not serialized a second time.
+     */
+    @JsonProperty("resultFacts")
+    Object getResultFactsForJson() {
+        return payloads != null ? new RawValue(payloads.getResultFactsJson()) : resultFacts;
+    }
+
+    public Map<String, List<Map<String, Object>>> getResultFactsBySchema() {
+        return resultFactsBySchema;
+    }
+
+    public void setResultFactsBySchema(Map<String, List<Map<String, Object>>> resultFactsBySchema) {
+        this.resultFactsBySchema = resultFactsBySchema;
+    }
+
+    @JsonIgnore
+    public List<WebhookDispatch> getDeferredWebhooks() {
+        return deferredWebhooks;
+    }
+
+    public void setDeferredWebhooks(List<WebhookDispatch> deferredWebhooks) {
+        this.deferredWebhooks = deferredWebhooks;
+    }
+
+    @JsonIgnore
+    public ExecutionPayloads getPayloads() {
+        return payloads;
+    }
+
+    public void setPayloads(ExecutionPayloads payloads) {
+        this.payloads = payloads;
+    }
+
+    @JsonIgnore
+    public QueuedWebhooks getQueuedWebhooks() {
+        return queuedWebhooks;
+    }
+
+    public void setQueuedWebhooks(QueuedWebhooks queuedWebhooks) {
+        this.queuedWebhooks = queuedWebhooks;
+    }
+
     public List<FiredRule> getFiredRules() {
         return firedRules;
     }
@@ -128,20 +193,28 @@ public class ExecuteRulesResponse {
         private Long ruleId;
         private String ruleName;
         private int fireCount;
+        // Total time spent in the rule's consequences
+        private long executionTimeMicros;
 
         public FiredRule() {
         }
 
         public FiredRule(Long ruleId, String ruleName, int fireCount) {
+            this(ruleId, ruleName, fireCount, 0);
+        }
+
+        public FiredRule(Long ruleId, String ruleName, int fireCount, long executionTimeMicros) {
             this.ruleId = ruleId;
             this.ruleName = ruleName;
             this.fireCount = fireCount;
+            this.executionTimeMicros = executionTimeMicros;
         }
 
         public static class FiredRuleBuilder {
             private Long ruleId;
             private String ruleName;
             private int fireCount;
+            private long executionTimeMicros;
 
             public FiredRuleBuilder ruleId(Long ruleId) {
                 this.ruleId = ruleId;
@@ -158,8 +231,13 @@ public class ExecuteRulesResponse {
                 return this;
             }
 
+            public FiredRuleBuilder executionTimeMicros(long executionTimeMicros) {
+                this.executionTimeMicros = executionTimeMicros;
+                return this;
+            }
+
             public FiredRule build() {
-                return new FiredRule(ruleId, ruleName, fireCount);
+                return new FiredRule(ruleId, ruleName, fireCount, executionTimeMicros);
             }
         }
 
@@ -190,13 +268,37 @@ public class ExecuteRulesResponse {
         public void setFireCount(int fireCount) {
             this.fireCount = fireCount;
         }
+
+        public long getExecutionTimeMicros() {
+            return executionTimeMicros;
+        }
+
+        public void setExecutionTimeMicros(long executionTimeMicros) {
+            this.executionTimeMicros = executionTimeMicros;
+        }
     }
 
     public static class WebhookResult {
+        public static final String DELIVERED = "DELIVERED";
+        public static final String FAILED = "FAILED";
+        // Not finished within the execution's wait deadline
+        public static final String PENDING = "PENDING";
+        // Not sent: the host's circuit is open or its queue is full
+        public static final String REJECTED = "REJECTED";
+        // Written to the outbox; delivered (with retries) after the execution commits
+        public static final String QUEUED = "QUEUED";
+
+        private String dispatchId;
         private String url;
+        private String status;
         private int statusCode;
         private String response;
         private boolean success;
+        // Position of the fact that triggered the call in resultFacts (null for facts inserted by rules)
+        private Integer factIndex;
+        // For batched calls: position of the fact's payload in the request's array, and the array size
+        private Integer batchIndex;
+        private Integer batchSize;
 
         public WebhookResult() {
         }
@@ -209,16 +311,28 @@ public class ExecuteRulesResponse {
         }
 
         public static class WebhookResultBuilder {
+            private String dispatchId;
             private String url;
+            private String status;
             private int statusCode;
             private String response;
             private boolean success;
 
+            public WebhookResultBuilder dispatchId(String dispatchId) {
+                this.dispatchId = dispatchId;
+                return this;
+            }
+
             public WebhookResultBuilder url(String url) {
                 this.url = url;
                 return this;
             }
 
+            public WebhookResultBuilder status(String status) {
+                this.status = status;
+                return this;
+            }
+
             public WebhookResultBuilder statusCode(int statusCode) {
                 this.statusCode = statusCode;
                 return this;
@@ -235,7 +349,10 @@ public class ExecuteRulesResponse {
             }
 
             public WebhookResult build() {
-                return new WebhookResult(url, statusCode, response, success);
+                WebhookResult result = new WebhookResult(url, statusCode, response, success);
+                result.setDispatchId(dispatchId);
+                result.setStatus(status);
+                return result;
             }
         }
 
@@ -243,6 +360,27 @@ public class ExecuteRulesResponse {
             return new WebhookResultBuilder();
         }
 
+        /**
+         * Copy for one fact, so per-fact fields don't touch a shared result.
+         */
+        public WebhookResult copy() {
+            WebhookResult copy = new WebhookResult(url, statusCode, response, success);
+            copy.setDispatchId(dispatchId);
+            copy.setStatus(status);
+            copy.setFactIndex(factIndex);
+            copy.setBatchIndex(batchIndex);
+            copy.setBatchSize(batchSize);
+            return copy;
+        }
+
+        public String getDispatchId() {
+            return dispatchId;
+        }
+
+        public void setDispatchId(String dispatchId) {
+            this.dispatchId = dispatchId;
+        }
+
         public String getUrl() {
             return url;
         }
@@ -251,6 +389,14 @@ public class ExecuteRulesResponse {
             this.url = url;
         }
 
+        public String getStatus() {
+            return status;
+        }
+
+        public void setStatus(String status) {
+            this.status = status;
+        }
+
         public int getStatusCode() {
             return statusCode;
         }
@@ -274,5 +420,29 @@ public class ExecuteRulesResponse {
         public void setSuccess(boolean success) {
             this.success = success;
         }
+
+        public Integer getFactIndex() {
+            return factIndex;
+        }
+
+        public void setFactIndex(Integer factIndex) {
+            this.factIndex = factIndex;
+        }
+
+        public Integer getBatchIndex() {
+            return batchIndex;
+        }
+
+        public void setBatchIndex(Integer batchIndex) {
+            this.batchIndex = batchIndex;
+        }
+
+        public Integer getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(Integer batchSize) {
+            this.batchSize = batchSize;
+        }
     }
 }
@@ -0,0 +1,67 @@
+package com.ruleengine.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Daily execution totals of a project for days whose history has expired.
+ */
+public class ExecutionDailyRollupDto {
+
+    private LocalDate day;
+    private long executions;
+    private long failures;
+    private long totalExecutionTimeMs;
+    private long maxExecutionTimeMs;
+
+    public ExecutionDailyRollupDto() {
+    }
+
+    public ExecutionDailyRollupDto(LocalDate day, long executions, long failures, long totalExecutionTimeMs,
+            long maxExecutionTimeMs) {
+        this.day = day;
+        this.executions = executions;
+        this.failures = failures;
+        this.totalExecutionTimeMs = totalExecutionTimeMs;
+        this.maxExecutionTimeMs = maxExecutionTimeMs;
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public void setDay(LocalDate day) {
+        this.day = day;
+    }
+
+    public long getExecutions() {
+        return executions;
+    }
+
+    public void setExecutions(long executions) {
+        this.executions = executions;
+    }
+
+    public long getFailures() {
+        return failures;
+    }
+
+    public void setFailures(long failures) {
+        this.failures = failures;
+    }
+
+    public long getTotalExecutionTimeMs() {
+        return totalExecutionTimeMs;
+    }
+
+    public void setTotalExecutionTimeMs(long totalExecutionTimeMs) {
+        this.totalExecutionTimeMs = totalExecutionTimeMs;
+    }
+
+    public long getMaxExecutionTimeMs() {
+        return maxExecutionTimeMs;
+    }
+
+    public void setMaxExecutionTimeMs(long maxExecutionTimeMs) {
+        this.maxExecutionTimeMs = maxExecutionTimeMs;
+    }
+}
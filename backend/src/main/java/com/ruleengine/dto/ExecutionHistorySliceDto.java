@@ -0,0 +1,37 @@
+package com.ruleengine.dto;
+
+import java.util.List;
+
+/**
+ * A keyset page of execution summaries, newest first. nextCursor is passed
+ * back as the cursor parameter to read the following page and is null on
+ * the last one.
+ */
+public class ExecutionHistorySliceDto {
+    private List<ExecutionHistorySummaryDto> items;
+    private String nextCursor;
+
+    public ExecutionHistorySliceDto() {
+    }
+
+    public ExecutionHistorySliceDto(List<ExecutionHistorySummaryDto> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<ExecutionHistorySummaryDto> getItems() {
+        return items;
+    }
+
+    public void setItems(List<ExecutionHistorySummaryDto> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
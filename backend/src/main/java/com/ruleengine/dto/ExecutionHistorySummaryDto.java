@@ -0,0 +1,108 @@
+package com.ruleengine.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row of an execution history listing. Built directly by a JPQL
+ * constructor query so the fact payload columns are never loaded; the full
+ * record is available from the execution detail endpoint.
+ */
+public class ExecutionHistorySummaryDto {
+    private Long id;
+    private Long projectId;
+    private String projectName;
+    private boolean success;
+    private boolean dryRun;
+    private long executionTimeMs;
+    private LocalDateTime executedAt;
+    private long firedRuleCount;
+    private long totalFireCount;
+
+    public ExecutionHistorySummaryDto() {
+    }
+
+    public ExecutionHistorySummaryDto(Long id, Long projectId, String projectName, boolean success, boolean dryRun,
+            long executionTimeMs, LocalDateTime executedAt, Long firedRuleCount, Long totalFireCount) {
+        this.id = id;
+        this.projectId = projectId;
+        this.projectName = projectName;
+        this.success = success;
+        this.dryRun = dryRun;
+        this.executionTimeMs = executionTimeMs;
+        this.executedAt = executedAt;
+        this.firedRuleCount = firedRuleCount != null ? firedRuleCount : 0;
+        this.totalFireCount = totalFireCount != null ? totalFireCount : 0;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getProjectId() {
+        return projectId;
+    }
+
+    public void setProjectId(Long projectId) {
+        this.projectId = projectId;
+    }
+
+    public String getProjectName() {
+        return projectName;
+    }
+
+    public void setProjectName(String projectName) {
+        this.projectName = projectName;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+
+    public boolean isDryRun() {
+        return dryRun;
+    }
+
+    public void setDryRun(boolean dryRun) {
+        this.dryRun = dryRun;
+    }
+
+    public long getExecutionTimeMs() {
+        return executionTimeMs;
+    }
+
+    public void setExecutionTimeMs(long executionTimeMs) {
+        this.executionTimeMs = executionTimeMs;
+    }
+
+    public LocalDateTime getExecutedAt() {
+        return executedAt;
+    }
+
+    public void setExecutedAt(LocalDateTime executedAt) {
+        this.executedAt = executedAt;
+    }
+
+    public long getFiredRuleCount() {
+        return firedRuleCount;
+    }
+
+    public void setFiredRuleCount(long firedRuleCount) {
+        this.firedRuleCount = firedRuleCount;
+    }
+
+    public long getTotalFireCount() {
+        return totalFireCount;
+    }
+
+    public void setTotalFireCount(long totalFireCount) {
+        this.totalFireCount = totalFireCount;
+    }
+}
@@ -0,0 +1,42 @@
+package com.ruleengine.dto;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Input and result facts of one execution, encoded as JSON once.
+ *
+ * Audit logs, execution history and the HTTP response all store or send the
+ * same facts, so they share these strings instead of each serializing the
+ * fact lists again. Encode only after the execution has finished changing
+ * the result facts.
+ */
+public final class ExecutionPayloads {
+
+    private final String inputFactsJson;
+    private final String resultFactsJson;
+
+    private ExecutionPayloads(String inputFactsJson, String resultFactsJson) {
+        this.inputFactsJson = inputFactsJson;
+        this.resultFactsJson = resultFactsJson;
+    }
+
+    public static ExecutionPayloads encode(ObjectMapper objectMapper, List<Map<String, Object>> inputFacts,
+            List<Map<String, Object>> resultFacts) throws JsonProcessingException {
+        String input = objectMapper.writeValueAsString(inputFacts);
+        // Executions without rules return the input facts unchanged
+        String result = resultFacts == inputFacts ? input : objectMapper.writeValueAsString(resultFacts);
+        return new ExecutionPayloads(input, result);
+    }
+
+    public String getInputFactsJson() {
+        return inputFactsJson;
+    }
+
+    public String getResultFactsJson() {
+        return resultFactsJson;
+    }
+}
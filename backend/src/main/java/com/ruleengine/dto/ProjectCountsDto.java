@@ -0,0 +1,35 @@
+package com.ruleengine.dto;
+
+/**
+ * Template, rule and schema counts of one project, as shown in project
+ * listings. Rule count includes the rules of the project's templates.
+ */
+public class ProjectCountsDto {
+    private final Long projectId;
+    private final int templateCount;
+    private final int ruleCount;
+    private final int schemaCount;
+
+    public ProjectCountsDto(Long projectId, Long templateCount, Long ruleCount, Long schemaCount) {
+        this.projectId = projectId;
+        this.templateCount = templateCount != null ? templateCount.intValue() : 0;
+        this.ruleCount = ruleCount != null ? ruleCount.intValue() : 0;
+        this.schemaCount = schemaCount != null ? schemaCount.intValue() : 0;
+    }
+
+    public Long getProjectId() {
+        return projectId;
+    }
+
+    public int getTemplateCount() {
+        return templateCount;
+    }
+
+    public int getRuleCount() {
+        return ruleCount;
+    }
+
+    public int getSchemaCount() {
+        return schemaCount;
+    }
+}
@@ -0,0 +1,110 @@
+package com.ruleengine.dto;
+
+import com.ruleengine.model.ReferenceValueType;
+
+import java.time.LocalDateTime;
+
+/**
+ * Reference data set metadata. The entries themselves are not returned.
+ */
+public class ReferenceDataSetDto {
+
+    private Long id;
+    private Long projectId;
+    private String name;
+    private String description;
+    private ReferenceValueType valueType;
+    private int version;
+    private int entryCount;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    public ReferenceDataSetDto() {
+    }
+
+    public ReferenceDataSetDto(Long id, Long projectId, String name, String description,
+            ReferenceValueType valueType, int version, int entryCount, LocalDateTime createdAt,
+            LocalDateTime updatedAt) {
+        this.id = id;
+        this.projectId = projectId;
+        this.name = name;
+        this.description = description;
+        this.valueType = valueType;
+        this.version = version;
+        this.entryCount = entryCount;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getProjectId() {
+        return projectId;
+    }
+
+    public void setProjectId(Long projectId) {
+        this.projectId = projectId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public ReferenceValueType getValueType() {
+        return valueType;
+    }
+
+    public void setValueType(ReferenceValueType valueType) {
+        this.valueType = valueType;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
+    public int getEntryCount() {
+        return entryCount;
+    }
+
+    public void setEntryCount(int entryCount) {
+        this.entryCount = entryCount;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -19,6 +19,9 @@ public class RuleDefinition {
     private ConditionGroup conditions;
     private List<RuleAction> actions;
 
+    // Facts of other schemas matched on key fields (e.g. Order.customerId = Customer.id)
+    private List<Join> joins;
+
     // Advanced Drools options
     private String activationGroup;
     private Boolean lockOnActive;
@@ -145,6 +148,150 @@ public class RuleDefinition {
         this.dateExpires = dateExpires;
     }
 
+    public List<Join> getJoins() {
+        return joins;
+    }
+
+    public void setJoins(List<Join> joins) {
+        this.joins = joins;
+    }
+
+    public RuleDefinition copy() {
+        RuleDefinition copy = new RuleDefinition(name, description, schemaId, projectId, priority, enabled, category,
+                conditions != null ? conditions.copy() : null, Copies.list(actions, RuleAction::copy));
+        copy.joins = Copies.list(joins, Join::copy);
+        copy.activationGroup = activationGroup;
+        copy.lockOnActive = lockOnActive;
+        copy.dateEffective = dateEffective;
+        copy.dateExpires = dateExpires;
+        return copy;
+    }
+
+    /**
+     * A fact of another schema that must be present (or, when negated,
+     * absent) with matching key fields.
+     */
+    public static class Join {
+        // Variable name of the joined fact, e.g. "customer"
+        private String alias;
+        private Long schemaId;
+        // Schema name of the joined fact; resolved from schemaId when missing
+        private String factType;
+        // Alias of an earlier join to take the keys from; the rule's own fact when empty
+        private String sourceAlias;
+        private List<JoinKey> on;
+        private ConditionGroup conditions;
+        // Match when no such fact exists
+        private boolean negated;
+
+        public Join() {
+        }
+
+        public String getAlias() {
+            return alias;
+        }
+
+        public void setAlias(String alias) {
+            this.alias = alias;
+        }
+
+        public Long getSchemaId() {
+            return schemaId;
+        }
+
+        public void setSchemaId(Long schemaId) {
+            this.schemaId = schemaId;
+        }
+
+        public String getFactType() {
+            return factType;
+        }
+
+        public void setFactType(String factType) {
+            this.factType = factType;
+        }
+
+        public String getSourceAlias() {
+            return sourceAlias;
+        }
+
+        public void setSourceAlias(String sourceAlias) {
+            this.sourceAlias = sourceAlias;
+        }
+
+        public List<JoinKey> getOn() {
+            return on;
+        }
+
+        public void setOn(List<JoinKey> on) {
+            this.on = on;
+        }
+
+        public ConditionGroup getConditions() {
+            return conditions;
+        }
+
+        public void setConditions(ConditionGroup conditions) {
+            this.conditions = conditions;
+        }
+
+        public boolean isNegated() {
+            return negated;
+        }
+
+        public void setNegated(boolean negated) {
+            this.negated = negated;
+        }
+
+        public Join copy() {
+            Join copy = new Join();
+            copy.alias = alias;
+            copy.schemaId = schemaId;
+            copy.factType = factType;
+            copy.sourceAlias = sourceAlias;
+            copy.on = Copies.list(on, JoinKey::copy);
+            copy.conditions = conditions != null ? conditions.copy() : null;
+            copy.negated = negated;
+            return copy;
+        }
+    }
+
+    /**
+     * Equality between a field of the source fact and a field of the joined fact.
+     */
+    public static class JoinKey {
+        private String field;
+        private String joinField;
+
+        public JoinKey() {
+        }
+
+        public JoinKey(String field, String joinField) {
+            this.field = field;
+            this.joinField = joinField;
+        }
+
+        public String getField() {
+            return field;
+        }
+
+        public void setField(String field) {
+            this.field = field;
+        }
+
+        public String getJoinField() {
+            return joinField;
+        }
+
+        public void setJoinField(String joinField) {
+            this.joinField = joinField;
+        }
+
+        public JoinKey copy() {
+            return new JoinKey(field, joinField);
+        }
+    }
+
     public static class ConditionGroup {
         private String operator;
         private List<Condition> conditions;
@@ -172,6 +319,10 @@ public class RuleDefinition {
         public void setConditions(List<Condition> conditions) {
             this.conditions = conditions;
         }
+
+        public ConditionGroup copy() {
+            return new ConditionGroup(operator, Copies.list(conditions, Condition::copy));
+        }
     }
 
     public static class Condition {
@@ -180,6 +331,8 @@ public class RuleDefinition {
         private Object value;
         private boolean valueIsField;
         private ConditionGroup nested;
+        // Name of a project reference data set, for memberOf/notMemberOf
+        private String referenceSet;
 
         public Condition() {
         }
@@ -231,6 +384,21 @@ public class RuleDefinition {
         public void setNested(ConditionGroup nested) {
             this.nested = nested;
         }
+
+        public String getReferenceSet() {
+            return referenceSet;
+        }
+
+        public void setReferenceSet(String referenceSet) {
+            this.referenceSet = referenceSet;
+        }
+
+        public Condition copy() {
+            Condition copy = new Condition(fact, operator, Copies.value(value), valueIsField,
+                    nested != null ? nested.copy() : null);
+            copy.referenceSet = referenceSet;
+            return copy;
+        }
     }
 
     public static class RuleAction {
@@ -244,6 +412,11 @@ public class RuleDefinition {
         private String webhookMethod;
         private Map<String, String> webhookHeaders;
         private String webhookBodyTemplate;
+        // Send this action's payloads as JSON array requests instead of one request per fact
+        private Boolean webhookBatch;
+        private Integer webhookBatchMaxSize;
+        // How long a batch stays open for payloads of other executions; 0 sends it when firing ends
+        private Long webhookBatchLingerMs;
 
         public RuleAction() {
         }
@@ -342,5 +515,39 @@ public class RuleDefinition {
         public void setWebhookBodyTemplate(String webhookBodyTemplate) {
             this.webhookBodyTemplate = webhookBodyTemplate;
         }
+
+        public Boolean getWebhookBatch() {
+            return webhookBatch;
+        }
+
+        public void setWebhookBatch(Boolean webhookBatch) {
+            this.webhookBatch = webhookBatch;
+        }
+
+        public Integer getWebhookBatchMaxSize() {
+            return webhookBatchMaxSize;
+        }
+
+        public void setWebhookBatchMaxSize(Integer webhookBatchMaxSize) {
+            this.webhookBatchMaxSize = webhookBatchMaxSize;
+        }
+
+        public Long getWebhookBatchLingerMs() {
+            return webhookBatchLingerMs;
+        }
+
+        public void setWebhookBatchLingerMs(Long webhookBatchLingerMs) {
+            this.webhookBatchLingerMs = webhookBatchLingerMs;
+        }
+
+        public RuleAction copy() {
+            RuleAction copy = new RuleAction(type, targetField, Copies.value(value), factType,
+                    Copies.map(factData, Copies::value), logMessage, webhookUrl, webhookMethod,
+                    Copies.map(webhookHeaders, header -> header), webhookBodyTemplate);
+            copy.webhookBatch = webhookBatch;
+            copy.webhookBatchMaxSize = webhookBatchMaxSize;
+            copy.webhookBatchLingerMs = webhookBatchLingerMs;
+            return copy;
+        }
     }
 }
@@ -1,11 +1,15 @@
 package com.ruleengine.dto;
 
+import com.ruleengine.cache.CachedValue;
+
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * DTO for rule responses.
  */
-public class RuleDto {
+public class RuleDto implements CachedValue<RuleDto> {
 
     private Long id;
     private String name;
@@ -27,6 +31,9 @@ public class RuleDto {
     private String dateEffective;
     private String dateExpires;
 
+    // Dependency cycles reported when the rule is saved
+    private List<String> dependencyWarnings;
+
     public RuleDto() {
     }
 
@@ -275,4 +282,33 @@ public class RuleDto {
     public void setDateExpires(String dateExpires) {
         this.dateExpires = dateExpires;
     }
+
+    public List<String> getDependencyWarnings() {
+        return dependencyWarnings;
+    }
+
+    public void setDependencyWarnings(List<String> dependencyWarnings) {
+        this.dependencyWarnings = dependencyWarnings;
+    }
+
+    @Override
+    public RuleDto copy() {
+        RuleDto copy = new RuleDto(id, name, description, schemaId, schemaName, projectId, enabled, priority, category,
+                createdAt, updatedAt, definition != null ? definition.copy() : null, generatedDrl);
+        copy.activationGroup = activationGroup;
+        copy.lockOnActive = lockOnActive;
+        copy.dateEffective = dateEffective;
+        copy.dateExpires = dateExpires;
+        copy.dependencyWarnings = dependencyWarnings != null ? new ArrayList<>(dependencyWarnings) : null;
+        return copy;
+    }
+
+    /**
+     * The generated DRL tracks the size of the definition it was generated
+     * from, so it is counted once for itself and once for the definition.
+     */
+    @Override
+    public long estimatedSize() {
+        return 512 + 2 * (Copies.length(name) + Copies.length(description) + 2 * Copies.length(generatedDrl));
+    }
 }
@@ -1,9 +1,11 @@
 package com.ruleengine.dto;
 
+import com.ruleengine.cache.CachedValue;
+
 import java.time.LocalDateTime;
 import java.util.List;
 
-public class RuleProjectDto {
+public class RuleProjectDto implements CachedValue<RuleProjectDto> {
     private Long id;
     private String name;
     private String description;
@@ -26,6 +28,8 @@ public class RuleProjectDto {
     private Boolean autoFocus;
     private Boolean lockOnActive;
 
+    private Integer historyRetentionDays;
+
     public static class SchemaInfo {
         private Long id;
         private String name;
@@ -53,6 +57,10 @@ public class RuleProjectDto {
         public void setName(String name) {
             this.name = name;
         }
+
+        public SchemaInfo copy() {
+            return new SchemaInfo(id, name);
+        }
     }
 
     public RuleProjectDto() {
@@ -190,6 +198,14 @@ public class RuleProjectDto {
         this.lockOnActive = lockOnActive;
     }
 
+    public Integer getHistoryRetentionDays() {
+        return historyRetentionDays;
+    }
+
+    public void setHistoryRetentionDays(Integer historyRetentionDays) {
+        this.historyRetentionDays = historyRetentionDays;
+    }
+
     public static class Builder {
         private RuleProjectDto dto = new RuleProjectDto();
 
@@ -273,8 +289,44 @@ public class RuleProjectDto {
             return this;
         }
 
+        public Builder historyRetentionDays(Integer historyRetentionDays) {
+            dto.historyRetentionDays = historyRetentionDays;
+            return this;
+        }
+
         public RuleProjectDto build() {
             return dto;
         }
     }
+
+    @Override
+    public RuleProjectDto copy() {
+        RuleProjectDto copy = new RuleProjectDto();
+        copy.id = id;
+        copy.name = name;
+        copy.description = description;
+        copy.inputSchemas = Copies.list(inputSchemas, SchemaInfo::copy);
+        copy.outputSchemas = Copies.list(outputSchemas, SchemaInfo::copy);
+        copy.parentProjectId = parentProjectId;
+        copy.allowedOutputTypes = allowedOutputTypes;
+        copy.ruleCount = ruleCount;
+        copy.templateCount = templateCount;
+        copy.schemaCount = schemaCount;
+        copy.createdAt = createdAt;
+        copy.updatedAt = updatedAt;
+        copy.activationGroup = activationGroup;
+        copy.agendaGroup = agendaGroup;
+        copy.autoFocus = autoFocus;
+        copy.lockOnActive = lockOnActive;
+        copy.historyRetentionDays = historyRetentionDays;
+        return copy;
+    }
+
+    @Override
+    public long estimatedSize() {
+        int schemas = (inputSchemas != null ? inputSchemas.size() : 0)
+                + (outputSchemas != null ? outputSchemas.size() : 0);
+        return 512 + 2 * (Copies.length(name) + Copies.length(description) + Copies.length(allowedOutputTypes))
+                + 96L * schemas;
+    }
 }
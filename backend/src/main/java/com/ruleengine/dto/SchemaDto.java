@@ -1,5 +1,6 @@
 package com.ruleengine.dto;
 
+import com.ruleengine.cache.CachedValue;
 import com.ruleengine.model.SchemaSource;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -7,7 +8,7 @@ import java.util.List;
 /**
  * DTO for schema responses.
  */
-public class SchemaDto {
+public class SchemaDto implements CachedValue<SchemaDto> {
 
     private Long id;
     private String name;
@@ -203,4 +204,19 @@ public class SchemaDto {
     public void setJsonSchema(String jsonSchema) {
         this.jsonSchema = jsonSchema;
     }
+
+    @Override
+    public SchemaDto copy() {
+        return new SchemaDto(id, name, description, group, projectId, version, source, createdAt, updatedAt,
+                Copies.list(properties, SchemaPropertyDto::copy), jsonSchema);
+    }
+
+    /**
+     * The properties are parsed from the JSON schema, so it is counted once
+     * for itself and once for them.
+     */
+    @Override
+    public long estimatedSize() {
+        return 256 + 2 * (Copies.length(name) + Copies.length(description) + 2 * Copies.length(jsonSchema));
+    }
 }
@@ -220,4 +220,11 @@ public class SchemaPropertyDto {
     public void setConstraints(Map<String, Object> constraints) {
         this.constraints = constraints;
     }
+
+    public SchemaPropertyDto copy() {
+        return new SchemaPropertyDto(name, path, type, format, description, required,
+                Copies.list(properties, SchemaPropertyDto::copy), items != null ? items.copy() : null,
+                additionalProperties != null ? additionalProperties.copy() : null, Copies.value(enumValues),
+                Copies.value(defaultValue), Copies.value(constraints));
+    }
 }
@@ -0,0 +1,130 @@
+package com.ruleengine.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Size and usage of one open tenant connection pool. peakDemand is the
+ * highest number of threads using or waiting for a connection since the
+ * pool was last resized.
+ */
+public class TenantPoolStatsDto {
+
+    private String tenantId;
+    private int maxPoolSize;
+    private int totalConnections;
+    private int idleConnections;
+    private int connectionsInUse;
+    private int threadsWaiting;
+    private int peakDemand;
+    private long connectionsAcquired;
+    private long connectionTimeouts;
+    private long averageAcquireMicros;
+    private LocalDateTime lastUsedAt;
+
+    public TenantPoolStatsDto() {
+    }
+
+    public TenantPoolStatsDto(String tenantId, int maxPoolSize, int totalConnections, int idleConnections,
+            int connectionsInUse, int threadsWaiting, int peakDemand, long connectionsAcquired, long connectionTimeouts,
+            long averageAcquireMicros, LocalDateTime lastUsedAt) {
+        this.tenantId = tenantId;
+        this.maxPoolSize = maxPoolSize;
+        this.totalConnections = totalConnections;
+        this.idleConnections = idleConnections;
+        this.connectionsInUse = connectionsInUse;
+        this.threadsWaiting = threadsWaiting;
+        this.peakDemand = peakDemand;
+        this.connectionsAcquired = connectionsAcquired;
+        this.connectionTimeouts = connectionTimeouts;
+        this.averageAcquireMicros = averageAcquireMicros;
+        this.lastUsedAt = lastUsedAt;
+    }
+
+    public String getTenantId() {
+        return tenantId;
+    }
+
+    public void setTenantId(String tenantId) {
+        this.tenantId = tenantId;
+    }
+
+    public int getMaxPoolSize() {
+        return maxPoolSize;
+    }
+
+    public void setMaxPoolSize(int maxPoolSize) {
+        this.maxPoolSize = maxPoolSize;
+    }
+
+    public int getTotalConnections() {
+        return totalConnections;
+    }
+
+    public void setTotalConnections(int totalConnections) {
+        this.totalConnections = totalConnections;
+    }
+
+    public int getIdleConnections() {
+        return idleConnections;
+    }
+
+    public void setIdleConnections(int idleConnections) {
+        this.idleConnections = idleConnections;
+    }
+
+    public int getConnectionsInUse() {
+        return connectionsInUse;
+    }
+
+    public void setConnectionsInUse(int connectionsInUse) {
+        this.connectionsInUse = connectionsInUse;
+    }
+
+    public int getThreadsWaiting() {
+        return threadsWaiting;
+    }
+
+    public void setThreadsWaiting(int threadsWaiting) {
+        this.threadsWaiting = threadsWaiting;
+    }
+
+    public int getPeakDemand() {
+        return peakDemand;
+    }
+
+    public void setPeakDemand(int peakDemand) {
+        this.peakDemand = peakDemand;
+    }
+
+    public long getConnectionsAcquired() {
+        return connectionsAcquired;
+    }
+
+    public void setConnectionsAcquired(long connectionsAcquired) {
+        this.connectionsAcquired = connectionsAcquired;
+    }
+
+    public long getConnectionTimeouts() {
+        return connectionTimeouts;
+    }
+
+    public void setConnectionTimeouts(long connectionTimeouts) {
+        this.connectionTimeouts = connectionTimeouts;
+    }
+
+    public long getAverageAcquireMicros() {
+        return averageAcquireMicros;
+    }
+
+    public void setAverageAcquireMicros(long averageAcquireMicros) {
+        this.averageAcquireMicros = averageAcquireMicros;
+    }
+
+    public LocalDateTime getLastUsedAt() {
+        return lastUsedAt;
+    }
+
+    public void setLastUsedAt(LocalDateTime lastUsedAt) {
+        this.lastUsedAt = lastUsedAt;
+    }
+}
@@ -0,0 +1,62 @@
+package com.ruleengine.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.ruleengine.model.ReferenceValueType;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+
+import java.util.List;
+
+/**
+ * Request to create a reference data set or replace its entries with a new
+ * version.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class UploadReferenceDataRequest {
+
+    // Used in DRL string literals, so keep it to identifier-like names
+    @NotBlank
+    @Pattern(regexp = "^[A-Za-z][A-Za-z0-9_-]*$")
+    private String name;
+
+    private String description;
+
+    @NotNull
+    private ReferenceValueType valueType;
+
+    @NotNull
+    private List<Object> values;
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public ReferenceValueType getValueType() {
+        return valueType;
+    }
+
+    public void setValueType(ReferenceValueType valueType) {
+        this.valueType = valueType;
+    }
+
+    public List<Object> getValues() {
+        return values;
+    }
+
+    public void setValues(List<Object> values) {
+        this.values = values;
+    }
+}
@@ -0,0 +1,85 @@
+package com.ruleengine.dto;
+
+/**
+ * Dispatch state of one webhook host (scheme://host:port).
+ */
+public class WebhookHostStatsDto {
+
+    private String host;
+    private String circuitState;
+    private int inFlight;
+    private int queued;
+    private long delivered;
+    private long failed;
+    private long rejected;
+
+    public WebhookHostStatsDto() {
+    }
+
+    public WebhookHostStatsDto(String host, String circuitState, int inFlight, int queued, long delivered,
+            long failed, long rejected) {
+        this.host = host;
+        this.circuitState = circuitState;
+        this.inFlight = inFlight;
+        this.queued = queued;
+        this.delivered = delivered;
+        this.failed = failed;
+        this.rejected = rejected;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public void setHost(String host) {
+        this.host = host;
+    }
+
+    public String getCircuitState() {
+        return circuitState;
+    }
+
+    public void setCircuitState(String circuitState) {
+        this.circuitState = circuitState;
+    }
+
+    public int getInFlight() {
+        return inFlight;
+    }
+
+    public void setInFlight(int inFlight) {
+        this.inFlight = inFlight;
+    }
+
+    public int getQueued() {
+        return queued;
+    }
+
+    public void setQueued(int queued) {
+        this.queued = queued;
+    }
+
+    public long getDelivered() {
+        return delivered;
+    }
+
+    public void setDelivered(long delivered) {
+        this.delivered = delivered;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+}
@@ -0,0 +1,108 @@
+package com.ruleengine.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Backlog of the webhook outbox.
+ */
+public class WebhookOutboxStatsDto {
+
+    private long pending;
+    private long inFlight;
+    private long delivered;
+    private long dead;
+    // Creation time of the oldest undelivered entry
+    private LocalDateTime oldestUndeliveredAt;
+    // How long the oldest undelivered entry has been waiting
+    private long lagMs;
+    private List<DestinationBacklog> backlogByDestination;
+
+    public WebhookOutboxStatsDto() {
+    }
+
+    public long getPending() {
+        return pending;
+    }
+
+    public void setPending(long pending) {
+        this.pending = pending;
+    }
+
+    public long getInFlight() {
+        return inFlight;
+    }
+
+    public void setInFlight(long inFlight) {
+        this.inFlight = inFlight;
+    }
+
+    public long getDelivered() {
+        return delivered;
+    }
+
+    public void setDelivered(long delivered) {
+        this.delivered = delivered;
+    }
+
+    public long getDead() {
+        return dead;
+    }
+
+    public void setDead(long dead) {
+        this.dead = dead;
+    }
+
+    public LocalDateTime getOldestUndeliveredAt() {
+        return oldestUndeliveredAt;
+    }
+
+    public void setOldestUndeliveredAt(LocalDateTime oldestUndeliveredAt) {
+        this.oldestUndeliveredAt = oldestUndeliveredAt;
+    }
+
+    public long getLagMs() {
+        return lagMs;
+    }
+
+    public void setLagMs(long lagMs) {
+        this.lagMs = lagMs;
+    }
+
+    public List<DestinationBacklog> getBacklogByDestination() {
+        return backlogByDestination;
+    }
+
+    public void setBacklogByDestination(List<DestinationBacklog> backlogByDestination) {
+        this.backlogByDestination = backlogByDestination;
+    }
+
+    public static class DestinationBacklog {
+        private String destination;
+        private long entries;
+
+        public DestinationBacklog() {
+        }
+
+        public DestinationBacklog(String destination, Long entries) {
+            this.destination = destination;
+            this.entries = entries != null ? entries : 0;
+        }
+
+        public String getDestination() {
+            return destination;
+        }
+
+        public void setDestination(String destination) {
+            this.destination = destination;
+        }
+
+        public long getEntries() {
+            return entries;
+        }
+
+        public void setEntries(long entries) {
+            this.entries = entries;
+        }
+    }
+}
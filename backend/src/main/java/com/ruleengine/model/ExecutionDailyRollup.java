@@ -0,0 +1,81 @@
+package com.ruleengine.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+/**
+ * Per-project daily totals of execution history rows removed by retention.
+ * A null project is for executions outside a project.
+ */
+@Entity
+@Table(name = "execution_daily_rollups", indexes = {
+        @Index(name = "idx_execution_daily_rollups_project_day", columnList = "project_id, rollup_day")
+})
+public class ExecutionDailyRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "project_id")
+    private Long projectId;
+
+    @Column(name = "rollup_day", nullable = false)
+    private LocalDate day;
+
+    private long executions;
+
+    private long failures;
+
+    private long totalExecutionTimeMs;
+
+    private long maxExecutionTimeMs;
+
+    public ExecutionDailyRollup() {
+    }
+
+    public ExecutionDailyRollup(Long projectId, LocalDate day) {
+        this.projectId = projectId;
+        this.day = day;
+    }
+
+    /**
+     * Count one execution.
+     */
+    public void add(boolean success, long executionTimeMs) {
+        executions++;
+        if (!success) {
+            failures++;
+        }
+        totalExecutionTimeMs += executionTimeMs;
+        maxExecutionTimeMs = Math.max(maxExecutionTimeMs, executionTimeMs);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getProjectId() {
+        return projectId;
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public long getExecutions() {
+        return executions;
+    }
+
+    public long getFailures() {
+        return failures;
+    }
+
+    public long getTotalExecutionTimeMs() {
+        return totalExecutionTimeMs;
+    }
+
+    public long getMaxExecutionTimeMs() {
+        return maxExecutionTimeMs;
+    }
+}
@@ -0,0 +1,93 @@
+package com.ruleengine.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A rule that fired in a recorded execution. The fact payloads live once on
+ * the execution's {@link ExecutionHistory} row; this row only carries the
+ * per-rule outcome, so a run firing many rules stores its payload once.
+ */
+@Entity
+@Table(name = "execution_fired_rules", indexes = {
+        @Index(name = "idx_execution_fired_rules_rule_time", columnList = "rule_id, executed_at"),
+        @Index(name = "idx_execution_fired_rules_execution", columnList = "execution_history_id")
+})
+public class ExecutionFiredRule {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "execution_history_id", nullable = false)
+    private Long executionHistoryId;
+
+    @Column(name = "rule_id", nullable = false)
+    private Long ruleId;
+
+    private int fireCount;
+
+    // Total time spent in the rule's consequences
+    private long executionTimeMicros;
+
+    // Copied from the execution so per-rule queries need no join
+    @Column(name = "executed_at", nullable = false)
+    private LocalDateTime executedAt;
+
+    public ExecutionFiredRule() {
+    }
+
+    public ExecutionFiredRule(Long ruleId, int fireCount, long executionTimeMicros) {
+        this.ruleId = ruleId;
+        this.fireCount = fireCount;
+        this.executionTimeMicros = executionTimeMicros;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getExecutionHistoryId() {
+        return executionHistoryId;
+    }
+
+    public void setExecutionHistoryId(Long executionHistoryId) {
+        this.executionHistoryId = executionHistoryId;
+    }
+
+    public Long getRuleId() {
+        return ruleId;
+    }
+
+    public void setRuleId(Long ruleId) {
+        this.ruleId = ruleId;
+    }
+
+    public int getFireCount() {
+        return fireCount;
+    }
+
+    public void setFireCount(int fireCount) {
+        this.fireCount = fireCount;
+    }
+
+    public long getExecutionTimeMicros() {
+        return executionTimeMicros;
+    }
+
+    public void setExecutionTimeMicros(long executionTimeMicros) {
+        this.executionTimeMicros = executionTimeMicros;
+    }
+
+    public LocalDateTime getExecutedAt() {
+        return executedAt;
+    }
+
+    public void setExecutedAt(LocalDateTime executedAt) {
+        this.executedAt = executedAt;
+    }
+}
@@ -1,12 +1,16 @@
 package com.ruleengine.model;
 
 import jakarta.persistence.*;
+import org.hibernate.Length;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "execution_history")
+@Table(name = "execution_history", indexes = {
+        @Index(name = "idx_execution_history_project_time", columnList = "project_id, executed_at"),
+        @Index(name = "idx_execution_history_time", columnList = "executed_at")
+})
 public class ExecutionHistory {
 
     @Id
@@ -38,6 +42,10 @@ public class ExecutionHistory {
     @Column(columnDefinition = "TEXT")
     private String errorMessage;
 
+    // Compressed input facts, output facts and fired rules; the TEXT columns are empty when set
+    @Column(length = Length.LONG32)
+    private byte[] payload;
+
     @CreationTimestamp
     @Column(nullable = false, updatable = false)
     private LocalDateTime executedAt;
@@ -145,6 +153,14 @@ public class ExecutionHistory {
         this.errorMessage = errorMessage;
     }
 
+    public byte[] getPayload() {
+        return payload;
+    }
+
+    public void setPayload(byte[] payload) {
+        this.payload = payload;
+    }
+
     public LocalDateTime getExecutedAt() {
         return executedAt;
     }
@@ -0,0 +1,135 @@
+package com.ruleengine.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Named lookup table (blocklist, allowlist, ...) uploaded once per project and
+ * referenced by memberOf/notMemberOf conditions instead of shipping the list
+ * with every request.
+ */
+@Entity
+@Table(name = "reference_data_sets", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_reference_data_project_name", columnNames = { "project_id", "name" })
+})
+public class ReferenceDataSet {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "project_id", nullable = false)
+    private RuleProject project;
+
+    @Column(nullable = false)
+    private String name;
+
+    private String description;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ReferenceValueType valueType;
+
+    // Incremented on every upload
+    @Column(nullable = false)
+    private int version;
+
+    private int entryCount;
+
+    // JSON array of the values
+    @Lob
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String entries;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+
+    public ReferenceDataSet() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public RuleProject getProject() {
+        return project;
+    }
+
+    public void setProject(RuleProject project) {
+        this.project = project;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public ReferenceValueType getValueType() {
+        return valueType;
+    }
+
+    public void setValueType(ReferenceValueType valueType) {
+        this.valueType = valueType;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
+    public int getEntryCount() {
+        return entryCount;
+    }
+
+    public void setEntryCount(int entryCount) {
+        this.entryCount = entryCount;
+    }
+
+    public String getEntries() {
+        return entries;
+    }
+
+    public void setEntries(String entries) {
+        this.entries = entries;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = createdAt;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,10 @@
+package com.ruleengine.model;
+
+/**
+ * Element type of a reference data set. Decides the in-memory structure the
+ * set is loaded into.
+ */
+public enum ReferenceValueType {
+    LONG,   // Numeric identifiers, held in a primitive long hash set
+    STRING  // Codes, emails, etc., held in an interned string set
+}
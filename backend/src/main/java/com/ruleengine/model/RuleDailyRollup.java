@@ -0,0 +1,72 @@
+package com.ruleengine.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+/**
+ * Per-rule daily totals of fired-rule rows removed by retention.
+ */
+@Entity
+@Table(name = "rule_daily_rollups", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_rule_daily_rollups_rule_day", columnNames = { "rule_id", "rollup_day" })
+})
+public class RuleDailyRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "rule_id", nullable = false)
+    private Long ruleId;
+
+    @Column(name = "rollup_day", nullable = false)
+    private LocalDate day;
+
+    // Executions in which the rule fired
+    private long executions;
+
+    private long fireCount;
+
+    private long totalExecutionTimeMicros;
+
+    public RuleDailyRollup() {
+    }
+
+    public RuleDailyRollup(Long ruleId, LocalDate day) {
+        this.ruleId = ruleId;
+        this.day = day;
+    }
+
+    /**
+     * Count one execution in which the rule fired.
+     */
+    public void add(int fireCount, long executionTimeMicros) {
+        executions++;
+        this.fireCount += fireCount;
+        totalExecutionTimeMicros += executionTimeMicros;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getRuleId() {
+        return ruleId;
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public long getExecutions() {
+        return executions;
+    }
+
+    public long getFireCount() {
+        return fireCount;
+    }
+
+    public long getTotalExecutionTimeMicros() {
+        return totalExecutionTimeMicros;
+    }
+}
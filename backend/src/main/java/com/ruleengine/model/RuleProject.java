@@ -27,12 +27,12 @@ public class RuleProject {
     private RuleProject parentProject;
 
     // Support for multiple input schemas
-    @ManyToMany(fetch = FetchType.EAGER)
+    @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(name = "project_input_schemas", joinColumns = @JoinColumn(name = "project_id"), inverseJoinColumns = @JoinColumn(name = "schema_id"))
     private List<Schema> inputSchemas = new ArrayList<>();
 
     // Support for multiple output schemas
-    @ManyToMany(fetch = FetchType.EAGER)
+    @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(name = "project_output_schemas", joinColumns = @JoinColumn(name = "project_id"), inverseJoinColumns = @JoinColumn(name = "schema_id"))
     private List<Schema> outputSchemas = new ArrayList<>();
 
@@ -63,6 +63,10 @@ public class RuleProject {
     @Column(name = "lock_on_active")
     private Boolean lockOnActive;
 
+    // Days execution history is kept; null uses the tenant's default, 0 keeps it forever
+    @Column(name = "history_retention_days")
+    private Integer historyRetentionDays;
+
     // We can define the relationship to rules here, or just keep it loose via
     // project_id on Rule
     // Keeping it bidirectional is useful for cascading deletes or easier retrieval
@@ -207,4 +211,12 @@ public class RuleProject {
     public void setLockOnActive(Boolean lockOnActive) {
         this.lockOnActive = lockOnActive;
     }
+
+    public Integer getHistoryRetentionDays() {
+        return historyRetentionDays;
+    }
+
+    public void setHistoryRetentionDays(Integer historyRetentionDays) {
+        this.historyRetentionDays = historyRetentionDays;
+    }
 }
@@ -0,0 +1,14 @@
+package com.ruleengine.model;
+
+/**
+ * Delivery state of a webhook outbox entry.
+ */
+public enum WebhookOutboxStatus {
+    // Waiting for its next attempt
+    PENDING,
+    // Claimed by a relay worker until its lease expires
+    IN_FLIGHT,
+    DELIVERED,
+    // Gave up: out of attempts or rejected by the endpoint as invalid
+    DEAD
+}
@@ -5,6 +5,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -27,9 +28,21 @@ public class MultiTenancyConfig implements WebMvcConfigurer {
     @Value("${spring.datasource.url}")
     private String defaultJdbcUrl;
 
+    @Value("${spring.datasource.username:}")
+    private String defaultUsername;
+
     @Value("${spring.datasource.password:}")
     private String defaultAuthToken;
 
+    @Value("${truly.datasource.replica.url:}")
+    private String replicaJdbcUrl;
+
+    @Value("${truly.datasource.replica.username:}")
+    private String replicaUsername;
+
+    @Value("${truly.datasource.replica.password:}")
+    private String replicaPassword;
+
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
         registry.addInterceptor(tenantInterceptor);
@@ -38,11 +51,14 @@ public class MultiTenancyConfig implements WebMvcConfigurer {
     @Bean
     @Primary
     public DataSource dataSource() {
-        TenantRoutingDataSource routingDataSource = new TenantRoutingDataSource();
+        TenantRoutingDataSource routingDataSource = new TenantRoutingDataSource(tenantDatabaseManager);
 
         // Configure default/fallback data source
         DataSource defaultDataSource = tenantDatabaseManager.getOrCreateDataSource(
-                "default", defaultJdbcUrl, defaultAuthToken);
+                "default", defaultJdbcUrl, defaultUsername, defaultAuthToken);
+        if (!replicaJdbcUrl.isEmpty()) {
+            tenantDatabaseManager.registerReplica("default", replicaJdbcUrl, replicaUsername, replicaPassword);
+        }
 
         Map<Object, Object> targetDataSources = new HashMap<>();
         targetDataSources.put("default", defaultDataSource);
@@ -57,6 +73,8 @@ public class MultiTenancyConfig implements WebMvcConfigurer {
         // This ensures the routing data source is initialized correctly
         routingDataSource.afterPropertiesSet();
 
-        return routingDataSource;
+        // Defers fetching the connection until the first statement, by which
+        // time the transaction's read-only flag is known to the router
+        return new LazyConnectionDataSourceProxy(routingDataSource);
     }
 }
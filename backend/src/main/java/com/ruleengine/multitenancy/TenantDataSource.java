@@ -0,0 +1,34 @@
+package com.ruleengine.multitenancy;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * DataSource of one tenant that borrows from the tenant's pool, reopening
+ * it if it was evicted since the last call. The replica DataSource falls
+ * back to the primary while the replica is unavailable.
+ */
+class TenantDataSource extends AbstractDataSource {
+
+    private final TenantDatabaseManager manager;
+    private final String tenantId;
+    private final boolean replica;
+
+    TenantDataSource(TenantDatabaseManager manager, String tenantId, boolean replica) {
+        this.manager = manager;
+        this.tenantId = tenantId;
+        this.replica = replica;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return replica ? manager.getReadConnection(tenantId) : manager.getConnection(tenantId);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new UnsupportedOperationException("Tenant connections use the tenant's credentials");
+    }
+}
@@ -1,71 +1,521 @@
 package com.ruleengine.multitenancy;
 
+import com.ruleengine.dto.TenantPoolStatsDto;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 /**
  * Manages dynamically created DataSources for different Turso (libSQL)
  * instances.
+ *
+ * A tenant's connection pool is opened on its first connection and closed
+ * again once the tenant has been idle for idle-timeout-ms, or when more than
+ * max-open pools are open (least recently used first); the tenant's
+ * DataSource stays valid and reopens the pool on the next connection. The
+ * default tenant's pool is never closed. Each pool starts at min-size
+ * connections, grows as soon as more threads use or wait for connections
+ * than it holds, and shrinks by one connection per resize interval while
+ * its peak demand stays lower, up to max-size per tenant and
+ * max-total-connections across all open pools.
+ *
+ * A tenant may also have a read replica, used by read-only transactions
+ * (see TenantRoutingDataSource). Its pool is managed like the others; while
+ * the replica cannot be reached, reads go to the primary and the replica is
+ * retried after replica-retry-ms.
+ *
+ * SQLite connections are opened with the configured pragmas (WAL journal,
+ * busy timeout, ...), so readers are not blocked by the writer and writers
+ * wait for the lock instead of failing with SQLITE_BUSY. SQLite and libSQL
+ * databases allow a single writer; see isSingleWriter.
  */
 @Service
 public class TenantDatabaseManager {
 
+    private static final Logger log = LoggerFactory.getLogger(TenantDatabaseManager.class);
+
+    private static final String DEFAULT_TENANT = "default";
+    private static final String REPLICA_SUFFIX = "@replica";
+    // A replica that does not answer quickly is skipped rather than waited for
+    private static final long REPLICA_CONNECTION_TIMEOUT_MS = 5000;
+    // Idle connections of an open pool are closed after a minute
+    private static final long CONNECTION_IDLE_TIMEOUT_MS = 60000;
+
+    private final Map<String, Registration> registrations = new ConcurrentHashMap<>();
     private final Map<String, DataSource> dataSources = new ConcurrentHashMap<>();
+    private final Map<String, DataSource> replicaDataSources = new ConcurrentHashMap<>();
+    // Replica pool key to the time it may be tried again
+    private final Map<String, Long> unavailableReplicas = new ConcurrentHashMap<>();
+    // Open pools. Borrowers look them up without locking; opening, evicting
+    // and removing a pool take poolLock
+    private final Map<String, TenantPool> pools = new ConcurrentHashMap<>();
+    private final Object poolLock = new Object();
+    // Sum of the maximum sizes of the open pools
+    private final AtomicInteger allocatedConnections = new AtomicInteger();
+    private final int maxOpenPools;
+    private final long idleTimeoutMs;
+    private final int minPoolSize;
+    private final int maxPoolSize;
+    private final int maxTotalConnections;
+    private final long resizeIntervalMs;
+    private final long replicaRetryMs;
+    private final Map<String, String> sqlitePragmas;
+    // Runs pool maintenance and the housekeeping of every Hikari pool
+    private final ScheduledThreadPoolExecutor housekeeper;
+
+    public TenantDatabaseManager(@Value("${truly.multitenancy.pools.max-open:100}") int maxOpenPools,
+            @Value("${truly.multitenancy.pools.idle-timeout-ms:600000}") long idleTimeoutMs,
+            @Value("${truly.multitenancy.pools.min-size:1}") int minPoolSize,
+            @Value("${truly.multitenancy.pools.max-size:5}") int maxPoolSize,
+            @Value("${truly.multitenancy.pools.max-total-connections:100}") int maxTotalConnections,
+            @Value("${truly.multitenancy.pools.resize-interval-ms:10000}") long resizeIntervalMs,
+            @Value("${truly.datasource.replica.retry-ms:30000}") long replicaRetryMs,
+            @Value("${truly.multitenancy.sqlite.pragmas:journal_mode=WAL,synchronous=NORMAL,busy_timeout=5000}")
+            String sqlitePragmas) {
+        this.maxOpenPools = Math.max(1, maxOpenPools);
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.minPoolSize = Math.max(1, minPoolSize);
+        this.maxPoolSize = Math.max(this.minPoolSize, maxPoolSize);
+        this.maxTotalConnections = Math.max(1, maxTotalConnections);
+        this.resizeIntervalMs = resizeIntervalMs;
+        this.replicaRetryMs = replicaRetryMs;
+        this.sqlitePragmas = parsePragmas(sqlitePragmas);
+        this.housekeeper = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "tenant-pools");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Closed pools cancel their housekeeping task
+        this.housekeeper.setRemoveOnCancelPolicy(true);
+    }
+
+    @PostConstruct
+    public void start() {
+        housekeeper.scheduleWithFixedDelay(this::maintain, resizeIntervalMs, resizeIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        List<TenantPool> open;
+        synchronized (poolLock) {
+            open = new ArrayList<>(pools.values());
+            pools.clear();
+        }
+        open.forEach(this::close);
+        housekeeper.shutdownNow();
+    }
 
     /**
-     * Retrieves or creates a DataSource for a given tenant.
-     * 
+     * Retrieves or creates a DataSource for a given tenant. The tenant's
+     * pool is opened on the first connection.
+     *
      * @param tenantId  The unique identifier for the tenant
      * @param jdbcUrl   The Turso JDBC URL (e.g., jdbc:dbeaver:libsql:https://...)
      * @param authToken The Turso authentication token
      * @return The DataSource for the tenant
      */
     public DataSource getOrCreateDataSource(String tenantId, String jdbcUrl, String authToken) {
-        return dataSources.computeIfAbsent(tenantId, id -> {
+        return getOrCreateDataSource(tenantId, jdbcUrl, null, authToken);
+    }
+
+    /**
+     * Retrieves or creates a DataSource for a given tenant, connecting as
+     * the given user.
+     */
+    public DataSource getOrCreateDataSource(String tenantId, String jdbcUrl, String username, String authToken) {
+        registrations.computeIfAbsent(tenantId, id -> {
             String targetUrl = jdbcUrl;
 
             // If it's a local connection and not the default tenant, use a namespace
-            if (jdbcUrl.contains("localhost:8080") && !"default".equals(id)) {
+            if (jdbcUrl.contains("localhost:8080") && !DEFAULT_TENANT.equals(id)) {
                 // Transform http://localhost:8080 -> http://<tenantId>.localhost:8080
                 targetUrl = jdbcUrl.replace("localhost:8080", id + ".localhost:8080");
             }
 
-            return createDataSource(targetUrl, authToken);
+            return new Registration(targetUrl, username, authToken, false);
         });
+        return dataSources.computeIfAbsent(tenantId, id -> new TenantDataSource(this, id, false));
+    }
+
+    /**
+     * Register a read replica of the tenant's database.
+     *
+     * @return The DataSource for read-only transactions of the tenant
+     */
+    public DataSource registerReplica(String tenantId, String jdbcUrl, String username, String password) {
+        registrations.put(tenantId + REPLICA_SUFFIX, new Registration(jdbcUrl, username, password, true));
+        return replicaDataSources.computeIfAbsent(tenantId, id -> new TenantDataSource(this, id, true));
+    }
+
+    /**
+     * The DataSource for read-only transactions of a tenant with a replica,
+     * or null.
+     */
+    public DataSource getReplicaDataSource(String tenantId) {
+        return replicaDataSources.get(tenantId);
+    }
+
+    /**
+     * The DataSource of a tenant with a database of its own, or null.
+     */
+    public DataSource getDataSource(String tenantId) {
+        return dataSources.get(tenantId);
+    }
+
+    /**
+     * Whether the tenant has a database of its own; tenants without one
+     * share the default database.
+     */
+    public boolean hasDataSource(String tenantId) {
+        return registrations.containsKey(tenantId);
+    }
+
+    /**
+     * The tenants with a registered database, the default first.
+     */
+    public List<String> getTenantIds() {
+        List<String> tenantIds = registrations.keySet().stream()
+                .filter(id -> !id.endsWith(REPLICA_SUFFIX) && !DEFAULT_TENANT.equals(id))
+                .sorted()
+                .collect(Collectors.toCollection(ArrayList::new));
+        if (registrations.containsKey(DEFAULT_TENANT)) {
+            tenantIds.add(0, DEFAULT_TENANT);
+        }
+        return tenantIds;
+    }
+
+    public void removeDataSource(String tenantId) {
+        registrations.remove(tenantId);
+        registrations.remove(tenantId + REPLICA_SUFFIX);
+        dataSources.remove(tenantId);
+        replicaDataSources.remove(tenantId);
+        List<TenantPool> removed = new ArrayList<>();
+        synchronized (poolLock) {
+            for (String key : List.of(tenantId, tenantId + REPLICA_SUFFIX)) {
+                TenantPool pool = pools.remove(key);
+                if (pool != null) {
+                    pool.retire();
+                    removed.add(pool);
+                }
+            }
+        }
+        removed.forEach(this::close);
+    }
+
+    /**
+     * Whether the database of a tenant (or the default database the tenant
+     * shares) takes one writer at a time, as SQLite and libSQL do. Execution
+     * records of such tenants are written only by the ExecutionLogWriter
+     * thread, many executions per transaction.
+     */
+    public boolean isSingleWriter(String tenantId) {
+        Registration registration = tenantId != null ? registrations.get(tenantId) : null;
+        if (registration == null) {
+            registration = registrations.get(DEFAULT_TENANT);
+        }
+        return registration != null && isSqlite(registration.jdbcUrl);
+    }
+
+    /**
+     * Usage of the open pools.
+     */
+    public List<TenantPoolStatsDto> getPoolStats() {
+        return new ArrayList<>(pools.values()).stream()
+                .sorted(Comparator.comparing(TenantPool::getTenantId))
+                .map(pool -> new TenantPoolStatsDto(pool.getTenantId(), pool.getMaxPoolSize(),
+                        pool.getTotalConnections(), pool.getIdleConnections(), pool.getInUse(), pool.getWaiting(),
+                        pool.getPeakDemand(), pool.getAcquired(), pool.getTimeouts(), pool.getAverageAcquireMicros(),
+                        LocalDateTime.ofInstant(Instant.ofEpochMilli(pool.getLastUsedAt()), ZoneId.systemDefault())))
+                .collect(Collectors.toList());
+    }
+
+    Connection getConnection(String tenantId) throws SQLException {
+        TenantPool pool = enter(tenantId);
+        try {
+            return pool.getDataSource().getConnection();
+        } finally {
+            pool.leave();
+        }
+    }
+
+    /**
+     * A connection to the tenant's replica, or to its primary while the
+     * replica is unavailable.
+     */
+    Connection getReadConnection(String tenantId) throws SQLException {
+        String replica = tenantId + REPLICA_SUFFIX;
+        Long retryAt = unavailableReplicas.get(replica);
+        if (retryAt == null || retryAt <= System.currentTimeMillis()) {
+            try {
+                Connection connection = getConnection(replica);
+                unavailableReplicas.remove(replica);
+                return connection;
+            } catch (SQLException e) {
+                unavailableReplicas.put(replica, System.currentTimeMillis() + replicaRetryMs);
+                log.warn("Replica of tenant {} is unavailable, reading from the primary for {} ms: {}", tenantId,
+                        replicaRetryMs, e.getMessage());
+            }
+        }
+        return getConnection(tenantId);
+    }
+
+    /**
+     * Count the thread as a borrower of the tenant's pool, opening the pool
+     * if needed. Only opening (and the evictions it causes) takes the lock;
+     * borrowers of open pools update the pool's own counters.
+     */
+    private TenantPool enter(String tenantId) {
+        while (true) {
+            TenantPool pool = pools.get(tenantId);
+            if (pool == null) {
+                pool = openPool(tenantId);
+            }
+            int demand = pool.enter();
+            if (demand < 0) {
+                // Evicted since the lookup
+                continue;
+            }
+            if (demand > pool.getMaxPoolSize()) {
+                grow(pool, demand);
+            }
+            return pool;
+        }
+    }
+
+    private TenantPool openPool(String tenantId) {
+        TenantPool pool;
+        List<TenantPool> evicted = new ArrayList<>();
+        synchronized (poolLock) {
+            pool = pools.get(tenantId);
+            if (pool == null) {
+                pool = open(tenantId);
+                pools.put(tenantId, pool);
+                evictLeastRecentlyUsed(pool, evicted);
+            }
+        }
+        evicted.forEach(this::close);
+        return pool;
+    }
+
+    /**
+     * Retire idle pools, least recently used first, while more than
+     * max-open pools are open. Called with poolLock held.
+     */
+    private void evictLeastRecentlyUsed(TenantPool keep, List<TenantPool> evicted) {
+        if (pools.size() <= maxOpenPools) {
+            return;
+        }
+        List<TenantPool> candidates = pools.values().stream()
+                .filter(pool -> pool != keep && !DEFAULT_TENANT.equals(pool.getTenantId()))
+                .sorted(Comparator.comparingLong(TenantPool::getLastEnteredNanos))
+                .collect(Collectors.toList());
+        for (TenantPool candidate : candidates) {
+            if (pools.size() <= maxOpenPools) {
+                return;
+            }
+            if (candidate.retireIfIdle()) {
+                pools.remove(candidate.getTenantId());
+                evicted.add(candidate);
+            }
+        }
+    }
+
+    /**
+     * Close pools idle for longer than the idle timeout and resize the
+     * others to their peak demand since the last run.
+     */
+    void maintain() {
+        try {
+            long idleSince = System.currentTimeMillis() - idleTimeoutMs;
+            List<TenantPool> evicted = new ArrayList<>();
+            synchronized (poolLock) {
+                for (TenantPool pool : new ArrayList<>(pools.values())) {
+                    if (!DEFAULT_TENANT.equals(pool.getTenantId()) && pool.getLastUsedAt() < idleSince
+                            && pool.retireIfIdle()) {
+                        pools.remove(pool.getTenantId());
+                        evicted.add(pool);
+                    }
+                }
+                evictLeastRecentlyUsed(null, evicted);
+            }
+            evicted.forEach(this::close);
+            for (TenantPool pool : pools.values()) {
+                int target = Math.max(minPoolSize, Math.min(maxPoolSize, pool.takePeakDemand()));
+                if (target < pool.getMaxPoolSize()) {
+                    shrink(pool);
+                } else {
+                    grow(pool, target);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Tenant pool maintenance failed", e);
+        }
+    }
+
+    /**
+     * Grow the pool towards demand, within max-size and what the other open
+     * pools leave of max-total-connections. Pools resize under their own
+     * lock and reserve connections from the total without one.
+     */
+    private void grow(TenantPool pool, int demand) {
+        synchronized (pool) {
+            int current = pool.getMaxPoolSize();
+            int wanted = Math.min(demand, maxPoolSize) - current;
+            if (wanted > 0 && !pool.isRetired()) {
+                int granted = reserveConnections(wanted, 0);
+                if (granted > 0) {
+                    pool.setMaxPoolSize(current + granted);
+                }
+            }
+        }
+    }
+
+    private void shrink(TenantPool pool) {
+        synchronized (pool) {
+            int current = pool.getMaxPoolSize();
+            if (current > minPoolSize && !pool.isRetired()) {
+                pool.setMaxPoolSize(current - 1);
+                allocatedConnections.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Take up to wanted connections, at least minimum, from what is left of
+     * max-total-connections.
+     */
+    private int reserveConnections(int wanted, int minimum) {
+        while (true) {
+            int allocated = allocatedConnections.get();
+            int granted = Math.max(minimum, Math.min(wanted, maxTotalConnections - allocated));
+            if (granted <= 0 || allocatedConnections.compareAndSet(allocated, allocated + granted)) {
+                return Math.max(granted, 0);
+            }
+        }
+    }
+
+    private TenantPool open(String tenantId) {
+        Registration registration = registrations.get(tenantId);
+        if (registration == null) {
+            throw new IllegalStateException("No database registered for tenant: " + tenantId);
+        }
+        TenantPool pool = new TenantPool(tenantId);
+        // Always at least one connection, even over the total
+        int size = reserveConnections(minPoolSize, 1);
+        try {
+            pool.open(createDataSource(pool, registration, size));
+        } catch (RuntimeException e) {
+            allocatedConnections.addAndGet(-size);
+            throw e;
+        }
+        log.debug("Opened connection pool of tenant {} ({} open)", tenantId, pools.size() + 1);
+        return pool;
     }
 
-    private DataSource createDataSource(String jdbcUrl, String authToken) {
+    private HikariDataSource createDataSource(TenantPool pool, Registration registration, int size) {
+        String jdbcUrl = registration.jdbcUrl;
         HikariConfig config = new HikariConfig();
         config.setJdbcUrl(jdbcUrl);
+        config.setPoolName("tenant-" + pool.getTenantId());
 
+        if (registration.username != null && !registration.username.isEmpty()) {
+            config.setUsername(registration.username);
+        }
         // Only set password if authToken is provided. For local sqld, it's often empty.
-        if (authToken != null && !authToken.isEmpty()) {
-            config.setPassword(authToken);
+        if (registration.authToken != null && !registration.authToken.isEmpty()) {
+            config.setPassword(registration.authToken);
         }
 
-        config.setDriverClassName("com.dbeaver.jdbc.driver.libsql.LibSqlDriver");
+        // Other URLs (the default SQLite database, H2, ...) find their driver by URL
+        if (jdbcUrl.startsWith("jdbc:dbeaver:libsql:")) {
+            config.setDriverClassName("com.dbeaver.jdbc.driver.libsql.LibSqlDriver");
+        }
+        // The SQLite driver applies pragmas passed as connection properties
+        // on every new connection; libSQL servers manage their own journal
+        if (jdbcUrl.startsWith("jdbc:sqlite:")) {
+            sqlitePragmas.forEach(config::addDataSourceProperty);
+        }
 
-        // Optimized for SQLite/libSQL
-        config.setMaximumPoolSize(5);
-        config.setMinimumIdle(1);
-        config.setIdleTimeout(600000); // 10 minutes
+        // Optimized for SQLite/libSQL; connections are only held while in use
+        config.setMaximumPoolSize(size);
+        config.setMinimumIdle(0);
+        config.setIdleTimeout(CONNECTION_IDLE_TIMEOUT_MS);
         config.setMaxLifetime(1800000); // 30 minutes
-        config.setConnectionTimeout(30000); // 30 seconds
+        config.setConnectionTimeout(registration.replica ? REPLICA_CONNECTION_TIMEOUT_MS : 30000); // 30 seconds
+        // Open without connecting; the first borrower connects
+        config.setInitializationFailTimeout(-1);
+        config.setScheduledExecutor(housekeeper);
+        config.setMetricsTrackerFactory((poolName, poolStats) -> pool);
 
         // For libSQL/Turso, some traditional JDBC properties might not apply,
         // but we keep the pool robust.
         return new HikariDataSource(config);
     }
 
-    public void removeDataSource(String tenantId) {
-        DataSource ds = dataSources.remove(tenantId);
-        if (ds instanceof HikariDataSource) {
-            ((HikariDataSource) ds).close();
+    private static boolean isSqlite(String jdbcUrl) {
+        return jdbcUrl.startsWith("jdbc:sqlite:") || jdbcUrl.contains("libsql");
+    }
+
+    private static Map<String, String> parsePragmas(String pragmas) {
+        Map<String, String> parsed = new LinkedHashMap<>();
+        for (String pragma : pragmas.split(",")) {
+            int eq = pragma.indexOf('=');
+            if (eq <= 0) {
+                if (!pragma.isBlank()) {
+                    throw new IllegalArgumentException("Invalid SQLite pragma, expected name=value: " + pragma);
+                }
+                continue;
+            }
+            parsed.put(pragma.substring(0, eq).trim(), pragma.substring(eq + 1).trim());
+        }
+        return parsed;
+    }
+
+    private void close(TenantPool pool) {
+        synchronized (pool) {
+            allocatedConnections.addAndGet(-pool.getMaxPoolSize());
+        }
+        try {
+            pool.shutdown();
+            log.debug("Closed connection pool of tenant {}", pool.getTenantId());
+        } catch (RuntimeException e) {
+            log.warn("Failed to close connection pool of tenant {}", pool.getTenantId(), e);
+        }
+    }
+
+    private static final class Registration {
+        private final String jdbcUrl;
+        private final String username;
+        private final String authToken;
+        private final boolean replica;
+
+        private Registration(String jdbcUrl, String username, String authToken, boolean replica) {
+            this.jdbcUrl = jdbcUrl;
+            this.username = username;
+            this.authToken = authToken;
+            this.replica = replica;
         }
     }
 }
@@ -0,0 +1,188 @@
+package com.ruleengine.multitenancy;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An open tenant connection pool and the concurrency observed on it.
+ *
+ * Hikari reports every borrowed and returned connection to the pool's
+ * metrics tracker, so connections in use are counted exactly rather than
+ * sampled; threads still waiting in getConnection are counted by
+ * TenantDatabaseManager around the call.
+ */
+final class TenantPool implements IMetricsTracker {
+
+    private final String tenantId;
+    private HikariDataSource dataSource;
+
+    // Threads inside getConnection
+    private final AtomicInteger waiting = new AtomicInteger();
+    // Borrowed connections not yet returned
+    private final AtomicInteger inUse = new AtomicInteger();
+    // Highest waiting + in use since the last resize
+    private final AtomicInteger peakDemand = new AtomicInteger();
+    private final AtomicInteger recentTimeouts = new AtomicInteger();
+    private final AtomicLong acquired = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong acquireNanos = new AtomicLong();
+    private volatile long lastUsedAt = System.currentTimeMillis();
+    // Orders pools for least recently used eviction; finer than lastUsedAt
+    private volatile long lastEnteredNanos = System.nanoTime();
+    // Set once the pool is evicted or removed; it takes no new borrowers
+    private volatile boolean retired;
+
+    TenantPool(String tenantId) {
+        this.tenantId = tenantId;
+    }
+
+    void open(HikariDataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    String getTenantId() {
+        return tenantId;
+    }
+
+    HikariDataSource getDataSource() {
+        return dataSource;
+    }
+
+    /**
+     * A thread is about to borrow a connection; returns the demand
+     * (waiting + in use) including it, or -1 when the pool was retired and
+     * the thread must look the tenant's pool up again.
+     */
+    int enter() {
+        int demand = waiting.incrementAndGet() + inUse.get();
+        // Checked after counting the thread, see retireIfIdle
+        if (retired) {
+            waiting.decrementAndGet();
+            return -1;
+        }
+        lastUsedAt = System.currentTimeMillis();
+        lastEnteredNanos = System.nanoTime();
+        peakDemand.accumulateAndGet(demand, Math::max);
+        return demand;
+    }
+
+    void leave() {
+        waiting.decrementAndGet();
+    }
+
+    boolean isIdle() {
+        return waiting.get() == 0 && inUse.get() == 0;
+    }
+
+    /**
+     * Retire the pool if no thread uses or is entering it. Marking before
+     * checking, while enter counts before checking, means either this sees
+     * the entering thread or the thread sees the mark.
+     */
+    boolean retireIfIdle() {
+        retired = true;
+        if (isIdle()) {
+            return true;
+        }
+        retired = false;
+        return false;
+    }
+
+    void retire() {
+        retired = true;
+    }
+
+    boolean isRetired() {
+        return retired;
+    }
+
+    long getLastUsedAt() {
+        return lastUsedAt;
+    }
+
+    long getLastEnteredNanos() {
+        return lastEnteredNanos;
+    }
+
+    int getMaxPoolSize() {
+        return dataSource.getHikariConfigMXBean().getMaximumPoolSize();
+    }
+
+    void setMaxPoolSize(int size) {
+        dataSource.getHikariConfigMXBean().setMaximumPoolSize(size);
+    }
+
+    /**
+     * Peak demand and timeouts since the last call, starting a new window.
+     */
+    int takePeakDemand() {
+        return peakDemand.getAndSet(waiting.get() + inUse.get());
+    }
+
+    int takeRecentTimeouts() {
+        return recentTimeouts.getAndSet(0);
+    }
+
+    int getWaiting() {
+        return waiting.get();
+    }
+
+    int getInUse() {
+        return inUse.get();
+    }
+
+    int getPeakDemand() {
+        return peakDemand.get();
+    }
+
+    long getAcquired() {
+        return acquired.get();
+    }
+
+    long getTimeouts() {
+        return timeouts.get();
+    }
+
+    long getAverageAcquireMicros() {
+        long count = acquired.get();
+        return count == 0 ? 0 : acquireNanos.get() / count / 1000;
+    }
+
+    int getIdleConnections() {
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        return pool != null ? pool.getIdleConnections() : 0;
+    }
+
+    int getTotalConnections() {
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        return pool != null ? pool.getTotalConnections() : 0;
+    }
+
+    // Not close(): Hikari calls the tracker's close() as the pool shuts down
+    void shutdown() {
+        dataSource.close();
+    }
+
+    @Override
+    public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+        inUse.incrementAndGet();
+        acquired.incrementAndGet();
+        acquireNanos.addAndGet(elapsedAcquiredNanos);
+    }
+
+    @Override
+    public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+        inUse.decrementAndGet();
+        lastUsedAt = System.currentTimeMillis();
+    }
+
+    @Override
+    public void recordConnectionTimeout() {
+        timeouts.incrementAndGet();
+        recentTimeouts.incrementAndGet();
+    }
+}
@@ -1,14 +1,47 @@
 package com.ruleengine.multitenancy;
 
 import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
 
 /**
  * Routing DataSource that returns the current tenant ID as the lookup key.
+ * Tenants with a database of their own are resolved through the
+ * TenantDatabaseManager; all others use the default database.
+ *
+ * Read-only transactions go to the database's read replica when one is
+ * registered. The read-only flag is only known once the transaction has
+ * started, so this DataSource must be wrapped in a
+ * LazyConnectionDataSourceProxy (see MultiTenancyConfig).
  */
 public class TenantRoutingDataSource extends AbstractRoutingDataSource {
 
+    private static final String DEFAULT_DATABASE = "default";
+
+    private final TenantDatabaseManager tenantDatabaseManager;
+
+    public TenantRoutingDataSource(TenantDatabaseManager tenantDatabaseManager) {
+        this.tenantDatabaseManager = tenantDatabaseManager;
+    }
+
     @Override
     protected Object determineCurrentLookupKey() {
         return TenantContext.getTenantId();
     }
+
+    @Override
+    protected DataSource determineTargetDataSource() {
+        String tenantId = TenantContext.getTenantId();
+        String databaseId = tenantId != null && tenantDatabaseManager.hasDataSource(tenantId)
+                ? tenantId : DEFAULT_DATABASE;
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            DataSource replica = tenantDatabaseManager.getReplicaDataSource(databaseId);
+            if (replica != null) {
+                return replica;
+            }
+        }
+        DataSource tenantDataSource = tenantDatabaseManager.getDataSource(databaseId);
+        return tenantDataSource != null ? tenantDataSource : super.determineTargetDataSource();
+    }
 }
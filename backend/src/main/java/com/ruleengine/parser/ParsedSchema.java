@@ -0,0 +1,189 @@
+package com.ruleengine.parser;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The properties of a schema's JSON schema, indexed by dotted path (nested
+ * object properties included). Immutable; shared through ParsedSchemaCache.
+ */
+public final class ParsedSchema {
+
+    static final ParsedSchema EMPTY = new ParsedSchema("", List.of(), Map.of());
+
+    private static final List<String> CONSTRAINTS = List.of("minimum", "maximum", "exclusiveMinimum",
+            "exclusiveMaximum", "multipleOf", "minLength", "maxLength", "pattern", "minItems", "maxItems");
+
+    // The JSON schema this was parsed from
+    private final String source;
+    private final List<Property> properties;
+    private final Map<String, Property> propertiesByPath;
+
+    private ParsedSchema(String source, List<Property> properties, Map<String, Property> propertiesByPath) {
+        this.source = source;
+        this.properties = properties;
+        this.propertiesByPath = propertiesByPath;
+    }
+
+    public static ParsedSchema parse(ObjectMapper objectMapper, String jsonSchema) throws JsonProcessingException {
+        if (jsonSchema == null || jsonSchema.isEmpty()) {
+            return EMPTY;
+        }
+        Map<String, Property> byPath = new HashMap<>();
+        List<Property> properties = parseProperties(objectMapper, objectMapper.readTree(jsonSchema), "", byPath);
+        return new ParsedSchema(jsonSchema, properties, Collections.unmodifiableMap(byPath));
+    }
+
+    private static List<Property> parseProperties(ObjectMapper objectMapper, JsonNode node, String prefix,
+            Map<String, Property> byPath) {
+        JsonNode propertiesNode = node.get("properties");
+        if (propertiesNode == null || !propertiesNode.isObject()) {
+            return List.of();
+        }
+        List<Property> properties = new ArrayList<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = propertiesNode.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            String path = prefix + field.getKey();
+            JsonNode propNode = field.getValue();
+
+            List<Object> enumValues = null;
+            if (propNode.has("enum")) {
+                enumValues = new ArrayList<>();
+                for (JsonNode value : propNode.get("enum")) {
+                    enumValues.add(objectMapper.convertValue(value, Object.class));
+                }
+                enumValues = Collections.unmodifiableList(enumValues);
+            }
+            Map<String, Object> constraints = new LinkedHashMap<>();
+            for (String constraint : CONSTRAINTS) {
+                if (propNode.has(constraint)) {
+                    constraints.put(constraint, objectMapper.convertValue(propNode.get(constraint), Object.class));
+                }
+            }
+
+            Property property = new Property(field.getKey(), path, text(propNode, "type"), text(propNode, "format"),
+                    text(propNode, "description"),
+                    propNode.has("default") ? objectMapper.convertValue(propNode.get("default"), Object.class) : null,
+                    enumValues, Collections.unmodifiableMap(constraints),
+                    parseProperties(objectMapper, propNode, path + ".", byPath));
+            properties.add(property);
+            byPath.put(path, property);
+        }
+        return Collections.unmodifiableList(properties);
+    }
+
+    private static String text(JsonNode node, String field) {
+        return node.has(field) ? node.get(field).asText() : null;
+    }
+
+    String getSource() {
+        return source;
+    }
+
+    /**
+     * Top-level properties, in declaration order.
+     */
+    public List<Property> getProperties() {
+        return properties;
+    }
+
+    /**
+     * The property at a dotted path such as "address.city", or null.
+     */
+    public Property get(String path) {
+        return propertiesByPath.get(path);
+    }
+
+    /**
+     * The declared type of the property at path; "string" when the property
+     * is unknown or untyped.
+     */
+    public String typeOf(String path) {
+        Property property = propertiesByPath.get(path);
+        return property != null && property.getType() != null ? property.getType() : "string";
+    }
+
+    public static final class Property {
+        private final String name;
+        private final String path;
+        private final String type;
+        private final String format;
+        private final String description;
+        private final Object defaultValue;
+        private final List<Object> enumValues;
+        private final Map<String, Object> constraints;
+        private final List<Property> properties;
+
+        private Property(String name, String path, String type, String format, String description,
+                Object defaultValue, List<Object> enumValues, Map<String, Object> constraints,
+                List<Property> properties) {
+            this.name = name;
+            this.path = path;
+            this.type = type;
+            this.format = format;
+            this.description = description;
+            this.defaultValue = defaultValue;
+            this.enumValues = enumValues;
+            this.constraints = constraints;
+            this.properties = properties;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        /**
+         * Null when the schema declares none.
+         */
+        public String getType() {
+            return type;
+        }
+
+        public String getFormat() {
+            return format;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public Object getDefaultValue() {
+            return defaultValue;
+        }
+
+        /**
+         * Null when the property is not an enum.
+         */
+        public List<Object> getEnumValues() {
+            return enumValues;
+        }
+
+        /**
+         * Validation keywords (minimum, maxLength, pattern, ...) by name.
+         */
+        public Map<String, Object> getConstraints() {
+            return constraints;
+        }
+
+        /**
+         * Nested properties of an object property.
+         */
+        public List<Property> getProperties() {
+            return properties;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.ruleengine.parser;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ruleengine.cache.WeightedLruCache;
+import com.ruleengine.dto.CacheStatsDto;
+import com.ruleengine.model.Schema;
+import com.ruleengine.multitenancy.TenantContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Parsed JSON schemas by tenant and schema ID, for rule validation, payload
+ * generation and the attribute editor.
+ *
+ * An entry is only used while the schema's JSON is still the one it was
+ * parsed from, so a schema changed in the current transaction (before
+ * updatedAt is set on flush) is never read stale and changes need no
+ * eviction. Bounded by the length of the parsed JSON.
+ */
+@Component
+public class ParsedSchemaCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ParsedSchemaCache.class);
+
+    private final ObjectMapper objectMapper;
+    private final WeightedLruCache<String, ParsedSchema> schemas;
+
+    public ParsedSchemaCache(ObjectMapper objectMapper,
+            @Value("${truly.cache.parsed-schemas.max-bytes:16777216}") long maxBytes) {
+        this.objectMapper = objectMapper;
+        this.schemas = new WeightedLruCache<>(maxBytes);
+    }
+
+    /**
+     * The parsed JSON schema of a schema; empty when it has none or it cannot
+     * be parsed.
+     */
+    public ParsedSchema get(Schema schema) {
+        if (schema == null || schema.getJsonSchema() == null) {
+            return ParsedSchema.EMPTY;
+        }
+        String json = schema.getJsonSchema();
+        if (schema.getId() == null) {
+            return parse(schema, json);
+        }
+        String key = (TenantContext.getTenantId() != null ? TenantContext.getTenantId() : "default") + ":"
+                + schema.getId();
+        ParsedSchema parsed = schemas.get(key);
+        if (parsed != null && json.equals(parsed.getSource())) {
+            return parsed;
+        }
+        parsed = parse(schema, json);
+        schemas.put(key, parsed, json.length());
+        return parsed;
+    }
+
+    public CacheStatsDto getStats() {
+        return CacheStatsDto.of("parsed-schemas", schemas.stats());
+    }
+
+    private ParsedSchema parse(Schema schema, String json) {
+        try {
+            return ParsedSchema.parse(objectMapper, json);
+        } catch (JsonProcessingException e) {
+            log.warn("Failed to parse JSON schema of schema {}: {}", schema.getId(), e.getOriginalMessage());
+            return ParsedSchema.EMPTY;
+        }
+    }
+}
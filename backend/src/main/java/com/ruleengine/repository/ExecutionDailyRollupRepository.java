@@ -0,0 +1,19 @@
+package com.ruleengine.repository;
+
+import com.ruleengine.model.ExecutionDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ExecutionDailyRollupRepository extends JpaRepository<ExecutionDailyRollup, Long> {
+
+    Optional<ExecutionDailyRollup> findByProjectIdAndDay(Long projectId, LocalDate day);
+
+    Optional<ExecutionDailyRollup> findByProjectIdIsNullAndDay(LocalDate day);
+
+    List<ExecutionDailyRollup> findByProjectIdOrderByDayDesc(Long projectId);
+}
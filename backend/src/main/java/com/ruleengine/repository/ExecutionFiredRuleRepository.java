@@ -0,0 +1,35 @@
+package com.ruleengine.repository;
+
+import com.ruleengine.model.ExecutionFiredRule;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ExecutionFiredRuleRepository extends JpaRepository<ExecutionFiredRule, Long> {
+
+    List<ExecutionFiredRule> findByExecutionHistoryId(Long executionHistoryId);
+
+    Page<ExecutionFiredRule> findByRuleIdOrderByExecutedAtDesc(Long ruleId, Pageable pageable);
+
+    List<ExecutionFiredRule> findByRuleIdAndExecutedAtBetween(Long ruleId, LocalDateTime start, LocalDateTime end);
+
+    /**
+     * ruleId, executedAt, fireCount and executionTimeMicros of the rules
+     * fired in the given executions.
+     */
+    @Query("SELECT f.ruleId, f.executedAt, f.fireCount, f.executionTimeMicros FROM ExecutionFiredRule f "
+            + "WHERE f.executionHistoryId IN :ids")
+    List<Object[]> findRollupFields(@Param("ids") List<Long> executionHistoryIds);
+
+    @Modifying
+    @Query("DELETE FROM ExecutionFiredRule f WHERE f.executionHistoryId IN :ids")
+    int deleteByExecutionHistoryIds(@Param("ids") List<Long> executionHistoryIds);
+}
@@ -1,11 +1,15 @@
 package com.ruleengine.repository;
 
+import com.ruleengine.dto.ExecutionHistorySummaryDto;
 import com.ruleengine.model.ExecutionHistory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -18,4 +22,58 @@ public interface ExecutionHistoryRepository extends JpaRepository<ExecutionHisto
     List<ExecutionHistory> findAllByOrderByExecutedAtDesc();
 
     Page<ExecutionHistory> findAllByOrderByExecutedAtDesc(Pageable pageable);
+
+    String SUMMARY_SELECT = "SELECT new com.ruleengine.dto.ExecutionHistorySummaryDto(h.id, p.id, p.name, "
+            + "h.success, h.dryRun, h.executionTimeMs, h.executedAt, "
+            + "(SELECT COUNT(f) FROM ExecutionFiredRule f WHERE f.executionHistoryId = h.id), "
+            + "(SELECT SUM(f.fireCount) FROM ExecutionFiredRule f WHERE f.executionHistoryId = h.id)) "
+            + "FROM ExecutionHistory h LEFT JOIN h.project p ";
+
+    String SUMMARY_BEFORE = "(h.executedAt < :executedAt OR (h.executedAt = :executedAt AND h.id < :id)) ";
+
+    String SUMMARY_ORDER = "ORDER BY h.executedAt DESC, h.id DESC";
+
+    /**
+     * Newest execution summaries; the page size is taken from pageable.
+     */
+    @Query(SUMMARY_SELECT + SUMMARY_ORDER)
+    List<ExecutionHistorySummaryDto> findSummaries(Pageable pageable);
+
+    /**
+     * Execution summaries older than the (executedAt, id) cursor.
+     */
+    @Query(SUMMARY_SELECT + "WHERE " + SUMMARY_BEFORE + SUMMARY_ORDER)
+    List<ExecutionHistorySummaryDto> findSummariesBefore(@Param("executedAt") LocalDateTime executedAt,
+            @Param("id") Long id, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE h.project.id = :projectId " + SUMMARY_ORDER)
+    List<ExecutionHistorySummaryDto> findSummariesByProjectId(@Param("projectId") Long projectId,
+            Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE h.project.id = :projectId AND " + SUMMARY_BEFORE + SUMMARY_ORDER)
+    List<ExecutionHistorySummaryDto> findSummariesByProjectIdBefore(@Param("projectId") Long projectId,
+            @Param("executedAt") LocalDateTime executedAt, @Param("id") Long id, Pageable pageable);
+
+    /**
+     * IDs after afterId whose payloads are still stored as TEXT JSON.
+     */
+    @Query("SELECT h.id FROM ExecutionHistory h WHERE h.payload IS NULL AND h.id > :afterId "
+            + "AND (h.inputFacts IS NOT NULL OR h.outputFacts IS NOT NULL OR h.firedRules IS NOT NULL) "
+            + "ORDER BY h.id")
+    List<Long> findUncompressedIds(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT h.id FROM ExecutionHistory h WHERE h.project.id = :projectId AND h.executedAt < :cutoff "
+            + "ORDER BY h.id")
+    List<Long> findExpiredIds(@Param("projectId") Long projectId, @Param("cutoff") LocalDateTime cutoff,
+            Pageable pageable);
+
+    @Query("SELECT h.id FROM ExecutionHistory h WHERE h.project IS NULL AND h.executedAt < :cutoff ORDER BY h.id")
+    List<Long> findExpiredIdsWithoutProject(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    /**
+     * executedAt, success and executionTimeMs of the given rows, without
+     * loading their payloads.
+     */
+    @Query("SELECT h.executedAt, h.success, h.executionTimeMs FROM ExecutionHistory h WHERE h.id IN :ids")
+    List<Object[]> findRollupFields(@Param("ids") List<Long> ids);
 }
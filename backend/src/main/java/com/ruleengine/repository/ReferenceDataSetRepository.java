@@ -0,0 +1,28 @@
+package com.ruleengine.repository;
+
+import com.ruleengine.dto.ReferenceDataSetDto;
+import com.ruleengine.model.ReferenceDataSet;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ReferenceDataSetRepository extends JpaRepository<ReferenceDataSet, Long> {
+
+    Optional<ReferenceDataSet> findByProjectIdAndName(Long projectId, String name);
+
+    List<ReferenceDataSet> findByProjectIdIn(Collection<Long> projectIds);
+
+    boolean existsByProjectIdInAndName(Collection<Long> projectIds, String name);
+
+    // Metadata only, without loading the (possibly large) entries column
+    @Query("SELECT new com.ruleengine.dto.ReferenceDataSetDto(s.id, s.project.id, s.name, s.description, " +
+            "s.valueType, s.version, s.entryCount, s.createdAt, s.updatedAt) " +
+            "FROM ReferenceDataSet s WHERE s.project.id = :projectId ORDER BY s.name")
+    List<ReferenceDataSetDto> findSummariesByProjectId(@Param("projectId") Long projectId);
+}
@@ -4,6 +4,8 @@ import com.ruleengine.model.RuleAuditLog;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
@@ -19,4 +21,7 @@ public interface RuleAuditLogRepository extends JpaRepository<RuleAuditLog, Long
     List<RuleAuditLog> findByExecutedAtBetween(LocalDateTime start, LocalDateTime end);
 
     List<RuleAuditLog> findByFired(boolean fired);
+
+    @Query("SELECT a.id FROM RuleAuditLog a WHERE a.executedAt < :cutoff ORDER BY a.id")
+    List<Long> findExpiredIds(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
 }
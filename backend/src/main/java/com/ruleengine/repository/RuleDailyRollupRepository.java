@@ -0,0 +1,14 @@
+package com.ruleengine.repository;
+
+import com.ruleengine.model.RuleDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+@Repository
+public interface RuleDailyRollupRepository extends JpaRepository<RuleDailyRollup, Long> {
+
+    Optional<RuleDailyRollup> findByRuleIdAndDay(Long ruleId, LocalDate day);
+}
@@ -1,7 +1,10 @@
 package com.ruleengine.repository;
 
+import com.ruleengine.dto.ProjectCountsDto;
 import com.ruleengine.model.RuleProject;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -17,4 +20,25 @@ public interface RuleProjectRepository extends JpaRepository<RuleProject, Long>
 
     // Find by parent project (including null for top-level)
     List<RuleProject> findByParentProject(RuleProject parentProject);
+
+    // Template, rule (direct and template rules) and schema counts of the given
+    // projects in one statement
+    @Query("SELECT new com.ruleengine.dto.ProjectCountsDto(p.id, "
+            + "(SELECT COUNT(t) FROM RuleProject t WHERE t.parentProject.id = p.id), "
+            + "(SELECT COUNT(r) FROM Rule r JOIN r.project rp WHERE rp.id = p.id OR rp.parentProject.id = p.id), "
+            + "(SELECT COUNT(s) FROM Schema s WHERE s.project.id = p.id)) "
+            + "FROM RuleProject p WHERE p.id IN :ids")
+    List<ProjectCountsDto> findCounts(@Param("ids") List<Long> ids);
+
+    // Project ID, schema ID and schema name of the input schemas of the given projects
+    @Query("SELECT p.id, s.id, s.name FROM RuleProject p JOIN p.inputSchemas s WHERE p.id IN :ids")
+    List<Object[]> findInputSchemaInfos(@Param("ids") List<Long> ids);
+
+    // Project ID, schema ID and schema name of the output schemas of the given projects
+    @Query("SELECT p.id, s.id, s.name FROM RuleProject p JOIN p.outputSchemas s WHERE p.id IN :ids")
+    List<Object[]> findOutputSchemaInfos(@Param("ids") List<Long> ids);
+
+    // Project ID and history retention override, without loading the projects
+    @Query("SELECT p.id, p.historyRetentionDays FROM RuleProject p")
+    List<Object[]> findHistoryRetentionDays();
 }
@@ -25,4 +25,9 @@ public interface RuleRepository extends JpaRepository<Rule, Long> {
     boolean existsByName(String name);
 
     List<Rule> findByProjectId(Long projectId);
+
+    // Enabled rules of a project and of its templates
+    @Query("SELECT r FROM Rule r JOIN r.project p WHERE r.enabled = true "
+            + "AND (p.id = :projectId OR p.parentProject.id = :projectId)")
+    List<Rule> findEnabledByProjectOrTemplates(@Param("projectId") Long projectId);
 }
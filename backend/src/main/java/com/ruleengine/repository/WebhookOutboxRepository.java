@@ -0,0 +1,77 @@
+package com.ruleengine.repository;
+
+import com.ruleengine.dto.WebhookOutboxStatsDto;
+import com.ruleengine.model.WebhookOutboxEntry;
+import com.ruleengine.model.WebhookOutboxStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface WebhookOutboxRepository extends JpaRepository<WebhookOutboxEntry, Long> {
+
+    Optional<WebhookOutboxEntry> findByIdempotencyKey(String idempotencyKey);
+
+    /**
+     * Entries due for an attempt, including claimed ones whose lease ran out
+     * (the worker died or the call outlived the lease).
+     */
+    @Query("SELECT e FROM WebhookOutboxEntry e WHERE "
+            + "(e.status = com.ruleengine.model.WebhookOutboxStatus.PENDING AND e.nextAttemptAt <= :now) OR "
+            + "(e.status = com.ruleengine.model.WebhookOutboxStatus.IN_FLIGHT AND e.leaseUntil < :now) "
+            + "ORDER BY e.nextAttemptAt")
+    List<WebhookOutboxEntry> findDue(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Claim an entry for one worker. Returns 0 when another worker got it first.
+     */
+    @Modifying
+    @Query("UPDATE WebhookOutboxEntry e SET e.status = com.ruleengine.model.WebhookOutboxStatus.IN_FLIGHT, "
+            + "e.leaseUntil = :leaseUntil, e.leaseOwner = :leaseOwner WHERE e.id = :id AND ("
+            + "(e.status = com.ruleengine.model.WebhookOutboxStatus.PENDING AND e.nextAttemptAt <= :now) OR "
+            + "(e.status = com.ruleengine.model.WebhookOutboxStatus.IN_FLIGHT AND e.leaseUntil < :now))")
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now, @Param("leaseUntil") LocalDateTime leaseUntil,
+            @Param("leaseOwner") String leaseOwner);
+
+    /**
+     * Record the outcome of an attempt and release the lease. Returns 0 when
+     * the claim no longer holds it (it expired and the entry was claimed
+     * again), in which case the outcome is dropped.
+     */
+    @Modifying
+    @Query("UPDATE WebhookOutboxEntry e SET e.status = :status, e.attempts = :attempts, "
+            + "e.nextAttemptAt = :nextAttemptAt, e.lastStatusCode = :lastStatusCode, e.lastError = :lastError, "
+            + "e.deliveredAt = :deliveredAt, e.updatedAt = :now, e.leaseUntil = NULL, e.leaseOwner = NULL "
+            + "WHERE e.id = :id AND e.status = com.ruleengine.model.WebhookOutboxStatus.IN_FLIGHT "
+            + "AND e.leaseOwner = :leaseOwner")
+    int complete(@Param("id") Long id, @Param("leaseOwner") String leaseOwner,
+            @Param("status") WebhookOutboxStatus status, @Param("attempts") int attempts,
+            @Param("nextAttemptAt") LocalDateTime nextAttemptAt, @Param("lastStatusCode") int lastStatusCode,
+            @Param("lastError") String lastError, @Param("deliveredAt") LocalDateTime deliveredAt,
+            @Param("now") LocalDateTime now);
+
+    /**
+     * IDs of entries in the given (final) statuses last updated before cutoff.
+     */
+    @Query("SELECT e.id FROM WebhookOutboxEntry e WHERE e.status IN :statuses AND e.updatedAt < :cutoff "
+            + "ORDER BY e.id")
+    List<Long> findCompletedIds(@Param("statuses") List<WebhookOutboxStatus> statuses,
+            @Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    long countByStatus(WebhookOutboxStatus status);
+
+    @Query("SELECT MIN(e.createdAt) FROM WebhookOutboxEntry e WHERE e.status IN :statuses")
+    LocalDateTime findOldestCreatedAt(@Param("statuses") List<WebhookOutboxStatus> statuses);
+
+    @Query("SELECT new com.ruleengine.dto.WebhookOutboxStatsDto$DestinationBacklog(e.destination, COUNT(e)) "
+            + "FROM WebhookOutboxEntry e WHERE e.status IN :statuses "
+            + "GROUP BY e.destination ORDER BY COUNT(e) DESC")
+    List<WebhookOutboxStatsDto.DestinationBacklog> countByDestination(@Param("statuses") List<WebhookOutboxStatus> statuses);
+}
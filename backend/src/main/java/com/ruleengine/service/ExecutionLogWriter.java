@@ -0,0 +1,568 @@
+package com.ruleengine.service;
+
+import com.ruleengine.model.ExecutionFiredRule;
+import com.ruleengine.model.ExecutionHistory;
+import com.ruleengine.multitenancy.TenantContext;
+import com.ruleengine.multitenancy.TenantDatabaseManager;
+import com.ruleengine.repository.ExecutionFiredRuleRepository;
+import com.ruleengine.repository.ExecutionHistoryRepository;
+import com.ruleengine.webhook.WebhookDispatch;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind queue for execution records: the execution history row and
+ * one compact row per fired rule.
+ *
+ * Executions hand their records to a bounded queue instead of saving them in
+ * the request transaction. A background thread drains the queue and writes
+ * each tenant's records in one transaction, fired rules as JDBC batch inserts, once
+ * batchSize records are waiting or flushIntervalMs after the first one
+ * arrived. If that transaction fails, the records are written again one per
+ * transaction, so a bad record loses only itself. When the queue is full the overflow policy decides between
+ * waiting, dropping or writing on the caller's thread. Records still queued
+ * at shutdown are written before the application stops.
+ *
+ * On single-writer databases (SQLite, libSQL) the writer thread is the only
+ * one writing execution records. Executions with webhooks for the outbox
+ * are queued there too, their outbox entries inserted in the same
+ * transaction as the history row, and the caller waits for that commit, so
+ * webhooks reported as QUEUED survive a crash. Concurrent callers share the
+ * writer's next commit: a batch holding such an execution is written as
+ * soon as the queue is drained instead of after the flush interval. These
+ * executions are never dropped, and CALLER_RUNS waits for space instead of
+ * writing on the caller's thread. Only once the writer has stopped (or with
+ * write-behind disabled) does the caller save them itself.
+ *
+ * On other databases executions with webhooks are saved by the caller,
+ * together with their outbox entries.
+ */
+@Service
+public class ExecutionLogWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(ExecutionLogWriter.class);
+
+    private static final String INSERT_HISTORY = "INSERT INTO execution_history (project_id, input_facts, "
+            + "output_facts, fired_rules, webhook_results, success, dry_run, execution_time_ms, error_message, "
+            + "payload, executed_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_FIRED_RULE = "INSERT INTO execution_fired_rules (execution_history_id, "
+            + "rule_id, fire_count, execution_time_micros, executed_at) VALUES (?, ?, ?, ?, ?)";
+
+    // How often a caller waiting on the writer checks that it still runs
+    private static final long WAIT_CHECK_MS = 100;
+
+    /**
+     * What to do with a record when the queue is full.
+     */
+    public enum OverflowPolicy {
+        // Wait up to block-timeout-ms for space, then drop the record
+        BLOCK,
+        // Drop the new record
+        DROP_NEWEST,
+        // Drop the oldest queued record to make room
+        DROP_OLDEST,
+        // Let the caller save the record itself
+        CALLER_RUNS
+    }
+
+    private final ExecutionHistoryRepository executionHistoryRepository;
+    private final ExecutionFiredRuleRepository firedRuleRepository;
+    private final HistoryPayloadCodec payloadCodec;
+    private final WebhookOutboxService webhookOutboxService;
+    private final TenantDatabaseManager tenantDatabaseManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final OverflowPolicy overflowPolicy;
+    private final long blockTimeoutMs;
+    private final long shutdownTimeoutMs;
+    private final BlockingQueue<Entry> queue;
+
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public ExecutionLogWriter(ExecutionHistoryRepository executionHistoryRepository,
+            ExecutionFiredRuleRepository firedRuleRepository, HistoryPayloadCodec payloadCodec,
+            WebhookOutboxService webhookOutboxService, TenantDatabaseManager tenantDatabaseManager,
+            DataSource dataSource, PlatformTransactionManager transactionManager,
+            @Value("${truly.history.write-behind.enabled:true}") boolean enabled,
+            @Value("${truly.history.write-behind.capacity:10000}") int capacity,
+            @Value("${truly.history.write-behind.batch-size:200}") int batchSize,
+            @Value("${truly.history.write-behind.flush-interval-ms:500}") long flushIntervalMs,
+            @Value("${truly.history.write-behind.overflow-policy:BLOCK}") OverflowPolicy overflowPolicy,
+            @Value("${truly.history.write-behind.block-timeout-ms:1000}") long blockTimeoutMs,
+            @Value("${truly.history.write-behind.shutdown-timeout-ms:30000}") long shutdownTimeoutMs) {
+        this.executionHistoryRepository = executionHistoryRepository;
+        this.firedRuleRepository = firedRuleRepository;
+        this.payloadCodec = payloadCodec;
+        this.webhookOutboxService = webhookOutboxService;
+        this.tenantDatabaseManager = tenantDatabaseManager;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalMs = Math.max(0, flushIntervalMs);
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeoutMs = blockTimeoutMs;
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            log.info("Execution log write-behind disabled");
+            return;
+        }
+        running = true;
+        writerThread = new Thread(this::runWriter, "execution-log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Stop taking records and write what is still queued.
+     */
+    @PreDestroy
+    public void stop() {
+        if (writerThread == null) {
+            return;
+        }
+        running = false;
+        writerThread.interrupt();
+        try {
+            writerThread.join(shutdownTimeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writerThread.isAlive() || !queue.isEmpty()) {
+            log.warn("Execution log writer stopped with {} records unwritten", queue.size());
+            // Callers still waiting save their records themselves
+            for (Entry entry : queue) {
+                if (entry.written != null && queue.remove(entry)) {
+                    entry.written.complete(false);
+                }
+            }
+        }
+        log.info("Execution log writer stopped: {} written, {} dropped, {} failed", written.get(), dropped.get(),
+                failed.get());
+    }
+
+    /**
+     * Records written, dropped on overflow and failed since startup.
+     */
+    public long getWritten() {
+        return written.get();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    /**
+     * Record an execution through the queue. Saves it on the caller's thread
+     * instead when write-behind is disabled, or when the queue is full under
+     * CALLER_RUNS and the database takes more than one writer.
+     */
+    public void record(ExecutionHistory history, List<ExecutionFiredRule> firedRules) {
+        if (!offer(new Entry(TenantContext.getTenantId(), history, firedRules, List.of(), null))) {
+            transactionTemplate.executeWithoutResult(status -> saveNow(history, firedRules));
+        }
+    }
+
+    /**
+     * Record an execution of a project together with the webhooks it hands
+     * to the outbox, and return once both are committed. On single-writer
+     * databases they are written by the writer thread in one transaction;
+     * elsewhere, or once the writer has stopped, they are saved on the
+     * caller's thread. The caller must not hold a transaction: the writer
+     * needs a connection of the same pool. Throws if the writer's
+     * transaction fails.
+     */
+    public void record(ExecutionHistory history, List<ExecutionFiredRule> firedRules,
+            List<WebhookDispatch> webhooks) {
+        if (webhooks.isEmpty()) {
+            record(history, firedRules);
+            return;
+        }
+        String tenantId = TenantContext.getTenantId();
+        if (running && tenantDatabaseManager.isSingleWriter(tenantId)) {
+            Entry entry = new Entry(tenantId, history, firedRules, webhooks, new CompletableFuture<>());
+            if (put(entry) && awaitWritten(entry)) {
+                return;
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            saveNow(history, firedRules);
+            webhookOutboxService.enqueue(history.getProject().getId(), history.getId(), webhooks);
+        });
+    }
+
+    /**
+     * Save an execution in the caller's transaction, for when the caller
+     * needs the history ID right away.
+     */
+    public void saveNow(ExecutionHistory history, List<ExecutionFiredRule> firedRules) {
+        payloadCodec.compress(history);
+        executionHistoryRepository.save(history);
+        for (ExecutionFiredRule firedRule : firedRules) {
+            firedRule.setExecutionHistoryId(history.getId());
+            firedRule.setExecutedAt(history.getExecutedAt());
+        }
+        firedRuleRepository.saveAll(firedRules);
+    }
+
+    private boolean offer(Entry entry) {
+        if (!running) {
+            return false;
+        }
+        if (queue.offer(entry)) {
+            return true;
+        }
+        switch (overflowPolicy) {
+            case CALLER_RUNS:
+                // The writer stays the only writer of a single-writer database
+                return tenantDatabaseManager.isSingleWriter(entry.tenantId) && put(entry);
+            case DROP_OLDEST:
+                while (!queue.offer(entry)) {
+                    Entry oldest = queue.poll();
+                    if (oldest != null && oldest.written != null) {
+                        // Its caller saves it instead
+                        oldest.written.complete(false);
+                    } else if (oldest != null) {
+                        onDropped();
+                    }
+                }
+                return true;
+            case BLOCK:
+                try {
+                    if (queue.offer(entry, blockTimeoutMs, TimeUnit.MILLISECONDS)) {
+                        return true;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                // The caller has waited; worth a line each time
+                long count = dropped.incrementAndGet();
+                log.warn("Execution log queue still full after {} ms; dropped the record of an execution of project {} "
+                        + "({} dropped so far)", blockTimeoutMs, projectIdOf(entry), count);
+                return true;
+            case DROP_NEWEST:
+            default:
+                onDropped();
+                return true;
+        }
+    }
+
+    /**
+     * Wait for space in the queue as long as the writer runs. Returns
+     * whether the entry was queued.
+     */
+    private boolean put(Entry entry) {
+        boolean interrupted = false;
+        try {
+            while (running) {
+                try {
+                    if (queue.offer(entry, WAIT_CHECK_MS, TimeUnit.MILLISECONDS)) {
+                        return true;
+                    }
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            return false;
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Wait until the writer has committed a queued entry. Returns false when
+     * it was not written and the caller is to save it. Not interruptible:
+     * giving up while the entry is queued would write its webhooks twice.
+     */
+    private boolean awaitWritten(Entry entry) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return entry.written.get(WAIT_CHECK_MS, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    // Queued after the writer's final flush
+                    if (!writerThread.isAlive() && queue.remove(entry)) {
+                        return false;
+                    }
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Failed to write the execution record", e.getCause());
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void onDropped() {
+        long count = dropped.incrementAndGet();
+        // Log the first drop and then every thousandth, not every record
+        if (count == 1 || count % 1000 == 0) {
+            log.warn("Execution log queue full ({} records); {} records dropped so far", queue.size(), count);
+        }
+    }
+
+    private void runWriter() {
+        List<Entry> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                fillBatch(batch);
+            } catch (InterruptedException e) {
+                // Stopping; whatever was collected is written below
+            }
+            write(batch);
+        }
+        // Final flush; clear the stop interrupt so the connection pool does not refuse it
+        Thread.interrupted();
+        while (!queue.isEmpty()) {
+            queue.drainTo(batch, batchSize);
+            write(batch);
+        }
+    }
+
+    /**
+     * Wait for a first record, then collect more until the batch is full or
+     * the flush interval since the first record has passed. A batch with a
+     * waiting caller is written as soon as the queue is drained.
+     */
+    private void fillBatch(List<Entry> batch) throws InterruptedException {
+        Entry first = queue.take();
+        batch.add(first);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        while (batch.size() < batchSize) {
+            if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                continue;
+            }
+            if (batch.stream().anyMatch(entry -> entry.written != null)) {
+                return;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            Entry next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void write(List<Entry> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Map<String, List<Entry>> byTenant = new LinkedHashMap<>();
+        for (Entry entry : batch) {
+            byTenant.computeIfAbsent(entry.tenantId, k -> new ArrayList<>()).add(entry);
+        }
+        batch.clear();
+
+        byTenant.forEach((tenantId, entries) -> {
+            TenantContext.setTenantId(tenantId);
+            try {
+                // The SQLite and libSQL drivers do not return generated keys; their SQL does
+                boolean returning = tenantDatabaseManager.isSingleWriter(tenantId);
+                try {
+                    transactionTemplate.executeWithoutResult(status -> insert(entries, returning));
+                    written.addAndGet(entries.size());
+                    entries.forEach(ExecutionLogWriter::onWritten);
+                } catch (Exception e) {
+                    if (entries.size() == 1) {
+                        onFailed(tenantId, entries.get(0), e);
+                        return;
+                    }
+                    log.warn("Failed to write {} execution log records for tenant {} together; writing them one by one",
+                            entries.size(), tenantId, e);
+                    for (Entry entry : entries) {
+                        try {
+                            transactionTemplate.executeWithoutResult(status -> insert(List.of(entry), returning));
+                            written.incrementAndGet();
+                            onWritten(entry);
+                        } catch (Exception recordFailure) {
+                            onFailed(tenantId, entry, recordFailure);
+                        }
+                    }
+                }
+            } finally {
+                TenantContext.clear();
+            }
+        });
+    }
+
+    /**
+     * History rows one by one for their generated IDs, then all fired rules
+     * in one batch.
+     */
+    private void insert(List<Entry> entries, boolean returning) {
+        List<ExecutionFiredRule> firedRules = new ArrayList<>();
+        for (Entry entry : entries) {
+            Long historyId = insertHistory(entry.history, returning);
+            for (ExecutionFiredRule firedRule : entry.firedRules) {
+                firedRule.setExecutionHistoryId(historyId);
+                firedRule.setExecutedAt(entry.history.getExecutedAt());
+                firedRules.add(firedRule);
+            }
+            if (!entry.webhooks.isEmpty()) {
+                webhookOutboxService.enqueue(projectIdOf(entry), historyId, entry.webhooks);
+            }
+        }
+        if (!firedRules.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_FIRED_RULE, firedRules, firedRules.size(), this::bindFiredRule);
+        }
+    }
+
+    private static void onWritten(Entry entry) {
+        if (entry.written != null) {
+            entry.written.complete(true);
+        }
+    }
+
+    private void onFailed(String tenantId, Entry entry, Exception e) {
+        failed.incrementAndGet();
+        log.error("Failed to write the execution log record of an execution of project {} for tenant {}",
+                projectIdOf(entry), tenantId, e);
+        if (entry.written != null) {
+            entry.written.completeExceptionally(e);
+        }
+    }
+
+    private static Long projectIdOf(Entry entry) {
+        return entry.history.getProject() != null ? entry.history.getProject().getId() : null;
+    }
+
+    private Long insertHistory(ExecutionHistory history, boolean returning) {
+        // Compressed here, off the request thread
+        payloadCodec.compress(history);
+        if (returning) {
+            history.setId(jdbcTemplate.execute(INSERT_HISTORY + " RETURNING id", (PreparedStatement ps) -> {
+                bindHistory(ps, history);
+                try (ResultSet rs = ps.executeQuery()) {
+                    rs.next();
+                    return rs.getLong(1);
+                }
+            }));
+            return history.getId();
+        }
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(INSERT_HISTORY, new String[] { "id" });
+            bindHistory(ps, history);
+            return ps;
+        }, keyHolder);
+        // Some drivers return every column, others a single unnamed key
+        Map<String, Object> keys = keyHolder.getKeys();
+        Object id = keys == null ? null : keys.size() == 1 ? keys.values().iterator().next() : keys.get("id");
+        if (!(id instanceof Number)) {
+            throw new IllegalStateException("No generated ID for execution history row");
+        }
+        history.setId(((Number) id).longValue());
+        return history.getId();
+    }
+
+    private void bindHistory(PreparedStatement ps, ExecutionHistory history) throws SQLException {
+        setLong(ps, 1, history.getProject() != null ? history.getProject().getId() : null);
+        ps.setString(2, history.getInputFacts());
+        ps.setString(3, history.getOutputFacts());
+        ps.setString(4, history.getFiredRules());
+        ps.setString(5, history.getWebhookResults());
+        ps.setBoolean(6, history.isSuccess());
+        ps.setBoolean(7, history.isDryRun());
+        ps.setLong(8, history.getExecutionTimeMs());
+        ps.setString(9, history.getErrorMessage());
+        if (history.getPayload() != null) {
+            ps.setBytes(10, history.getPayload());
+        } else {
+            ps.setNull(10, Types.VARBINARY);
+        }
+        ps.setTimestamp(11, Timestamp.valueOf(history.getExecutedAt()));
+    }
+
+    private void bindFiredRule(PreparedStatement ps, ExecutionFiredRule firedRule) throws SQLException {
+        ps.setLong(1, firedRule.getExecutionHistoryId());
+        ps.setLong(2, firedRule.getRuleId());
+        ps.setInt(3, firedRule.getFireCount());
+        ps.setLong(4, firedRule.getExecutionTimeMicros());
+        ps.setTimestamp(5, Timestamp.valueOf(firedRule.getExecutedAt()));
+    }
+
+    private static void setLong(PreparedStatement ps, int index, Long value) throws SQLException {
+        if (value != null) {
+            ps.setLong(index, value);
+        } else {
+            ps.setNull(index, Types.BIGINT);
+        }
+    }
+
+    private static final class Entry {
+        private final String tenantId;
+        private final ExecutionHistory history;
+        private final List<ExecutionFiredRule> firedRules;
+        private final List<WebhookDispatch> webhooks;
+        // Completed once written, for a caller waiting on the commit; null if none waits
+        private final CompletableFuture<Boolean> written;
+
+        private Entry(String tenantId, ExecutionHistory history, List<ExecutionFiredRule> firedRules,
+                List<WebhookDispatch> webhooks, CompletableFuture<Boolean> written) {
+            this.tenantId = tenantId != null ? tenantId : "default";
+            this.history = history;
+            this.firedRules = firedRules;
+            this.webhooks = webhooks;
+            this.written = written;
+            // Creation time is the execution's, not the flush's
+            if (history.getExecutedAt() == null) {
+                history.setExecutedAt(LocalDateTime.now());
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.ruleengine.service;
+
+import com.ruleengine.drools.RuleDependencyGraph;
+import com.ruleengine.drools.WebhookBodyTemplate;
+import org.kie.api.KieBase;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Everything an execution needs from the database and the compiler, resolved
+ * once per project: the compiled rule set and its webhook body templates,
+ * rule IDs by rule name, the fact type of each rule schema, the fact types
+ * facts may be given under, the dependency graph and the projects whose reference data the rules read. Immutable;
+ * cached by ExecutionPlanCache.
+ */
+public final class ExecutionPlan {
+
+    private final int ruleCount;
+    private final KieBase kieBase;
+    private final Map<String, WebhookBodyTemplate> webhookBodies;
+    private final String compileError;
+    private final Map<String, Long> ruleIdsByName;
+    private final String defaultFactType;
+    private final Map<Long, String> factTypesBySchemaId;
+    private final Set<String> inputFactTypes;
+    private final RuleDependencyGraph dependencyGraph;
+    private final List<Long> referenceDataProjectIds;
+
+    ExecutionPlan(int ruleCount, KieBase kieBase, Map<String, WebhookBodyTemplate> webhookBodies,
+            String compileError, Map<String, Long> ruleIdsByName, String defaultFactType,
+            Map<Long, String> factTypesBySchemaId, Set<String> inputFactTypes, RuleDependencyGraph dependencyGraph,
+            List<Long> referenceDataProjectIds) {
+        this.ruleCount = ruleCount;
+        this.kieBase = kieBase;
+        this.webhookBodies = Collections.unmodifiableMap(webhookBodies);
+        this.compileError = compileError;
+        this.ruleIdsByName = Collections.unmodifiableMap(ruleIdsByName);
+        this.defaultFactType = defaultFactType;
+        this.factTypesBySchemaId = Collections.unmodifiableMap(factTypesBySchemaId);
+        this.inputFactTypes = Collections.unmodifiableSet(inputFactTypes);
+        this.dependencyGraph = dependencyGraph;
+        this.referenceDataProjectIds = referenceDataProjectIds != null
+                ? Collections.unmodifiableList(referenceDataProjectIds)
+                : null;
+    }
+
+    public boolean isEmpty() {
+        return ruleCount == 0;
+    }
+
+    public int getRuleCount() {
+        return ruleCount;
+    }
+
+    /**
+     * Null when no rule has DRL, or when compiling failed.
+     */
+    public KieBase getKieBase() {
+        return kieBase;
+    }
+
+    /**
+     * Compiled webhook body templates by the name of the global the rules
+     * read them from.
+     */
+    public Map<String, WebhookBodyTemplate> getWebhookBodies() {
+        return webhookBodies;
+    }
+
+    /**
+     * Why the rule set failed to compile; executions report it as their error.
+     */
+    public String getCompileError() {
+        return compileError;
+    }
+
+    public Map<String, Long> getRuleIdsByName() {
+        return ruleIdsByName;
+    }
+
+    /**
+     * Fact type of untyped facts: the first rule's schema.
+     */
+    public String getDefaultFactType() {
+        return defaultFactType;
+    }
+
+    public Map<Long, String> getFactTypesBySchemaId() {
+        return factTypesBySchemaId;
+    }
+
+    /**
+     * Fact types a request may list facts under: the rules' schemas and the
+     * input schemas of their projects (and of the projects' parents).
+     */
+    public Set<String> getInputFactTypes() {
+        return inputFactTypes;
+    }
+
+    public RuleDependencyGraph getDependencyGraph() {
+        return dependencyGraph;
+    }
+
+    /**
+     * Null when no rule reads reference data.
+     */
+    public List<Long> getReferenceDataProjectIds() {
+        return referenceDataProjectIds;
+    }
+}
@@ -0,0 +1,243 @@
+package com.ruleengine.service;
+
+import com.ruleengine.model.ExecutionDailyRollup;
+import com.ruleengine.model.RuleDailyRollup;
+import com.ruleengine.multitenancy.TenantContext;
+import com.ruleengine.multitenancy.TenantDatabaseManager;
+import com.ruleengine.repository.ExecutionDailyRollupRepository;
+import com.ruleengine.repository.ExecutionFiredRuleRepository;
+import com.ruleengine.repository.ExecutionHistoryRepository;
+import com.ruleengine.repository.RuleAuditLogRepository;
+import com.ruleengine.repository.RuleDailyRollupRepository;
+import com.ruleengine.repository.RuleProjectRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Removes execution history past its retention, keeping daily rollups.
+ *
+ * Retention is set per project (RuleProject.historyRetentionDays) and falls
+ * back to the tenant's default, then to the global default; 0 keeps history
+ * forever. Each run deletes expired rows in small batches, one transaction
+ * per batch: the batch is first added to the per-project and per-rule daily
+ * rollups, then its fired-rule rows and history rows are deleted. Legacy
+ * rule audit logs expire with the tenant's default and have no rollup.
+ */
+@Service
+public class ExecutionRetentionService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExecutionRetentionService.class);
+
+    private final ExecutionHistoryRepository executionHistoryRepository;
+    private final ExecutionFiredRuleRepository firedRuleRepository;
+    private final ExecutionDailyRollupRepository executionRollupRepository;
+    private final RuleDailyRollupRepository ruleRollupRepository;
+    private final RuleAuditLogRepository auditLogRepository;
+    private final RuleProjectRepository projectRepository;
+    private final TenantDatabaseManager tenantDatabaseManager;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int defaultDays;
+    private final Map<String, Integer> tenantDays;
+    private final long intervalMs;
+    private final int batchSize;
+    private final long pauseMs;
+
+    private volatile boolean running;
+    private ScheduledExecutorService scheduler;
+
+    public ExecutionRetentionService(ExecutionHistoryRepository executionHistoryRepository,
+            ExecutionFiredRuleRepository firedRuleRepository, ExecutionDailyRollupRepository executionRollupRepository,
+            RuleDailyRollupRepository ruleRollupRepository, RuleAuditLogRepository auditLogRepository,
+            RuleProjectRepository projectRepository, TenantDatabaseManager tenantDatabaseManager,
+            PlatformTransactionManager transactionManager,
+            @Value("${truly.history.retention.enabled:false}") boolean enabled,
+            @Value("${truly.history.retention.default-days:0}") int defaultDays,
+            @Value("${truly.history.retention.tenant-days:}") String tenantDays,
+            @Value("${truly.history.retention.interval-ms:3600000}") long intervalMs,
+            @Value("${truly.history.retention.batch-size:500}") int batchSize,
+            @Value("${truly.history.retention.pause-ms:50}") long pauseMs) {
+        this.executionHistoryRepository = executionHistoryRepository;
+        this.firedRuleRepository = firedRuleRepository;
+        this.executionRollupRepository = executionRollupRepository;
+        this.ruleRollupRepository = ruleRollupRepository;
+        this.auditLogRepository = auditLogRepository;
+        this.projectRepository = projectRepository;
+        this.tenantDatabaseManager = tenantDatabaseManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.defaultDays = defaultDays;
+        this.tenantDays = parseTenantDays(tenantDays);
+        this.intervalMs = intervalMs;
+        this.batchSize = Math.max(1, batchSize);
+        this.pauseMs = pauseMs;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            log.info("Execution history retention disabled");
+            return;
+        }
+        running = true;
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "execution-retention");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::purgeAll, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Purge the database of every registered tenant, with its tenant-days
+     * override or the default. Tenants without a database of their own
+     * share the default one, so only the default's retention applies there.
+     */
+    public void purgeAll() {
+        for (String tenantId : tenantDatabaseManager.getTenantIds()) {
+            TenantContext.setTenantId(tenantId);
+            try {
+                purgeTenant(tenantDays.getOrDefault(tenantId, defaultDays));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Execution history purge failed for tenant {}", tenantId, e);
+            } finally {
+                TenantContext.clear();
+            }
+        }
+    }
+
+    private void purgeTenant(int tenantDefaultDays) throws InterruptedException {
+        LocalDateTime now = LocalDateTime.now();
+        long deleted = 0;
+
+        for (Object[] project : projectRepository.findHistoryRetentionDays()) {
+            Long projectId = (Long) project[0];
+            Integer days = project[1] != null ? (Integer) project[1] : tenantDefaultDays;
+            if (days > 0) {
+                LocalDateTime cutoff = now.minusDays(days);
+                deleted += purgeHistory(projectId,
+                        page -> executionHistoryRepository.findExpiredIds(projectId, cutoff, page));
+            }
+        }
+        if (tenantDefaultDays > 0) {
+            LocalDateTime cutoff = now.minusDays(tenantDefaultDays);
+            deleted += purgeHistory(null,
+                    page -> executionHistoryRepository.findExpiredIdsWithoutProject(cutoff, page));
+            deleted += purgeAuditLogs(cutoff);
+        }
+        if (deleted > 0) {
+            log.info("Purged {} expired execution records", deleted);
+        }
+    }
+
+    private long purgeHistory(Long projectId, ExpiredIds expiredIds) throws InterruptedException {
+        long deleted = 0;
+        while (running) {
+            List<Long> ids = expiredIds.find(PageRequest.of(0, batchSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                rollUp(projectId, ids);
+                firedRuleRepository.deleteByExecutionHistoryIds(ids);
+                executionHistoryRepository.deleteAllByIdInBatch(ids);
+            });
+            deleted += ids.size();
+            Thread.sleep(pauseMs);
+        }
+        return deleted;
+    }
+
+    private long purgeAuditLogs(LocalDateTime cutoff) throws InterruptedException {
+        long deleted = 0;
+        while (running) {
+            List<Long> ids = auditLogRepository.findExpiredIds(cutoff, PageRequest.of(0, batchSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+            transactionTemplate.executeWithoutResult(status -> auditLogRepository.deleteAllByIdInBatch(ids));
+            deleted += ids.size();
+            Thread.sleep(pauseMs);
+        }
+        return deleted;
+    }
+
+    /**
+     * Add the executions (and the rules fired in them) to the daily rollups.
+     */
+    private void rollUp(Long projectId, List<Long> ids) {
+        Map<LocalDate, ExecutionDailyRollup> executionRollups = new HashMap<>();
+        for (Object[] row : executionHistoryRepository.findRollupFields(ids)) {
+            LocalDate day = ((LocalDateTime) row[0]).toLocalDate();
+            executionRollups.computeIfAbsent(day, d -> findExecutionRollup(projectId, d))
+                    .add((Boolean) row[1], (Long) row[2]);
+        }
+        executionRollupRepository.saveAll(executionRollups.values());
+
+        Map<String, RuleDailyRollup> ruleRollups = new HashMap<>();
+        for (Object[] row : firedRuleRepository.findRollupFields(ids)) {
+            Long ruleId = (Long) row[0];
+            LocalDate day = ((LocalDateTime) row[1]).toLocalDate();
+            ruleRollups.computeIfAbsent(ruleId + "|" + day, k -> ruleRollupRepository.findByRuleIdAndDay(ruleId, day)
+                    .orElseGet(() -> new RuleDailyRollup(ruleId, day)))
+                    .add((Integer) row[2], (Long) row[3]);
+        }
+        ruleRollupRepository.saveAll(ruleRollups.values());
+    }
+
+    private ExecutionDailyRollup findExecutionRollup(Long projectId, LocalDate day) {
+        Optional<ExecutionDailyRollup> existing = projectId != null
+                ? executionRollupRepository.findByProjectIdAndDay(projectId, day)
+                : executionRollupRepository.findByProjectIdIsNullAndDay(day);
+        return existing.orElseGet(() -> new ExecutionDailyRollup(projectId, day));
+    }
+
+    /**
+     * "acme:30,beta:7" to a map of tenant ID to retention days.
+     */
+    static Map<String, Integer> parseTenantDays(String value) {
+        Map<String, Integer> days = new HashMap<>();
+        if (value == null || value.isBlank()) {
+            return days;
+        }
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid tenant retention entry: " + entry);
+            }
+            days.put(parts[0].trim(), Integer.parseInt(parts[1].trim()));
+        }
+        return days;
+    }
+
+    @FunctionalInterface
+    private interface ExpiredIds {
+        List<Long> find(Pageable page);
+    }
+}
@@ -0,0 +1,150 @@
+package com.ruleengine.service;
+
+import com.ruleengine.model.ExecutionHistory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Compressed storage of an execution history's fact payloads.
+ *
+ * When enabled, the input facts, output facts and fired rules JSON are
+ * packed into the history's payload column as one deflated block and the
+ * TEXT columns are left empty. The first byte of the payload is the format
+ * marker; rows without a payload still have their JSON in the TEXT columns,
+ * so both kinds can be read side by side.
+ */
+@Component
+public class HistoryPayloadCodec {
+
+    // Length-prefixed UTF-8 JSON strings, deflated
+    static final byte FORMAT_JSON_DEFLATE = 1;
+
+    private final boolean enabled;
+    private final int level;
+
+    public HistoryPayloadCodec(@Value("${truly.history.compression.enabled:false}") boolean enabled,
+            @Value("${truly.history.compression.level:6}") int level) {
+        this.enabled = enabled;
+        this.level = level;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Move the history's JSON columns into a compressed payload, if
+     * compression is enabled and the row is not compressed yet.
+     */
+    public void compress(ExecutionHistory history) {
+        if (!enabled || history.getPayload() != null) {
+            return;
+        }
+        history.setPayload(encode(history.getInputFacts(), history.getOutputFacts(), history.getFiredRules()));
+        history.setInputFacts(null);
+        history.setOutputFacts(null);
+        history.setFiredRules(null);
+    }
+
+    /**
+     * The history's JSON payloads, from whichever columns hold them.
+     */
+    public Payload read(ExecutionHistory history) {
+        byte[] payload = history.getPayload();
+        if (payload == null) {
+            return new Payload(history.getInputFacts(), history.getOutputFacts(), history.getFiredRules());
+        }
+        return decode(payload);
+    }
+
+    byte[] encode(String inputFacts, String outputFacts, String firedRules) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(FORMAT_JSON_DEFLATE);
+        Deflater deflater = new Deflater(level);
+        try (DataOutputStream data = new DataOutputStream(new DeflaterOutputStream(out, deflater))) {
+            writeString(data, inputFacts);
+            writeString(data, outputFacts);
+            writeString(data, firedRules);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            deflater.end();
+        }
+        return out.toByteArray();
+    }
+
+    Payload decode(byte[] payload) {
+        if (payload.length == 0 || payload[0] != FORMAT_JSON_DEFLATE) {
+            throw new IllegalStateException("Unknown execution history payload format: "
+                    + (payload.length == 0 ? "empty" : payload[0]));
+        }
+        Inflater inflater = new Inflater();
+        try (DataInputStream data = new DataInputStream(new InflaterInputStream(
+                new ByteArrayInputStream(payload, 1, payload.length - 1), inflater))) {
+            return new Payload(readString(data), readString(data), readString(data));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static void writeString(DataOutputStream data, String value) throws IOException {
+        if (value == null) {
+            data.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        data.writeInt(bytes.length);
+        data.write(bytes);
+    }
+
+    private static String readString(DataInputStream data) throws IOException {
+        int length = data.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        data.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Decoded JSON payloads of one history row.
+     */
+    public static final class Payload {
+        private final String inputFacts;
+        private final String outputFacts;
+        private final String firedRules;
+
+        Payload(String inputFacts, String outputFacts, String firedRules) {
+            this.inputFacts = inputFacts;
+            this.outputFacts = outputFacts;
+            this.firedRules = firedRules;
+        }
+
+        public String getInputFacts() {
+            return inputFacts;
+        }
+
+        public String getOutputFacts() {
+            return outputFacts;
+        }
+
+        public String getFiredRules() {
+            return firedRules;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.ruleengine.service;
+
+import com.ruleengine.model.ExecutionHistory;
+import com.ruleengine.multitenancy.TenantContext;
+import com.ruleengine.multitenancy.TenantDatabaseManager;
+import com.ruleengine.repository.ExecutionHistoryRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Background conversion of execution history rows written before payload
+ * compression was enabled, in the database of every registered tenant.
+ * Walks each table by ID in small batches, one transaction per batch,
+ * pausing between batches so it does not compete with executions for the
+ * database.
+ */
+@Component
+public class HistoryPayloadMigrator {
+
+    private static final Logger log = LoggerFactory.getLogger(HistoryPayloadMigrator.class);
+    // How often tenants registered after startup are looked for
+    private static final long TENANT_CHECK_INTERVAL_MS = 60000;
+
+    private final ExecutionHistoryRepository executionHistoryRepository;
+    private final HistoryPayloadCodec payloadCodec;
+    private final TenantDatabaseManager tenantDatabaseManager;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean migrateExisting;
+    private final int batchSize;
+    private final long pauseMs;
+
+    private volatile boolean running;
+    private Thread migratorThread;
+
+    public HistoryPayloadMigrator(ExecutionHistoryRepository executionHistoryRepository,
+            HistoryPayloadCodec payloadCodec, TenantDatabaseManager tenantDatabaseManager,
+            PlatformTransactionManager transactionManager,
+            @Value("${truly.history.compression.migrate-existing:true}") boolean migrateExisting,
+            @Value("${truly.history.compression.migration-batch-size:200}") int batchSize,
+            @Value("${truly.history.compression.migration-pause-ms:100}") long pauseMs) {
+        this.executionHistoryRepository = executionHistoryRepository;
+        this.payloadCodec = payloadCodec;
+        this.tenantDatabaseManager = tenantDatabaseManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.migrateExisting = migrateExisting;
+        this.batchSize = Math.max(1, batchSize);
+        this.pauseMs = pauseMs;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!payloadCodec.isEnabled() || !migrateExisting) {
+            return;
+        }
+        running = true;
+        migratorThread = new Thread(this::run, "history-payload-migrator");
+        migratorThread.setDaemon(true);
+        migratorThread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (migratorThread != null) {
+            migratorThread.interrupt();
+        }
+    }
+
+    private void run() {
+        Set<String> migratedTenants = new HashSet<>();
+        try {
+            while (running) {
+                // Tenants register their databases on first use; pick up new ones as they appear
+                for (String tenantId : tenantDatabaseManager.getTenantIds()) {
+                    if (running && !migratedTenants.contains(tenantId) && migrateTenant(tenantId)) {
+                        migratedTenants.add(tenantId);
+                    }
+                }
+                Thread.sleep(TENANT_CHECK_INTERVAL_MS);
+            }
+        } catch (InterruptedException e) {
+            log.debug("Execution history payload migration stopped");
+        }
+    }
+
+    /**
+     * Compress the tenant's uncompressed rows. Returns false when the
+     * migration stopped early or failed, so the tenant is tried again.
+     */
+    private boolean migrateTenant(String tenantId) throws InterruptedException {
+        TenantContext.setTenantId(tenantId);
+        long converted = 0;
+        try {
+            Long afterId = 0L;
+            while (running) {
+                List<Long> ids = executionHistoryRepository.findUncompressedIds(afterId,
+                        PageRequest.of(0, batchSize));
+                if (ids.isEmpty()) {
+                    if (converted > 0) {
+                        log.info("Compressed payloads of {} execution history rows of tenant {}", converted,
+                                tenantId);
+                    }
+                    return true;
+                }
+                transactionTemplate.executeWithoutResult(status -> {
+                    for (ExecutionHistory history : executionHistoryRepository.findAllById(ids)) {
+                        payloadCodec.compress(history);
+                    }
+                });
+                converted += ids.size();
+                afterId = ids.get(ids.size() - 1);
+                Thread.sleep(pauseMs);
+            }
+            return false;
+        } catch (InterruptedException e) {
+            log.info("Execution history payload migration of tenant {} stopped after {} rows", tenantId, converted);
+            throw e;
+        } catch (Exception e) {
+            log.error("Execution history payload migration of tenant {} failed after {} rows", tenantId, converted, e);
+            return false;
+        } finally {
+            TenantContext.clear();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.ruleengine.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ruleengine.cache.WeightedLruCache;
+import com.ruleengine.dto.RuleDefinition;
+import com.ruleengine.model.Rule;
+import com.ruleengine.multitenancy.TenantContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+
+/**
+ * Parsed rule definitions by tenant and rule ID, for dependency analysis of
+ * a project's rule set on every rule save and execution plan build.
+ *
+ * An entry is only used while the rule's JSON and name are still the ones
+ * it was parsed from, so changes need no eviction. Definitions are shared:
+ * callers read them and must not modify them. Bounded by the length of the
+ * parsed JSON.
+ */
+@Component
+public class ParsedRuleCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ParsedRuleCache.class);
+
+    private final ObjectMapper objectMapper;
+    private final WeightedLruCache<String, Entry> definitions;
+
+    public ParsedRuleCache(ObjectMapper objectMapper,
+            @Value("${truly.cache.parsed-rules.max-bytes:16777216}") long maxBytes) {
+        this.objectMapper = objectMapper;
+        this.definitions = new WeightedLruCache<>(maxBytes);
+    }
+
+    /**
+     * The rule's definition, named after the rule (the DRL rule name Drools
+     * reports); null when it has none or it cannot be parsed.
+     */
+    public RuleDefinition get(Rule rule) {
+        String json = rule.getRuleJson();
+        if (json == null || json.isEmpty()) {
+            return null;
+        }
+        if (rule.getId() == null) {
+            return parse(rule, json);
+        }
+        String key = (TenantContext.getTenantId() != null ? TenantContext.getTenantId() : "default") + ":"
+                + rule.getId();
+        Entry entry = definitions.get(key);
+        if (entry != null && json.equals(entry.json) && Objects.equals(rule.getName(), entry.name)) {
+            return entry.definition;
+        }
+        RuleDefinition definition = parse(rule, json);
+        if (definition != null) {
+            definitions.put(key, new Entry(json, rule.getName(), definition), json.length());
+        }
+        return definition;
+    }
+
+    private RuleDefinition parse(Rule rule, String json) {
+        try {
+            RuleDefinition definition = objectMapper.readValue(json, RuleDefinition.class);
+            definition.setName(rule.getName());
+            return definition;
+        } catch (JsonProcessingException e) {
+            log.warn("Failed to parse rule definition for rule {}", rule.getId());
+            return null;
+        }
+    }
+
+    private static final class Entry {
+        private final String json;
+        private final String name;
+        private final RuleDefinition definition;
+
+        private Entry(String json, String name, RuleDefinition definition) {
+            this.json = json;
+            this.name = name;
+            this.definition = definition;
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.ruleengine.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ruleengine.drools.LongHashSet;
+import com.ruleengine.drools.ReferenceDataLookup;
+import com.ruleengine.drools.ReferenceDataLookup.LongReferenceSet;
+import com.ruleengine.drools.ReferenceDataLookup.ReferenceSet;
+import com.ruleengine.drools.ReferenceDataLookup.StringReferenceSet;
+import com.ruleengine.dto.ReferenceDataSetDto;
+import com.ruleengine.dto.UploadReferenceDataRequest;
+import com.ruleengine.model.ReferenceDataSet;
+import com.ruleengine.model.ReferenceValueType;
+import com.ruleengine.model.Rule;
+import com.ruleengine.model.RuleProject;
+import com.ruleengine.multitenancy.TenantContext;
+import com.ruleengine.repository.ReferenceDataSetRepository;
+import com.ruleengine.repository.RuleProjectRepository;
+import com.ruleengine.repository.RuleRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Service for managing reference data sets and loading them into compact
+ * in-memory sets for rule execution.
+ */
+@Service
+@Transactional
+public class ReferenceDataService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReferenceDataService.class);
+
+    private final ReferenceDataSetRepository referenceDataRepository;
+    private final RuleProjectRepository projectRepository;
+    private final RuleRepository ruleRepository;
+    private final ObjectMapper objectMapper;
+
+    // "tenant:projectId" -> set name -> loaded set
+    private final Map<String, Map<String, ReferenceSet>> loadedSets = new ConcurrentHashMap<>();
+
+    public ReferenceDataService(ReferenceDataSetRepository referenceDataRepository,
+            RuleProjectRepository projectRepository,
+            RuleRepository ruleRepository,
+            ObjectMapper objectMapper) {
+        this.referenceDataRepository = referenceDataRepository;
+        this.projectRepository = projectRepository;
+        this.ruleRepository = ruleRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Transactional(readOnly = true)
+    public List<ReferenceDataSetDto> getReferenceDataSets(Long projectId) {
+        if (!projectRepository.existsById(projectId)) {
+            throw new EntityNotFoundException("Project not found: " + projectId);
+        }
+        return referenceDataRepository.findSummariesByProjectId(projectId);
+    }
+
+    @Transactional(readOnly = true)
+    public ReferenceDataSetDto getReferenceDataSet(Long projectId, String name) {
+        return referenceDataRepository.findSummariesByProjectId(projectId).stream()
+                .filter(s -> s.getName().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new EntityNotFoundException("Reference data set not found: " + name));
+    }
+
+    /**
+     * Create a reference data set, or replace the entries of an existing one
+     * and bump its version.
+     */
+    public ReferenceDataSetDto uploadReferenceData(Long projectId, UploadReferenceDataRequest request) {
+        RuleProject project = projectRepository.findById(projectId)
+                .orElseThrow(() -> new EntityNotFoundException("Project not found: " + projectId));
+
+        Collection<?> values = normalizeValues(request.getValueType(), request.getValues());
+
+        ReferenceDataSet set = referenceDataRepository.findByProjectIdAndName(projectId, request.getName())
+                .orElseGet(ReferenceDataSet::new);
+        set.setProject(project);
+        set.setName(request.getName());
+        set.setDescription(request.getDescription());
+        set.setValueType(request.getValueType());
+        set.setVersion(set.getVersion() + 1);
+        set.setEntryCount(values.size());
+        try {
+            set.setEntries(objectMapper.writeValueAsString(values));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize reference data", e);
+        }
+
+        set = referenceDataRepository.save(set);
+        invalidateOnCommit(projectId);
+        log.info("Uploaded reference data set '{}' v{} with {} entries for project {}",
+                set.getName(), set.getVersion(), set.getEntryCount(), projectId);
+
+        return toDto(set);
+    }
+
+    /**
+     * Delete a reference data set. Refused while enabled rules read it: a
+     * missing set is "not a member" of anything, so a notMemberOf blocklist
+     * would let every value through.
+     */
+    public void deleteReferenceData(Long projectId, String name) {
+        ReferenceDataSet set = referenceDataRepository.findByProjectIdAndName(projectId, name)
+                .orElseThrow(() -> new EntityNotFoundException("Reference data set not found: " + name));
+        List<String> readers = findReaders(projectId, name);
+        if (!readers.isEmpty()) {
+            throw new IllegalStateException("Reference data set '" + name + "' is used by enabled rules: "
+                    + String.join(", ", readers) + ". Disable or change the rules first.");
+        }
+        referenceDataRepository.delete(set);
+        invalidateOnCommit(projectId);
+    }
+
+    /**
+     * Names of the enabled rules that read the project's set: its own rules
+     * and the rules of its templates, except templates with a set of that
+     * name of their own.
+     */
+    private List<String> findReaders(Long projectId, String name) {
+        String lookup = ReferenceDataLookup.GLOBAL_NAME + ".contains(\"" + name + "\"";
+        List<String> readers = new ArrayList<>();
+        for (Rule rule : ruleRepository.findEnabledByProjectOrTemplates(projectId)) {
+            if (rule.getGeneratedDrl() == null || !rule.getGeneratedDrl().contains(lookup)) {
+                continue;
+            }
+            Long ruleProjectId = rule.getProject().getId();
+            if (!ruleProjectId.equals(projectId)
+                    && referenceDataRepository.findByProjectIdAndName(ruleProjectId, name).isPresent()) {
+                continue;
+            }
+            readers.add(rule.getName());
+        }
+        return readers;
+    }
+
+    /**
+     * Check whether a set with the given name exists in any of the projects.
+     */
+    @Transactional(readOnly = true)
+    public boolean exists(Collection<Long> projectIds, String name) {
+        return !projectIds.isEmpty() && referenceDataRepository.existsByProjectIdInAndName(projectIds, name);
+    }
+
+    /**
+     * Build the lookup global for an execution. Projects are given in order of
+     * precedence: when several define a set with the same name, the first wins.
+     * Loaded sets are cached until the project's reference data changes.
+     */
+    @Transactional(readOnly = true)
+    public ReferenceDataLookup getLookup(List<Long> projectIds) {
+        Map<String, ReferenceSet> sets = new HashMap<>();
+        for (Long projectId : projectIds) {
+            Map<String, ReferenceSet> projectSets = loadedSets.computeIfAbsent(cacheKey(projectId),
+                    k -> loadProjectSets(projectId));
+            projectSets.forEach(sets::putIfAbsent);
+        }
+        return sets.isEmpty() ? ReferenceDataLookup.empty() : new ReferenceDataLookup(sets);
+    }
+
+    public void invalidateCache(Long projectId) {
+        loadedSets.remove(cacheKey(projectId));
+    }
+
+    public void clearCache() {
+        loadedSets.clear();
+    }
+
+    /**
+     * Drop the cached sets now and again after commit, so an execution that
+     * loads in between cannot keep the previous version cached.
+     */
+    private void invalidateOnCommit(Long projectId) {
+        invalidateCache(projectId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            String tenantId = TenantContext.getTenantId();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    loadedSets.remove((tenantId != null ? tenantId : "default") + ":" + projectId);
+                }
+            });
+        }
+    }
+
+    private Map<String, ReferenceSet> loadProjectSets(Long projectId) {
+        Map<String, ReferenceSet> sets = new HashMap<>();
+        for (ReferenceDataSet set : referenceDataRepository.findByProjectIdIn(List.of(projectId))) {
+            long start = System.currentTimeMillis();
+            sets.put(set.getName(), load(set));
+            log.debug("Loaded reference data set '{}' v{} ({} entries) in {}ms", set.getName(), set.getVersion(),
+                    set.getEntryCount(), System.currentTimeMillis() - start);
+        }
+        return Collections.unmodifiableMap(sets);
+    }
+
+    /**
+     * Stream the stored JSON array straight into the target structure, so a
+     * large LONG set never exists as a list of boxed values.
+     */
+    private ReferenceSet load(ReferenceDataSet set) {
+        try (JsonParser parser = objectMapper.getFactory().createParser(set.getEntries())) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalStateException("Reference data set '" + set.getName() + "' is not a JSON array");
+            }
+            if (set.getValueType() == ReferenceValueType.LONG) {
+                LongHashSet values = new LongHashSet(set.getEntryCount());
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    values.add(parser.getLongValue());
+                }
+                return new LongReferenceSet(values, set.getVersion());
+            }
+
+            Set<String> values = new HashSet<>(Math.max(16, (int) (set.getEntryCount() / 0.75f) + 1));
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                values.add(parser.getText().intern());
+            }
+            return new StringReferenceSet(Collections.unmodifiableSet(values), set.getVersion());
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load reference data set: " + set.getName(), e);
+        }
+    }
+
+    private Collection<?> normalizeValues(ReferenceValueType valueType, List<Object> values) {
+        if (valueType == ReferenceValueType.LONG) {
+            Set<Long> longs = new LinkedHashSet<>();
+            for (Object value : values) {
+                longs.add(toLong(value));
+            }
+            return longs;
+        }
+
+        Set<String> strings = new LinkedHashSet<>();
+        for (Object value : values) {
+            if (value == null) {
+                throw new IllegalArgumentException("Reference data values must not be null");
+            }
+            strings.add(value.toString());
+        }
+        return strings;
+    }
+
+    private long toLong(Object value) {
+        if (value instanceof Long || value instanceof Integer) {
+            return ((Number) value).longValue();
+        }
+        if (value instanceof Number && ((Number) value).doubleValue() == Math.rint(((Number) value).doubleValue())) {
+            return ((Number) value).longValue();
+        }
+        if (value instanceof String) {
+            try {
+                return Long.parseLong(((String) value).trim());
+            } catch (NumberFormatException e) {
+                // fall through
+            }
+        }
+        throw new IllegalArgumentException("Reference data set of type LONG got a non-integer value: " + value);
+    }
+
+    private String cacheKey(Long projectId) {
+        String tenantId = TenantContext.getTenantId();
+        return (tenantId != null ? tenantId : "default") + ":" + projectId;
+    }
+
+    private ReferenceDataSetDto toDto(ReferenceDataSet set) {
+        return new ReferenceDataSetDto(set.getId(), set.getProject().getId(), set.getName(), set.getDescription(),
+                set.getValueType(), set.getVersion(), set.getEntryCount(), set.getCreatedAt(), set.getUpdatedAt());
+    }
+}
@@ -7,6 +7,8 @@ import com.ruleengine.dto.RuleDefinition.Condition;
 import com.ruleengine.dto.RuleDefinition.ConditionGroup;
 import com.ruleengine.model.Rule;
 import com.ruleengine.model.Schema;
+import com.ruleengine.parser.ParsedSchema;
+import com.ruleengine.parser.ParsedSchemaCache;
 import com.ruleengine.repository.RuleRepository;
 
 import jakarta.persistence.EntityNotFoundException;
@@ -28,11 +30,14 @@ public class RuleMatchPayloadGenerator {
     private static final Logger log = LoggerFactory.getLogger(RuleMatchPayloadGenerator.class);
 
     private final RuleRepository ruleRepository;
+    private final ParsedSchemaCache parsedSchemaCache;
     private final ObjectMapper objectMapper;
 
     public RuleMatchPayloadGenerator(RuleRepository ruleRepository,
+            ParsedSchemaCache parsedSchemaCache,
             ObjectMapper objectMapper) {
         this.ruleRepository = ruleRepository;
+        this.parsedSchemaCache = parsedSchemaCache;
         this.objectMapper = objectMapper;
     }
 
@@ -51,14 +56,14 @@ public class RuleMatchPayloadGenerator {
 
         // Get the schema to understand field types
         Schema schema = rule.getSchema();
-        Map<String, String> fieldTypes = parseSchemaFieldTypes(schema);
+        ParsedSchema parsedSchema = parsedSchemaCache.get(schema);
 
         // Parse the rule's conditions
         if (rule.getRuleJson() != null) {
             try {
                 RuleDefinition definition = objectMapper.readValue(rule.getRuleJson(), RuleDefinition.class);
                 if (definition.getConditions() != null) {
-                    processConditionGroup(definition.getConditions(), payload, fieldTypes);
+                    processConditionGroup(definition.getConditions(), payload, parsedSchema);
                 }
             } catch (JsonProcessingException e) {
                 log.error("Failed to parse rule definition for rule {}", ruleId, e);
@@ -68,55 +73,11 @@ public class RuleMatchPayloadGenerator {
         return payload;
     }
 
-    /**
-     * Parse schema to extract field types.
-     */
-    private Map<String, String> parseSchemaFieldTypes(Schema schema) {
-        Map<String, String> fieldTypes = new HashMap<>();
-        if (schema == null || schema.getJsonSchema() == null) {
-            return fieldTypes;
-        }
-
-        try {
-            @SuppressWarnings("unchecked")
-            Map<String, Object> schemaJson = objectMapper.readValue(schema.getJsonSchema(), Map.class);
-            @SuppressWarnings("unchecked")
-            Map<String, Object> properties = (Map<String, Object>) schemaJson.get("properties");
-
-            if (properties != null) {
-                for (Map.Entry<String, Object> entry : properties.entrySet()) {
-                    String fieldName = entry.getKey();
-                    @SuppressWarnings("unchecked")
-                    Map<String, Object> fieldDef = (Map<String, Object>) entry.getValue();
-                    String type = (String) fieldDef.get("type");
-                    fieldTypes.put(fieldName, type != null ? type : "string");
-
-                    // Handle nested properties
-                    @SuppressWarnings("unchecked")
-                    Map<String, Object> nestedProps = (Map<String, Object>) fieldDef.get("properties");
-                    if (nestedProps != null) {
-                        for (Map.Entry<String, Object> nestedEntry : nestedProps.entrySet()) {
-                            String nestedPath = fieldName + "." + nestedEntry.getKey();
-                            @SuppressWarnings("unchecked")
-                            Map<String, Object> nestedFieldDef = (Map<String, Object>) nestedEntry.getValue();
-                            String nestedType = (String) nestedFieldDef.get("type");
-                            fieldTypes.put(nestedPath, nestedType != null ? nestedType : "string");
-                        }
-                    }
-                }
-            }
-        } catch (JsonProcessingException e) {
-            log.error("Failed to parse schema: {}", e.getMessage());
-        }
-
-        return fieldTypes;
-    }
-
     /**
      * Process a condition group and add matching values to the payload.
      */
     private void processConditionGroup(ConditionGroup group, Map<String, Object> payload,
-            Map<String, String> fieldTypes) {
+            ParsedSchema parsedSchema) {
         if (group == null || group.getConditions() == null) {
             return;
         }
@@ -124,10 +85,10 @@ public class RuleMatchPayloadGenerator {
         for (Condition condition : group.getConditions()) {
             if (condition.getNested() != null) {
                 // Recursively process nested condition groups
-                processConditionGroup(condition.getNested(), payload, fieldTypes);
+                processConditionGroup(condition.getNested(), payload, parsedSchema);
             } else if (condition.getFact() != null && condition.getOperator() != null) {
                 // Generate a value that satisfies this condition
-                Object matchingValue = generateMatchingValue(condition, fieldTypes);
+                Object matchingValue = generateMatchingValue(condition, parsedSchema);
                 if (matchingValue != null) {
                     setNestedValue(payload, condition.getFact(), matchingValue);
                 }
@@ -138,14 +99,14 @@ public class RuleMatchPayloadGenerator {
     /**
      * Generate a value that would satisfy the given condition.
      */
-    private Object generateMatchingValue(Condition condition, Map<String, String> fieldTypes) {
+    private Object generateMatchingValue(Condition condition, ParsedSchema parsedSchema) {
         String operator = condition.getOperator();
         Object conditionValue = condition.getValue();
         String fact = condition.getFact();
 
         // Sanitize the fact path (remove type prefix if present)
         String fieldPath = sanitizePath(fact);
-        String fieldType = fieldTypes.getOrDefault(fieldPath, "string");
+        String fieldType = parsedSchema.typeOf(fieldPath);
 
         switch (operator) {
             case "equals":
@@ -2,28 +2,43 @@ package com.ruleengine.service;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ruleengine.cache.ReadCache;
 import com.ruleengine.dto.CreateProjectRequest;
 import com.ruleengine.dto.ExecuteRulesRequest;
 import com.ruleengine.dto.ExecuteRulesResponse;
+import com.ruleengine.dto.ExecutionDailyRollupDto;
 import com.ruleengine.dto.ExecutionHistoryDto;
+import com.ruleengine.dto.ExecutionHistorySliceDto;
+import com.ruleengine.dto.ExecutionHistorySummaryDto;
+import com.ruleengine.dto.ProjectCountsDto;
 import com.ruleengine.dto.RuleProjectDto;
 import com.ruleengine.drools.DynamicFact;
+import com.ruleengine.model.ExecutionFiredRule;
 import com.ruleengine.model.ExecutionHistory;
 import com.ruleengine.model.RuleProject;
 import com.ruleengine.model.Schema;
+import com.ruleengine.repository.ExecutionDailyRollupRepository;
 import com.ruleengine.repository.ExecutionHistoryRepository;
 import com.ruleengine.repository.RuleProjectRepository;
 import com.ruleengine.repository.SchemaRepository;
-import com.ruleengine.service.RuleService;
+import com.ruleengine.webhook.WebhookDispatch;
 import jakarta.persistence.EntityNotFoundException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -34,19 +49,42 @@ public class RuleProjectService {
 
     private static final Logger log = LoggerFactory.getLogger(RuleProjectService.class);
 
+    private static final int MAX_SUMMARY_PAGE_SIZE = 200;
+    private static final int IN_CLAUSE_CHUNK_SIZE = 500;
+    private static final String CURSOR_SEPARATOR = "_";
+
     private final RuleProjectRepository projectRepository;
     private final SchemaRepository schemaRepository;
     private final RuleService ruleService;
     private final ExecutionHistoryRepository executionHistoryRepository;
+    private final ExecutionDailyRollupRepository executionRollupRepository;
+    private final WebhookOutboxService webhookOutboxService;
+    private final ExecutionLogWriter executionLogWriter;
+    private final ExecutionPlanCache executionPlanCache;
+    private final ReadCache readCache;
+    private final HistoryPayloadCodec payloadCodec;
+    // Executions read and fire rules in it; they are recorded after it commits
+    private final TransactionTemplate readOnlyTransaction;
     private final ObjectMapper objectMapper;
 
     public RuleProjectService(RuleProjectRepository projectRepository, SchemaRepository schemaRepository,
             RuleService ruleService, ExecutionHistoryRepository executionHistoryRepository,
+            ExecutionDailyRollupRepository executionRollupRepository, WebhookOutboxService webhookOutboxService,
+            ExecutionLogWriter executionLogWriter, ExecutionPlanCache executionPlanCache, ReadCache readCache,
+            HistoryPayloadCodec payloadCodec, PlatformTransactionManager transactionManager,
             ObjectMapper objectMapper) {
         this.projectRepository = projectRepository;
         this.schemaRepository = schemaRepository;
         this.ruleService = ruleService;
         this.executionHistoryRepository = executionHistoryRepository;
+        this.executionRollupRepository = executionRollupRepository;
+        this.webhookOutboxService = webhookOutboxService;
+        this.executionLogWriter = executionLogWriter;
+        this.executionPlanCache = executionPlanCache;
+        this.readCache = readCache;
+        this.payloadCodec = payloadCodec;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
         this.objectMapper = objectMapper;
     }
 
@@ -58,6 +96,7 @@ public class RuleProjectService {
         RuleProject project = new RuleProject();
         project.setName(request.getName());
         project.setDescription(request.getDescription());
+        project.setHistoryRetentionDays(request.getHistoryRetentionDays());
 
         // Set parent project if provided (for templates within projects)
         if (parentProjectId != null) {
@@ -90,15 +129,16 @@ public class RuleProjectService {
         }
 
         project = projectRepository.save(project);
+        executionPlanCache.invalidate(parentProjectId);
+        readCache.evict(ReadCache.PROJECTS);
         return toDto(project);
     }
 
     @Transactional(readOnly = true)
     public List<RuleProjectDto> getAllProjects() {
         // Return only top-level projects (no parent)
-        return projectRepository.findByParentProjectIsNull().stream()
-                .map(this::toDto)
-                .collect(Collectors.toList());
+        return readCache.getList(ReadCache.PROJECTS, "all",
+                () -> toDtos(projectRepository.findByParentProjectIsNull()));
     }
 
     /**
@@ -106,23 +146,24 @@ public class RuleProjectService {
      */
     @Transactional(readOnly = true)
     public List<RuleProjectDto> getTemplatesByProject(Long projectId) {
-        return projectRepository.findByParentProjectId(projectId).stream()
-                .map(this::toDto)
-                .collect(Collectors.toList());
+        return readCache.getList(ReadCache.PROJECTS, "templates:" + projectId,
+                () -> toDtos(projectRepository.findByParentProjectId(projectId)));
     }
 
     @Transactional(readOnly = true)
     public RuleProjectDto getProject(Long id) {
-        RuleProject project = projectRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Project not found: " + id));
-        return toDto(project);
+        return readCache.get(ReadCache.PROJECTS, "project:" + id, () -> toDto(projectRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Project not found: " + id))));
     }
 
     public void deleteProject(Long id) {
-        if (!projectRepository.existsById(id)) {
-            throw new EntityNotFoundException("Project not found: " + id);
-        }
+        RuleProject project = projectRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Project not found: " + id));
+        Long parentId = project.getParentProject() != null ? project.getParentProject().getId() : null;
         projectRepository.deleteById(id);
+        executionPlanCache.invalidate(id, parentId);
+        // Rules and schemas of the project go with it
+        readCache.evict(ReadCache.SCHEMAS, ReadCache.RULES, ReadCache.PROJECTS);
     }
 
     public RuleProjectDto updateProject(Long id, CreateProjectRequest request) {
@@ -135,49 +176,48 @@ public class RuleProjectService {
         if (request.getDescription() != null) {
             project.setDescription(request.getDescription());
         }
+        if (request.getHistoryRetentionDays() != null) {
+            project.setHistoryRetentionDays(request.getHistoryRetentionDays());
+        }
 
         project = projectRepository.save(project);
+        readCache.evict(ReadCache.PROJECTS);
         return toDto(project);
     }
 
     /**
-     * Execute rules for a project with multiple input/output objects.
+     * Execute rules for a project with multiple input/output objects. The
+     * rules are read and fired in a read-only transaction; webhooks are
+     * waited for and the execution recorded after it.
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ExecuteRulesResponse executeProject(Long projectId, ExecuteRulesRequest request) {
-        RuleProject project = projectRepository.findById(projectId)
-                .orElseThrow(() -> new EntityNotFoundException("Project not found: " + projectId));
-
-        // Create a modified request that includes project rules
+        // Only the facts and execution options apply; the plan decides the rules
         ExecuteRulesRequest projectRequest = new ExecuteRulesRequest();
         projectRequest.setFacts(request.getFacts());
+        projectRequest.setFactsBySchema(request.getFactsBySchema());
         projectRequest.setDryRun(request.isDryRun());
-
-        // Get rule IDs for this project directly
-        List<Long> ruleIds = new java.util.ArrayList<>(ruleService.getRulesByProject(projectId).stream()
-                .map(com.ruleengine.dto.RuleDto::getId)
-                .collect(Collectors.toList()));
-
-        // Also include rules from child templates (child projects)
-        List<RuleProject> templates = projectRepository.findByParentProjectId(projectId);
-        for (RuleProject template : templates) {
-            List<Long> templateRuleIds = ruleService.getRulesByProject(template.getId()).stream()
-                    .map(com.ruleengine.dto.RuleDto::getId)
-                    .collect(Collectors.toList());
-            ruleIds.addAll(templateRuleIds);
-        }
-
-        projectRequest.setRuleIds(ruleIds);
-
-        // Execute using the rule service
-        ExecuteRulesResponse response = ruleService.executeRules(projectRequest);
-
-        // Save execution history (unless dry run)
+        projectRequest.setWebhookMode(request.getWebhookMode());
+        projectRequest.setWebhookWaitMs(request.getWebhookWaitMs());
+
+        // Recorded executions hand their webhooks to the outbox
+        boolean deferWebhooks = !request.isDryRun() && webhookOutboxService.isEnabled();
+        ExecuteRulesResponse response = readOnlyTransaction.execute(status -> {
+            // Resolved once per project; a cached plan needs no queries. A
+            // project without rules returns the facts unchanged.
+            ExecutionPlan plan = ruleService.getExecutionPlan(projectId);
+            return ruleService.executePlan(plan, projectRequest, deferWebhooks);
+        });
+        ruleService.awaitWebhooks(response, projectRequest);
+
+        // Save execution history (unless dry run), outside a transaction: it may wait for the writer's commit
         if (!request.isDryRun()) {
             try {
-                saveExecutionHistory(project, request, response);
+                saveExecutionHistory(projectId, request, response);
             } catch (Exception e) {
                 log.error("Failed to save execution history", e);
-                // Don't fail the execution if history save fails
+                // Don't fail the execution if history save fails, but don't drop its webhooks either
+                webhookOutboxService.sendWithoutOutbox(response.getDeferredWebhooks());
             }
         }
 
@@ -185,26 +225,20 @@ public class RuleProjectService {
     }
 
     /**
-     * Save execution history to database.
+     * Record execution history. With webhooks for the outbox, the history
+     * row and their entries are committed together before this returns;
+     * otherwise it goes through the write-behind queue.
      */
-    private void saveExecutionHistory(RuleProject project, ExecuteRulesRequest request, ExecuteRulesResponse response) {
+    private void saveExecutionHistory(Long projectId, ExecuteRulesRequest request, ExecuteRulesResponse response) {
         try {
-            ExecutionHistory history = ExecutionHistory.builder()
-                    .project(project)
-                    .inputFacts(objectMapper.writeValueAsString(request.getFacts()))
-                    .outputFacts(objectMapper.writeValueAsString(response.getResultFacts()))
-                    .firedRules(objectMapper.writeValueAsString(response.getFiredRules()))
-                    .webhookResults(response.getWebhookResults() != null
-                            ? objectMapper.writeValueAsString(response.getWebhookResults())
-                            : null)
-                    .success(response.isSuccess())
-                    .dryRun(request.isDryRun())
-                    .executionTimeMs(response.getExecutionTimeMs())
-                    .errorMessage(response.getErrorMessage())
-                    .build();
-
-            executionHistoryRepository.save(history);
-            log.debug("Saved execution history for project: {}", project.getName());
+            RuleProject project = projectRepository.getReferenceById(projectId);
+            ExecutionHistory history = ruleService.toExecutionHistory(project, request, response);
+            List<ExecutionFiredRule> firedRules = ruleService.toFiredRuleRecords(response);
+
+            // Outbox entries must commit together with their history row
+            List<WebhookDispatch> deferredWebhooks = response.getDeferredWebhooks();
+            executionLogWriter.record(history, firedRules, deferredWebhooks != null ? deferredWebhooks : List.of());
+            log.debug("Recorded execution history for project: {}", project.getId());
         } catch (Exception e) {
             log.error("Failed to serialize execution history", e);
             throw new RuntimeException("Failed to save execution history", e);
@@ -252,6 +286,60 @@ public class RuleProjectService {
         return history.map(this::toHistoryDto);
     }
 
+    /**
+     * List execution summaries of a project, newest first, using keyset
+     * pagination on (executedAt, id).
+     */
+    @Transactional(readOnly = true)
+    public ExecutionHistorySliceDto getExecutionSummaries(Long projectId, String cursor, int size) {
+        int limit = Math.max(1, Math.min(size, MAX_SUMMARY_PAGE_SIZE));
+        PageRequest page = PageRequest.of(0, limit + 1);
+        ExecutionCursor after = ExecutionCursor.parse(cursor);
+        List<ExecutionHistorySummaryDto> rows = after == null
+                ? executionHistoryRepository.findSummariesByProjectId(projectId, page)
+                : executionHistoryRepository.findSummariesByProjectIdBefore(projectId, after.executedAt, after.id,
+                        page);
+        return toSlice(rows, limit);
+    }
+
+    /**
+     * List execution summaries across all projects, newest first.
+     */
+    @Transactional(readOnly = true)
+    public ExecutionHistorySliceDto getAllExecutionSummaries(String cursor, int size) {
+        int limit = Math.max(1, Math.min(size, MAX_SUMMARY_PAGE_SIZE));
+        PageRequest page = PageRequest.of(0, limit + 1);
+        ExecutionCursor after = ExecutionCursor.parse(cursor);
+        List<ExecutionHistorySummaryDto> rows = after == null
+                ? executionHistoryRepository.findSummaries(page)
+                : executionHistoryRepository.findSummariesBefore(after.executedAt, after.id, page);
+        return toSlice(rows, limit);
+    }
+
+    private ExecutionHistorySliceDto toSlice(List<ExecutionHistorySummaryDto> rows, int limit) {
+        if (rows.size() <= limit) {
+            return new ExecutionHistorySliceDto(rows, null);
+        }
+        List<ExecutionHistorySummaryDto> items = rows.subList(0, limit);
+        ExecutionHistorySummaryDto last = items.get(limit - 1);
+        return new ExecutionHistorySliceDto(items, last.getExecutedAt() + CURSOR_SEPARATOR + last.getId());
+    }
+
+    /**
+     * Get the daily totals of a project's executions whose history has been
+     * removed by retention, newest day first.
+     */
+    @Transactional(readOnly = true)
+    public List<ExecutionDailyRollupDto> getDailyRollups(Long projectId) {
+        if (!projectRepository.existsById(projectId)) {
+            throw new EntityNotFoundException("Project not found: " + projectId);
+        }
+        return executionRollupRepository.findByProjectIdOrderByDayDesc(projectId).stream()
+                .map(r -> new ExecutionDailyRollupDto(r.getDay(), r.getExecutions(), r.getFailures(),
+                        r.getTotalExecutionTimeMs(), r.getMaxExecutionTimeMs()))
+                .collect(Collectors.toList());
+    }
+
     /**
      * Get execution history by ID.
      */
@@ -281,24 +369,25 @@ public class RuleProjectService {
             }
 
             // Parse JSON strings to objects - default to empty lists if null
-            if (history.getInputFacts() != null && !history.getInputFacts().isEmpty()) {
-                builder.inputFacts(objectMapper.readValue(history.getInputFacts(),
+            HistoryPayloadCodec.Payload payload = payloadCodec.read(history);
+            if (payload.getInputFacts() != null && !payload.getInputFacts().isEmpty()) {
+                builder.inputFacts(objectMapper.readValue(payload.getInputFacts(),
                         new TypeReference<List<Map<String, Object>>>() {
                         }));
             } else {
                 builder.inputFacts(Collections.emptyList());
             }
 
-            if (history.getOutputFacts() != null && !history.getOutputFacts().isEmpty()) {
-                builder.outputFacts(objectMapper.readValue(history.getOutputFacts(),
+            if (payload.getOutputFacts() != null && !payload.getOutputFacts().isEmpty()) {
+                builder.outputFacts(objectMapper.readValue(payload.getOutputFacts(),
                         new TypeReference<List<Map<String, Object>>>() {
                         }));
             } else {
                 builder.outputFacts(Collections.emptyList());
             }
 
-            if (history.getFiredRules() != null && !history.getFiredRules().isEmpty()) {
-                builder.firedRules(objectMapper.readValue(history.getFiredRules(),
+            if (payload.getFiredRules() != null && !payload.getFiredRules().isEmpty()) {
+                builder.firedRules(objectMapper.readValue(payload.getFiredRules(),
                         new TypeReference<List<ExecuteRulesResponse.FiredRule>>() {
                         }));
             } else {
@@ -319,45 +408,59 @@ public class RuleProjectService {
     }
 
     private RuleProjectDto toDto(RuleProject project) {
-        // Calculate template count (child projects)
-        List<RuleProject> templates = projectRepository.findByParentProjectId(project.getId());
-        int templateCount = templates.size();
+        return toDtos(List.of(project)).get(0);
+    }
 
-        // Calculate total rule count: direct rules + rules from all templates
-        int directRuleCount = project.getRules() != null ? project.getRules().size() : 0;
-        int templateRuleCount = templates.stream()
-                .mapToInt(t -> t.getRules() != null ? t.getRules().size() : 0)
-                .sum();
-        int totalRuleCount = directRuleCount + templateRuleCount;
+    /**
+     * Convert projects to DTOs with a fixed number of queries: counts and
+     * schema names are loaded for all projects at once rather than per project.
+     */
+    private List<RuleProjectDto> toDtos(List<RuleProject> projects) {
+        if (projects.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, ProjectCountsDto> counts = new HashMap<>();
+        Map<Long, List<RuleProjectDto.SchemaInfo>> inputSchemas = new HashMap<>();
+        Map<Long, List<RuleProjectDto.SchemaInfo>> outputSchemas = new HashMap<>();
+        List<Long> ids = projects.stream().map(RuleProject::getId).collect(Collectors.toList());
+        for (int from = 0; from < ids.size(); from += IN_CLAUSE_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + IN_CLAUSE_CHUNK_SIZE, ids.size()));
+            projectRepository.findCounts(chunk).forEach(c -> counts.put(c.getProjectId(), c));
+            groupSchemaInfos(projectRepository.findInputSchemaInfos(chunk), inputSchemas);
+            groupSchemaInfos(projectRepository.findOutputSchemaInfos(chunk), outputSchemas);
+        }
 
-        // Calculate schema count (schemas directly associated with project)
-        int schemaCount = (int) schemaRepository.countByProjectId(project.getId());
+        return projects.stream()
+                .map(project -> toDto(project, counts.get(project.getId()),
+                        inputSchemas.get(project.getId()), outputSchemas.get(project.getId())))
+                .collect(Collectors.toList());
+    }
 
+    private static void groupSchemaInfos(List<Object[]> rows, Map<Long, List<RuleProjectDto.SchemaInfo>> target) {
+        for (Object[] row : rows) {
+            target.computeIfAbsent((Long) row[0], id -> new ArrayList<>())
+                    .add(new RuleProjectDto.SchemaInfo((Long) row[1], (String) row[2]));
+        }
+    }
+
+    private RuleProjectDto toDto(RuleProject project, ProjectCountsDto counts,
+            List<RuleProjectDto.SchemaInfo> inputSchemas, List<RuleProjectDto.SchemaInfo> outputSchemas) {
         RuleProjectDto.Builder builder = RuleProjectDto.builder()
                 .id(project.getId())
                 .name(project.getName())
                 .description(project.getDescription())
                 .parentProjectId(project.getParentProject() != null ? project.getParentProject().getId() : null)
-                .templateCount(templateCount)
-                .ruleCount(totalRuleCount)
-                .schemaCount(schemaCount)
+                .templateCount(counts != null ? counts.getTemplateCount() : 0)
+                .ruleCount(counts != null ? counts.getRuleCount() : 0)
+                .schemaCount(counts != null ? counts.getSchemaCount() : 0)
                 .createdAt(project.getCreatedAt())
                 .updatedAt(project.getUpdatedAt());
 
-        // Handle multiple input schemas
-        if (project.getInputSchemas() != null && !project.getInputSchemas().isEmpty()) {
-            List<RuleProjectDto.SchemaInfo> inputSchemaInfos = project.getInputSchemas().stream()
-                    .map(schema -> new RuleProjectDto.SchemaInfo(schema.getId(), schema.getName()))
-                    .collect(Collectors.toList());
-            builder.inputSchemas(inputSchemaInfos);
+        if (inputSchemas != null) {
+            builder.inputSchemas(inputSchemas);
         }
-
-        // Handle multiple output schemas
-        if (project.getOutputSchemas() != null && !project.getOutputSchemas().isEmpty()) {
-            List<RuleProjectDto.SchemaInfo> outputSchemaInfos = project.getOutputSchemas().stream()
-                    .map(schema -> new RuleProjectDto.SchemaInfo(schema.getId(), schema.getName()))
-                    .collect(Collectors.toList());
-            builder.outputSchemas(outputSchemaInfos);
+        if (outputSchemas != null) {
+            builder.outputSchemas(outputSchemas);
         }
 
         // Handle allowed output types for templates
@@ -368,7 +471,34 @@ public class RuleProjectService {
         builder.agendaGroup(project.getAgendaGroup());
         builder.autoFocus(project.getAutoFocus());
         builder.lockOnActive(project.getLockOnActive());
+        builder.historyRetentionDays(project.getHistoryRetentionDays());
 
         return builder.build();
     }
+
+    /**
+     * Position of the last summary returned: "<executedAt>_<id>".
+     */
+    private static final class ExecutionCursor {
+        private final LocalDateTime executedAt;
+        private final Long id;
+
+        private ExecutionCursor(LocalDateTime executedAt, Long id) {
+            this.executedAt = executedAt;
+            this.id = id;
+        }
+
+        static ExecutionCursor parse(String cursor) {
+            if (cursor == null || cursor.isBlank()) {
+                return null;
+            }
+            int separator = cursor.lastIndexOf(CURSOR_SEPARATOR);
+            try {
+                return new ExecutionCursor(LocalDateTime.parse(cursor.substring(0, separator)),
+                        Long.parseLong(cursor.substring(separator + 1)));
+            } catch (DateTimeParseException | NumberFormatException | IndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Invalid execution history cursor: " + cursor);
+            }
+        }
+    }
 }
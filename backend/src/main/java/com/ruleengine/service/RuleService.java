@@ -2,28 +2,44 @@ package com.ruleengine.service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ruleengine.cache.ReadCache;
 import com.ruleengine.dto.*;
 import com.ruleengine.drools.DroolsService;
 import com.ruleengine.drools.DynamicFact;
 import com.ruleengine.drools.JsonToDrlTranspiler;
+import com.ruleengine.drools.ReferenceDataLookup;
+import com.ruleengine.drools.RuleDependencyAnalyzer;
+import com.ruleengine.drools.RuleDependencyGraph;
+import com.ruleengine.drools.RuleExecutionOptions;
+import com.ruleengine.drools.WebhookBodyTemplate;
+import com.ruleengine.model.ExecutionFiredRule;
+import com.ruleengine.model.ExecutionHistory;
 import com.ruleengine.model.Rule;
-import com.ruleengine.model.RuleAuditLog;
 import com.ruleengine.model.RuleProject;
 import com.ruleengine.model.Schema;
-import com.ruleengine.repository.RuleAuditLogRepository;
+import com.ruleengine.parser.ParsedSchema;
+import com.ruleengine.parser.ParsedSchemaCache;
 import com.ruleengine.repository.RuleProjectRepository;
 import com.ruleengine.repository.RuleRepository;
 import com.ruleengine.repository.SchemaRepository;
 import jakarta.persistence.EntityNotFoundException;
+import org.kie.api.KieBase;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
-import com.fasterxml.jackson.databind.JsonNode;
 
 @Service
 @Transactional
@@ -33,24 +49,47 @@ public class RuleService {
     private final RuleRepository ruleRepository;
     private final SchemaRepository schemaRepository;
     private final RuleProjectRepository projectRepository;
-    private final RuleAuditLogRepository auditLogRepository;
     private final JsonToDrlTranspiler transpiler;
     private final DroolsService droolsService;
+    private final RuleDependencyAnalyzer dependencyAnalyzer;
+    private final ReferenceDataService referenceDataService;
+    private final ExecutionLogWriter executionLogWriter;
+    private final ExecutionPlanCache executionPlanCache;
+    private final ReadCache readCache;
+    private final ParsedSchemaCache parsedSchemaCache;
+    private final ParsedRuleCache parsedRuleCache;
+    // Executions read their rules in this and wait for webhooks after it
+    private final TransactionTemplate readOnlyTransaction;
     private final ObjectMapper objectMapper;
 
     public RuleService(RuleRepository ruleRepository,
             SchemaRepository schemaRepository,
             RuleProjectRepository projectRepository,
-            RuleAuditLogRepository auditLogRepository,
             JsonToDrlTranspiler transpiler,
             DroolsService droolsService,
+            RuleDependencyAnalyzer dependencyAnalyzer,
+            ReferenceDataService referenceDataService,
+            ExecutionLogWriter executionLogWriter,
+            ExecutionPlanCache executionPlanCache,
+            ReadCache readCache,
+            ParsedSchemaCache parsedSchemaCache,
+            ParsedRuleCache parsedRuleCache,
+            PlatformTransactionManager transactionManager,
             ObjectMapper objectMapper) {
         this.ruleRepository = ruleRepository;
         this.schemaRepository = schemaRepository;
         this.projectRepository = projectRepository;
-        this.auditLogRepository = auditLogRepository;
         this.transpiler = transpiler;
         this.droolsService = droolsService;
+        this.dependencyAnalyzer = dependencyAnalyzer;
+        this.referenceDataService = referenceDataService;
+        this.executionLogWriter = executionLogWriter;
+        this.executionPlanCache = executionPlanCache;
+        this.readCache = readCache;
+        this.parsedSchemaCache = parsedSchemaCache;
+        this.parsedRuleCache = parsedRuleCache;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
         this.objectMapper = objectMapper;
     }
 
@@ -80,11 +119,14 @@ public class RuleService {
         try {
             // Validate condition values match schema property types
             validateConditionValues(definition.getConditions(), schema);
+            validateReferenceSets(definition.getConditions(), project);
+            Map<String, String> joinSchemas = resolveJoins(definition, project);
 
             String ruleJson = objectMapper.writeValueAsString(definition);
 
             // Transpile to DRL
-            String drl = transpiler.transpile(definition, "com.ruleengine.generated", schema.getName());
+            String drl = transpiler.transpile(definition, "com.ruleengine.generated", schema.getName(),
+                    schema.getJsonSchema(), joinSchemas);
 
             // Validate DRL
             List<String> errors = droolsService.validateDrl(drl);
@@ -105,10 +147,14 @@ public class RuleService {
                     .category(definition.getCategory())
                     .build();
 
+            List<String> dependencyWarnings = findDependencyWarnings(project, null, definition);
+
             rule = ruleRepository.save(rule);
-            droolsService.invalidateCache(schema.getId());
+            invalidateCaches(rule.getProject());
 
-            return toDto(rule);
+            RuleDto dto = toDto(rule);
+            dto.setDependencyWarnings(dependencyWarnings);
+            return dto;
         } catch (JsonProcessingException e) {
             throw new RuntimeException("Failed to serialize rule", e);
         }
@@ -125,6 +171,7 @@ public class RuleService {
 
         // Validate condition values match schema property types
         validateConditionValues(definition.getConditions(), schema);
+        validateReferenceSets(definition.getConditions(), rule.getProject());
         if (definition.getSchemaId() != null && !definition.getSchemaId().equals(schema.getId())) {
             schema = schemaRepository.findById(definition.getSchemaId())
                     .orElseThrow(() -> new EntityNotFoundException("Schema not found: " + definition.getSchemaId()));
@@ -132,8 +179,10 @@ public class RuleService {
         }
 
         try {
+            Map<String, String> joinSchemas = resolveJoins(definition, rule.getProject());
             String ruleJson = objectMapper.writeValueAsString(definition);
-            String drl = transpiler.transpile(definition, "com.ruleengine.generated", schema.getName());
+            String drl = transpiler.transpile(definition, "com.ruleengine.generated", schema.getName(),
+                    schema.getJsonSchema(), joinSchemas);
 
             // Validate DRL
             List<String> errors = droolsService.validateDrl(drl);
@@ -150,10 +199,14 @@ public class RuleService {
             rule.setPriority(definition.getPriority());
             rule.setCategory(definition.getCategory());
 
+            List<String> dependencyWarnings = findDependencyWarnings(rule.getProject(), rule.getId(), definition);
+
             rule = ruleRepository.save(rule);
-            droolsService.invalidateCache(schema.getId());
+            invalidateCaches(rule.getProject());
 
-            return toDto(rule);
+            RuleDto dto = toDto(rule);
+            dto.setDependencyWarnings(dependencyWarnings);
+            return dto;
         } catch (JsonProcessingException e) {
             throw new RuntimeException("Failed to serialize rule", e);
         }
@@ -164,9 +217,9 @@ public class RuleService {
      */
     @Transactional(readOnly = true)
     public List<RuleDto> getAllRules() {
-        return ruleRepository.findAll().stream()
+        return readCache.getList(ReadCache.RULES, "all", () -> ruleRepository.findAll().stream()
                 .map(this::toDto)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
 
     /**
@@ -174,9 +227,10 @@ public class RuleService {
      */
     @Transactional(readOnly = true)
     public List<RuleDto> getRulesBySchema(Long schemaId) {
-        return ruleRepository.findBySchemaId(schemaId).stream()
+        return readCache.getList(ReadCache.RULES, "schema:" + schemaId, () -> ruleRepository.findBySchemaId(schemaId)
+                .stream()
                 .map(this::toDto)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
 
     /**
@@ -184,9 +238,10 @@ public class RuleService {
      */
     @Transactional(readOnly = true)
     public List<RuleDto> getRulesByProject(Long projectId) {
-        return ruleRepository.findByProjectId(projectId).stream()
-                .map(this::toDto)
-                .collect(Collectors.toList());
+        return readCache.getList(ReadCache.RULES, "project:" + projectId,
+                () -> ruleRepository.findByProjectId(projectId).stream()
+                        .map(this::toDto)
+                        .collect(Collectors.toList()));
     }
 
     /**
@@ -194,9 +249,8 @@ public class RuleService {
      */
     @Transactional(readOnly = true)
     public RuleDto getRule(Long id) {
-        Rule rule = ruleRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Rule not found: " + id));
-        return toDto(rule);
+        return readCache.get(ReadCache.RULES, "rule:" + id, () -> toDto(ruleRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Rule not found: " + id))));
     }
 
     /**
@@ -206,9 +260,8 @@ public class RuleService {
         Rule rule = ruleRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Rule not found: " + id));
 
-        Long schemaId = rule.getSchema().getId();
         ruleRepository.delete(rule);
-        droolsService.invalidateCache(schemaId);
+        invalidateCaches(rule.getProject());
     }
 
     /**
@@ -220,15 +273,38 @@ public class RuleService {
 
         rule.setEnabled(!rule.isEnabled());
         rule = ruleRepository.save(rule);
-        droolsService.invalidateCache(rule.getSchema().getId());
+        invalidateCaches(rule.getProject());
 
         return toDto(rule);
     }
 
     /**
-     * Execute rules against facts.
+     * Execute rules against facts. The rules are read and fired in a
+     * read-only transaction; webhooks are waited for after it, without
+     * holding a connection.
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ExecuteRulesResponse executeRules(ExecuteRulesRequest request) {
+        ExecuteRulesResponse response = readOnlyTransaction.execute(status -> executeRules(request, false));
+        awaitWebhooks(response, request);
+
+        // Executions outside a project are recorded when a rule fired (unless dry run)
+        if (!request.isDryRun() && response.isSuccess() && !response.getFiredRules().isEmpty()) {
+            try {
+                executionLogWriter.record(toExecutionHistory(null, request, response), toFiredRuleRecords(response));
+            } catch (Exception e) {
+                log.error("Failed to record execution", e);
+            }
+        }
+        return response;
+    }
+
+    /**
+     * Execute rules against facts without recording the execution. With
+     * deferWebhooks, webhook actions are not sent but returned in the
+     * response's deferred webhooks for the caller to write to the outbox.
+     */
+    public ExecuteRulesResponse executeRules(ExecuteRulesRequest request, boolean deferWebhooks) {
         List<Rule> rules;
 
         if (request.getRuleIds() != null && !request.getRuleIds().isEmpty()) {
@@ -239,48 +315,256 @@ public class RuleService {
             throw new IllegalArgumentException("Either schemaId or ruleIds must be provided");
         }
 
-        if (rules.isEmpty()) {
-            return ExecuteRulesResponse.builder()
+        return executePlan(buildExecutionPlan(rules), request, deferWebhooks);
+    }
+
+    /**
+     * The execution plan of a project's rule set (its own rules and the rules
+     * of its templates), built on first use and cached until one of them changes.
+     */
+    public ExecutionPlan getExecutionPlan(Long projectId) {
+        return executionPlanCache.get(projectId, id -> {
+            if (!projectRepository.existsById(id)) {
+                throw new EntityNotFoundException("Project not found: " + id);
+            }
+            return buildExecutionPlan(findProjectRuleSet(id));
+        });
+    }
+
+    /**
+     * Execute a plan against the request's facts without recording the
+     * execution; see executeRules(request, deferWebhooks). Webhooks are not
+     * waited for; see awaitWebhooks.
+     */
+    public ExecuteRulesResponse executePlan(ExecutionPlan plan, ExecuteRulesRequest request,
+            boolean deferWebhooks) {
+        if (plan.isEmpty()) {
+            ExecuteRulesResponse empty = ExecuteRulesResponse.builder()
                     .success(true)
-                    .resultFacts(request.getFacts())
+                    .resultFacts(request.allFacts())
                     .firedRules(List.of())
                     .executionTimeMs(0)
                     .build();
+            empty.setResultFactsBySchema(request.getFactsBySchema());
+            if (!request.isDryRun()) {
+                encodePayloads(request, empty);
+            }
+            return empty;
         }
 
-        // Convert input facts to DynamicFacts
-        String factType = rules.get(0).getSchema().getName();
-        List<DynamicFact> dynamicFacts = request.getFacts().stream()
-                .map(factData -> new DynamicFact(factType, factData))
-                .collect(Collectors.toList());
+        // Convert input facts to DynamicFacts, typed by schema
+        List<DynamicFact> dynamicFacts = toDynamicFacts(request, plan);
+
+        if (plan.getCompileError() != null) {
+            return ExecuteRulesResponse.builder()
+                    .success(false)
+                    .errorMessage(plan.getCompileError())
+                    .executionTimeMs(0)
+                    .build();
+        }
 
         // Execute rules
-        ExecuteRulesResponse response = droolsService.executeRules(rules, dynamicFacts);
+        RuleExecutionOptions options = RuleExecutionOptions.builder()
+                .dependencyGraph(plan.getDependencyGraph())
+                .referenceData(plan.getReferenceDataProjectIds() != null
+                        ? referenceDataService.getLookup(plan.getReferenceDataProjectIds())
+                        : null)
+                .webhookBodies(plan.getWebhookBodies())
+                .deferWebhooks(deferWebhooks)
+                .build();
+        ExecuteRulesResponse response = droolsService.executeRules(plan.getKieBase(), plan.getRuleIdsByName(),
+                dynamicFacts, options);
+
+        if (response.isSuccess() && request.getFactsBySchema() != null && !request.getFactsBySchema().isEmpty()) {
+            response.setResultFactsBySchema(groupByFactType(dynamicFacts));
+        }
 
-        // Audit logging (unless dry run)
-        if (!request.isDryRun() && response.isSuccess()) {
-            try {
-                for (Rule rule : rules) {
-                    boolean fired = response.getFiredRules().stream()
-                            .anyMatch(fr -> rule.getId().equals(fr.getRuleId()));
-
-                    if (fired) {
-                        RuleAuditLog auditLog = RuleAuditLog.builder()
-                                .rule(rule)
-                                .inputFacts(objectMapper.writeValueAsString(request.getFacts()))
-                                .outputFacts(objectMapper.writeValueAsString(response.getResultFacts()))
-                                .fired(true)
-                                .executionTimeMs(response.getExecutionTimeMs())
-                                .build();
-                        auditLogRepository.save(auditLog);
+        // Encoded once here for the execution record and the response (unless dry run)
+        if (!request.isDryRun()) {
+            encodePayloads(request, response);
+        }
+
+        return response;
+    }
+
+    /**
+     * Wait for the webhooks of an execution as the request asks (WAIT up to
+     * webhookWaitMs, ASYNC not at all). Outside any transaction, so the wait
+     * does not keep a connection from other requests.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void awaitWebhooks(ExecuteRulesResponse response, ExecuteRulesRequest request) {
+        droolsService.awaitWebhooks(response, request.webhookWaitDeadlineMs());
+    }
+
+    /**
+     * Resolve everything an execution of these rules needs up front; must run
+     * inside a transaction as it reads the rules' schemas and projects.
+     */
+    private ExecutionPlan buildExecutionPlan(List<Rule> rules) {
+        KieBase kieBase = null;
+        Map<String, WebhookBodyTemplate> webhookBodies = Map.of();
+        String compileError = null;
+        Map<String, Long> ruleIdsByName = Map.of();
+        List<RuleDefinition> definitions = rules.stream()
+                .map(this::parseDefinition)
+                .collect(Collectors.toList());
+        try {
+            List<String> drlContents = droolsService.drlOf(rules);
+            if (!drlContents.isEmpty()) {
+                kieBase = droolsService.compileRules(drlContents);
+                webhookBodies = compileWebhookBodies(definitions);
+            }
+            ruleIdsByName = droolsService.ruleIdsByName(rules);
+        } catch (RuntimeException e) {
+            log.error("Failed to compile rule set", e);
+            kieBase = null;
+            compileError = e.getMessage();
+        }
+
+        Map<Long, String> factTypesBySchemaId = new LinkedHashMap<>();
+        Set<String> inputFactTypes = new HashSet<>();
+        for (Rule rule : rules) {
+            factTypesBySchemaId.putIfAbsent(rule.getSchema().getId(), rule.getSchema().getName());
+            inputFactTypes.add(rule.getSchema().getName());
+            RuleProject project = rule.getProject();
+            if (project != null) {
+                project.getInputSchemas().forEach(s -> inputFactTypes.add(s.getName()));
+                if (project.getParentProject() != null) {
+                    project.getParentProject().getInputSchemas().forEach(s -> inputFactTypes.add(s.getName()));
+                }
+            }
+        }
+
+        return new ExecutionPlan(rules.size(), kieBase, webhookBodies, compileError, ruleIdsByName,
+                rules.isEmpty() ? null : rules.get(0).getSchema().getName(),
+                factTypesBySchemaId,
+                inputFactTypes,
+                compileError == null ? buildDependencyGraph(definitions) : null,
+                referenceDataProjectIds(rules));
+    }
+
+    private void invalidateCaches(RuleProject project) {
+        // Project DTOs carry rule counts
+        readCache.evict(ReadCache.RULES, ReadCache.PROJECTS);
+        if (project != null) {
+            executionPlanCache.invalidate(project.getId(),
+                    project.getParentProject() != null ? project.getParentProject().getId() : null);
+        }
+    }
+
+    /**
+     * The history row of a recorded execution; the project is null for
+     * executions outside a project.
+     */
+    public ExecutionHistory toExecutionHistory(RuleProject project, ExecuteRulesRequest request,
+            ExecuteRulesResponse response) throws JsonProcessingException {
+        ExecutionPayloads payloads = response.getPayloads();
+        if (payloads == null) {
+            payloads = ExecutionPayloads.encode(objectMapper, request.allFacts(), response.getResultFacts());
+            response.setPayloads(payloads);
+        }
+        return ExecutionHistory.builder()
+                .project(project)
+                .inputFacts(payloads.getInputFactsJson())
+                .outputFacts(payloads.getResultFactsJson())
+                .firedRules(objectMapper.writeValueAsString(response.getFiredRules()))
+                .webhookResults(response.getWebhookResults() != null
+                        ? objectMapper.writeValueAsString(response.getWebhookResults())
+                        : null)
+                .success(response.isSuccess())
+                .dryRun(request.isDryRun())
+                .executionTimeMs(response.getExecutionTimeMs())
+                .errorMessage(response.getErrorMessage())
+                .build();
+    }
+
+    /**
+     * One row per fired rule; the payloads stay on the history row.
+     */
+    public List<ExecutionFiredRule> toFiredRuleRecords(ExecuteRulesResponse response) {
+        if (response.getFiredRules() == null) {
+            return List.of();
+        }
+        return response.getFiredRules().stream()
+                .filter(firedRule -> firedRule.getRuleId() != null)
+                .map(firedRule -> new ExecutionFiredRule(firedRule.getRuleId(), firedRule.getFireCount(),
+                        firedRule.getExecutionTimeMicros()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Encode the input and result facts once for the audit log, the
+     * execution history and the response body.
+     */
+    private void encodePayloads(ExecuteRulesRequest request, ExecuteRulesResponse response) {
+        try {
+            response.setPayloads(ExecutionPayloads.encode(objectMapper, request.allFacts(),
+                    response.getResultFacts()));
+        } catch (JsonProcessingException e) {
+            log.error("Failed to serialize execution facts", e);
+        }
+    }
+
+    /**
+     * Build the session's facts. Untyped facts get the type of the request's
+     * schema (or the first rule's schema); facts under factsBySchema get the
+     * schema they are listed under, so joins across schemas run in one session.
+     */
+    private List<DynamicFact> toDynamicFacts(ExecuteRulesRequest request, ExecutionPlan plan) {
+        List<DynamicFact> facts = new ArrayList<>();
+
+        if (request.getFacts() != null && !request.getFacts().isEmpty()) {
+            String factType = plan.getDefaultFactType();
+            if (request.getSchemaId() != null) {
+                factType = plan.getFactTypesBySchemaId().getOrDefault(request.getSchemaId(), factType);
+            }
+            for (Map<String, Object> data : request.getFacts()) {
+                facts.add(new DynamicFact(factType, data));
+            }
+        }
+
+        if (request.getFactsBySchema() != null) {
+            Set<String> inputSchemas = plan.getInputFactTypes();
+            for (Map.Entry<String, List<Map<String, Object>>> entry : request.getFactsBySchema().entrySet()) {
+                String schemaName = entry.getKey();
+                if (!inputSchemas.contains(schemaName)) {
+                    throw new IllegalArgumentException(
+                            "Schema in factsBySchema is not an input schema of the rules: " + schemaName);
+                }
+                if (entry.getValue() != null) {
+                    for (Map<String, Object> data : entry.getValue()) {
+                        facts.add(new DynamicFact(schemaName, data));
                     }
                 }
-            } catch (Exception e) {
-                log.error("Failed to save audit log", e);
             }
         }
 
-        return response;
+        return facts;
+    }
+
+    private Map<String, List<Map<String, Object>>> groupByFactType(List<DynamicFact> facts) {
+        Map<String, List<Map<String, Object>>> grouped = new LinkedHashMap<>();
+        for (DynamicFact fact : facts) {
+            grouped.computeIfAbsent(fact.getFactType(), k -> new ArrayList<>()).add(fact.getData());
+        }
+        return grouped;
+    }
+
+    /**
+     * Analyze read/write dependencies between the rules that execute together
+     * for a project (its own rules and the rules of its templates).
+     */
+    @Transactional(readOnly = true)
+    public RuleDependencyGraph getRuleDependencies(Long projectId) {
+        if (!projectRepository.existsById(projectId)) {
+            throw new EntityNotFoundException("Project not found: " + projectId);
+        }
+        List<RuleDefinition> definitions = findProjectRuleSet(projectId).stream()
+                .map(this::parseDefinition)
+                .filter(d -> d != null)
+                .collect(Collectors.toList());
+        return dependencyAnalyzer.analyze(definitions);
     }
 
     /**
@@ -305,7 +589,9 @@ public class RuleService {
             RuleDefinition definition = objectMapper.readValue(rule.getRuleJson(), RuleDefinition.class);
 
             // Regenerate DRL using current transpiler logic
-            String drl = transpiler.transpile(definition, "com.ruleengine.generated", rule.getSchema().getName());
+            String drl = transpiler.transpile(definition, "com.ruleengine.generated",
+                    rule.getSchema().getName(), rule.getSchema().getJsonSchema(),
+                    resolveJoins(definition, rule.getProject()));
 
             // Validate DRL
             List<String> errors = droolsService.validateDrl(drl);
@@ -318,8 +604,7 @@ public class RuleService {
             rule.setGeneratedDrl(drl);
             rule = ruleRepository.save(rule);
 
-            // Invalidate cache
-            droolsService.invalidateCache(rule.getSchema().getId());
+            invalidateCaches(rule.getProject());
 
             return toDto(rule);
         } catch (JsonProcessingException e) {
@@ -327,6 +612,207 @@ public class RuleService {
         }
     }
 
+    /**
+     * Report MODIFY cycles the saved rule takes part in, across the whole rule
+     * set of its project. no-loop only stops a rule from re-triggering itself,
+     * so cycles between rules are capped only by the firing limit.
+     */
+    private List<String> findDependencyWarnings(RuleProject project, Long ruleId, RuleDefinition definition) {
+        if (project == null || definition.getName() == null) {
+            return List.of();
+        }
+
+        RuleProject root = project.getParentProject() != null ? project.getParentProject() : project;
+        List<RuleDefinition> definitions = new ArrayList<>();
+        for (Rule existing : findProjectRuleSet(root.getId())) {
+            if (ruleId != null && ruleId.equals(existing.getId())) {
+                continue;
+            }
+            RuleDefinition existingDefinition = parseDefinition(existing);
+            if (existingDefinition != null) {
+                definitions.add(existingDefinition);
+            }
+        }
+        definitions.add(definition);
+
+        List<String> warnings = dependencyAnalyzer.analyze(definitions).cyclesContaining(definition.getName())
+                .stream()
+                .map(cycle -> "Rules can re-activate each other through MODIFY actions: " + String.join(", ", cycle))
+                .collect(Collectors.toList());
+        if (!warnings.isEmpty()) {
+            log.warn("Rule '{}' is part of a dependency cycle: {}", definition.getName(), warnings);
+        }
+        return warnings;
+    }
+
+    /**
+     * Build the dependency graph used to skip re-firing rules whose inputs did
+     * not change. Only worth it when some rule modifies facts.
+     */
+    private RuleDependencyGraph buildDependencyGraph(List<RuleDefinition> definitions) {
+        if (definitions.contains(null)) {
+            // Without a definition we cannot tell what the rule reads or writes
+            return null;
+        }
+        boolean hasModify = definitions.stream()
+                .anyMatch(d -> d.getActions() != null && d.getActions().stream()
+                        .anyMatch(a -> a != null && "MODIFY".equalsIgnoreCase(a.getType())));
+        if (!hasModify) {
+            return null;
+        }
+        return dependencyAnalyzer.analyze(definitions);
+    }
+
+    /**
+     * Compile the body template of each webhook action once for the plan,
+     * keyed by the global the generated rules read it from.
+     */
+    private Map<String, WebhookBodyTemplate> compileWebhookBodies(List<RuleDefinition> definitions) {
+        Map<String, WebhookBodyTemplate> bodies = new HashMap<>();
+        for (RuleDefinition definition : definitions) {
+            if (definition == null || definition.getActions() == null) {
+                continue;
+            }
+            for (RuleDefinition.RuleAction action : definition.getActions()) {
+                if (action == null || !"WEBHOOK".equalsIgnoreCase(action.getType())) {
+                    continue;
+                }
+                String bodyTemplate = action.getWebhookBodyTemplate();
+                if (bodyTemplate != null && !bodyTemplate.isBlank()) {
+                    bodies.computeIfAbsent(WebhookBodyTemplate.globalName(bodyTemplate),
+                            name -> WebhookBodyTemplate.compile(bodyTemplate));
+                }
+            }
+        }
+        return bodies;
+    }
+
+    /**
+     * Resolve the schema of each join: fill in factType from schemaId, check
+     * the schema is an input of the project and validate the join's condition
+     * values against it. Returns the JSON schema per joined fact type.
+     */
+    private Map<String, String> resolveJoins(RuleDefinition definition, RuleProject project) {
+        if (definition.getJoins() == null || definition.getJoins().isEmpty()) {
+            return Map.of();
+        }
+
+        Map<String, String> joinSchemas = new HashMap<>();
+        for (RuleDefinition.Join join : definition.getJoins()) {
+            if (join == null) {
+                continue;
+            }
+            Schema joinSchema;
+            if (join.getSchemaId() != null) {
+                joinSchema = schemaRepository.findById(join.getSchemaId())
+                        .orElseThrow(() -> new EntityNotFoundException("Schema not found: " + join.getSchemaId()));
+            } else if (join.getFactType() != null) {
+                joinSchema = schemaRepository.findByName(join.getFactType())
+                        .orElseThrow(() -> new EntityNotFoundException("Schema not found: " + join.getFactType()));
+            } else {
+                throw new IllegalArgumentException("Join '" + join.getAlias() + "' needs a schemaId or factType");
+            }
+
+            if (project != null) {
+                RuleProject root = project.getParentProject() != null ? project.getParentProject() : project;
+                boolean isInput = root.getInputSchemas().stream().anyMatch(s -> s.getId().equals(joinSchema.getId()))
+                        || project.getInputSchemas().stream().anyMatch(s -> s.getId().equals(joinSchema.getId()));
+                if (!isInput) {
+                    throw new IllegalArgumentException(
+                            "Joined schema '" + joinSchema.getName() + "' must be an input schema of the project");
+                }
+            }
+
+            join.setSchemaId(joinSchema.getId());
+            join.setFactType(joinSchema.getName());
+            validateConditionValues(join.getConditions(), joinSchema);
+            validateReferenceSets(join.getConditions(), project);
+            joinSchemas.put(joinSchema.getName(), joinSchema.getJsonSchema());
+        }
+        return joinSchemas;
+    }
+
+    /**
+     * The projects whose reference data sets are visible to the rules, in
+     * lookup order: each rule's own project first, then its parent project
+     * for templates. Null when no rule reads reference data.
+     */
+    private List<Long> referenceDataProjectIds(List<Rule> rules) {
+        boolean usesReferenceData = rules.stream()
+                .anyMatch(r -> r.getGeneratedDrl() != null
+                        && r.getGeneratedDrl().contains(ReferenceDataLookup.GLOBAL_NAME + ".contains("));
+        if (!usesReferenceData) {
+            return null;
+        }
+
+        List<Long> projectIds = new ArrayList<>();
+        for (Rule rule : rules) {
+            for (Long projectId : referenceScope(rule.getProject())) {
+                if (!projectIds.contains(projectId)) {
+                    projectIds.add(projectId);
+                }
+            }
+        }
+        return projectIds;
+    }
+
+    private List<Long> referenceScope(RuleProject project) {
+        if (project == null) {
+            return List.of();
+        }
+        if (project.getParentProject() == null) {
+            return List.of(project.getId());
+        }
+        return List.of(project.getId(), project.getParentProject().getId());
+    }
+
+    /**
+     * Reference sets can only be used with memberOf/notMemberOf and must exist
+     * in the rule's project (or its parent, for templates).
+     */
+    private void validateReferenceSets(RuleDefinition.ConditionGroup group, RuleProject project) {
+        if (group == null || group.getConditions() == null) {
+            return;
+        }
+        for (RuleDefinition.Condition condition : group.getConditions()) {
+            if (condition == null) {
+                continue;
+            }
+            if (condition.getNested() != null) {
+                validateReferenceSets(condition.getNested(), project);
+                continue;
+            }
+            String setName = condition.getReferenceSet();
+            if (setName == null || setName.isEmpty()) {
+                continue;
+            }
+            if (!"memberOf".equals(condition.getOperator()) && !"notMemberOf".equals(condition.getOperator())) {
+                throw new IllegalArgumentException(
+                        "Reference data set '" + setName + "' can only be used with memberOf or notMemberOf");
+            }
+            if (!referenceDataService.exists(referenceScope(project), setName)) {
+                throw new IllegalArgumentException("Reference data set not found: " + setName);
+            }
+        }
+    }
+
+    private List<Rule> findProjectRuleSet(Long projectId) {
+        List<Rule> rules = new ArrayList<>(ruleRepository.findByProjectId(projectId));
+        for (RuleProject template : projectRepository.findByParentProjectId(projectId)) {
+            rules.addAll(ruleRepository.findByProjectId(template.getId()));
+        }
+        return rules;
+    }
+
+    /**
+     * The rule's definition for dependency analysis, named after the rule
+     * (the DRL rule name is what Drools reports, keep the graph keyed by it).
+     * Shared through ParsedRuleCache; read only.
+     */
+    private RuleDefinition parseDefinition(Rule rule) {
+        return parsedRuleCache.get(rule);
+    }
+
     private RuleDto toDto(Rule rule) {
         RuleDto.RuleDtoBuilder builder = RuleDto.builder()
                 .id(rule.getId())
@@ -371,33 +857,32 @@ public class RuleService {
             return;
         }
 
-        // Parse schema properties from jsonSchema
-        Map<String, JsonNode> propertyMap = parseSchemaProperties(schema.getJsonSchema());
+        ParsedSchema parsedSchema = parsedSchemaCache.get(schema);
 
         for (RuleDefinition.Condition condition : conditions.getConditions()) {
             if (condition.getNested() != null) {
                 // Recursively validate nested conditions
-                validateConditionGroup(condition.getNested(), propertyMap);
+                validateConditionGroup(condition.getNested(), parsedSchema);
             } else {
-                validateCondition(condition, propertyMap);
+                validateCondition(condition, parsedSchema);
             }
         }
     }
 
-    private void validateConditionGroup(RuleDefinition.ConditionGroup group, Map<String, JsonNode> propertyMap) {
+    private void validateConditionGroup(RuleDefinition.ConditionGroup group, ParsedSchema parsedSchema) {
         if (group == null || group.getConditions() == null) {
             return;
         }
         for (RuleDefinition.Condition condition : group.getConditions()) {
             if (condition.getNested() != null) {
-                validateConditionGroup(condition.getNested(), propertyMap);
+                validateConditionGroup(condition.getNested(), parsedSchema);
             } else {
-                validateCondition(condition, propertyMap);
+                validateCondition(condition, parsedSchema);
             }
         }
     }
 
-    private void validateCondition(RuleDefinition.Condition condition, Map<String, JsonNode> propertyMap) {
+    private void validateCondition(RuleDefinition.Condition condition, ParsedSchema parsedSchema) {
         if (condition.getFact() == null || condition.getValue() == null) {
             return;
         }
@@ -422,14 +907,14 @@ public class RuleService {
             }
         }
 
-        JsonNode property = findPropertyByPath(propertyMap, factPath);
+        ParsedSchema.Property property = parsedSchema.get(factPath);
         if (property == null) {
             // Property not found in schema - skip validation
             return;
         }
 
-        String expectedType = property.has("type") ? property.get("type").asText() : "string";
-        String format = property.has("format") ? property.get("format").asText() : null;
+        String expectedType = parsedSchema.typeOf(factPath);
+        String format = property.getFormat();
         Object value = condition.getValue();
 
         // Validate value type
@@ -447,7 +932,7 @@ public class RuleService {
         switch (expectedType) {
             case "integer":
                 if (!(value instanceof Integer || value instanceof Long ||
-                        (value instanceof Number && ((Number) value).doubleValue() == ((Number) value).intValue()))) {
+                        (value instanceof Number && ((Number) value).doubleValue() == ((Number) value).longValue()))) {
                     return String.format("Field '%s' expects integer type, but got %s", fieldPath,
                             value.getClass().getSimpleName());
                 }
@@ -503,46 +988,4 @@ public class RuleService {
 
         return null; // Validation passed
     }
-
-    private Map<String, JsonNode> parseSchemaProperties(String jsonSchema) {
-        try {
-            if (jsonSchema == null || jsonSchema.isEmpty()) {
-                return Map.of();
-            }
-            JsonNode root = objectMapper.readTree(jsonSchema);
-            Map<String, JsonNode> properties = new java.util.HashMap<>();
-            if (root.has("properties")) {
-                root.get("properties").fields().forEachRemaining(entry -> {
-                    properties.put(entry.getKey(), entry.getValue());
-                });
-            }
-            return properties;
-        } catch (Exception e) {
-            log.warn("Failed to parse schema properties for validation", e);
-            return Map.of();
-        }
-    }
-
-    private JsonNode findPropertyByPath(Map<String, JsonNode> propertyMap, String path) {
-        if (path == null || path.isEmpty()) {
-            return null;
-        }
-
-        String[] parts = path.split("\\.");
-        JsonNode current = propertyMap.get(parts[0]);
-
-        if (current == null) {
-            return null;
-        }
-
-        for (int i = 1; i < parts.length; i++) {
-            if (current.has("properties") && current.get("properties").has(parts[i])) {
-                current = current.get("properties").get(parts[i]);
-            } else {
-                return null;
-            }
-        }
-
-        return current;
-    }
 }
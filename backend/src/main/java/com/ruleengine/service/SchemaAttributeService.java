@@ -5,6 +5,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.ruleengine.cache.ReadCache;
 import com.ruleengine.dto.*;
 import com.ruleengine.dto.AttributeImpactDto.AffectedRuleDto;
 import com.ruleengine.dto.AttributeImpactDto.UsageDto;
@@ -12,6 +13,8 @@ import com.ruleengine.drools.DroolsService;
 import com.ruleengine.drools.JsonToDrlTranspiler;
 import com.ruleengine.model.Rule;
 import com.ruleengine.model.Schema;
+import com.ruleengine.parser.ParsedSchema;
+import com.ruleengine.parser.ParsedSchemaCache;
 import com.ruleengine.repository.RuleRepository;
 import com.ruleengine.repository.SchemaRepository;
 import org.slf4j.Logger;
@@ -37,17 +40,26 @@ public class SchemaAttributeService {
     private final ObjectMapper objectMapper;
     private final JsonToDrlTranspiler transpiler;
     private final DroolsService droolsService;
+    private final ExecutionPlanCache executionPlanCache;
+    private final ReadCache readCache;
+    private final ParsedSchemaCache parsedSchemaCache;
 
     public SchemaAttributeService(SchemaRepository schemaRepository,
             RuleRepository ruleRepository,
             ObjectMapper objectMapper,
             JsonToDrlTranspiler transpiler,
-            DroolsService droolsService) {
+            DroolsService droolsService,
+            ExecutionPlanCache executionPlanCache,
+            ReadCache readCache,
+            ParsedSchemaCache parsedSchemaCache) {
         this.schemaRepository = schemaRepository;
         this.ruleRepository = ruleRepository;
         this.objectMapper = objectMapper;
         this.transpiler = transpiler;
         this.droolsService = droolsService;
+        this.executionPlanCache = executionPlanCache;
+        this.readCache = readCache;
+        this.parsedSchemaCache = parsedSchemaCache;
     }
 
     /**
@@ -57,28 +69,9 @@ public class SchemaAttributeService {
         Schema schema = schemaRepository.findById(schemaId)
                 .orElseThrow(() -> new EntityNotFoundException("Schema not found: " + schemaId));
 
-        try {
-            JsonNode schemaNode = objectMapper.readTree(schema.getJsonSchema());
-            JsonNode propertiesNode = schemaNode.get("properties");
-
-            if (propertiesNode == null || !propertiesNode.isObject()) {
-                return Collections.emptyList();
-            }
-
-            List<SchemaPropertyDto> attributes = new ArrayList<>();
-            Iterator<Map.Entry<String, JsonNode>> fields = propertiesNode.fields();
-
-            while (fields.hasNext()) {
-                Map.Entry<String, JsonNode> entry = fields.next();
-                SchemaPropertyDto prop = parseProperty(entry.getKey(), entry.getValue());
-                attributes.add(prop);
-            }
-
-            return attributes;
-        } catch (JsonProcessingException e) {
-            log.error("Failed to parse schema JSON for schema {}", schemaId, e);
-            return Collections.emptyList();
-        }
+        return parsedSchemaCache.get(schema).getProperties().stream()
+                .map(this::toPropertyDto)
+                .collect(Collectors.toList());
     }
 
     /**
@@ -137,6 +130,7 @@ public class SchemaAttributeService {
 
             schema.setJsonSchema(objectMapper.writeValueAsString(schemaNode));
             schemaRepository.save(schema);
+            readCache.evict(ReadCache.SCHEMAS);
 
             log.info("Added attribute '{}' to schema {}", attribute.getName(), schemaId);
 
@@ -216,6 +210,7 @@ public class SchemaAttributeService {
 
             schema.setJsonSchema(objectMapper.writeValueAsString(schemaNode));
             schemaRepository.save(schema);
+            readCache.evict(ReadCache.SCHEMAS);
 
             log.info("Updated attribute '{}' in schema {}", attributeName, schemaId);
 
@@ -261,6 +256,7 @@ public class SchemaAttributeService {
 
             schema.setJsonSchema(objectMapper.writeValueAsString(schemaNode));
             schemaRepository.save(schema);
+            readCache.evict(ReadCache.SCHEMAS);
 
             log.info("Deleted attribute '{}' from schema {}", attributeName, schemaId);
         } catch (JsonProcessingException e) {
@@ -388,8 +384,9 @@ public class SchemaAttributeService {
             }
         }
 
-        // Invalidate Drools cache
-        droolsService.invalidateCache(schemaId);
+        // Compiled rules of any project may have changed
+        executionPlanCache.invalidateAll();
+        readCache.evict(ReadCache.SCHEMAS, ReadCache.RULES);
 
         if (failedRuleIds.isEmpty()) {
             String message = updatedRuleIds.isEmpty()
@@ -405,32 +402,16 @@ public class SchemaAttributeService {
 
     // ==================== Private Helper Methods ====================
 
-    private SchemaPropertyDto parseProperty(String name, JsonNode propNode) {
-        SchemaPropertyDto.SchemaPropertyDtoBuilder builder = SchemaPropertyDto.builder()
-                .name(name)
-                .path(name);
-
-        if (propNode.has("type")) {
-            builder.type(propNode.get("type").asText());
-        }
-        if (propNode.has("format")) {
-            builder.format(propNode.get("format").asText());
-        }
-        if (propNode.has("description")) {
-            builder.description(propNode.get("description").asText());
-        }
-        if (propNode.has("default")) {
-            builder.defaultValue(objectMapper.convertValue(propNode.get("default"), Object.class));
-        }
-        if (propNode.has("enum")) {
-            List<Object> enumValues = new ArrayList<>();
-            for (JsonNode val : propNode.get("enum")) {
-                enumValues.add(objectMapper.convertValue(val, Object.class));
-            }
-            builder.enumValues(enumValues);
-        }
-
-        return builder.build();
+    private SchemaPropertyDto toPropertyDto(ParsedSchema.Property property) {
+        return SchemaPropertyDto.builder()
+                .name(property.getName())
+                .path(property.getPath())
+                .type(property.getType())
+                .format(property.getFormat())
+                .description(property.getDescription())
+                .defaultValue(property.getDefaultValue())
+                .enumValues(property.getEnumValues() != null ? new ArrayList<>(property.getEnumValues()) : null)
+                .build();
     }
 
     private String mapToJsonSchemaType(String type) {
@@ -720,7 +701,8 @@ public class SchemaAttributeService {
 
     private void regenerateDrl(Rule rule, Schema schema) throws JsonProcessingException {
         RuleDefinition definition = objectMapper.readValue(rule.getRuleJson(), RuleDefinition.class);
-        String drl = transpiler.transpile(definition, "com.ruleengine.generated", schema.getName());
+        String drl = transpiler.transpile(definition, "com.ruleengine.generated", schema.getName(),
+                schema.getJsonSchema());
 
         // Validate DRL
         List<String> errors = droolsService.validateDrl(drl);
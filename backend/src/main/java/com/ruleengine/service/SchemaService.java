@@ -3,6 +3,7 @@ package com.ruleengine.service;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ruleengine.cache.ReadCache;
 import com.ruleengine.dto.SchemaDto;
 import com.ruleengine.dto.SchemaPropertyDto;
 import com.ruleengine.model.Rule;
@@ -33,17 +34,23 @@ public class SchemaService {
     private final RuleProjectRepository ruleProjectRepository;
     private final SchemaParserService schemaParserService;
     private final ObjectMapper objectMapper;
+    private final ExecutionPlanCache executionPlanCache;
+    private final ReadCache readCache;
 
     public SchemaService(SchemaRepository schemaRepository,
             RuleRepository ruleRepository,
             RuleProjectRepository ruleProjectRepository,
             SchemaParserService schemaParserService,
-            ObjectMapper objectMapper) {
+            ObjectMapper objectMapper,
+            ExecutionPlanCache executionPlanCache,
+            ReadCache readCache) {
         this.schemaRepository = schemaRepository;
         this.ruleRepository = ruleRepository;
         this.ruleProjectRepository = ruleProjectRepository;
         this.schemaParserService = schemaParserService;
         this.objectMapper = objectMapper;
+        this.executionPlanCache = executionPlanCache;
+        this.readCache = readCache;
     }
 
     /**
@@ -189,6 +196,8 @@ public class SchemaService {
                     .build();
 
             schema = schemaRepository.save(schema);
+            // Project DTOs carry schema counts
+            readCache.evict(ReadCache.SCHEMAS, ReadCache.PROJECTS);
             return toDto(schema);
         } catch (JsonProcessingException e) {
             throw new RuntimeException("Failed to serialize schema: " + name, e);
@@ -229,6 +238,8 @@ public class SchemaService {
                     .build();
 
             schema = schemaRepository.save(schema);
+            // Project DTOs carry schema counts
+            readCache.evict(ReadCache.SCHEMAS, ReadCache.PROJECTS);
             return toDto(schema);
         } catch (JsonProcessingException e) {
             throw new RuntimeException("Failed to serialize schema", e);
@@ -283,6 +294,8 @@ public class SchemaService {
                     .build();
 
             schema = schemaRepository.save(schema);
+            // Project DTOs carry schema counts
+            readCache.evict(ReadCache.SCHEMAS, ReadCache.PROJECTS);
             return toDto(schema);
         } catch (JsonProcessingException e) {
             throw new RuntimeException("Failed to serialize schema", e);
@@ -294,9 +307,9 @@ public class SchemaService {
      */
     @Transactional(readOnly = true)
     public List<SchemaDto> getAllSchemas() {
-        return schemaRepository.findAll().stream()
+        return readCache.getList(ReadCache.SCHEMAS, "all", () -> schemaRepository.findAll().stream()
                 .map(this::toDto)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
 
     /**
@@ -304,9 +317,10 @@ public class SchemaService {
      */
     @Transactional(readOnly = true)
     public List<SchemaDto> getSchemasByProject(Long projectId) {
-        return schemaRepository.findByProjectIdOrProjectIsNull(projectId).stream()
-                .map(this::toDto)
-                .collect(Collectors.toList());
+        return readCache.getList(ReadCache.SCHEMAS, "project+global:" + projectId,
+                () -> schemaRepository.findByProjectIdOrProjectIsNull(projectId).stream()
+                        .map(this::toDto)
+                        .collect(Collectors.toList()));
     }
 
     /**
@@ -314,9 +328,10 @@ public class SchemaService {
      */
     @Transactional(readOnly = true)
     public List<SchemaDto> getProjectSchemas(Long projectId) {
-        return schemaRepository.findByProjectId(projectId).stream()
-                .map(this::toDto)
-                .collect(Collectors.toList());
+        return readCache.getList(ReadCache.SCHEMAS, "project:" + projectId,
+                () -> schemaRepository.findByProjectId(projectId).stream()
+                        .map(this::toDto)
+                        .collect(Collectors.toList()));
     }
 
     /**
@@ -324,9 +339,9 @@ public class SchemaService {
      */
     @Transactional(readOnly = true)
     public List<SchemaDto> getGlobalSchemas() {
-        return schemaRepository.findByProjectIsNull().stream()
+        return readCache.getList(ReadCache.SCHEMAS, "global", () -> schemaRepository.findByProjectIsNull().stream()
                 .map(this::toDto)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
 
     /**
@@ -334,9 +349,8 @@ public class SchemaService {
      */
     @Transactional(readOnly = true)
     public SchemaDto getSchema(Long id) {
-        Schema schema = schemaRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Schema not found: " + id));
-        return toDto(schema);
+        return readCache.get(ReadCache.SCHEMAS, "schema:" + id, () -> toDto(schemaRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Schema not found: " + id))));
     }
 
     /**
@@ -353,6 +367,7 @@ public class SchemaService {
         }
 
         schemaRepository.delete(schema);
+        readCache.evict(ReadCache.SCHEMAS, ReadCache.PROJECTS);
     }
 
     /**
@@ -390,6 +405,9 @@ public class SchemaService {
             }
 
             schema = schemaRepository.save(schema);
+            // Schema names are the fact types of cached execution plans and part of rule DTOs
+            executionPlanCache.invalidateAll();
+            readCache.evict(ReadCache.SCHEMAS, ReadCache.RULES, ReadCache.PROJECTS);
             return toDto(schema);
         } catch (JsonProcessingException e) {
             throw new RuntimeException("Failed to serialize schema", e);
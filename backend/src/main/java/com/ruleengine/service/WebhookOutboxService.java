@@ -0,0 +1,179 @@
+package com.ruleengine.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ruleengine.dto.ExecuteRulesResponse.WebhookResult;
+import com.ruleengine.dto.WebhookOutboxStatsDto;
+import com.ruleengine.model.WebhookOutboxEntry;
+import com.ruleengine.model.WebhookOutboxStatus;
+import com.ruleengine.repository.WebhookOutboxRepository;
+import com.ruleengine.webhook.WebhookDispatch;
+import com.ruleengine.webhook.WebhookDispatcher;
+import com.ruleengine.webhook.WebhookOutboxRelay;
+import com.ruleengine.webhook.WebhookRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Writes deferred webhooks of an execution to the outbox and reports on
+ * its backlog. Delivery is done by {@link WebhookOutboxRelay}.
+ */
+@Service
+@Transactional
+public class WebhookOutboxService {
+
+    private static final Logger log = LoggerFactory.getLogger(WebhookOutboxService.class);
+    private static final List<WebhookOutboxStatus> UNDELIVERED = List.of(WebhookOutboxStatus.PENDING,
+            WebhookOutboxStatus.IN_FLIGHT);
+
+    private final WebhookOutboxRepository outboxRepository;
+    private final WebhookOutboxRelay outboxRelay;
+    private final WebhookDispatcher webhookDispatcher;
+    private final ObjectMapper objectMapper;
+
+    public WebhookOutboxService(WebhookOutboxRepository outboxRepository, WebhookOutboxRelay outboxRelay,
+            WebhookDispatcher webhookDispatcher, ObjectMapper objectMapper) {
+        this.outboxRepository = outboxRepository;
+        this.outboxRelay = outboxRelay;
+        this.webhookDispatcher = webhookDispatcher;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Whether project executions should defer their webhooks to the outbox.
+     */
+    public boolean isEnabled() {
+        return outboxRelay.isEnabled();
+    }
+
+    /**
+     * Add the execution's webhooks to the outbox in the caller's transaction.
+     * Workers are woken once it commits.
+     */
+    public void enqueue(Long projectId, Long executionHistoryId, List<WebhookDispatch> dispatches) {
+        if (dispatches == null || dispatches.isEmpty()) {
+            return;
+        }
+        List<WebhookOutboxEntry> entries = dispatches.stream()
+                .map(dispatch -> toEntry(projectId, executionHistoryId, dispatch))
+                .collect(Collectors.toList());
+        outboxRepository.saveAll(entries);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    outboxRelay.wakeUp();
+                }
+            });
+        } else {
+            outboxRelay.wakeUp();
+        }
+    }
+
+    /**
+     * Send deferred webhooks directly, for when they could not be written
+     * to the outbox. No retries.
+     */
+    public void sendWithoutOutbox(List<WebhookDispatch> dispatches) {
+        if (dispatches == null) {
+            return;
+        }
+        for (WebhookDispatch dispatch : dispatches) {
+            WebhookRequest request = dispatch.getRequest();
+            if (request.getBody() != null) {
+                webhookDispatcher.dispatch(request);
+            }
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public WebhookOutboxStatsDto getStats() {
+        WebhookOutboxStatsDto stats = new WebhookOutboxStatsDto();
+        stats.setPending(outboxRepository.countByStatus(WebhookOutboxStatus.PENDING));
+        stats.setInFlight(outboxRepository.countByStatus(WebhookOutboxStatus.IN_FLIGHT));
+        stats.setDelivered(outboxRepository.countByStatus(WebhookOutboxStatus.DELIVERED));
+        stats.setDead(outboxRepository.countByStatus(WebhookOutboxStatus.DEAD));
+
+        LocalDateTime oldest = outboxRepository.findOldestCreatedAt(UNDELIVERED);
+        stats.setOldestUndeliveredAt(oldest);
+        stats.setLagMs(oldest != null ? Math.max(0, Duration.between(oldest, LocalDateTime.now()).toMillis()) : 0);
+        stats.setBacklogByDestination(outboxRepository.countByDestination(UNDELIVERED));
+        return stats;
+    }
+
+    /**
+     * Delivery state of a QUEUED webhook, by the dispatch ID returned with
+     * the execution. Not read-only, so it reads the primary: a lagging
+     * replica may not have the entry of a dispatch just queued.
+     */
+    @Transactional
+    public Optional<WebhookResult> findResult(String idempotencyKey) {
+        return outboxRepository.findByIdempotencyKey(idempotencyKey)
+                .map(entry -> WebhookResult.builder()
+                        .dispatchId(entry.getIdempotencyKey())
+                        .url(entry.getUrl())
+                        .status(resultStatus(entry.getStatus()))
+                        .statusCode(entry.getLastStatusCode())
+                        .response(entry.getLastError())
+                        .success(entry.getStatus() == WebhookOutboxStatus.DELIVERED)
+                        .build());
+    }
+
+    private WebhookOutboxEntry toEntry(Long projectId, Long executionHistoryId, WebhookDispatch dispatch) {
+        WebhookRequest request = dispatch.getRequest();
+        WebhookOutboxEntry entry = new WebhookOutboxEntry();
+        entry.setIdempotencyKey(dispatch.getId());
+        entry.setProjectId(projectId);
+        entry.setExecutionHistoryId(executionHistoryId);
+        entry.setUrl(request.getUrl());
+        entry.setMethod(request.getMethod());
+        entry.setDestination(destinationOf(request.getUrl()));
+        entry.setBody(request.getBody() != null ? new String(request.getBody(), StandardCharsets.UTF_8) : null);
+        if (!request.getHeaders().isEmpty()) {
+            try {
+                entry.setHeaders(objectMapper.writeValueAsString(request.getHeaders()));
+            } catch (JsonProcessingException e) {
+                throw new RuntimeException("Failed to serialize webhook headers", e);
+            }
+        }
+        entry.setStatus(WebhookOutboxStatus.PENDING);
+        return entry;
+    }
+
+    private static String destinationOf(String url) {
+        try {
+            URI uri = URI.create(url);
+            if (uri.getHost() != null) {
+                return WebhookDispatcher.destinationOf(uri);
+            }
+        } catch (IllegalArgumentException e) {
+            log.debug("Invalid webhook URL queued: {}", url);
+        }
+        // Sent anyway so the failure is recorded on the entry
+        return "invalid";
+    }
+
+    private static String resultStatus(WebhookOutboxStatus status) {
+        switch (status) {
+            case DELIVERED:
+                return WebhookResult.DELIVERED;
+            case DEAD:
+                return WebhookResult.FAILED;
+            default:
+                return WebhookResult.QUEUED;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.ruleengine.webhook;
+
+import com.ruleengine.dto.ExecuteRulesResponse.WebhookResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * The webhooks one execution queued, to be waited for after the execution
+ * has released its session and transaction.
+ */
+public class QueuedWebhooks {
+
+    private final WebhookDispatcher webhookDispatcher;
+    private final List<CompletableFuture<WebhookResult>> results = new ArrayList<>();
+    private final List<Supplier<WebhookResult>> resultsOrPending = new ArrayList<>();
+    private final List<Integer> factIndexes = new ArrayList<>();
+
+    public QueuedWebhooks(WebhookDispatcher webhookDispatcher) {
+        this.webhookDispatcher = webhookDispatcher;
+    }
+
+    /**
+     * Add a webhook and the position of the fact that triggered it in
+     * resultFacts.
+     */
+    public void add(CompletableFuture<WebhookResult> result, Supplier<WebhookResult> resultOrPending,
+            Integer factIndex) {
+        results.add(result);
+        resultsOrPending.add(resultOrPending);
+        factIndexes.add(factIndex);
+    }
+
+    /**
+     * Wait up to waitMs for the calls. A null wait uses the configured
+     * default, 0 returns PENDING results with their dispatch IDs right away.
+     */
+    public List<WebhookResult> await(Long waitMs) {
+        webhookDispatcher.await(results, waitMs);
+        List<WebhookResult> snapshot = new ArrayList<>(resultsOrPending.size());
+        for (int i = 0; i < resultsOrPending.size(); i++) {
+            WebhookResult result = resultsOrPending.get(i).get().copy();
+            result.setFactIndex(factIndexes.get(i));
+            snapshot.add(result);
+        }
+        return snapshot;
+    }
+}
@@ -0,0 +1,226 @@
+package com.ruleengine.webhook;
+
+import com.ruleengine.dto.ExecuteRulesResponse.WebhookResult;
+import com.ruleengine.multitenancy.TenantContext;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Coalesces payloads of batched webhook actions into JSON array requests.
+ *
+ * Payloads for the same tenant, URL, method, headers and batch size share
+ * an open batch. A batch is sent when it reaches its maximum size or when
+ * its linger time runs out, so payloads of concurrent executions within the
+ * window go out in one request. With no linger a batch is sent as soon as
+ * the submitting execution has added all its payloads.
+ */
+@Component
+public class WebhookBatcher {
+
+    private final WebhookDispatcher webhookDispatcher;
+    private final int maxBatchSize;
+    private final long maxLingerMs;
+    private final ScheduledExecutorService timer;
+
+    // Guarded by itself
+    private final Map<String, OpenBatch> openBatches = new HashMap<>();
+
+    public WebhookBatcher(WebhookDispatcher webhookDispatcher,
+            @Value("${truly.webhooks.batch.max-size:1000}") int maxBatchSize,
+            @Value("${truly.webhooks.batch.max-linger-ms:5000}") long maxLingerMs) {
+        this.webhookDispatcher = webhookDispatcher;
+        this.maxBatchSize = maxBatchSize;
+        this.maxLingerMs = maxLingerMs;
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "webhook-batcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Add payloads to the open batch for the target's URL, method and
+     * headers. Returns one call per payload, in order, each completing with
+     * the result of the request its payload went out in.
+     */
+    public List<BatchedCall> submit(WebhookRequest target, List<byte[]> payloads, int maxSize, long lingerMs) {
+        int size = Math.max(1, Math.min(maxSize, maxBatchSize));
+        long linger = Math.max(0, Math.min(lingerMs, maxLingerMs));
+        String tenantId = TenantContext.getTenantId();
+        String key = batchKey(tenantId, target, size);
+
+        List<BatchedCall> calls = new ArrayList<>(payloads.size());
+        List<OpenBatch> ready = new ArrayList<>();
+        synchronized (openBatches) {
+            for (byte[] payload : payloads) {
+                OpenBatch batch = openBatches.computeIfAbsent(key, k -> new OpenBatch(tenantId, target));
+                calls.add(batch.add(payload));
+                if (batch.size() >= size) {
+                    openBatches.remove(key);
+                    batch.cancelTimer();
+                    ready.add(batch);
+                }
+            }
+            OpenBatch rest = openBatches.get(key);
+            if (rest != null) {
+                if (linger == 0) {
+                    openBatches.remove(key);
+                    rest.cancelTimer();
+                    ready.add(rest);
+                } else if (rest.timer == null) {
+                    rest.timer = timer.schedule(() -> flush(key, rest), linger, TimeUnit.MILLISECONDS);
+                }
+            }
+        }
+        ready.forEach(this::send);
+        return calls;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        List<OpenBatch> remaining;
+        synchronized (openBatches) {
+            remaining = new ArrayList<>(openBatches.values());
+            openBatches.clear();
+        }
+        remaining.forEach(batch -> {
+            batch.cancelTimer();
+            send(batch);
+        });
+        timer.shutdown();
+    }
+
+    private void flush(String key, OpenBatch batch) {
+        synchronized (openBatches) {
+            if (openBatches.get(key) != batch) {
+                // Already sent because it filled up
+                return;
+            }
+            openBatches.remove(key);
+        }
+        send(batch);
+    }
+
+    private void send(OpenBatch batch) {
+        WebhookRequest target = batch.target;
+        WebhookRequest request = new WebhookRequest(target.getUrl(), target.getMethod(), target.getHeaders(),
+                batch.body());
+        WebhookDispatch dispatch = webhookDispatcher.dispatch(new WebhookDispatch(batch.id, batch.tenantId, request));
+
+        int size = batch.size();
+        dispatch.getResult().thenAccept(result -> {
+            for (int i = 0; i < size; i++) {
+                WebhookResult part = result.copy();
+                part.setBatchIndex(i);
+                part.setBatchSize(size);
+                batch.results.get(i).complete(part);
+            }
+        });
+    }
+
+    /**
+     * The payloads are serialized JSON values, so the array is just their
+     * bytes joined with commas.
+     */
+    public static byte[] jsonArray(List<byte[]> payloads) {
+        int length = 2 + Math.max(0, payloads.size() - 1);
+        for (byte[] payload : payloads) {
+            length += payload.length;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(length);
+        out.write('[');
+        for (int i = 0; i < payloads.size(); i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            out.writeBytes(payloads.get(i));
+        }
+        out.write(']');
+        return out.toByteArray();
+    }
+
+    private static String batchKey(String tenantId, WebhookRequest target, int size) {
+        return tenantId + "|" + target.getMethod() + "|" + target.getUrl() + "|" + size + "|"
+                + new TreeMap<>(target.getHeaders());
+    }
+
+    /**
+     * A payload's place in a batch. The dispatch ID is known up front, so
+     * a PENDING result can point at the batch before it is sent.
+     */
+    public static class BatchedCall {
+        private final String dispatchId;
+        private final String url;
+        private final int batchIndex;
+        private final CompletableFuture<WebhookResult> result;
+
+        BatchedCall(String dispatchId, String url, int batchIndex, CompletableFuture<WebhookResult> result) {
+            this.dispatchId = dispatchId;
+            this.url = url;
+            this.batchIndex = batchIndex;
+            this.result = result;
+        }
+
+        public String getDispatchId() {
+            return dispatchId;
+        }
+
+        public int getBatchIndex() {
+            return batchIndex;
+        }
+
+        public CompletableFuture<WebhookResult> getResult() {
+            return result;
+        }
+
+        public WebhookResult resultOrPending() {
+            return result.getNow(WebhookResult.builder()
+                    .dispatchId(dispatchId)
+                    .url(url)
+                    .status(WebhookResult.PENDING)
+                    .success(false)
+                    .build());
+        }
+    }
+
+    private static final class OpenBatch {
+        private final String id = UUID.randomUUID().toString();
+        private final String tenantId;
+        private final WebhookRequest target;
+        private final List<byte[]> payloads = new ArrayList<>();
+        private final List<CompletableFuture<WebhookResult>> results = new ArrayList<>();
+        private ScheduledFuture<?> timer;
+
+        private OpenBatch(String tenantId, WebhookRequest target) {
+            this.tenantId = tenantId;
+            this.target = target;
+        }
+
+        private BatchedCall add(byte[] payload) {
+            CompletableFuture<WebhookResult> result = new CompletableFuture<>();
+            BatchedCall call = new BatchedCall(id, target.getUrl(), payloads.size(), result);
+            payloads.add(payload);
+            results.add(result);
+            return call;
+        }
+
+        private int size() {
+            return payloads.size();
+        }
+
+        private void cancelTimer() {
+            if (timer != null) {
+                timer.cancel(false);
+            }
+        }
+
+        private byte[] body() {
+            return jsonArray(payloads);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.ruleengine.webhook;
+
+import com.ruleengine.dto.ExecuteRulesResponse.WebhookResult;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Handle of a queued webhook call.
+ */
+public class WebhookDispatch {
+
+    private final String id;
+    private final String tenantId;
+    private final WebhookRequest request;
+    private final CompletableFuture<WebhookResult> result = new CompletableFuture<>();
+
+    WebhookDispatch(String tenantId, WebhookRequest request) {
+        this(UUID.randomUUID().toString(), tenantId, request);
+    }
+
+    WebhookDispatch(String id, String tenantId, WebhookRequest request) {
+        this.id = id;
+        this.tenantId = tenantId;
+        this.request = request;
+    }
+
+    /**
+     * A dispatch that failed before it could be queued, e.g. because the
+     * fact could not be serialized.
+     */
+    public static WebhookDispatch failed(String tenantId, WebhookRequest request, String message) {
+        WebhookDispatch dispatch = new WebhookDispatch(tenantId, request);
+        dispatch.complete(WebhookResult.FAILED, 0, message);
+        return dispatch;
+    }
+
+    /**
+     * A call that is not sent now but written to the webhook outbox; the
+     * dispatch ID becomes the outbox entry's idempotency key.
+     */
+    public static WebhookDispatch deferred(String tenantId, WebhookRequest request) {
+        WebhookDispatch dispatch = new WebhookDispatch(tenantId, request);
+        dispatch.complete(WebhookResult.QUEUED, 0, null);
+        return dispatch;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getTenantId() {
+        return tenantId;
+    }
+
+    public WebhookRequest getRequest() {
+        return request;
+    }
+
+    public CompletableFuture<WebhookResult> getResult() {
+        return result;
+    }
+
+    /**
+     * The result if the call has finished, otherwise a PENDING placeholder
+     * carrying the dispatch ID.
+     */
+    public WebhookResult resultOrPending() {
+        return result.getNow(WebhookResult.builder()
+                .dispatchId(id)
+                .url(request.getUrl())
+                .status(WebhookResult.PENDING)
+                .success(false)
+                .build());
+    }
+
+    void complete(String status, int statusCode, String response) {
+        result.complete(WebhookResult.builder()
+                .dispatchId(id)
+                .url(request.getUrl())
+                .status(status)
+                .statusCode(statusCode)
+                .response(response)
+                .success(WebhookResult.DELIVERED.equals(status))
+                .build());
+    }
+}
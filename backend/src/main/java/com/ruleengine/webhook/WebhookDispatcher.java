@@ -0,0 +1,412 @@
+package com.ruleengine.webhook;
+
+import com.ruleengine.dto.ExecuteRulesResponse.WebhookResult;
+import com.ruleengine.dto.WebhookHostStatsDto;
+import com.ruleengine.multitenancy.TenantContext;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Sends webhook calls queued by rule actions without blocking rule firing.
+ *
+ * Calls share one HTTP/2 client (pooled connections, multiplexed where the
+ * endpoint supports it). Each host gets a lane that caps its in-flight calls
+ * and queue length, plus a circuit breaker that rejects calls for a while
+ * after repeated failures, so one slow or failing endpoint cannot tie up
+ * the client for every other host. Lanes with nothing in flight are dropped
+ * after an idle period, so the map does not grow with every host ever called.
+ */
+@Component
+public class WebhookDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(WebhookDispatcher.class);
+
+    public enum CircuitState {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final ExecutorService executor;
+    private final HttpClient httpClient;
+    private final Duration requestTimeout;
+    private final int maxConcurrencyPerHost;
+    private final int maxQueuedPerHost;
+    private final int failureThreshold;
+    private final long openMs;
+    private final long defaultWaitMs;
+    private final long maxWaitMs;
+    private final long laneIdleMs;
+
+    private final Map<String, HostLane> lanes = new ConcurrentHashMap<>();
+    private volatile long lastLaneSweep = System.currentTimeMillis();
+
+    // Recent dispatches by ID, for lookups after an ASYNC execution
+    private final Map<String, WebhookDispatch> recentDispatches;
+
+    public WebhookDispatcher(
+            @Value("${truly.webhooks.threads:4}") int threads,
+            @Value("${truly.webhooks.connect-timeout-ms:5000}") long connectTimeoutMs,
+            @Value("${truly.webhooks.request-timeout-ms:10000}") long requestTimeoutMs,
+            @Value("${truly.webhooks.max-concurrency-per-host:8}") int maxConcurrencyPerHost,
+            @Value("${truly.webhooks.max-queued-per-host:500}") int maxQueuedPerHost,
+            @Value("${truly.webhooks.circuit-breaker.failure-threshold:5}") int failureThreshold,
+            @Value("${truly.webhooks.circuit-breaker.open-ms:30000}") long openMs,
+            @Value("${truly.webhooks.default-wait-ms:10000}") long defaultWaitMs,
+            @Value("${truly.webhooks.max-wait-ms:60000}") long maxWaitMs,
+            @Value("${truly.webhooks.retained-dispatches:10000}") int retainedDispatches,
+            @Value("${truly.webhooks.lane-idle-ms:600000}") long laneIdleMs) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "webhook-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .executor(executor)
+                .build();
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMs);
+        this.maxConcurrencyPerHost = maxConcurrencyPerHost;
+        this.maxQueuedPerHost = maxQueuedPerHost;
+        this.failureThreshold = failureThreshold;
+        this.openMs = openMs;
+        this.defaultWaitMs = defaultWaitMs;
+        this.maxWaitMs = maxWaitMs;
+        this.laneIdleMs = laneIdleMs;
+        this.recentDispatches = Collections.synchronizedMap(new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, WebhookDispatch> eldest) {
+                return size() > retainedDispatches;
+            }
+        });
+    }
+
+    /**
+     * Queue a call. Returns immediately; the dispatch completes when the
+     * endpoint answers, the call fails, or the host rejects it.
+     */
+    public WebhookDispatch dispatch(WebhookRequest request) {
+        return dispatch(new WebhookDispatch(TenantContext.getTenantId(), request));
+    }
+
+    /**
+     * Queue a prepared dispatch, e.g. a batch whose ID was handed out before
+     * it was sent.
+     */
+    WebhookDispatch dispatch(WebhookDispatch dispatch) {
+        WebhookRequest request = dispatch.getRequest();
+        recentDispatches.put(dispatch.getId(), dispatch);
+
+        URI uri;
+        try {
+            uri = URI.create(request.getUrl());
+            if (uri.getHost() == null) {
+                throw new IllegalArgumentException("URL has no host");
+            }
+        } catch (IllegalArgumentException e) {
+            dispatch.complete(WebhookResult.FAILED, 0, "Invalid webhook URL: " + e.getMessage());
+            return dispatch;
+        }
+
+        long now = System.currentTimeMillis();
+        evictIdleLanes(now);
+        String destination = destinationOf(uri);
+        HostLane lane;
+        String rejection = null;
+        boolean sendNow = false;
+        for (;;) {
+            lane = lanes.computeIfAbsent(destination, HostLane::new);
+            synchronized (lane) {
+                // Evicted between lookup and lock; take the lane that replaced it
+                if (lane.evicted) {
+                    continue;
+                }
+                lane.lastUsed = now;
+                if (!lane.admit(now)) {
+                    rejection = "Circuit open for " + lane.host;
+                } else if (lane.inFlight < maxConcurrencyPerHost) {
+                    lane.inFlight++;
+                    sendNow = true;
+                } else if (lane.queue.size() < maxQueuedPerHost) {
+                    lane.queue.add(dispatch);
+                } else {
+                    rejection = "Too many queued calls for " + lane.host;
+                }
+                if (rejection != null) {
+                    lane.rejected++;
+                }
+                break;
+            }
+        }
+
+        if (rejection != null) {
+            log.warn("Webhook rejected: {} {} ({})", request.getMethod(), request.getUrl(), rejection);
+            dispatch.complete(WebhookResult.REJECTED, 0, rejection);
+        } else if (sendNow) {
+            send(lane, dispatch);
+        }
+        return dispatch;
+    }
+
+    /**
+     * Wait for the given dispatches until the deadline and return their
+     * results in order; unfinished calls are reported as PENDING. A null
+     * wait uses the configured default, 0 does not wait at all.
+     */
+    public List<WebhookResult> awaitResults(List<WebhookDispatch> dispatches, Long waitMs) {
+        await(dispatches.stream().map(WebhookDispatch::getResult).collect(Collectors.toList()), waitMs);
+        return dispatches.stream()
+                .map(WebhookDispatch::resultOrPending)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Wait until all futures are done or the wait elapses, whichever is first.
+     */
+    public void await(List<? extends CompletableFuture<?>> futures, Long waitMs) {
+        long wait = Math.min(waitMs != null ? waitMs : defaultWaitMs, maxWaitMs);
+        if (wait <= 0 || futures.isEmpty()) {
+            return;
+        }
+        try {
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(wait, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.debug("Webhook wait of {}ms elapsed with calls still in flight", wait);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // Dispatch futures are only ever completed normally
+        }
+    }
+
+    /**
+     * Look up a recent dispatch of the current tenant.
+     */
+    public Optional<WebhookDispatch> findDispatch(String id) {
+        WebhookDispatch dispatch = recentDispatches.get(id);
+        if (dispatch == null || !Objects.equals(dispatch.getTenantId(), TenantContext.getTenantId())) {
+            return Optional.empty();
+        }
+        return Optional.of(dispatch);
+    }
+
+    public List<WebhookHostStatsDto> getHostStats() {
+        return lanes.values().stream()
+                .map(lane -> {
+                    synchronized (lane) {
+                        return new WebhookHostStatsDto(lane.host, lane.state.name(), lane.inFlight,
+                                lane.queue.size(), lane.delivered, lane.failed, lane.rejected);
+                    }
+                })
+                .sorted(Comparator.comparing(WebhookHostStatsDto::getHost))
+                .collect(Collectors.toList());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void send(HostLane lane, WebhookDispatch dispatch) {
+        WebhookRequest request = dispatch.getRequest();
+        HttpRequest httpRequest;
+        try {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(request.getUrl()))
+                    .timeout(requestTimeout)
+                    .header("Content-Type", "application/json");
+            request.getHeaders().forEach(builder::setHeader);
+            httpRequest = builder
+                    .method(request.getMethod(), request.getBody() != null
+                            ? HttpRequest.BodyPublishers.ofByteArray(request.getBody())
+                            : HttpRequest.BodyPublishers.noBody())
+                    .build();
+        } catch (IllegalArgumentException e) {
+            // Bad method or restricted header; says nothing about the host
+            onComplete(lane, false, null);
+            dispatch.complete(WebhookResult.FAILED, 0, e.getMessage());
+            return;
+        }
+
+        httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofString())
+                .whenComplete((response, error) -> {
+                    if (error != null) {
+                        log.error("Webhook execution failed: {} {}", request.getMethod(), request.getUrl(), error);
+                        onComplete(lane, false, true);
+                        dispatch.complete(WebhookResult.FAILED, 0, rootMessage(error));
+                        return;
+                    }
+                    int status = response.statusCode();
+                    boolean delivered = status >= 200 && status < 300;
+                    log.info("Webhook executed: {} {} -> {}", request.getMethod(), request.getUrl(), status);
+                    // 4xx other than 429 is a problem with the call, not with the host
+                    onComplete(lane, delivered, status >= 500 || status == 429);
+                    dispatch.complete(delivered ? WebhookResult.DELIVERED : WebhookResult.FAILED, status,
+                            response.body());
+                });
+    }
+
+    /**
+     * Record the outcome, then start the next queued call or free the slot.
+     * Queued calls are rejected once the circuit has opened. A null
+     * hostFailure leaves the circuit as it is, but lets the next trial call
+     * through when this was the half-open trial.
+     */
+    private void onComplete(HostLane lane, boolean delivered, Boolean hostFailure) {
+        WebhookDispatch next = null;
+        List<WebhookDispatch> rejected = new ArrayList<>();
+        synchronized (lane) {
+            if (delivered) {
+                lane.delivered++;
+            } else {
+                lane.failed++;
+            }
+            lane.lastUsed = System.currentTimeMillis();
+            if (hostFailure != null) {
+                lane.record(hostFailure, lane.lastUsed);
+            } else if (lane.state == CircuitState.HALF_OPEN) {
+                lane.trialInFlight = false;
+            }
+
+            while (!lane.queue.isEmpty()) {
+                WebhookDispatch queued = lane.queue.poll();
+                if (lane.state == CircuitState.OPEN) {
+                    lane.rejected++;
+                    rejected.add(queued);
+                } else {
+                    next = queued;
+                    break;
+                }
+            }
+            if (next == null) {
+                lane.inFlight--;
+            }
+        }
+
+        rejected.forEach(d -> d.complete(WebhookResult.REJECTED, 0, "Circuit open for " + lane.host));
+        if (next != null) {
+            send(lane, next);
+        }
+    }
+
+    /**
+     * Drop lanes idle for laneIdleMs with nothing in flight or queued, at
+     * most once per idle period. An open circuit is kept until it expires.
+     */
+    private void evictIdleLanes(long now) {
+        if (laneIdleMs <= 0 || now - lastLaneSweep < laneIdleMs) {
+            return;
+        }
+        lastLaneSweep = now;
+        lanes.values().removeIf(lane -> {
+            synchronized (lane) {
+                if (lane.inFlight == 0 && lane.queue.isEmpty() && now - lane.lastUsed >= laneIdleMs
+                        && (lane.state != CircuitState.OPEN || now >= lane.openUntil)) {
+                    lane.evicted = true;
+                }
+                return lane.evicted;
+            }
+        });
+    }
+
+    /**
+     * scheme://host:port of a URL, the key calls are limited and reported by.
+     */
+    public static String destinationOf(URI uri) {
+        int port = uri.getPort();
+        if (port == -1) {
+            port = "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+        }
+        return uri.getScheme() + "://" + uri.getHost().toLowerCase() + ":" + port;
+    }
+
+    private static String rootMessage(Throwable error) {
+        Throwable cause = error;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+    }
+
+    /**
+     * Per-host concurrency and circuit state. Guarded by its own monitor.
+     */
+    private final class HostLane {
+        private final String host;
+        private final Deque<WebhookDispatch> queue = new ArrayDeque<>();
+        private int inFlight;
+        private CircuitState state = CircuitState.CLOSED;
+        private int consecutiveFailures;
+        private long openUntil;
+        private boolean trialInFlight;
+        private long delivered;
+        private long failed;
+        private long rejected;
+        private long lastUsed;
+        // Removed from lanes; dispatches that still hold it look it up again
+        private boolean evicted;
+
+        private HostLane(String host) {
+            this.host = host;
+        }
+
+        /**
+         * After the open period one trial call is let through; its outcome
+         * closes or re-opens the circuit.
+         */
+        private boolean admit(long now) {
+            if (state == CircuitState.OPEN) {
+                if (now < openUntil) {
+                    return false;
+                }
+                state = CircuitState.HALF_OPEN;
+                trialInFlight = false;
+            }
+            if (state == CircuitState.HALF_OPEN) {
+                if (trialInFlight) {
+                    return false;
+                }
+                trialInFlight = true;
+            }
+            return true;
+        }
+
+        private void record(boolean hostFailure, long now) {
+            if (!hostFailure) {
+                consecutiveFailures = 0;
+                state = CircuitState.CLOSED;
+                return;
+            }
+            consecutiveFailures++;
+            if (state == CircuitState.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+                if (state != CircuitState.OPEN) {
+                    log.warn("Opening webhook circuit for {} after {} consecutive failures", host,
+                            consecutiveFailures);
+                }
+                state = CircuitState.OPEN;
+                openUntil = now + openMs;
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.ruleengine.webhook;
+
+/**
+ * How an execution waits for the webhooks its rules dispatched.
+ */
+public enum WebhookMode {
+    // Wait for the calls up to a deadline; unfinished calls are reported as PENDING
+    WAIT,
+    // Return right after firing; results are looked up by dispatch ID
+    ASYNC
+}
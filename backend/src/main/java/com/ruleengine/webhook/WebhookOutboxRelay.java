@@ -0,0 +1,368 @@
+package com.ruleengine.webhook;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ruleengine.dto.ExecuteRulesResponse.WebhookResult;
+import com.ruleengine.model.WebhookOutboxEntry;
+import com.ruleengine.model.WebhookOutboxStatus;
+import com.ruleengine.multitenancy.TenantContext;
+import com.ruleengine.multitenancy.TenantDatabaseManager;
+import com.ruleengine.repository.WebhookOutboxRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Workers that drain the webhook outbox.
+ *
+ * Each pass claims a batch of due entries (at most perDestinationLimit per
+ * destination, so one backlogged endpoint cannot fill every batch), sends
+ * them through the WebhookDispatcher and records the outcome. Failed calls
+ * are retried with exponential backoff and jitter; every attempt carries the
+ * entry's Idempotency-Key header so receivers can drop duplicates. Claims
+ * are leases: an entry whose worker died is picked up again once its lease
+ * expires, and an outcome is only recorded while its claim still holds the
+ * lease. Every registered tenant database is drained, so entries left over
+ * from before a restart are delivered without waiting for new executions.
+ * DELIVERED and DEAD entries are deleted after retention-days.
+ */
+@Component
+public class WebhookOutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(WebhookOutboxRelay.class);
+    public static final String IDEMPOTENCY_HEADER = "Idempotency-Key";
+    private static final int MAX_ERROR_LENGTH = 1000;
+    private static final int PURGE_BATCH_SIZE = 500;
+    private static final List<WebhookOutboxStatus> FINAL_STATUSES = List.of(WebhookOutboxStatus.DELIVERED,
+            WebhookOutboxStatus.DEAD);
+
+    private final WebhookOutboxRepository outboxRepository;
+    private final WebhookDispatcher webhookDispatcher;
+    private final TenantDatabaseManager tenantDatabaseManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final int workers;
+    private final int batchSize;
+    private final int perDestinationLimit;
+    private final long pollIntervalMs;
+    private final long leaseMs;
+    private final long backoffMs;
+    private final long maxBackoffMs;
+    private final int maxAttempts;
+    private final int retentionDays;
+    private final long cleanupIntervalMs;
+
+    private final Object signal = new Object();
+    private boolean signalled;
+    private volatile boolean running;
+    private ExecutorService workerPool;
+    private ScheduledExecutorService cleaner;
+
+    public WebhookOutboxRelay(WebhookOutboxRepository outboxRepository, WebhookDispatcher webhookDispatcher,
+            TenantDatabaseManager tenantDatabaseManager, PlatformTransactionManager transactionManager, ObjectMapper objectMapper,
+            @Value("${truly.webhooks.outbox.enabled:true}") boolean enabled,
+            @Value("${truly.webhooks.outbox.workers:2}") int workers,
+            @Value("${truly.webhooks.outbox.batch-size:50}") int batchSize,
+            @Value("${truly.webhooks.outbox.per-destination-limit:20}") int perDestinationLimit,
+            @Value("${truly.webhooks.outbox.poll-interval-ms:1000}") long pollIntervalMs,
+            @Value("${truly.webhooks.outbox.lease-ms:60000}") long leaseMs,
+            @Value("${truly.webhooks.outbox.backoff-ms:1000}") long backoffMs,
+            @Value("${truly.webhooks.outbox.max-backoff-ms:600000}") long maxBackoffMs,
+            @Value("${truly.webhooks.outbox.max-attempts:10}") int maxAttempts,
+            @Value("${truly.webhooks.outbox.retention-days:7}") int retentionDays,
+            @Value("${truly.webhooks.outbox.cleanup-interval-ms:3600000}") long cleanupIntervalMs) {
+        this.outboxRepository = outboxRepository;
+        this.webhookDispatcher = webhookDispatcher;
+        this.tenantDatabaseManager = tenantDatabaseManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.perDestinationLimit = perDestinationLimit;
+        this.pollIntervalMs = pollIntervalMs;
+        this.leaseMs = leaseMs;
+        this.backoffMs = backoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.maxAttempts = maxAttempts;
+        this.retentionDays = retentionDays;
+        this.cleanupIntervalMs = cleanupIntervalMs;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            log.info("Webhook outbox relay disabled");
+            return;
+        }
+        running = true;
+        AtomicInteger threadCount = new AtomicInteger();
+        workerPool = Executors.newFixedThreadPool(workers, r -> {
+            Thread thread = new Thread(r, "webhook-outbox-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < workers; i++) {
+            workerPool.submit(this::runWorker);
+        }
+        if (retentionDays > 0) {
+            cleaner = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "webhook-outbox-cleanup");
+                thread.setDaemon(true);
+                return thread;
+            });
+            cleaner.scheduleWithFixedDelay(this::purgeCompleted, cleanupIntervalMs, cleanupIntervalMs,
+                    TimeUnit.MILLISECONDS);
+        }
+        log.info("Started {} webhook outbox workers", workers);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        wakeUp();
+        if (cleaner != null) {
+            cleaner.shutdownNow();
+        }
+        if (workerPool != null) {
+            workerPool.shutdown();
+            try {
+                if (!workerPool.awaitTermination(10, TimeUnit.SECONDS)) {
+                    workerPool.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                workerPool.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Start a pass now instead of at the next poll interval.
+     */
+    public void wakeUp() {
+        synchronized (signal) {
+            signalled = true;
+            signal.notifyAll();
+        }
+    }
+
+    /**
+     * One pass over all registered tenant databases. Returns the number of
+     * entries attempted.
+     */
+    public int relayOnce() {
+        int attempted = 0;
+        for (String tenantId : tenantDatabaseManager.getTenantIds()) {
+            TenantContext.setTenantId(tenantId);
+            try {
+                attempted += relayBatch();
+            } catch (Exception e) {
+                log.error("Webhook outbox pass failed for tenant {}", tenantId, e);
+            } finally {
+                TenantContext.clear();
+            }
+        }
+        return attempted;
+    }
+
+    private void runWorker() {
+        while (running) {
+            int attempted = relayOnce();
+            if (attempted == 0) {
+                awaitSignal();
+            }
+        }
+    }
+
+    private void awaitSignal() {
+        synchronized (signal) {
+            if (!signalled) {
+                try {
+                    signal.wait(pollIntervalMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    running = false;
+                }
+            }
+            signalled = false;
+        }
+    }
+
+    /**
+     * Delete DELIVERED and DEAD entries older than the retention from every
+     * registered tenant database, in small batches.
+     */
+    public void purgeCompleted() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        for (String tenantId : tenantDatabaseManager.getTenantIds()) {
+            TenantContext.setTenantId(tenantId);
+            try {
+                long deleted = 0;
+                List<Long> ids;
+                do {
+                    ids = outboxRepository.findCompletedIds(FINAL_STATUSES, cutoff,
+                            PageRequest.of(0, PURGE_BATCH_SIZE));
+                    List<Long> batch = ids;
+                    if (!batch.isEmpty()) {
+                        transactionTemplate.executeWithoutResult(
+                                status -> outboxRepository.deleteAllByIdInBatch(batch));
+                        deleted += batch.size();
+                    }
+                } while (ids.size() == PURGE_BATCH_SIZE);
+                if (deleted > 0) {
+                    log.info("Deleted {} delivered or dead webhook outbox entries of tenant {}", deleted, tenantId);
+                }
+            } catch (Exception e) {
+                log.error("Webhook outbox cleanup failed for tenant {}", tenantId, e);
+            } finally {
+                TenantContext.clear();
+            }
+        }
+    }
+
+    private int relayBatch() {
+        String leaseOwner = UUID.randomUUID().toString();
+        List<WebhookOutboxEntry> claimed = transactionTemplate.execute(status -> claimDue(leaseOwner));
+        if (claimed == null || claimed.isEmpty()) {
+            return 0;
+        }
+
+        List<WebhookDispatch> dispatches = claimed.stream()
+                .map(entry -> webhookDispatcher.dispatch(toRequest(entry)))
+                .collect(Collectors.toList());
+        // Calls still running at the lease deadline stay IN_FLIGHT and are retried once it expires
+        List<WebhookResult> results = webhookDispatcher.awaitResults(dispatches, leaseMs);
+
+        transactionTemplate.executeWithoutResult(status -> record(claimed, results, leaseOwner));
+        return claimed.size();
+    }
+
+    private List<WebhookOutboxEntry> claimDue(String leaseOwner) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime leaseUntil = now.plusNanos(leaseMs * 1_000_000);
+        List<WebhookOutboxEntry> claimed = new ArrayList<>();
+        Map<String, Integer> perDestination = new HashMap<>();
+
+        for (WebhookOutboxEntry entry : outboxRepository.findDue(now, PageRequest.of(0, batchSize * 2))) {
+            if (claimed.size() >= batchSize) {
+                break;
+            }
+            if (perDestination.getOrDefault(entry.getDestination(), 0) >= perDestinationLimit) {
+                continue;
+            }
+            // Another worker (or instance) may have claimed it since the read
+            if (outboxRepository.claim(entry.getId(), now, leaseUntil, leaseOwner) == 1) {
+                perDestination.merge(entry.getDestination(), 1, Integer::sum);
+                claimed.add(entry);
+            }
+        }
+        return claimed;
+    }
+
+    private void record(List<WebhookOutboxEntry> claimed, List<WebhookResult> results, String leaseOwner) {
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < claimed.size(); i++) {
+            WebhookResult result = results.get(i);
+            if (WebhookResult.PENDING.equals(result.getStatus())) {
+                continue;
+            }
+            // As read before the claim; only the lease holder changes attempts
+            WebhookOutboxEntry entry = claimed.get(i);
+            int attempts = entry.getAttempts();
+            WebhookOutboxStatus status;
+            LocalDateTime nextAttemptAt = entry.getNextAttemptAt();
+            LocalDateTime deliveredAt = null;
+            String lastError = truncate(result.getResponse());
+
+            if (result.isSuccess()) {
+                attempts++;
+                status = WebhookOutboxStatus.DELIVERED;
+                deliveredAt = now;
+                lastError = null;
+            } else if (WebhookResult.REJECTED.equals(result.getStatus())) {
+                // Never left this instance (circuit open); doesn't use up an attempt
+                status = WebhookOutboxStatus.PENDING;
+                nextAttemptAt = now.plusNanos(backoffMs(attempts + 1) * 1_000_000);
+            } else {
+                attempts++;
+                if (isPermanentFailure(result.getStatusCode()) || attempts >= maxAttempts) {
+                    status = WebhookOutboxStatus.DEAD;
+                    log.warn("Webhook outbox entry {} to {} gave up after {} attempts (last status {})",
+                            entry.getId(), entry.getUrl(), attempts, result.getStatusCode());
+                } else {
+                    status = WebhookOutboxStatus.PENDING;
+                    nextAttemptAt = now.plusNanos(backoffMs(attempts) * 1_000_000);
+                }
+            }
+            int updated = outboxRepository.complete(entry.getId(), leaseOwner, status, attempts, nextAttemptAt,
+                    result.getStatusCode(), lastError, deliveredAt, now);
+            if (updated == 0) {
+                log.warn("Lease on webhook outbox entry {} expired before its {} outcome was recorded; "
+                        + "it is retried under the current claim", entry.getId(), status);
+            }
+        }
+    }
+
+    /**
+     * Exponential backoff (backoffMs * 2^(attempts-1), capped) with +/-20% jitter
+     * so entries that failed together don't retry together.
+     */
+    long backoffMs(int attempts) {
+        long delay = backoffMs << Math.min(Math.max(attempts - 1, 0), 30);
+        delay = Math.min(delay < 0 ? maxBackoffMs : delay, maxBackoffMs);
+        double jitter = 0.8 + ThreadLocalRandom.current().nextDouble() * 0.4;
+        return (long) (delay * jitter);
+    }
+
+    /**
+     * 4xx responses other than 408/429 won't change on retry.
+     */
+    private static boolean isPermanentFailure(int statusCode) {
+        return statusCode >= 400 && statusCode < 500 && statusCode != 408 && statusCode != 429;
+    }
+
+    private WebhookRequest toRequest(WebhookOutboxEntry entry) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        if (entry.getHeaders() != null && !entry.getHeaders().isEmpty()) {
+            try {
+                headers.putAll(objectMapper.readValue(entry.getHeaders(), new TypeReference<Map<String, String>>() {
+                }));
+            } catch (Exception e) {
+                log.warn("Ignoring unreadable headers of webhook outbox entry {}", entry.getId());
+            }
+        }
+        headers.put(IDEMPOTENCY_HEADER, entry.getIdempotencyKey());
+        byte[] body = entry.getBody() != null ? entry.getBody().getBytes(StandardCharsets.UTF_8) : null;
+        return new WebhookRequest(entry.getUrl(), entry.getMethod(), headers, body);
+    }
+
+    private static String truncate(String message) {
+        if (message == null || message.length() <= MAX_ERROR_LENGTH) {
+            return message;
+        }
+        return message.substring(0, MAX_ERROR_LENGTH);
+    }
+}
@@ -0,0 +1,38 @@
+package com.ruleengine.webhook;
+
+import java.util.Map;
+
+/**
+ * A webhook call queued by a rule action. The body is serialized while the
+ * rule fires so later changes to the fact don't leak into the request.
+ */
+public class WebhookRequest {
+
+    private final String url;
+    private final String method;
+    private final Map<String, String> headers;
+    private final byte[] body;
+
+    public WebhookRequest(String url, String method, Map<String, String> headers, byte[] body) {
+        this.url = url;
+        this.method = method != null ? method.toUpperCase() : "POST";
+        this.headers = headers != null ? headers : Map.of();
+        this.body = body;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+}
@@ -0,0 +1,25 @@
+-- Indexes for the queries on the rule execution path and the history and audit views.
+-- Tables are created by Hibernate; index names match the @Index declarations where one exists.
+-- MySQL has no CREATE INDEX IF NOT EXISTS: DatabaseMigrator skips indexes that already exist.
+-- InnoDB indexes foreign key columns itself, so single-column foreign key indexes are left out.
+
+-- RuleRepository.findActiveRulesBySchemaOrderByPriority, findBySchemaIdAndEnabled
+CREATE INDEX idx_rules_schema_enabled_priority ON rules (schema_id, enabled, priority);
+-- RuleRepository.existsByName
+CREATE INDEX idx_rules_name ON rules (name);
+
+-- SchemaRepository.findByName (SCHEMAS is a reserved word in MySQL), existsByName
+CREATE INDEX idx_schemas_name ON `schemas` (name);
+
+-- ExecutionHistoryRepository.findByProjectIdOrderByExecutedAtDesc, summaries and retention
+CREATE INDEX idx_execution_history_project_time ON execution_history (project_id, executed_at);
+CREATE INDEX idx_execution_history_time ON execution_history (executed_at);
+CREATE INDEX idx_execution_fired_rules_rule_time ON execution_fired_rules (rule_id, executed_at);
+CREATE INDEX idx_execution_fired_rules_execution ON execution_fired_rules (execution_history_id);
+
+-- RuleAuditLogRepository.findByRuleIdOrderByExecutedAtDesc, findByExecutedAtBetween and retention
+CREATE INDEX idx_rule_audit_logs_rule_time ON rule_audit_logs (rule_id, executed_at);
+CREATE INDEX idx_rule_audit_logs_time ON rule_audit_logs (executed_at);
+
+-- ProjectAuditLogRepository.findByProjectIdOrderByCreatedAtDesc, findByProjectIdSince
+CREATE INDEX idx_project_audit_logs_project_time ON project_audit_logs (project_id, created_at);
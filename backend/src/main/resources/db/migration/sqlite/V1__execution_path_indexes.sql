@@ -0,0 +1,32 @@
+-- Indexes for the queries on the rule execution path and the history and audit views.
+-- Tables are created by Hibernate; index names match the @Index declarations where one exists.
+
+-- RuleRepository.findByProjectId, project rule sets and rule counts
+CREATE INDEX IF NOT EXISTS idx_rules_project ON rules (project_id);
+-- RuleRepository.findActiveRulesBySchemaOrderByPriority, findBySchemaIdAndEnabled
+CREATE INDEX IF NOT EXISTS idx_rules_schema_enabled_priority ON rules (schema_id, enabled, priority);
+-- RuleRepository.existsByName
+CREATE INDEX IF NOT EXISTS idx_rules_name ON rules (name);
+
+-- SchemaRepository.findByProjectId, findByProjectIdOrProjectIsNull, countByProjectId
+CREATE INDEX IF NOT EXISTS idx_schemas_project ON schemas (project_id);
+-- SchemaRepository.findByName, existsByName
+CREATE INDEX IF NOT EXISTS idx_schemas_name ON schemas (name);
+
+-- RuleProjectRepository.findByParentProjectId and template counts
+CREATE INDEX IF NOT EXISTS idx_rule_projects_parent ON rule_projects (project_id);
+CREATE INDEX IF NOT EXISTS idx_project_input_schemas_project ON project_input_schemas (project_id);
+CREATE INDEX IF NOT EXISTS idx_project_output_schemas_project ON project_output_schemas (project_id);
+
+-- ExecutionHistoryRepository.findByProjectIdOrderByExecutedAtDesc, summaries and retention
+CREATE INDEX IF NOT EXISTS idx_execution_history_project_time ON execution_history (project_id, executed_at);
+CREATE INDEX IF NOT EXISTS idx_execution_history_time ON execution_history (executed_at);
+CREATE INDEX IF NOT EXISTS idx_execution_fired_rules_rule_time ON execution_fired_rules (rule_id, executed_at);
+CREATE INDEX IF NOT EXISTS idx_execution_fired_rules_execution ON execution_fired_rules (execution_history_id);
+
+-- RuleAuditLogRepository.findByRuleIdOrderByExecutedAtDesc, findByExecutedAtBetween and retention
+CREATE INDEX IF NOT EXISTS idx_rule_audit_logs_rule_time ON rule_audit_logs (rule_id, executed_at);
+CREATE INDEX IF NOT EXISTS idx_rule_audit_logs_time ON rule_audit_logs (executed_at);
+
+-- ProjectAuditLogRepository.findByProjectIdOrderByCreatedAtDesc, findByProjectIdSince
+CREATE INDEX IF NOT EXISTS idx_project_audit_logs_project_time ON project_audit_logs (project_id, created_at);
@@ -0,0 +1,92 @@
+package com.ruleengine.cache;
+
+import com.ruleengine.dto.CacheStatsDto;
+import com.ruleengine.dto.RuleDefinition;
+import com.ruleengine.dto.RuleDto;
+import com.ruleengine.dto.SchemaDto;
+import com.ruleengine.dto.SchemaPropertyDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadCacheTest {
+
+    private final ReadCache cache = new ReadCache(true, 1 << 20, 1 << 20, 1 << 20, 0);
+
+    @Test
+    void callersCannotModifyTheCachedRule() {
+        AtomicInteger loads = new AtomicInteger();
+        RuleDto loaded = cache.get(ReadCache.RULES, "rule:1", () -> {
+            loads.incrementAndGet();
+            return rule();
+        });
+        loaded.setName("changed by the loading caller");
+        loaded.getDefinition().getConditions().getConditions().get(0).setValue(1);
+
+        RuleDto hit = cache.get(ReadCache.RULES, "rule:1", () -> fail("should be cached"));
+        hit.getDefinition().getActions().get(0).getFactData().put("level", "low");
+        hit.getDependencyWarnings().clear();
+
+        RuleDto again = cache.get(ReadCache.RULES, "rule:1", () -> fail("should be cached"));
+        assertEquals(1, loads.get());
+        assertNotSame(hit, again);
+        assertEquals("High value", again.getName());
+        assertEquals(List.of(100, 200), again.getDefinition().getConditions().getConditions().get(0).getValue());
+        assertEquals("high", again.getDefinition().getActions().get(0).getFactData().get("level"));
+        assertEquals(List.of("cycle"), again.getDependencyWarnings());
+    }
+
+    @Test
+    void callersCannotModifyTheCachedList() {
+        SchemaPropertyDto amount = SchemaPropertyDto.builder()
+                .name("amount")
+                .type("number")
+                .constraints(new LinkedHashMap<>(Map.of("minimum", 0)))
+                .build();
+        SchemaDto schema = SchemaDto.builder()
+                .id(1L)
+                .name("Order")
+                .properties(new ArrayList<>(List.of(amount)))
+                .jsonSchema("{\"properties\":{\"amount\":{\"type\":\"number\",\"minimum\":0}}}")
+                .build();
+        List<SchemaDto> loaded = cache.getList(ReadCache.SCHEMAS, "all", () -> new ArrayList<>(List.of(schema)));
+        loaded.clear();
+        schema.getProperties().get(0).getConstraints().put("minimum", 10);
+
+        List<SchemaDto> hit = cache.getList(ReadCache.SCHEMAS, "all", () -> fail("should be cached"));
+        assertEquals(1, hit.size());
+        assertEquals(0, hit.get(0).getProperties().get(0).getConstraints().get("minimum"));
+    }
+
+    @Test
+    void regionsAreWeighedByTheEstimatedSize() {
+        RuleDto rule = rule();
+        cache.get(ReadCache.RULES, "rule:1", () -> rule);
+
+        CacheStatsDto stats = cache.getStats().stream()
+                .filter(s -> s.getName().equals(ReadCache.RULES))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(rule.estimatedSize(), stats.getWeightBytes());
+    }
+
+    private static RuleDto rule() {
+        RuleDefinition.Condition condition = new RuleDefinition.Condition("amount", "in",
+                new ArrayList<>(List.of(100, 200)), false, null);
+        RuleDefinition.RuleAction action = new RuleDefinition.RuleAction("INSERT_FACT", null, null, "Alert",
+                new LinkedHashMap<>(Map.of("level", "high")), null, null, null, null, null);
+        RuleDefinition definition = new RuleDefinition("High value", null, 1L, 1L, 0, true, null,
+                new RuleDefinition.ConditionGroup("AND", new ArrayList<>(List.of(condition))),
+                new ArrayList<>(List.of(action)));
+        RuleDto rule = new RuleDto(1L, "High value", null, 1L, "Order", 1L, true, 0, null, null, null, definition,
+                "rule \"High value\" when Order(amount in (100, 200)) then end");
+        rule.setDependencyWarnings(new ArrayList<>(List.of("cycle")));
+        return rule;
+    }
+}
@@ -0,0 +1,56 @@
+package com.ruleengine.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TinyLfuCacheTest {
+
+    private final TinyLfuCache<String, String> cache = new TinyLfuCache<>(100, 30,
+            key -> key.substring(0, key.indexOf(':')), 64);
+
+    private String load(String key) {
+        String value = cache.get(key);
+        if (value == null) {
+            value = key.toUpperCase();
+            cache.put(key, value, 10);
+        }
+        return value;
+    }
+
+    @Test
+    void frequentlyUsedEntriesSurviveAScanOfOneOffEntries() {
+        for (int round = 0; round < 3; round++) {
+            for (String group : new String[] { "a", "b", "c" }) {
+                load(group + ":hot");
+            }
+        }
+        for (int i = 0; i < 100; i++) {
+            load("s" + (i % 10) + ":" + i);
+        }
+
+        for (String group : new String[] { "a", "b", "c" }) {
+            assertEquals(group.toUpperCase() + ":HOT", cache.get(group + ":hot"));
+        }
+        TinyLfuCache.Stats stats = cache.stats();
+        assertTrue(stats.getWeight() <= 100);
+        assertEquals(0, stats.getReloads());
+    }
+
+    @Test
+    void groupOverItsBudgetEvictsItsOwnEntriesAndCountsReloads() {
+        load("b:1");
+        load("a:1");
+        load("a:2");
+        load("a:3");
+        load("a:4");
+
+        assertEquals("B:1", cache.get("b:1"));
+        assertNull(cache.get("a:1"));
+        TinyLfuCache.Stats a = cache.groupStats().get("a");
+        assertEquals(3, a.getSize());
+        assertEquals(1, a.getEvictions());
+        assertEquals(1, a.getReloads());
+        assertEquals(0, cache.groupStats().get("b").getEvictions());
+    }
+}
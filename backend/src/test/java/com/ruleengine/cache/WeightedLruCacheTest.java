@@ -0,0 +1,41 @@
+package com.ruleengine.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WeightedLruCacheTest {
+
+    @Test
+    void leastRecentlyUsedValuesAreEvictedToStayWithinWeight() {
+        WeightedLruCache<String, String> cache = new WeightedLruCache<>(10);
+        cache.put("a", "A", 4);
+        cache.put("b", "B", 4);
+        assertEquals("A", cache.get("a"));
+
+        cache.put("c", "C", 4);
+
+        assertNull(cache.get("b"));
+        assertEquals("A", cache.get("a"));
+        assertEquals("C", cache.get("c"));
+        WeightedLruCache.Stats stats = cache.stats();
+        assertEquals(2, stats.getSize());
+        assertEquals(8, stats.getWeight());
+        assertEquals(1, stats.getEvictions());
+        assertEquals(3, stats.getHits());
+        assertEquals(1, stats.getMisses());
+    }
+
+    @Test
+    void valueHeavierThanTheBudgetIsNotCached() {
+        WeightedLruCache<String, String> cache = new WeightedLruCache<>(10);
+        cache.put("a", "A", 4);
+        cache.put("big", "BIG", 11);
+
+        assertNull(cache.get("big"));
+        assertEquals("A", cache.get("a"));
+
+        cache.removeIf(key -> key.startsWith("a"));
+        assertEquals(0, cache.stats().getWeight());
+    }
+}
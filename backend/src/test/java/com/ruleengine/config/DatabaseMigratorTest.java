@@ -0,0 +1,74 @@
+package com.ruleengine.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatabaseMigratorTest {
+
+    private final DatabaseMigrator migrator = new DatabaseMigrator(null, null, true, "db/migration");
+    private Connection connection;
+
+    @BeforeEach
+    void createTables() throws Exception {
+        connection = DriverManager.getConnection("jdbc:h2:mem:migrations;DB_CLOSE_DELAY=-1", "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE rule_projects (id BIGINT PRIMARY KEY, project_id BIGINT)");
+            statement.execute("CREATE TABLE schemas (id BIGINT PRIMARY KEY, project_id BIGINT, name VARCHAR(255))");
+            statement.execute("CREATE TABLE rules (id BIGINT PRIMARY KEY, schema_id BIGINT, project_id BIGINT, "
+                    + "name VARCHAR(255), enabled BOOLEAN, priority INT)");
+            statement.execute("CREATE TABLE project_input_schemas (project_id BIGINT, schema_id BIGINT)");
+            statement.execute("CREATE TABLE project_output_schemas (project_id BIGINT, schema_id BIGINT)");
+            statement.execute("CREATE TABLE execution_history (id BIGINT PRIMARY KEY, project_id BIGINT, "
+                    + "executed_at TIMESTAMP)");
+            statement.execute("CREATE TABLE execution_fired_rules (id BIGINT PRIMARY KEY, "
+                    + "execution_history_id BIGINT, rule_id BIGINT, executed_at TIMESTAMP)");
+            statement.execute("CREATE TABLE rule_audit_logs (id BIGINT PRIMARY KEY, rule_id BIGINT, "
+                    + "executed_at TIMESTAMP)");
+            statement.execute("CREATE TABLE project_audit_logs (id BIGINT PRIMARY KEY, project_id BIGINT, "
+                    + "created_at TIMESTAMP)");
+        }
+    }
+
+    @AfterEach
+    void dropDatabase() throws Exception {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+        connection.close();
+    }
+
+    @Test
+    void migrationsRunOnceAndCreateTheIndexes() throws Exception {
+        migrator.migrate(connection);
+        migrator.migrate(connection);
+
+        assertEquals(1, count("SELECT COUNT(*) FROM database_migrations"));
+        assertEquals(1, count("SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES "
+                + "WHERE INDEX_NAME = 'IDX_RULES_SCHEMA_ENABLED_PRIORITY'"));
+    }
+
+    @Test
+    void changedMigrationStopsStartup() throws Exception {
+        migrator.migrate(connection);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("UPDATE database_migrations SET checksum = checksum + 1");
+        }
+
+        assertThrows(IllegalStateException.class, () -> migrator.migrate(connection));
+    }
+
+    private long count(String sql) throws Exception {
+        try (Statement statement = connection.createStatement(); ResultSet rs = statement.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.ruleengine.config;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Query plans and timings of the execution-path queries on a SQLite
+ * database with 1M execution history rows, before and after the V1
+ * migration indexes.
+ *
+ * Not a test; run with
+ * mvn -q test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.ruleengine.config.ExecutionPathIndexBenchmark
+ */
+public class ExecutionPathIndexBenchmark {
+
+    private static final int HISTORY_ROWS = 1_000_000;
+    private static final int PROJECTS = 100;
+    private static final int SCHEMAS = 50;
+    private static final int RULES = 20_000;
+    private static final int ITERATIONS = 20;
+
+    private static final String[][] QUERIES = {
+            { "history page of a project",
+                    "SELECT id, executed_at, success FROM execution_history WHERE project_id = 42 "
+                            + "ORDER BY executed_at DESC LIMIT 50" },
+            { "history keyset page of a project",
+                    "SELECT id, executed_at FROM execution_history WHERE project_id = 42 "
+                            + "AND (executed_at < ? OR (executed_at = ? AND id < 500000)) "
+                            + "ORDER BY executed_at DESC, id DESC LIMIT 51" },
+            { "expired history of a project",
+                    "SELECT id FROM execution_history WHERE project_id = 42 AND executed_at < ? "
+                            + "ORDER BY id LIMIT 500" },
+            { "active rules of a schema",
+                    "SELECT id FROM rules WHERE schema_id = 7 AND enabled = 1 ORDER BY priority DESC" },
+            { "rules of a project",
+                    "SELECT id FROM rules WHERE project_id = 42" },
+    };
+
+    public static void main(String[] args) throws Exception {
+        File file = File.createTempFile("execution-path-bench", ".db");
+        file.deleteOnExit();
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + file.getAbsolutePath())) {
+            createTables(connection);
+            populate(connection);
+
+            System.out.println("== without indexes");
+            report(connection);
+
+            long start = System.currentTimeMillis();
+            new DatabaseMigrator(null, null, true, "db/migration").migrate(connection);
+            System.out.printf("%n== V1 applied in %,d ms%n", System.currentTimeMillis() - start);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("ANALYZE");
+            }
+            report(connection);
+        }
+    }
+
+    private static void createTables(Connection connection) throws Exception {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE rule_projects (id INTEGER PRIMARY KEY, project_id BIGINT, name TEXT)");
+            statement.execute("CREATE TABLE schemas (id INTEGER PRIMARY KEY, project_id BIGINT, name TEXT)");
+            statement.execute("CREATE TABLE rules (id INTEGER PRIMARY KEY, schema_id BIGINT, project_id BIGINT, "
+                    + "name TEXT, enabled BOOLEAN, priority INTEGER)");
+            statement.execute("CREATE TABLE project_input_schemas (project_id BIGINT, schema_id BIGINT)");
+            statement.execute("CREATE TABLE project_output_schemas (project_id BIGINT, schema_id BIGINT)");
+            statement.execute("CREATE TABLE execution_history (id INTEGER PRIMARY KEY, project_id BIGINT, "
+                    + "success BOOLEAN, execution_time_ms BIGINT, input_facts TEXT, executed_at TIMESTAMP)");
+            statement.execute("CREATE TABLE execution_fired_rules (id INTEGER PRIMARY KEY, "
+                    + "execution_history_id BIGINT, rule_id BIGINT, executed_at TIMESTAMP)");
+            statement.execute("CREATE TABLE rule_audit_logs (id INTEGER PRIMARY KEY, rule_id BIGINT, "
+                    + "executed_at TIMESTAMP)");
+            statement.execute("CREATE TABLE project_audit_logs (id INTEGER PRIMARY KEY, project_id BIGINT, "
+                    + "created_at TIMESTAMP)");
+        }
+    }
+
+    private static void populate(Connection connection) throws Exception {
+        long start = System.currentTimeMillis();
+        connection.setAutoCommit(false);
+        LocalDateTime now = LocalDateTime.now();
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO execution_history "
+                + "(project_id, success, execution_time_ms, input_facts, executed_at) VALUES (?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < HISTORY_ROWS; i++) {
+                insert.setLong(1, i % PROJECTS);
+                insert.setBoolean(2, i % 17 != 0);
+                insert.setLong(3, i % 250);
+                insert.setString(4, "[{\"orderId\":" + i + "}]");
+                // One execution every 5 seconds, oldest first
+                insert.setTimestamp(5, Timestamp.valueOf(now.minusSeconds(5L * (HISTORY_ROWS - i))));
+                insert.addBatch();
+                if (i % 10_000 == 9_999) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO rules (schema_id, project_id, name, enabled, priority) VALUES (?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < RULES; i++) {
+                insert.setLong(1, i % SCHEMAS);
+                insert.setLong(2, i % PROJECTS);
+                insert.setString(3, "rule-" + i);
+                insert.setBoolean(4, i % 5 != 0);
+                insert.setInt(5, i % 100);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+        System.out.printf("populated %,d history rows and %,d rules in %,d ms%n%n", HISTORY_ROWS, RULES,
+                System.currentTimeMillis() - start);
+    }
+
+    private static void report(Connection connection) throws Exception {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusDays(30));
+        for (String[] query : QUERIES) {
+            List<String> plan = new ArrayList<>();
+            try (PreparedStatement explain = connection.prepareStatement("EXPLAIN QUERY PLAN " + query[1])) {
+                bind(explain, cutoff);
+                try (ResultSet rs = explain.executeQuery()) {
+                    while (rs.next()) {
+                        plan.add(rs.getString("detail"));
+                    }
+                }
+            }
+            long rows = 0;
+            long start = System.nanoTime();
+            try (PreparedStatement select = connection.prepareStatement(query[1])) {
+                for (int i = 0; i < ITERATIONS; i++) {
+                    bind(select, cutoff);
+                    try (ResultSet rs = select.executeQuery()) {
+                        while (rs.next()) {
+                            rows++;
+                        }
+                    }
+                }
+            }
+            double millis = (System.nanoTime() - start) / 1_000_000.0 / ITERATIONS;
+            System.out.printf("%-34s %10.3f ms  %5d rows  %s%n", query[0], millis, rows / ITERATIONS,
+                    String.join("; ", plan));
+        }
+    }
+
+    private static void bind(PreparedStatement statement, Timestamp cutoff) throws Exception {
+        int parameters = statement.getParameterMetaData().getParameterCount();
+        for (int i = 1; i <= parameters; i++) {
+            statement.setTimestamp(i, cutoff);
+        }
+    }
+}
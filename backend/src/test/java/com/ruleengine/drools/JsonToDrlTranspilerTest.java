@@ -0,0 +1,333 @@
+package com.ruleengine.drools;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ruleengine.dto.ExecuteRulesResponse;
+import com.ruleengine.dto.RuleDefinition;
+import com.ruleengine.dto.RuleDefinition.Condition;
+import com.ruleengine.dto.RuleDefinition.ConditionGroup;
+import com.ruleengine.dto.RuleDefinition.RuleAction;
+import com.ruleengine.model.Rule;
+import com.ruleengine.webhook.WebhookBatcher;
+import com.ruleengine.webhook.WebhookDispatcher;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonToDrlTranspilerTest {
+
+    private static final String SCHEMA = "{\"type\":\"object\",\"properties\":{"
+            + "\"quantity\":{\"type\":\"integer\"},"
+            + "\"score\":{\"type\":\"number\"},"
+            + "\"price\":{\"type\":\"number\",\"format\":\"money\"},"
+            + "\"customer\":{\"type\":\"object\",\"properties\":{\"balance\":{\"type\":\"string\",\"format\":\"decimal\"}}}"
+            + "}}";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final JsonToDrlTranspiler transpiler = new JsonToDrlTranspiler(objectMapper);
+    private final WebhookDispatcher webhookDispatcher = new WebhookDispatcher(1, 1000, 1000, 1, 1, 5, 1000, 0, 0, 10, 0);
+    private final DroolsService droolsService = new DroolsService(new ActionContext(
+            webhookDispatcher, new WebhookBatcher(webhookDispatcher, 100, 0), objectMapper));
+
+    @Test
+    void integerFieldsCompareAsLongWithoutTruncation() {
+        String drl = transpile(new Condition("quantity", "greaterThan", 2_999_999_999L, false, null));
+
+        assertTrue(drl.contains("getLong(\"quantity\") > 2999999999L"), drl);
+        assertTrue(fires(drl, Map.of("quantity", 3_000_000_000L)));
+        assertFalse(fires(drl, Map.of("quantity", 2_999_999_999L)));
+    }
+
+    @Test
+    void numberFieldsCompareAsDouble() {
+        String drl = transpile(new Condition("score", "lessThanOrEquals", 5, false, null));
+
+        assertTrue(drl.contains("getDouble(\"score\") <= 5.0"), drl);
+        assertTrue(fires(drl, Map.of("score", 4.5)));
+        assertFalse(fires(drl, Map.of("score", 5.5)));
+    }
+
+    @Test
+    void missingOrNonNumericValuesNeverMatch() {
+        String drl = transpile(new Condition("score", "notEquals", 1.5, false, null));
+
+        assertFalse(fires(drl, Map.of()));
+        assertFalse(fires(drl, Map.of("score", "n/a")));
+        assertTrue(fires(drl, Map.of("score", 2)));
+    }
+
+    @Test
+    void moneyFieldsCompareAsExactDecimals() {
+        String drl = transpile(new Condition("price", "equals", 0.3, false, null));
+
+        assertTrue(drl.contains("getDecimal(\"price\").compareTo("), drl);
+        assertTrue(fires(drl, Map.of("price", new java.math.BigDecimal("0.30"))));
+        // 0.1 + 0.2 as a double is not exactly 0.3
+        assertFalse(fires(drl, Map.of("price", 0.1 + 0.2)));
+    }
+
+    @Test
+    void nestedDecimalStringsAreParsed() {
+        String drl = transpile(new Condition("customer.balance", "greaterThan", "100.00", false, null));
+
+        assertTrue(fires(drl, Map.of("customer", Map.of("balance", "100.01"))));
+        assertFalse(fires(drl, Map.of("customer", Map.of("balance", "100"))));
+
+        String negative = transpile(new Condition("customer.balance", "lessThan", -5.25, false, null));
+        assertTrue(fires(negative, Map.of("customer", Map.of("balance", "-5.26"))));
+        assertFalse(fires(negative, Map.of("customer", Map.of("balance", "-5.25"))));
+    }
+
+    @Test
+    void fieldToFieldComparisonsUseSchemaType() {
+        String drl = transpile(new Condition("quantity", "lessThan", "score", true, null));
+
+        assertTrue(fires(drl, Map.of("quantity", 3, "score", 3.5)));
+        assertFalse(fires(drl, Map.of("quantity", 4, "score", 3.5)));
+    }
+
+    @Test
+    void withoutSchemaIntegerLiteralsUseLong() {
+        RuleDefinition definition = definition(new Condition("total", "greaterThanOrEquals", 10, false, null));
+        String drl = transpiler.transpile(definition, "com.ruleengine.generated", "Order");
+
+        assertTrue(drl.contains("getLong(\"total\") >= 10L"), drl);
+        assertTrue(fires(drl, Map.of("total", 10)));
+    }
+
+    @Test
+    void integerLiteralsAgainstNonNumericFieldsCompareAsLong() {
+        String schema = "{\"type\":\"object\",\"properties\":{\"code\":{\"type\":\"string\"}}}";
+        String drl = transpiler.transpile(definition(new Condition("code", "greaterThan", 5, false, null)),
+                "com.ruleengine.generated", "Order", schema);
+
+        assertTrue(drl.contains("getValue(\"code\", Long.class) > 5"), drl);
+        assertTrue(fires(drl, Map.of("code", 3_000_000_000L)));
+        assertFalse(fires(drl, Map.of("code", 4)));
+
+        // DRL stored by older versions read the field as Integer
+        String stored = drl.replace("Long.class", "Integer.class");
+        assertTrue(fires(stored, Map.of("code", 3_000_000_000L)));
+        assertFalse(fires(stored, Map.of("code", -3_000_000_000L)));
+    }
+
+    @Test
+    void integerAccessorRejectsWideValues() {
+        DynamicFact fact = new DynamicFact("Order", Map.of("quantity", 3_000_000_000L, "count", 7L));
+
+        assertEquals(7, fact.getValue("count", Integer.class));
+        assertThrows(ArithmeticException.class, () -> fact.getValue("quantity", Integer.class));
+        assertEquals(3_000_000_000L, fact.getValue("quantity", Long.class));
+    }
+
+    @Test
+    void numericAccessorsReadNestedPaths() {
+        DynamicFact fact = new DynamicFact("Order", Map.of(
+                "customer", Map.of("balance", "12.50"),
+                "items", List.of(Map.of("quantity", 3), Map.of("quantity", 4.5))));
+
+        assertTrue(fact.isNumber("items[1].quantity"));
+        assertFalse(fact.isNumber("customer.balance"));
+        assertFalse(fact.isNumber("items[2].quantity"));
+        assertEquals(3L, fact.getLong("items[0].quantity"));
+        assertEquals(4.5, fact.getDouble("items[1].quantity"));
+        assertEquals(Long.MIN_VALUE, fact.getLong("customer.missing"));
+        assertEquals(new java.math.BigDecimal("12.50"), fact.getDecimal("customer.balance"));
+        assertSame(DynamicFact.Path.of("items[0].quantity"), DynamicFact.Path.of("items[0].quantity"));
+    }
+
+    @Test
+    void referenceSetMembershipUsesLookupGlobal() {
+        Condition blocked = new Condition("customerId", "memberOf", null, false, null);
+        blocked.setReferenceSet("blockedCustomers");
+        String drl = transpile(blocked);
+        Condition allowed = new Condition("country", "notMemberOf", null, false, null);
+        allowed.setReferenceSet("allowedCountries");
+        String notAllowedDrl = transpile(allowed);
+
+        LongHashSet ids = new LongHashSet(4);
+        for (long id = 0; id < 100_000; id += 7) {
+            ids.add(id);
+        }
+        ReferenceDataLookup lookup = new ReferenceDataLookup(Map.of(
+                "blockedCustomers", new ReferenceDataLookup.LongReferenceSet(ids, 1),
+                "allowedCountries", new ReferenceDataLookup.StringReferenceSet(Set.of("DE", "FR"), 1)));
+        RuleExecutionOptions options = RuleExecutionOptions.builder().referenceData(lookup).build();
+
+        assertTrue(drl.contains("referenceData.contains(\"blockedCustomers\", get(\"customerId\"))"), drl);
+        assertTrue(fires(drl, Map.of("customerId", 0), options));
+        assertTrue(fires(drl, Map.of("customerId", 99_995L), options));
+        assertFalse(fires(drl, Map.of("customerId", 99_996L), options));
+        assertFalse(fires(drl, Map.of(), options));
+        assertTrue(fires(notAllowedDrl, Map.of("country", "US"), options));
+        assertFalse(fires(notAllowedDrl, Map.of("country", "DE"), options));
+    }
+
+    @Test
+    void joinsMatchFactsOfAnotherSchemaOnKeys() {
+        RuleDefinition definition = definition(new Condition("amount", "greaterThan", 100, false, null));
+        RuleDefinition.Join customer = new RuleDefinition.Join();
+        customer.setAlias("customer");
+        customer.setFactType("Customer");
+        customer.setOn(List.of(new RuleDefinition.JoinKey("Order.customerId", "Customer.id")));
+        customer.setConditions(new ConditionGroup("all",
+                List.of(new Condition("Customer.tier", "equals", "GOLD", false, null))));
+        definition.setJoins(List.of(customer));
+
+        String drl = transpiler.transpile(definition, "com.ruleengine.generated", "Order", SCHEMA);
+        assertTrue(drl.contains("$jk0_0 : getKey(\"customerId\")"), drl);
+        assertTrue(drl.contains("getKey(\"id\") == $jk0_0"), drl);
+
+        ExecuteRulesResponse response = execute(drl, List.of(
+                new DynamicFact("Order", Map.of("amount", 150, "customerId", 1)),
+                new DynamicFact("Order", Map.of("amount", 150, "customerId", "2")),
+                new DynamicFact("Order", Map.of("amount", 50, "customerId", 1)),
+                new DynamicFact("Customer", Map.of("id", 1L, "tier", "GOLD")),
+                new DynamicFact("Customer", Map.of("id", 2, "tier", "GOLD")),
+                new DynamicFact("Customer", Map.of("id", 3, "tier", "SILVER"))));
+        assertEquals(2, response.getFiredRules().get(0).getFireCount());
+
+        customer.setNegated(true);
+        customer.setConditions(null);
+        String orphanDrl = transpiler.transpile(definition, "com.ruleengine.generated", "Order", SCHEMA);
+        ExecuteRulesResponse orphans = execute(orphanDrl, List.of(
+                new DynamicFact("Order", Map.of("amount", 150, "customerId", 1)),
+                new DynamicFact("Order", Map.of("amount", 150, "customerId", 9)),
+                new DynamicFact("Customer", Map.of("id", 1))));
+        assertEquals(1, orphans.getFiredRules().get(0).getFireCount());
+    }
+
+    @Test
+    void factsMissingTheirJoinKeysDoNotJoin() {
+        RuleDefinition definition = definition(new Condition("amount", "greaterThan", 100, false, null));
+        RuleDefinition.Join customer = new RuleDefinition.Join();
+        customer.setAlias("customer");
+        customer.setFactType("Customer");
+        customer.setOn(List.of(new RuleDefinition.JoinKey("Order.customerId", "Customer.id")));
+        definition.setJoins(List.of(customer));
+        List<DynamicFact> facts = List.of(
+                new DynamicFact("Order", Map.of("amount", 150)),
+                new DynamicFact("Customer", Map.of("tier", "GOLD")));
+
+        String drl = transpiler.transpile(definition, "com.ruleengine.generated", "Order", SCHEMA);
+        assertTrue(drl.contains("getKey(\"id\") != null"), drl);
+        assertEquals(0, fireCount(execute(drl, facts)));
+
+        // An order without a customer key has no customer
+        customer.setNegated(true);
+        String orphanDrl = transpiler.transpile(definition, "com.ruleengine.generated", "Order", SCHEMA);
+        assertEquals(1, fireCount(execute(orphanDrl, facts)));
+    }
+
+    @Test
+    void joinedPatternsAreTypedByTheirOwnSchema() {
+        RuleDefinition definition = definition(new Condition("score", "greaterThan", 1, false, null));
+        RuleDefinition.Join customer = new RuleDefinition.Join();
+        customer.setAlias("customer");
+        customer.setFactType("Customer");
+        customer.setOn(List.of(new RuleDefinition.JoinKey("Order.customerId", "Customer.id")));
+        customer.setConditions(new ConditionGroup("all",
+                List.of(new Condition("Customer.score", "greaterThan", 10, false, null))));
+        definition.setJoins(List.of(customer));
+        String customerSchema = "{\"type\":\"object\",\"properties\":{"
+                + "\"score\":{\"type\":\"number\",\"format\":\"decimal\"}}}";
+
+        String drl = transpiler.transpile(definition, "com.ruleengine.generated", "Order", SCHEMA,
+                Map.of("Customer", customerSchema));
+        String orderPattern = drl.substring(0, drl.indexOf("$customer : "));
+        String customerPattern = drl.substring(drl.indexOf("$customer : "));
+        assertTrue(orderPattern.contains("getDouble(\"score\") > 1.0"), drl);
+        assertTrue(customerPattern.contains("getDecimal(\"score\").compareTo(10B) > 0"), drl);
+
+        ExecuteRulesResponse response = execute(drl, List.of(
+                new DynamicFact("Order", Map.of("score", 2.5, "customerId", 1)),
+                new DynamicFact("Customer", Map.of("id", 1, "score", "10.01"))));
+        assertEquals(1, response.getFiredRules().get(0).getFireCount());
+    }
+
+    @Test
+    void batchedWebhooksShareOneRequestAndMapBackToFacts() {
+        RuleDefinition definition = definition(new Condition("quantity", "greaterThan", 0, false, null));
+        RuleAction webhook = new RuleAction();
+        webhook.setType("WEBHOOK");
+        webhook.setWebhookUrl("http://127.0.0.1:1/orders");
+        webhook.setWebhookBatch(true);
+        webhook.setWebhookBatchMaxSize(10);
+        String bodyTemplate = "{\"qty\": ${quantity}, \"note\": \"qty ${quantity}\"}";
+        webhook.setWebhookBodyTemplate(bodyTemplate);
+        definition.setActions(List.of(webhook));
+
+        String drl = transpiler.transpile(definition, "com.ruleengine.generated", "Order", SCHEMA);
+        assertTrue(drl.contains("actionContext.executeBatchedWebhook("), drl);
+        String global = WebhookBodyTemplate.globalName(bodyTemplate);
+        assertTrue(drl.contains("global WebhookBodyTemplate " + global + ";"), drl);
+
+        List<DynamicFact> facts = List.of(
+                new DynamicFact("Order", Map.of("quantity", 1)),
+                new DynamicFact("Order", Map.of("quantity", 0)),
+                new DynamicFact("Order", Map.of("quantity", 2)));
+        // The execution plan supplies the compiled template; without it the execution fails
+        Rule rule = new Rule();
+        rule.setId(1L);
+        rule.setName("Typed comparison");
+        rule.setGeneratedDrl(drl);
+        ExecuteRulesResponse unbound = droolsService.executeRules(List.of(rule), facts);
+        assertFalse(unbound.isSuccess());
+        assertTrue(unbound.getErrorMessage().contains(global), unbound.getErrorMessage());
+
+        ExecuteRulesResponse response = execute(drl, facts, RuleExecutionOptions.builder()
+                .webhookBodies(Map.of(global, WebhookBodyTemplate.compile(bodyTemplate)))
+                .build());
+        List<ExecuteRulesResponse.WebhookResult> results = response.getWebhookResults();
+        assertEquals(2, results.size());
+        assertEquals(results.get(0).getDispatchId(), results.get(1).getDispatchId());
+        assertEquals(Set.of(0, 2), Set.of(results.get(0).getFactIndex(), results.get(1).getFactIndex()));
+    }
+
+    private String transpile(Condition condition) {
+        return transpiler.transpile(definition(condition), "com.ruleengine.generated", "Order", SCHEMA);
+    }
+
+    private RuleDefinition definition(Condition condition) {
+        RuleDefinition definition = new RuleDefinition();
+        definition.setName("Typed comparison");
+        definition.setEnabled(true);
+        definition.setConditions(new ConditionGroup("all", List.of(condition)));
+        RuleAction action = new RuleAction();
+        action.setType("LOG");
+        action.setLogMessage("matched");
+        definition.setActions(List.of(action));
+        return definition;
+    }
+
+    private boolean fires(String drl, Map<String, Object> data) {
+        return fires(drl, data, RuleExecutionOptions.defaults());
+    }
+
+    private boolean fires(String drl, Map<String, Object> data, RuleExecutionOptions options) {
+        return !execute(drl, List.of(new DynamicFact("Order", data)), options).getFiredRules().isEmpty();
+    }
+
+    private static int fireCount(ExecuteRulesResponse response) {
+        assertTrue(response.isSuccess(), response.getErrorMessage());
+        return response.getFiredRules().stream().mapToInt(ExecuteRulesResponse.FiredRule::getFireCount).sum();
+    }
+
+    private ExecuteRulesResponse execute(String drl, List<DynamicFact> facts) {
+        return execute(drl, facts, RuleExecutionOptions.defaults());
+    }
+
+    private ExecuteRulesResponse execute(String drl, List<DynamicFact> facts, RuleExecutionOptions options) {
+        Rule rule = new Rule();
+        rule.setId(1L);
+        rule.setName("Typed comparison");
+        rule.setGeneratedDrl(drl);
+
+        ExecuteRulesResponse response = droolsService.executeRules(List.of(rule), facts, options);
+        assertTrue(response.isSuccess(), response.getErrorMessage());
+        return response;
+    }
+}
@@ -0,0 +1,85 @@
+package com.ruleengine.drools;
+
+import com.ruleengine.dto.RuleDefinition;
+import com.ruleengine.dto.RuleDefinition.Condition;
+import com.ruleengine.dto.RuleDefinition.ConditionGroup;
+import com.ruleengine.dto.RuleDefinition.RuleAction;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RuleDependencyAnalyzerTest {
+
+    private final RuleDependencyAnalyzer analyzer = new RuleDependencyAnalyzer();
+
+    @Test
+    void collectsReadsFromNestedConditionsAndWritesFromModify() {
+        Condition nested = new Condition(null, null, null, false,
+                new ConditionGroup("OR", List.of(new Condition("Order.customer.tier", "equals", "GOLD", false, null))));
+        RuleDefinition rule = rule("Discount",
+                List.of(new Condition("amount", "greaterThan", 100, false, null),
+                        new Condition("total", "lessThan", "limit", true, null),
+                        nested),
+                "discount");
+
+        assertEquals(Set.of("amount", "total", "limit", "customer.tier"), analyzer.readFields(rule));
+        assertEquals(Set.of("discount"), analyzer.writeFields(rule));
+    }
+
+    @Test
+    void reportsCycleBetweenRules() {
+        RuleDefinition a = rule("A", List.of(new Condition("score", "greaterThan", 1, false, null)), "status");
+        RuleDefinition b = rule("B", List.of(new Condition("status", "equals", "X", false, null)), "score");
+        RuleDefinition c = rule("C", List.of(new Condition("amount", "greaterThan", 1, false, null)), null);
+
+        RuleDependencyGraph graph = analyzer.analyze(List.of(a, b, c));
+
+        assertEquals(1, graph.getCycles().size());
+        assertEquals(Set.of("A", "B"), Set.copyOf(graph.getCycles().get(0)));
+        assertEquals(1, graph.cyclesContaining("A").size());
+        assertTrue(graph.cyclesContaining("C").isEmpty());
+    }
+
+    @Test
+    void selfModifyingRuleIsNotACycle() {
+        RuleDefinition a = rule("A", List.of(new Condition("count", "lessThan", 5, false, null)), "count");
+
+        RuleDependencyGraph graph = analyzer.analyze(List.of(a));
+
+        assertTrue(graph.getCycles().isEmpty());
+        assertEquals(Set.of("A"), graph.getDependents().get("A"));
+    }
+
+    @Test
+    void writersAreInLowerStratumThanReaders() {
+        RuleDefinition score = rule("Score", List.of(new Condition("amount", "greaterThan", 0, false, null)), "risk.score");
+        RuleDefinition flag = rule("Flag", List.of(new Condition("risk", "isNotNull", null, false, null)), "flagged");
+        RuleDefinition notify = rule("Notify", List.of(new Condition("flagged", "equals", true, false, null)), null);
+
+        RuleDependencyGraph graph = analyzer.analyze(List.of(notify, flag, score));
+
+        assertEquals(0, graph.getStrata().get("Score"));
+        assertEquals(1, graph.getStrata().get("Flag"));
+        assertEquals(2, graph.getStrata().get("Notify"));
+    }
+
+    private RuleDefinition rule(String name, List<Condition> conditions, String modifies) {
+        RuleDefinition rule = new RuleDefinition();
+        rule.setName(name);
+        rule.setConditions(new ConditionGroup("AND", conditions));
+        List<RuleAction> actions = new ArrayList<>();
+        if (modifies != null) {
+            RuleAction action = new RuleAction();
+            action.setType("MODIFY");
+            action.setTargetField(modifies);
+            action.setValue("x");
+            actions.add(action);
+        }
+        rule.setActions(actions);
+        return rule;
+    }
+}
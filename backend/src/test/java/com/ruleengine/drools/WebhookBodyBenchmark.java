@@ -0,0 +1,67 @@
+package com.ruleengine.drools;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares a webhook body template that picks three fields with serializing
+ * the whole fact, for a fact of 200 fields.
+ *
+ * Not a test; run with
+ * mvn -q test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.ruleengine.drools.WebhookBodyBenchmark
+ */
+public class WebhookBodyBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 50_000;
+    private static final int ITERATIONS = 200_000;
+
+    public static void main(String[] args) throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        DynamicFact fact = new DynamicFact("Order", fact(200));
+        WebhookBodyTemplate template = WebhookBodyTemplate.compile(
+                "{\"orderId\": ${field0}, \"status\": ${field1}, \"customer\": ${customer.name}}");
+
+        System.out.printf("full fact: %d bytes, template: %d bytes%n",
+                objectMapper.writeValueAsBytes(fact.getData()).length, template.render(fact, objectMapper).length);
+
+        for (int round = 0; round < 3; round++) {
+            long full = measure(() -> objectMapper.writeValueAsBytes(fact.getData()));
+            long rendered = measure(() -> template.render(fact, objectMapper));
+            System.out.printf("round %d: full serialization %,d ns/op, template %,d ns/op (%.1fx)%n",
+                    round + 1, full, rendered, (double) full / rendered);
+        }
+    }
+
+    private static Map<String, Object> fact(int fields) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        for (int i = 0; i < fields; i++) {
+            data.put("field" + i, i % 3 == 0 ? (Object) ("value-" + i) : (Object) (i * 31L));
+        }
+        data.put("customer", Map.of("name", "Ada Lovelace", "tier", "GOLD"));
+        return data;
+    }
+
+    private static long measure(Body body) throws Exception {
+        long sink = 0;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            sink += body.build().length;
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += body.build().length;
+        }
+        long elapsed = System.nanoTime() - start;
+        if (sink == 42) {
+            System.out.println();
+        }
+        return elapsed / ITERATIONS;
+    }
+
+    @FunctionalInterface
+    private interface Body {
+        byte[] build() throws Exception;
+    }
+}
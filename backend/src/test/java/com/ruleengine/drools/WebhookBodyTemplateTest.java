@@ -0,0 +1,56 @@
+package com.ruleengine.drools;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebhookBodyTemplateTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void rendersReferencedFieldsAsJsonValues() throws Exception {
+        WebhookBodyTemplate template = WebhookBodyTemplate.compile(
+                "{\"id\": ${id}, \"name\": ${customer.name}, \"total\": ${total}, \"vip\": ${customer.vip}, "
+                        + "\"first\": ${items[0]}, \"missing\": ${nope}}");
+        DynamicFact fact = new DynamicFact("Order", Map.of(
+                "id", 42L,
+                "total", new BigDecimal("19.90"),
+                "customer", Map.of("name", "Zoë \"Z\"\n", "vip", true),
+                "items", List.of(Map.of("sku", "A-1"))));
+
+        String rendered = new String(template.render(fact, objectMapper), StandardCharsets.UTF_8);
+        JsonNode body = objectMapper.readTree(rendered);
+
+        assertEquals(42, body.get("id").asLong());
+        assertEquals("Zoë \"Z\"\n", body.get("name").asText());
+        assertTrue(rendered.contains("\"total\": 19.90,"), rendered);
+        assertTrue(body.get("vip").asBoolean());
+        assertEquals("A-1", body.get("first").get("sku").asText());
+        assertTrue(body.get("missing").isNull());
+    }
+
+    @Test
+    void placeholdersInsideStringsInsertEscapedText() throws Exception {
+        WebhookBodyTemplate template = WebhookBodyTemplate.compile(
+                "{\"text\": \"Order ${id} for \\\"${customer}\\\" ${nope}done\"}");
+        DynamicFact fact = new DynamicFact("Order", Map.of("id", 7, "customer", "a\\b"));
+
+        String rendered = new String(template.render(fact, objectMapper), StandardCharsets.UTF_8);
+
+        assertEquals("Order 7 for \"a\\b\" done", objectMapper.readTree(rendered).get("text").asText());
+    }
+
+    @Test
+    void rejectsMalformedPlaceholders() {
+        assertThrows(IllegalArgumentException.class, () -> WebhookBodyTemplate.compile("{\"a\": ${id"));
+        assertThrows(IllegalArgumentException.class, () -> WebhookBodyTemplate.compile("{\"a\": ${ }}"));
+    }
+}
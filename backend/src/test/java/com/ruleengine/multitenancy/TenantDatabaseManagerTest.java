@@ -0,0 +1,139 @@
+package com.ruleengine.multitenancy;
+
+import com.ruleengine.dto.TenantPoolStatsDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TenantDatabaseManagerTest {
+
+    private TenantDatabaseManager manager;
+
+    @AfterEach
+    void stop() {
+        manager.stop();
+    }
+
+    private DataSource register(String tenantId) {
+        return manager.getOrCreateDataSource(tenantId, "jdbc:h2:mem:" + tenantId + ";DB_CLOSE_DELAY=-1", "");
+    }
+
+    private List<String> openPools() {
+        return manager.getPoolStats().stream().map(TenantPoolStatsDto::getTenantId).collect(Collectors.toList());
+    }
+
+    @Test
+    void leastRecentlyUsedIdlePoolIsClosedAndReopenedOnNextUse() throws Exception {
+        manager = new TenantDatabaseManager(2, 600000, 1, 5, 100, 600000, 30000, "");
+        DataSource acme = register("acme");
+        DataSource beta = register("beta");
+        DataSource gamma = register("gamma");
+
+        try (Connection connection = acme.getConnection()) {
+            connection.createStatement().execute("CREATE TABLE t (id INT)");
+        }
+        beta.getConnection().close();
+        gamma.getConnection().close();
+        assertEquals(List.of("beta", "gamma"), openPools());
+
+        try (Connection connection = acme.getConnection()) {
+            assertTrue(connection.createStatement().executeQuery("SELECT COUNT(*) FROM t").next());
+        }
+        assertEquals(List.of("acme", "gamma"), openPools());
+    }
+
+    @Test
+    void poolGrowsWithConcurrencyWithinTheTotalAndShrinksWhenIdle() throws Exception {
+        manager = new TenantDatabaseManager(10, 600000, 1, 5, 4, 600000, 30000, "");
+        DataSource acme = register("acme");
+        DataSource beta = register("beta");
+        beta.getConnection().close();
+
+        List<Connection> held = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            held.add(acme.getConnection());
+        }
+        assertEquals(3, manager.getPoolStats().get(0).getMaxPoolSize());
+        assertEquals(3, manager.getPoolStats().get(0).getConnectionsInUse());
+
+        // beta holds the fourth connection of the total
+        manager.maintain();
+        assertEquals(3, manager.getPoolStats().get(0).getMaxPoolSize());
+
+        for (Connection connection : held) {
+            connection.close();
+        }
+        manager.maintain();
+        manager.maintain();
+        assertEquals(2, manager.getPoolStats().get(0).getMaxPoolSize());
+        assertEquals(3, manager.getPoolStats().get(0).getConnectionsAcquired());
+    }
+
+    @Test
+    void concurrentBorrowersSurviveEvictionsWithinTheTotal() throws Exception {
+        manager = new TenantDatabaseManager(2, 600000, 1, 3, 6, 600000, 30000, "");
+        List<DataSource> tenants = List.of(register("acme"), register("beta"), register("gamma"), register("delta"));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> borrowers = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int offset = t;
+                borrowers.add(executor.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        try (Connection connection = tenants.get((offset + i) % tenants.size()).getConnection()) {
+                            assertTrue(connection.isValid(1));
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> borrower : borrowers) {
+                borrower.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<TenantPoolStatsDto> stats = manager.getPoolStats();
+        assertTrue(stats.size() <= 4);
+        assertTrue(stats.stream().mapToInt(TenantPoolStatsDto::getMaxPoolSize).sum() <= 6 + stats.size());
+        assertTrue(stats.stream().allMatch(pool -> pool.getConnectionsInUse() == 0));
+    }
+
+    @Test
+    void sqliteConnectionsUseWalAndTheConfiguredPragmas(@TempDir Path dir) throws Exception {
+        manager = new TenantDatabaseManager(10, 600000, 1, 5, 100, 600000, 30000,
+                "journal_mode=WAL,busy_timeout=4000");
+        DataSource sqlite = manager.getOrCreateDataSource("acme", "jdbc:sqlite:" + dir.resolve("acme.db"), "");
+
+        try (Connection connection = sqlite.getConnection(); Statement statement = connection.createStatement()) {
+            assertEquals("wal", pragma(statement, "journal_mode"));
+            assertEquals("4000", pragma(statement, "busy_timeout"));
+        }
+        assertTrue(manager.isSingleWriter("acme"));
+        register("beta");
+        assertFalse(manager.isSingleWriter("beta"));
+    }
+
+    private static String pragma(Statement statement, String name) throws Exception {
+        try (ResultSet rs = statement.executeQuery("PRAGMA " + name)) {
+            rs.next();
+            return rs.getString(1);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.ruleengine.multitenancy;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TenantRoutingDataSourceTest {
+
+    private TenantDatabaseManager manager;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() {
+        manager = new TenantDatabaseManager(10, 600000, 1, 5, 100, 600000, 30000, "");
+        DataSource primary = manager.getOrCreateDataSource("default", "jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1", "sa", "");
+        TenantRoutingDataSource routing = new TenantRoutingDataSource(manager);
+        routing.setDefaultTargetDataSource(primary);
+        routing.setTargetDataSources(Map.of("default", primary));
+        routing.afterPropertiesSet();
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        jdbc = new JdbcTemplate(dataSource);
+        readWrite = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        readOnly = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void stop() {
+        manager.stop();
+    }
+
+    private String database() {
+        return jdbc.queryForObject("SELECT DATABASE()", String.class);
+    }
+
+    @Test
+    void readOnlyTransactionsUseTheReplica() {
+        manager.registerReplica("default", "jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1", "sa", "");
+
+        assertEquals("REPLICA", readOnly.execute(status -> database()));
+        assertEquals("PRIMARY", readWrite.execute(status -> database()));
+        assertEquals("PRIMARY", database());
+    }
+
+    @Test
+    void unreachableReplicaFallsBackToThePrimary() {
+        manager.registerReplica("default", "jdbc:h2:mem:replica;IFEXISTS=TRUE", "sa", "");
+
+        assertEquals("PRIMARY", readOnly.execute(status -> database()));
+        assertEquals("PRIMARY", readOnly.execute(status -> database()));
+    }
+}
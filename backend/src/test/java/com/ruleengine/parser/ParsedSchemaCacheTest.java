@@ -0,0 +1,35 @@
+package com.ruleengine.parser;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ruleengine.model.Schema;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParsedSchemaCacheTest {
+
+    private final ParsedSchemaCache cache = new ParsedSchemaCache(new ObjectMapper(), 1 << 20);
+
+    @Test
+    void indexesNestedPropertiesAndReparsesOnlyWhenTheSchemaChanges() {
+        Schema schema = new Schema();
+        schema.setId(1L);
+        schema.setJsonSchema("{\"properties\":{\"amount\":{\"type\":\"number\",\"minimum\":0},"
+                + "\"address\":{\"type\":\"object\",\"properties\":{\"zip\":{\"type\":\"string\",\"format\":\"zip\"},"
+                + "\"geo\":{\"properties\":{\"lat\":{\"type\":\"number\"}}}}}}}");
+
+        ParsedSchema parsed = cache.get(schema);
+        assertEquals("number", parsed.typeOf("amount"));
+        assertEquals(0, parsed.get("amount").getConstraints().get("minimum"));
+        assertEquals("zip", parsed.get("address.zip").getFormat());
+        assertEquals("number", parsed.typeOf("address.geo.lat"));
+        assertEquals("string", parsed.typeOf("address.geo"));
+        assertNull(parsed.get("missing"));
+        assertSame(parsed, cache.get(schema));
+
+        schema.setJsonSchema("{\"properties\":{\"amount\":{\"type\":\"integer\"}}}");
+        ParsedSchema changed = cache.get(schema);
+        assertNotSame(parsed, changed);
+        assertEquals("integer", changed.typeOf("amount"));
+    }
+}
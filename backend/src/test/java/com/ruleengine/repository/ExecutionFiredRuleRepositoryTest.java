@@ -0,0 +1,62 @@
+package com.ruleengine.repository;
+
+import com.ruleengine.model.ExecutionFiredRule;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+class ExecutionFiredRuleRepositoryTest {
+
+    @Autowired
+    private ExecutionFiredRuleRepository firedRuleRepository;
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private final LocalDateTime now = LocalDateTime.now().withNano(0);
+
+    private void firedRule(Long executionHistoryId, Long ruleId, int fireCount, long micros, LocalDateTime at) {
+        ExecutionFiredRule firedRule = new ExecutionFiredRule(ruleId, fireCount, micros);
+        firedRule.setExecutionHistoryId(executionHistoryId);
+        firedRule.setExecutedAt(at);
+        entityManager.persist(firedRule);
+    }
+
+    @Test
+    void rowsAreReadAndDeletedByExecution() {
+        firedRule(1L, 5L, 2, 120, now.minusMinutes(2));
+        firedRule(1L, 6L, 1, 40, now.minusMinutes(2));
+        firedRule(2L, 5L, 3, 90, now.minusMinutes(1));
+        firedRule(3L, 5L, 1, 10, now);
+        entityManager.flush();
+
+        List<Object[]> rollup = firedRuleRepository.findRollupFields(List.of(1L, 2L));
+        assertEquals(3, rollup.size());
+        long fires = rollup.stream().mapToLong(row -> ((Number) row[2]).longValue()).sum();
+        long micros = rollup.stream().mapToLong(row -> ((Number) row[3]).longValue()).sum();
+        assertEquals(6, fires);
+        assertEquals(250, micros);
+
+        assertEquals(2, firedRuleRepository.findByExecutionHistoryId(1L).size());
+        assertEquals(List.of(now, now.minusMinutes(1), now.minusMinutes(2)),
+                firedRuleRepository.findByRuleIdOrderByExecutedAtDesc(5L, PageRequest.of(0, 10)).stream()
+                        .map(ExecutionFiredRule::getExecutedAt)
+                        .collect(Collectors.toList()));
+
+        assertEquals(3, firedRuleRepository.deleteByExecutionHistoryIds(List.of(1L, 2L)));
+        entityManager.clear();
+        List<ExecutionFiredRule> remaining = firedRuleRepository.findAll();
+        assertEquals(1, remaining.size());
+        assertEquals(3L, remaining.get(0).getExecutionHistoryId());
+    }
+}
@@ -0,0 +1,119 @@
+package com.ruleengine.repository;
+
+import com.ruleengine.dto.ExecutionHistorySummaryDto;
+import com.ruleengine.model.ExecutionFiredRule;
+import com.ruleengine.model.ExecutionHistory;
+import com.ruleengine.model.RuleProject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+class ExecutionHistoryRepositoryTest {
+
+    @Autowired
+    private ExecutionHistoryRepository executionHistoryRepository;
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private final LocalDateTime noon = LocalDateTime.now().withHour(12).withMinute(0).withSecond(0).withNano(0);
+
+    private RuleProject project;
+    private RuleProject otherProject;
+
+    @BeforeEach
+    void setUp() {
+        project = project("Orders");
+        otherProject = project("Payments");
+    }
+
+    private RuleProject project(String name) {
+        RuleProject project = new RuleProject();
+        project.setName(name);
+        return entityManager.persist(project);
+    }
+
+    private Long execution(RuleProject project, LocalDateTime executedAt, int... fireCounts) {
+        Long id = entityManager.persistAndFlush(ExecutionHistory.builder()
+                .project(project)
+                .success(true)
+                .executionTimeMs(5)
+                .build()).getId();
+        // executedAt is a creation timestamp, so it is set after the insert
+        entityManager.getEntityManager()
+                .createNativeQuery("UPDATE execution_history SET executed_at = ?1 WHERE id = ?2")
+                .setParameter(1, executedAt)
+                .setParameter(2, id)
+                .executeUpdate();
+        long ruleId = 1;
+        for (int fireCount : fireCounts) {
+            ExecutionFiredRule firedRule = new ExecutionFiredRule(ruleId++, fireCount, 10);
+            firedRule.setExecutionHistoryId(id);
+            firedRule.setExecutedAt(executedAt);
+            entityManager.persist(firedRule);
+        }
+        return id;
+    }
+
+    private static List<Long> ids(List<ExecutionHistorySummaryDto> summaries) {
+        return summaries.stream().map(ExecutionHistorySummaryDto::getId).collect(Collectors.toList());
+    }
+
+    @Test
+    void projectSummariesArePagedNewestFirstByExecutedAtAndId() {
+        Long oldest = execution(project, noon.minusHours(1));
+        Long tieLow = execution(project, noon, 2, 3);
+        Long tieHigh = execution(project, noon, 1);
+        Long newest = execution(project, noon.plusHours(1));
+        execution(otherProject, noon.plusHours(2));
+        entityManager.flush();
+        entityManager.clear();
+
+        List<ExecutionHistorySummaryDto> first = executionHistoryRepository
+                .findSummariesByProjectId(project.getId(), PageRequest.of(0, 2));
+        assertEquals(List.of(newest, tieHigh), ids(first));
+
+        // Rows that share the cursor's executedAt continue below its ID
+        ExecutionHistorySummaryDto last = first.get(1);
+        List<ExecutionHistorySummaryDto> next = executionHistoryRepository.findSummariesByProjectIdBefore(
+                project.getId(), last.getExecutedAt(), last.getId(), PageRequest.of(0, 2));
+        assertEquals(List.of(tieLow, oldest), ids(next));
+
+        ExecutionHistorySummaryDto withRules = next.get(0);
+        assertEquals(project.getId(), withRules.getProjectId());
+        assertEquals("Orders", withRules.getProjectName());
+        assertEquals(2, withRules.getFiredRuleCount());
+        assertEquals(5, withRules.getTotalFireCount());
+        assertEquals(0, next.get(1).getFiredRuleCount());
+        assertEquals(0, next.get(1).getTotalFireCount());
+    }
+
+    @Test
+    void allSummariesIncludeEveryProjectAndExecutionsWithoutOne() {
+        Long orders = execution(project, noon);
+        Long payments = execution(otherProject, noon.plusMinutes(1));
+        Long adHoc = execution(null, noon.plusMinutes(2), 1);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<ExecutionHistorySummaryDto> all = executionHistoryRepository.findSummaries(PageRequest.of(0, 10));
+        assertEquals(List.of(adHoc, payments, orders), ids(all));
+        assertNull(all.get(0).getProjectId());
+        assertEquals(1, all.get(0).getFiredRuleCount());
+
+        List<ExecutionHistorySummaryDto> before = executionHistoryRepository.findSummariesBefore(
+                all.get(0).getExecutedAt(), all.get(0).getId(), PageRequest.of(0, 10));
+        assertEquals(List.of(payments, orders), ids(before));
+    }
+}
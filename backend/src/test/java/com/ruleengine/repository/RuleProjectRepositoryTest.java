@@ -0,0 +1,111 @@
+package com.ruleengine.repository;
+
+import com.ruleengine.dto.ProjectCountsDto;
+import com.ruleengine.model.Rule;
+import com.ruleengine.model.RuleProject;
+import com.ruleengine.model.Schema;
+import com.ruleengine.model.SchemaSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+class RuleProjectRepositoryTest {
+
+    @Autowired
+    private RuleProjectRepository projectRepository;
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private RuleProject project(String name, RuleProject parent, List<Schema> inputSchemas) {
+        RuleProject project = new RuleProject();
+        project.setName(name);
+        project.setParentProject(parent);
+        project.setInputSchemas(inputSchemas);
+        return entityManager.persist(project);
+    }
+
+    private Schema schema(String name, RuleProject project) {
+        Schema schema = new Schema();
+        schema.setName(name);
+        schema.setProject(project);
+        schema.setVersion("1");
+        schema.setSource(SchemaSource.JSON_SCHEMA);
+        schema.setJsonSchema("{}");
+        return entityManager.persist(schema);
+    }
+
+    private void rule(String name, RuleProject project, Schema schema) {
+        Rule rule = new Rule();
+        rule.setName(name);
+        rule.setProject(project);
+        rule.setSchema(schema);
+        rule.setRuleJson("{}");
+        entityManager.persist(rule);
+    }
+
+    @Test
+    void countsIncludeTheRulesOfTemplates() {
+        Schema global = schema("Global", null);
+        RuleProject orders = project("Orders", null, List.of(global));
+        Schema order = schema("Order", orders);
+        schema("Customer", orders);
+        RuleProject standard = project("Standard", orders, List.of());
+        RuleProject premium = project("Premium", orders, List.of());
+        RuleProject empty = project("Empty", null, List.of());
+        rule("Direct", orders, order);
+        rule("Standard discount", standard, order);
+        rule("Premium discount", premium, order);
+        rule("Premium shipping", premium, order);
+        entityManager.flush();
+        entityManager.clear();
+
+        Map<Long, ProjectCountsDto> counts = projectRepository
+                .findCounts(List.of(orders.getId(), premium.getId(), empty.getId())).stream()
+                .collect(Collectors.toMap(ProjectCountsDto::getProjectId, Function.identity()));
+
+        assertEquals(3, counts.size());
+        assertEquals(2, counts.get(orders.getId()).getTemplateCount());
+        assertEquals(4, counts.get(orders.getId()).getRuleCount());
+        assertEquals(2, counts.get(orders.getId()).getSchemaCount());
+        assertEquals(0, counts.get(premium.getId()).getTemplateCount());
+        assertEquals(2, counts.get(premium.getId()).getRuleCount());
+        assertEquals(0, counts.get(empty.getId()).getRuleCount());
+        assertEquals(0, counts.get(empty.getId()).getSchemaCount());
+    }
+
+    @Test
+    void schemaInfosAreReturnedPerProject() {
+        RuleProject orders = project("Orders", null, List.of());
+        Schema order = schema("Order", orders);
+        Schema customer = schema("Customer", orders);
+        orders.setInputSchemas(List.of(order, customer));
+        orders.setOutputSchemas(List.of(order));
+        RuleProject payments = project("Payments", null, List.of(customer));
+        RuleProject other = project("Other", null, List.of(order));
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Object[]> inputs = projectRepository.findInputSchemaInfos(List.of(orders.getId(), payments.getId()));
+        assertEquals(Set.of(List.of(orders.getId(), order.getId(), "Order"),
+                List.of(orders.getId(), customer.getId(), "Customer"),
+                List.of(payments.getId(), customer.getId(), "Customer")),
+                inputs.stream().map(List::of).collect(Collectors.toSet()));
+        assertFalse(inputs.stream().anyMatch(row -> row[0].equals(other.getId())));
+
+        List<Object[]> outputs = projectRepository.findOutputSchemaInfos(List.of(orders.getId(), payments.getId()));
+        assertEquals(1, outputs.size());
+        assertEquals(List.of(orders.getId(), order.getId(), "Order"), List.of(outputs.get(0)));
+    }
+}
@@ -0,0 +1,68 @@
+package com.ruleengine.repository;
+
+import com.ruleengine.model.Rule;
+import com.ruleengine.model.RuleProject;
+import com.ruleengine.model.Schema;
+import com.ruleengine.model.SchemaSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+class RuleRepositoryTest {
+
+    @Autowired
+    private RuleRepository ruleRepository;
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private RuleProject project(String name, RuleProject parent) {
+        RuleProject project = new RuleProject();
+        project.setName(name);
+        project.setParentProject(parent);
+        return entityManager.persist(project);
+    }
+
+    private void rule(String name, RuleProject project, Schema schema, boolean enabled) {
+        Rule rule = new Rule();
+        rule.setName(name);
+        rule.setProject(project);
+        rule.setSchema(schema);
+        rule.setRuleJson("{}");
+        rule.setEnabled(enabled);
+        entityManager.persist(rule);
+    }
+
+    @Test
+    void enabledRulesOfAProjectIncludeItsTemplates() {
+        Schema schema = new Schema();
+        schema.setName("Order");
+        schema.setVersion("1");
+        schema.setSource(SchemaSource.MANUAL);
+        schema.setJsonSchema("{}");
+        entityManager.persist(schema);
+        RuleProject orders = project("Orders", null);
+        RuleProject premium = project("Premium", orders);
+        RuleProject payments = project("Payments", null);
+        rule("Direct", orders, schema, true);
+        rule("Disabled", orders, schema, false);
+        rule("Template", premium, schema, true);
+        rule("Other project", payments, schema, true);
+        entityManager.flush();
+        entityManager.clear();
+
+        Set<String> names = ruleRepository.findEnabledByProjectOrTemplates(orders.getId()).stream()
+                .map(Rule::getName)
+                .collect(Collectors.toSet());
+        assertEquals(Set.of("Direct", "Template"), names);
+        assertEquals(1, ruleRepository.findEnabledByProjectOrTemplates(premium.getId()).size());
+    }
+}
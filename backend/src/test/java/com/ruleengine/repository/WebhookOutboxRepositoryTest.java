@@ -0,0 +1,75 @@
+package com.ruleengine.repository;
+
+import com.ruleengine.model.WebhookOutboxEntry;
+import com.ruleengine.model.WebhookOutboxStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+class WebhookOutboxRepositoryTest {
+
+    @Autowired
+    private WebhookOutboxRepository outboxRepository;
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private WebhookOutboxEntry entry(WebhookOutboxStatus status) {
+        WebhookOutboxEntry entry = new WebhookOutboxEntry();
+        entry.setIdempotencyKey(UUID.randomUUID().toString());
+        entry.setUrl("http://example.com/hook");
+        entry.setMethod("POST");
+        entry.setDestination("http://example.com:80");
+        entry.setStatus(status);
+        return entry;
+    }
+
+    @Test
+    void onlyTheClaimHoldingTheLeaseRecordsTheOutcome() {
+        Long id = entityManager.persistAndFlush(entry(WebhookOutboxStatus.PENDING)).getId();
+        LocalDateTime now = LocalDateTime.now();
+
+        assertEquals(1, outboxRepository.claim(id, now, now.minusSeconds(1), "slow-worker"));
+        // The lease has run out, so another worker claims the entry again
+        assertEquals(1, outboxRepository.claim(id, now, now.plusMinutes(1), "other-worker"));
+        assertEquals(0, outboxRepository.claim(id, now, now.plusMinutes(1), "third-worker"));
+
+        assertEquals(0, outboxRepository.complete(id, "slow-worker", WebhookOutboxStatus.DELIVERED, 1, now, 200,
+                null, now, now));
+        assertEquals(1, outboxRepository.complete(id, "other-worker", WebhookOutboxStatus.PENDING, 1,
+                now.plusSeconds(5), 503, "unavailable", null, now));
+        entityManager.clear();
+
+        WebhookOutboxEntry stored = outboxRepository.findById(id).orElseThrow();
+        assertEquals(WebhookOutboxStatus.PENDING, stored.getStatus());
+        assertEquals(1, stored.getAttempts());
+        assertEquals(503, stored.getLastStatusCode());
+        assertNull(stored.getLeaseOwner());
+        assertNull(stored.getLeaseUntil());
+    }
+
+    @Test
+    void findsOnlyDeliveredAndDeadEntriesPastTheCutoff() {
+        WebhookOutboxEntry delivered = entityManager.persist(entry(WebhookOutboxStatus.DELIVERED));
+        WebhookOutboxEntry dead = entityManager.persist(entry(WebhookOutboxStatus.DEAD));
+        entityManager.persist(entry(WebhookOutboxStatus.PENDING));
+        entityManager.flush();
+
+        List<Long> ids = outboxRepository.findCompletedIds(
+                List.of(WebhookOutboxStatus.DELIVERED, WebhookOutboxStatus.DEAD), LocalDateTime.now().plusMinutes(1),
+                PageRequest.of(0, 10));
+        assertEquals(List.of(delivered.getId(), dead.getId()), ids);
+        assertTrue(outboxRepository.findCompletedIds(List.of(WebhookOutboxStatus.DELIVERED),
+                LocalDateTime.now().minusMinutes(1), PageRequest.of(0, 10)).isEmpty());
+    }
+}
@@ -0,0 +1,291 @@
+package com.ruleengine.service;
+
+import com.ruleengine.model.ExecutionFiredRule;
+import com.ruleengine.model.ExecutionHistory;
+import com.ruleengine.model.RuleProject;
+import com.ruleengine.multitenancy.TenantDatabaseManager;
+import com.ruleengine.repository.ExecutionFiredRuleRepository;
+import com.ruleengine.repository.ExecutionHistoryRepository;
+import com.ruleengine.webhook.WebhookDispatch;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExecutionLogWriterTest {
+
+    @Mock
+    private ExecutionHistoryRepository executionHistoryRepository;
+    @Mock
+    private ExecutionFiredRuleRepository firedRuleRepository;
+    @Mock
+    private WebhookOutboxService webhookOutboxService;
+    @Mock
+    private TenantDatabaseManager tenantDatabaseManager;
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private ExecutionLogWriter writer;
+
+    // Holds the writer thread at its next write until released
+    private final CountDownLatch writing = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE execution_history (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "project_id BIGINT, input_facts CLOB, output_facts CLOB, fired_rules CLOB, webhook_results CLOB, "
+                + "success BOOLEAN, dry_run BOOLEAN, execution_time_ms BIGINT, error_message CLOB, payload BLOB, "
+                + "executed_at TIMESTAMP NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE execution_fired_rules (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "execution_history_id BIGINT NOT NULL, rule_id BIGINT NOT NULL, fire_count INT, "
+                + "execution_time_micros BIGINT, executed_at TIMESTAMP NOT NULL)");
+    }
+
+    private ExecutionLogWriter start(int capacity, ExecutionLogWriter.OverflowPolicy overflowPolicy) {
+        writer = new ExecutionLogWriter(executionHistoryRepository, firedRuleRepository,
+                new HistoryPayloadCodec(false, 6), webhookOutboxService, tenantDatabaseManager, dataSource,
+                new DataSourceTransactionManager(dataSource), true, capacity, 3, 10, overflowPolicy, 10, 5000);
+        writer.start();
+        return writer;
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (writer != null) {
+            writer.stop();
+        }
+    }
+
+    private static ExecutionHistory history(long projectId) {
+        RuleProject project = new RuleProject();
+        project.setId(projectId);
+        return ExecutionHistory.builder().project(project).success(true).build();
+    }
+
+    private void holdWriter() {
+        stubDatabase(false, true);
+    }
+
+    /**
+     * Callers see a single-writer database or not; the writer thread always
+     * sees another one, as H2 returns generated keys.
+     */
+    private void stubDatabase(boolean singleWriter, boolean hold) {
+        when(tenantDatabaseManager.isSingleWriter(any())).thenAnswer(inv -> {
+            if (!Thread.currentThread().getName().equals("execution-log-writer")) {
+                return singleWriter;
+            }
+            if (hold && writing.getCount() > 0) {
+                writing.countDown();
+                // stop() may interrupt the wait; the writer still exits once running is false
+                while (true) {
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                        break;
+                    } catch (InterruptedException e) {
+                        // keep holding until released
+                    }
+                }
+            }
+            return false;
+        });
+    }
+
+    private List<Long> writtenProjectIds() {
+        return jdbcTemplate.queryForList("SELECT project_id FROM execution_history ORDER BY project_id", Long.class);
+    }
+
+    @Test
+    void writesQueuedRecordsWithTheirFiredRules() {
+        start(100, ExecutionLogWriter.OverflowPolicy.BLOCK);
+        for (long projectId = 1; projectId <= 5; projectId++) {
+            writer.record(history(projectId), List.of(new ExecutionFiredRule(10 + projectId, 2, 100)));
+        }
+        writer.stop();
+
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), writtenProjectIds());
+        assertEquals(5, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM execution_fired_rules f "
+                + "JOIN execution_history h ON h.id = f.execution_history_id "
+                + "WHERE f.rule_id = h.project_id + 10", Integer.class));
+        assertEquals(5, writer.getWritten());
+        verifyNoInteractions(executionHistoryRepository);
+    }
+
+    @Test
+    void aRecordThatFailsLosesOnlyItself() {
+        start(100, ExecutionLogWriter.OverflowPolicy.BLOCK);
+        holdWriter();
+        writer.record(history(1), List.of());
+        assertDoesNotThrow(() -> writing.await(5, TimeUnit.SECONDS));
+        writer.record(history(2), List.of(new ExecutionFiredRule(20L, 1, 1)));
+        // No rule ID; rolls back the batch it is written with
+        writer.record(history(3), List.of(new ExecutionFiredRule(null, 1, 1)));
+        writer.record(history(4), List.of(new ExecutionFiredRule(40L, 1, 1)));
+        release.countDown();
+        writer.stop();
+
+        assertEquals(List.of(1L, 2L, 4L), writtenProjectIds());
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM execution_fired_rules", Integer.class));
+        assertEquals(3, writer.getWritten());
+        assertEquals(1, writer.getFailed());
+    }
+
+    @Test
+    void dropNewestDropsTheRecordThatDoesNotFit() {
+        start(1, ExecutionLogWriter.OverflowPolicy.DROP_NEWEST);
+        holdWriter();
+        writer.record(history(1), List.of());
+        assertDoesNotThrow(() -> writing.await(5, TimeUnit.SECONDS));
+        writer.record(history(2), List.of());
+        writer.record(history(3), List.of());
+        release.countDown();
+        writer.stop();
+
+        assertEquals(List.of(1L, 2L), writtenProjectIds());
+        assertEquals(1, writer.getDropped());
+    }
+
+    @Test
+    void dropOldestMakesRoomForTheNewRecord() {
+        start(1, ExecutionLogWriter.OverflowPolicy.DROP_OLDEST);
+        holdWriter();
+        writer.record(history(1), List.of());
+        assertDoesNotThrow(() -> writing.await(5, TimeUnit.SECONDS));
+        writer.record(history(2), List.of());
+        writer.record(history(3), List.of());
+        release.countDown();
+        writer.stop();
+
+        assertEquals(List.of(1L, 3L), writtenProjectIds());
+        assertEquals(1, writer.getDropped());
+    }
+
+    @Test
+    void blockDropsAndCountsTheRecordAfterItsTimeout() {
+        start(1, ExecutionLogWriter.OverflowPolicy.BLOCK);
+        holdWriter();
+        writer.record(history(1), List.of());
+        assertDoesNotThrow(() -> writing.await(5, TimeUnit.SECONDS));
+        writer.record(history(2), List.of());
+        writer.record(history(3), List.of());
+        release.countDown();
+        writer.stop();
+
+        assertEquals(List.of(1L, 2L), writtenProjectIds());
+        assertEquals(1, writer.getDropped());
+    }
+
+    @Test
+    void callerRunsSavesTheRecordThatDoesNotFitInTheCallersTransaction() {
+        start(1, ExecutionLogWriter.OverflowPolicy.CALLER_RUNS);
+        holdWriter();
+        writer.record(history(1), List.of());
+        assertDoesNotThrow(() -> writing.await(5, TimeUnit.SECONDS));
+        writer.record(history(2), List.of());
+        ExecutionHistory third = history(3);
+        writer.record(third, List.of());
+        verify(executionHistoryRepository).save(third);
+        release.countDown();
+        writer.stop();
+
+        assertEquals(List.of(1L, 2L), writtenProjectIds());
+        assertEquals(0, writer.getDropped());
+    }
+
+    @Test
+    void executionsWithWebhooksAreSavedWithTheirOutboxEntriesInTheCallersTransaction() {
+        start(10, ExecutionLogWriter.OverflowPolicy.BLOCK);
+        ExecutionHistory history = history(7);
+        when(executionHistoryRepository.save(history)).thenAnswer(inv -> {
+            history.setId(42L);
+            return history;
+        });
+        ExecutionFiredRule firedRule = new ExecutionFiredRule(3L, 1, 10);
+        List<WebhookDispatch> webhooks = List.of(mock(WebhookDispatch.class));
+
+        writer.record(history, List.of(firedRule), webhooks);
+
+        verify(executionHistoryRepository).save(history);
+        verify(firedRuleRepository).saveAll(List.of(firedRule));
+        verify(webhookOutboxService).enqueue(7L, 42L, webhooks);
+        writer.stop();
+        assertTrue(writtenProjectIds().isEmpty());
+    }
+
+    @Test
+    void executionsWithWebhooksOnASingleWriterDatabaseAreWrittenWithTheirOutboxEntriesByTheWriter() {
+        start(10, ExecutionLogWriter.OverflowPolicy.BLOCK);
+        stubDatabase(true, false);
+        List<WebhookDispatch> webhooks = List.of(mock(WebhookDispatch.class));
+        Thread caller = Thread.currentThread();
+        doAnswer(inv -> {
+            assertNotSame(caller, Thread.currentThread());
+            return null;
+        }).when(webhookOutboxService).enqueue(eq(7L), anyLong(), eq(webhooks));
+
+        writer.record(history(7), List.of(new ExecutionFiredRule(3L, 1, 10)), webhooks);
+
+        // Committed before record returns
+        assertEquals(List.of(7L), writtenProjectIds());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM execution_fired_rules", Integer.class));
+        Long historyId = jdbcTemplate.queryForObject("SELECT id FROM execution_history", Long.class);
+        verify(webhookOutboxService).enqueue(7L, historyId, webhooks);
+        verifyNoInteractions(executionHistoryRepository, firedRuleRepository);
+    }
+
+    @Test
+    void aFailedWriteOfAnExecutionWithWebhooksFailsItsCaller() {
+        start(10, ExecutionLogWriter.OverflowPolicy.BLOCK);
+        stubDatabase(true, false);
+        List<WebhookDispatch> webhooks = List.of(mock(WebhookDispatch.class));
+        doThrow(new IllegalStateException("outbox unavailable"))
+                .when(webhookOutboxService).enqueue(eq(7L), anyLong(), eq(webhooks));
+
+        assertThrows(IllegalStateException.class, () -> writer.record(history(7), List.of(), webhooks));
+
+        // Rolled back with its outbox entries
+        assertTrue(writtenProjectIds().isEmpty());
+        assertEquals(1, writer.getFailed());
+        verifyNoInteractions(executionHistoryRepository);
+    }
+
+    @Test
+    void callerRunsWaitsForTheWriterOnASingleWriterDatabase() throws InterruptedException {
+        start(1, ExecutionLogWriter.OverflowPolicy.CALLER_RUNS);
+        stubDatabase(true, true);
+        writer.record(history(1), List.of());
+        assertDoesNotThrow(() -> writing.await(5, TimeUnit.SECONDS));
+        writer.record(history(2), List.of());
+        Thread caller = new Thread(() -> writer.record(history(3), List.of()));
+        caller.start();
+        caller.join(300);
+        assertTrue(caller.isAlive());
+        release.countDown();
+        caller.join(5000);
+        assertFalse(caller.isAlive());
+        writer.stop();
+
+        assertEquals(List.of(1L, 2L, 3L), writtenProjectIds());
+        verifyNoInteractions(executionHistoryRepository);
+    }
+}
@@ -0,0 +1,74 @@
+package com.ruleengine.service;
+
+import com.ruleengine.multitenancy.TenantContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExecutionPlanCacheTest {
+
+    private final ExecutionPlanCache cache = new ExecutionPlanCache(1 << 20, 2 * ExecutionPlanCache.BYTES_PER_PLAN);
+    private final AtomicInteger builds = new AtomicInteger();
+
+    @AfterEach
+    void clearTenant() {
+        TenantContext.clear();
+    }
+
+    private ExecutionPlan build(Long projectId) {
+        builds.incrementAndGet();
+        return new ExecutionPlan(0, null, Map.of(), null, Map.of(), null, Map.of(), Set.of(), null, List.of());
+    }
+
+    @Test
+    void planIsBuiltOnceUntilInvalidated() {
+        ExecutionPlan first = cache.get(1L, this::build);
+        assertSame(first, cache.get(1L, this::build));
+        assertEquals(1, builds.get());
+
+        cache.invalidate(2L);
+        assertSame(first, cache.get(1L, this::build));
+
+        cache.invalidate(1L);
+        assertNotSame(first, cache.get(1L, this::build));
+        assertEquals(2, builds.get());
+    }
+
+    @Test
+    void planBuiltWhileInvalidatedIsNotCached() {
+        cache.get(1L, projectId -> {
+            cache.invalidate(1L);
+            return build(projectId);
+        });
+        cache.get(1L, this::build);
+        assertEquals(2, builds.get());
+
+        cache.invalidateAll();
+        cache.get(1L, this::build);
+        assertEquals(3, builds.get());
+    }
+
+    @Test
+    void tenantOverItsBudgetOnlyEvictsItsOwnPlans() {
+        TenantContext.setTenantId("beta");
+        ExecutionPlan beta = cache.get(1L, this::build);
+
+        TenantContext.setTenantId("acme");
+        ExecutionPlan acme = cache.get(1L, this::build);
+        cache.get(2L, this::build);
+        cache.get(3L, this::build);
+        assertNotSame(acme, cache.get(1L, this::build));
+
+        TenantContext.setTenantId("beta");
+        assertSame(beta, cache.get(1L, this::build));
+        assertEquals(List.of("acme", "beta"),
+                cache.getTenantStats().stream().map(stats -> stats.getName()).collect(Collectors.toList()));
+    }
+}
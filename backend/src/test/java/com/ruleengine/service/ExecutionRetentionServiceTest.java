@@ -0,0 +1,155 @@
+package com.ruleengine.service;
+
+import com.ruleengine.model.ExecutionDailyRollup;
+import com.ruleengine.model.RuleDailyRollup;
+import com.ruleengine.multitenancy.TenantContext;
+import com.ruleengine.multitenancy.TenantDatabaseManager;
+import com.ruleengine.repository.ExecutionDailyRollupRepository;
+import com.ruleengine.repository.ExecutionFiredRuleRepository;
+import com.ruleengine.repository.ExecutionHistoryRepository;
+import com.ruleengine.repository.RuleAuditLogRepository;
+import com.ruleengine.repository.RuleDailyRollupRepository;
+import com.ruleengine.repository.RuleProjectRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExecutionRetentionServiceTest {
+
+    @Mock
+    private ExecutionHistoryRepository executionHistoryRepository;
+    @Mock
+    private ExecutionFiredRuleRepository firedRuleRepository;
+    @Mock
+    private ExecutionDailyRollupRepository executionRollupRepository;
+    @Mock
+    private RuleDailyRollupRepository ruleRollupRepository;
+    @Mock
+    private RuleAuditLogRepository auditLogRepository;
+    @Mock
+    private RuleProjectRepository projectRepository;
+    @Mock
+    private TenantDatabaseManager tenantDatabaseManager;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ExecutionRetentionService service;
+
+    private ExecutionRetentionService start(int defaultDays, String tenantDays, int batchSize) {
+        service = new ExecutionRetentionService(executionHistoryRepository, firedRuleRepository,
+                executionRollupRepository, ruleRollupRepository, auditLogRepository, projectRepository,
+                tenantDatabaseManager, transactionManager, true, defaultDays, tenantDays, 3600000, batchSize, 0);
+        service.start();
+        return service;
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.stop();
+        }
+    }
+
+    @Test
+    void purgesEveryRegisteredTenantWithItsOwnRetention() {
+        when(tenantDatabaseManager.getTenantIds()).thenReturn(List.of("default", "acme", "beta"));
+        List<String> purgedTenants = new ArrayList<>();
+        when(projectRepository.findHistoryRetentionDays()).thenAnswer(inv -> {
+            purgedTenants.add(TenantContext.getTenantId());
+            return List.<Object[]>of(new Object[] { 1L, null });
+        });
+        Map<String, LocalDateTime> cutoffs = new HashMap<>();
+        when(executionHistoryRepository.findExpiredIds(eq(1L), any(), any())).thenAnswer(inv -> {
+            cutoffs.put(TenantContext.getTenantId(), inv.getArgument(1));
+            return List.of();
+        });
+
+        start(30, "acme:7", 100).purgeAll();
+
+        assertEquals(List.of("default", "acme", "beta"), purgedTenants);
+        LocalDate today = LocalDate.now();
+        assertEquals(today.minusDays(30), cutoffs.get("default").toLocalDate());
+        assertEquals(today.minusDays(7), cutoffs.get("acme").toLocalDate());
+        assertEquals(today.minusDays(30), cutoffs.get("beta").toLocalDate());
+        assertNull(TenantContext.getTenantId());
+    }
+
+    @Test
+    void rollsUpAndDeletesExpiredHistoryInBatches() {
+        when(tenantDatabaseManager.getTenantIds()).thenReturn(List.of("default"));
+        when(projectRepository.findHistoryRetentionDays()).thenReturn(List.<Object[]>of(new Object[] { 1L, 30 }));
+        LinkedList<List<Long>> batches = new LinkedList<>(List.of(List.of(1L, 2L), List.of(3L)));
+        when(executionHistoryRepository.findExpiredIds(eq(1L), any(), any()))
+                .thenAnswer(inv -> batches.isEmpty() ? List.of() : batches.poll());
+
+        LocalDateTime day = LocalDate.now().minusDays(40).atTime(10, 0);
+        Map<Long, Object[]> executions = Map.of(
+                1L, new Object[] { day, true, 10L },
+                2L, new Object[] { day.plusHours(1), true, 20L },
+                3L, new Object[] { day.plusHours(2), false, 30L });
+        when(executionHistoryRepository.findRollupFields(anyList())).thenAnswer(inv -> {
+            List<Long> ids = inv.getArgument(0);
+            List<Object[]> rows = new ArrayList<>();
+            ids.forEach(id -> rows.add(executions.get(id)));
+            return rows;
+        });
+        when(firedRuleRepository.findRollupFields(anyList())).thenAnswer(inv -> {
+            List<Long> ids = inv.getArgument(0);
+            List<Object[]> rows = new ArrayList<>();
+            ids.forEach(id -> rows.add(new Object[] { 5L, executions.get(id)[0], 2, 100L }));
+            return rows;
+        });
+
+        Map<LocalDate, ExecutionDailyRollup> executionRollups = new HashMap<>();
+        when(executionRollupRepository.findByProjectIdAndDay(eq(1L), any()))
+                .thenAnswer(inv -> Optional.ofNullable(executionRollups.get(inv.<LocalDate>getArgument(1))));
+        when(executionRollupRepository.saveAll(anyCollection())).thenAnswer(inv -> {
+            inv.<Collection<ExecutionDailyRollup>>getArgument(0).forEach(r -> executionRollups.put(r.getDay(), r));
+            return null;
+        });
+        Map<LocalDate, RuleDailyRollup> ruleRollups = new HashMap<>();
+        when(ruleRollupRepository.findByRuleIdAndDay(eq(5L), any()))
+                .thenAnswer(inv -> Optional.ofNullable(ruleRollups.get(inv.<LocalDate>getArgument(1))));
+        when(ruleRollupRepository.saveAll(anyCollection())).thenAnswer(inv -> {
+            inv.<Collection<RuleDailyRollup>>getArgument(0).forEach(r -> ruleRollups.put(r.getDay(), r));
+            return null;
+        });
+
+        start(0, "", 2).purgeAll();
+
+        verify(firedRuleRepository).deleteByExecutionHistoryIds(List.of(1L, 2L));
+        verify(firedRuleRepository).deleteByExecutionHistoryIds(List.of(3L));
+        verify(executionHistoryRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(executionHistoryRepository).deleteAllByIdInBatch(List.of(3L));
+        // Default retention 0 keeps history without a project
+        verify(executionHistoryRepository, never()).findExpiredIdsWithoutProject(any(), any());
+
+        ExecutionDailyRollup rollup = executionRollups.get(day.toLocalDate());
+        assertEquals(3, rollup.getExecutions());
+        assertEquals(1, rollup.getFailures());
+        assertEquals(60, rollup.getTotalExecutionTimeMs());
+        assertEquals(30, rollup.getMaxExecutionTimeMs());
+        RuleDailyRollup ruleRollup = ruleRollups.get(day.toLocalDate());
+        assertEquals(3, ruleRollup.getExecutions());
+        assertEquals(6, ruleRollup.getFireCount());
+        assertEquals(300, ruleRollup.getTotalExecutionTimeMicros());
+    }
+}
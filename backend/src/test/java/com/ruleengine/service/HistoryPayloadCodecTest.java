@@ -0,0 +1,45 @@
+package com.ruleengine.service;
+
+import com.ruleengine.model.ExecutionHistory;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HistoryPayloadCodecTest {
+
+    @Test
+    void compressedPayloadReadsBackAsTheOriginalJson() {
+        String facts = "[{\"orderId\":\"A-1\",\"note\":\"café ✓\",\"total\":19.90}]".repeat(50);
+        ExecutionHistory history = ExecutionHistory.builder()
+                .inputFacts(facts)
+                .outputFacts(facts)
+                .firedRules(null)
+                .build();
+
+        HistoryPayloadCodec codec = new HistoryPayloadCodec(true, 6);
+        codec.compress(history);
+
+        assertNull(history.getInputFacts());
+        assertNull(history.getOutputFacts());
+        assertEquals(HistoryPayloadCodec.FORMAT_JSON_DEFLATE, history.getPayload()[0]);
+        assertTrue(history.getPayload().length < facts.length() / 10);
+
+        HistoryPayloadCodec.Payload payload = codec.read(history);
+        assertEquals(facts, payload.getInputFacts());
+        assertEquals(facts, payload.getOutputFacts());
+        assertNull(payload.getFiredRules());
+    }
+
+    @Test
+    void disabledCodecLeavesTextColumnsAndStillReadsCompressedRows() {
+        ExecutionHistory plain = ExecutionHistory.builder().inputFacts("[]").outputFacts("[{}]").build();
+        HistoryPayloadCodec disabled = new HistoryPayloadCodec(false, 6);
+        disabled.compress(plain);
+        assertNull(plain.getPayload());
+        assertEquals("[{}]", disabled.read(plain).getOutputFacts());
+
+        ExecutionHistory compressed = ExecutionHistory.builder().inputFacts("[1]").build();
+        new HistoryPayloadCodec(true, 6).compress(compressed);
+        assertEquals("[1]", disabled.read(compressed).getInputFacts());
+    }
+}
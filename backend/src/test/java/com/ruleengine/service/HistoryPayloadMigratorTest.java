@@ -0,0 +1,70 @@
+package com.ruleengine.service;
+
+import com.ruleengine.model.ExecutionHistory;
+import com.ruleengine.multitenancy.TenantContext;
+import com.ruleengine.multitenancy.TenantDatabaseManager;
+import com.ruleengine.repository.ExecutionHistoryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HistoryPayloadMigratorTest {
+
+    @Mock
+    private ExecutionHistoryRepository executionHistoryRepository;
+    @Mock
+    private HistoryPayloadCodec payloadCodec;
+    @Mock
+    private TenantDatabaseManager tenantDatabaseManager;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private HistoryPayloadMigrator migrator;
+
+    @AfterEach
+    void tearDown() {
+        if (migrator != null) {
+            migrator.stop();
+        }
+    }
+
+    @Test
+    void compressesTheHistoryOfEveryRegisteredTenant() {
+        when(payloadCodec.isEnabled()).thenReturn(true);
+        when(tenantDatabaseManager.getTenantIds()).thenReturn(List.of("default", "acme"));
+        // One uncompressed row per tenant database, handed out once
+        Map<String, Long> pending = new ConcurrentHashMap<>(Map.of("default", 1L, "acme", 2L));
+        when(executionHistoryRepository.findUncompressedIds(anyLong(), any())).thenAnswer(inv -> {
+            Long id = inv.<Long>getArgument(0) == 0 ? pending.remove(TenantContext.getTenantId()) : null;
+            return id != null ? List.of(id) : List.of();
+        });
+        Set<String> compressedIn = ConcurrentHashMap.newKeySet();
+        when(executionHistoryRepository.findAllById(anyIterable())).thenAnswer(inv -> {
+            compressedIn.add(TenantContext.getTenantId());
+            ExecutionHistory history = new ExecutionHistory();
+            history.setId(inv.<List<Long>>getArgument(0).get(0));
+            return List.of(history);
+        });
+
+        migrator = new HistoryPayloadMigrator(executionHistoryRepository, payloadCodec, tenantDatabaseManager,
+                transactionManager, true, 10, 0);
+        migrator.start();
+
+        verify(payloadCodec, timeout(5000).times(2)).compress(any());
+        assertEquals(Set.of("default", "acme"), compressedIn);
+        assertTrue(pending.isEmpty());
+    }
+}
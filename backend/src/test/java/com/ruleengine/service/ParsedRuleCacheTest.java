@@ -0,0 +1,37 @@
+package com.ruleengine.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ruleengine.dto.RuleDefinition;
+import com.ruleengine.model.Rule;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParsedRuleCacheTest {
+
+    private final ParsedRuleCache cache = new ParsedRuleCache(new ObjectMapper(), 1 << 20);
+
+    @Test
+    void namesDefinitionsAfterTheRuleAndReparsesOnlyWhenTheRuleChanges() {
+        Rule rule = new Rule();
+        rule.setId(1L);
+        rule.setName("Discount");
+        rule.setRuleJson("{\"name\":\"draft\",\"actions\":[{\"type\":\"MODIFY\",\"targetField\":\"discount\"}]}");
+
+        RuleDefinition definition = cache.get(rule);
+        assertEquals("Discount", definition.getName());
+        assertEquals("MODIFY", definition.getActions().get(0).getType());
+        assertSame(definition, cache.get(rule));
+
+        rule.setName("Loyalty discount");
+        RuleDefinition renamed = cache.get(rule);
+        assertNotSame(definition, renamed);
+        assertEquals("Loyalty discount", renamed.getName());
+
+        rule.setRuleJson("{\"actions\":[{\"type\":\"LOG\"}]}");
+        assertEquals("LOG", cache.get(rule).getActions().get(0).getType());
+
+        rule.setRuleJson("{not json");
+        assertNull(cache.get(rule));
+    }
+}
@@ -0,0 +1,171 @@
+package com.ruleengine.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ruleengine.drools.ReferenceDataLookup;
+import com.ruleengine.dto.UploadReferenceDataRequest;
+import com.ruleengine.model.ReferenceDataSet;
+import com.ruleengine.model.ReferenceValueType;
+import com.ruleengine.model.Rule;
+import com.ruleengine.model.RuleProject;
+import com.ruleengine.repository.ReferenceDataSetRepository;
+import com.ruleengine.repository.RuleProjectRepository;
+import com.ruleengine.repository.RuleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReferenceDataServiceTest {
+
+    @Mock
+    private ReferenceDataSetRepository referenceDataRepository;
+    @Mock
+    private RuleProjectRepository projectRepository;
+    @Mock
+    private RuleRepository ruleRepository;
+
+    private ReferenceDataService service;
+
+    // Stored sets by project ID, then name
+    private final Map<Long, Map<String, ReferenceDataSet>> stored = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        service = new ReferenceDataService(referenceDataRepository, projectRepository, ruleRepository,
+                new ObjectMapper());
+        lenient().when(projectRepository.findById(anyLong())).thenAnswer(inv -> {
+            RuleProject project = new RuleProject();
+            project.setId(inv.getArgument(0));
+            return Optional.of(project);
+        });
+        lenient().when(referenceDataRepository.findByProjectIdAndName(anyLong(), anyString()))
+                .thenAnswer(inv -> Optional.ofNullable(
+                        stored.getOrDefault(inv.<Long>getArgument(0), Map.of()).get(inv.<String>getArgument(1))));
+        lenient().when(referenceDataRepository.save(any())).thenAnswer(inv -> {
+            ReferenceDataSet set = inv.getArgument(0);
+            stored.computeIfAbsent(set.getProject().getId(), id -> new HashMap<>()).put(set.getName(), set);
+            return set;
+        });
+        lenient().when(referenceDataRepository.findByProjectIdIn(anyCollection())).thenAnswer(inv -> {
+            List<ReferenceDataSet> sets = new ArrayList<>();
+            inv.<List<Long>>getArgument(0).forEach(id -> sets.addAll(stored.getOrDefault(id, Map.of()).values()));
+            return sets;
+        });
+    }
+
+    @Test
+    void longSetsMatchIntegralNumbersAndNumericStrings() {
+        upload(1L, "blocked", ReferenceValueType.LONG, List.of(0, 42, "7", 9_000_000_000L, 3.0));
+
+        ReferenceDataLookup lookup = service.getLookup(List.of(1L));
+
+        assertEquals(5, stored.get(1L).get("blocked").getEntryCount());
+        assertTrue(lookup.contains("blocked", 0));
+        assertTrue(lookup.contains("blocked", 42L));
+        assertTrue(lookup.contains("blocked", "7"));
+        assertTrue(lookup.contains("blocked", 9_000_000_000L));
+        assertTrue(lookup.contains("blocked", 3));
+        assertTrue(lookup.contains("blocked", 42.0));
+        assertFalse(lookup.contains("blocked", 42.5));
+        assertFalse(lookup.contains("blocked", "forty-two"));
+        assertFalse(lookup.contains("blocked", 43));
+        assertFalse(lookup.contains("blocked", null));
+        assertFalse(lookup.contains("unknown", 42));
+    }
+
+    @Test
+    void longSetsRejectNonIntegerValues() {
+        assertThrows(IllegalArgumentException.class,
+                () -> upload(1L, "blocked", ReferenceValueType.LONG, List.of(1, 2.5)));
+        assertTrue(stored.isEmpty());
+    }
+
+    @Test
+    void stringSetsMatchByStringForm() {
+        upload(1L, "countries", ReferenceValueType.STRING, List.of("NL", "DE", 44));
+
+        ReferenceDataLookup lookup = service.getLookup(List.of(1L));
+
+        assertTrue(lookup.contains("countries", "NL"));
+        assertTrue(lookup.contains("countries", 44));
+        assertFalse(lookup.contains("countries", "nl"));
+    }
+
+    @Test
+    void firstProjectWinsAndUploadsReplaceTheCachedSet() {
+        upload(1L, "codes", ReferenceValueType.STRING, List.of("A"));
+        upload(2L, "codes", ReferenceValueType.STRING, List.of("B"));
+        upload(2L, "regions", ReferenceValueType.STRING, List.of("EU"));
+
+        ReferenceDataLookup lookup = service.getLookup(List.of(1L, 2L));
+        assertTrue(lookup.contains("codes", "A"));
+        assertFalse(lookup.contains("codes", "B"));
+        assertTrue(lookup.contains("regions", "EU"));
+
+        // Loaded sets are cached per project
+        service.getLookup(List.of(1L, 2L));
+        verify(referenceDataRepository, times(2)).findByProjectIdIn(anyCollection());
+
+        upload(1L, "codes", ReferenceValueType.STRING, List.of("C"));
+        lookup = service.getLookup(List.of(1L, 2L));
+        assertTrue(lookup.contains("codes", "C"));
+        assertFalse(lookup.contains("codes", "A"));
+        assertEquals(2, stored.get(1L).get("codes").getVersion());
+    }
+
+    @Test
+    void setsReadByEnabledRulesCannotBeDeleted() {
+        upload(1L, "blocked", ReferenceValueType.LONG, List.of(42));
+        when(ruleRepository.findEnabledByProjectOrTemplates(1L)).thenReturn(List.of(
+                rule("Block listed customers", 1L, "referenceData.contains(\"blocked\", $fact.getValue(\"id\"))"),
+                rule("Large orders", 1L, "getLong(\"amount\") > 100L")));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> service.deleteReferenceData(1L, "blocked"));
+        assertTrue(e.getMessage().contains("Block listed customers"), e.getMessage());
+        assertFalse(e.getMessage().contains("Large orders"), e.getMessage());
+        verify(referenceDataRepository, never()).delete(any());
+    }
+
+    @Test
+    void setsShadowedInTheReadingTemplateCanBeDeleted() {
+        upload(1L, "blocked", ReferenceValueType.LONG, List.of(42));
+        upload(2L, "blocked", ReferenceValueType.LONG, List.of(7));
+        when(ruleRepository.findEnabledByProjectOrTemplates(1L)).thenReturn(List.of(
+                rule("Template blocklist", 2L, "referenceData.contains(\"blocked\", $fact.getValue(\"id\"))")));
+
+        service.deleteReferenceData(1L, "blocked");
+
+        verify(referenceDataRepository).delete(stored.get(1L).get("blocked"));
+    }
+
+    private static Rule rule(String name, Long projectId, String drl) {
+        RuleProject project = new RuleProject();
+        project.setId(projectId);
+        Rule rule = new Rule();
+        rule.setName(name);
+        rule.setProject(project);
+        rule.setGeneratedDrl(drl);
+        return rule;
+    }
+
+    private void upload(Long projectId, String name, ReferenceValueType valueType, List<Object> values) {
+        UploadReferenceDataRequest request = new UploadReferenceDataRequest();
+        request.setName(name);
+        request.setValueType(valueType);
+        request.setValues(values);
+        service.uploadReferenceData(projectId, request);
+    }
+}
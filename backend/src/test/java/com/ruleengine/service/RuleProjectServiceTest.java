@@ -0,0 +1,95 @@
+package com.ruleengine.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ruleengine.cache.ReadCache;
+import com.ruleengine.drools.DroolsService;
+import com.ruleengine.drools.JsonToDrlTranspiler;
+import com.ruleengine.drools.RuleDependencyAnalyzer;
+import com.ruleengine.dto.ExecuteRulesRequest;
+import com.ruleengine.dto.ExecuteRulesResponse;
+import com.ruleengine.model.ExecutionHistory;
+import com.ruleengine.model.RuleProject;
+import com.ruleengine.parser.ParsedSchemaCache;
+import com.ruleengine.repository.ExecutionDailyRollupRepository;
+import com.ruleengine.repository.ExecutionHistoryRepository;
+import com.ruleengine.repository.RuleProjectRepository;
+import com.ruleengine.repository.RuleRepository;
+import com.ruleengine.repository.SchemaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.kie.api.KieBase;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RuleProjectServiceTest {
+
+    @Mock
+    private RuleProjectRepository projectRepository;
+    @Mock
+    private SchemaRepository schemaRepository;
+    @Mock
+    private RuleRepository ruleRepository;
+    @Mock
+    private DroolsService droolsService;
+    @Mock
+    private ExecutionHistoryRepository executionHistoryRepository;
+    @Mock
+    private ExecutionDailyRollupRepository executionRollupRepository;
+    @Mock
+    private WebhookOutboxService webhookOutboxService;
+    @Mock
+    private ExecutionLogWriter executionLogWriter;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private RuleProjectService service;
+
+    @BeforeEach
+    void setUp() {
+        ExecutionPlanCache executionPlanCache = new ExecutionPlanCache(1 << 20, 1 << 20);
+        ReadCache readCache = new ReadCache(true, 1 << 20, 1 << 20, 1 << 20, 0);
+        RuleService ruleService = new RuleService(ruleRepository, schemaRepository, projectRepository,
+                mock(JsonToDrlTranspiler.class), droolsService, mock(RuleDependencyAnalyzer.class),
+                mock(ReferenceDataService.class), executionLogWriter, executionPlanCache, readCache,
+                new ParsedSchemaCache(objectMapper, 1 << 20), new ParsedRuleCache(objectMapper, 1 << 20),
+                transactionManager, objectMapper);
+        service = new RuleProjectService(projectRepository, schemaRepository, ruleService,
+                executionHistoryRepository, executionRollupRepository, webhookOutboxService, executionLogWriter,
+                executionPlanCache, readCache, mock(HistoryPayloadCodec.class), transactionManager, objectMapper);
+        RuleProject project = new RuleProject();
+        project.setId(1L);
+        project.setInputSchemas(List.of());
+        when(projectRepository.existsById(1L)).thenReturn(true);
+        when(projectRepository.getReferenceById(1L)).thenReturn(project);
+    }
+
+    @Test
+    void projectsWithoutRulesReturnTheFactsUnchanged() {
+        ExecuteRulesRequest request = ExecuteRulesRequest.builder()
+                .facts(List.of(Map.of("id", 1)))
+                .build();
+
+        ExecuteRulesResponse response = service.executeProject(1L, request);
+
+        assertTrue(response.isSuccess());
+        assertEquals(List.of(Map.of("id", 1)), response.getResultFacts());
+        assertTrue(response.getFiredRules().isEmpty());
+        verify(droolsService, never()).compileRules(any());
+        verify(droolsService, never()).executeRules(any(KieBase.class), any(), any(), any());
+        ArgumentCaptor<ExecutionHistory> history = ArgumentCaptor.forClass(ExecutionHistory.class);
+        verify(executionLogWriter).record(history.capture(), eq(List.of()), eq(List.of()));
+        assertEquals("[{\"id\":1}]", history.getValue().getOutputFacts());
+    }
+}
@@ -0,0 +1,219 @@
+package com.ruleengine.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ruleengine.cache.ReadCache;
+import com.ruleengine.drools.DroolsService;
+import com.ruleengine.drools.DynamicFact;
+import com.ruleengine.drools.JsonToDrlTranspiler;
+import com.ruleengine.drools.RuleDependencyAnalyzer;
+import com.ruleengine.dto.ExecuteRulesRequest;
+import com.ruleengine.dto.ExecuteRulesResponse;
+import com.ruleengine.model.ExecutionFiredRule;
+import com.ruleengine.model.ExecutionHistory;
+import com.ruleengine.model.Rule;
+import com.ruleengine.model.RuleProject;
+import com.ruleengine.model.Schema;
+import com.ruleengine.parser.ParsedSchemaCache;
+import com.ruleengine.repository.RuleProjectRepository;
+import com.ruleengine.repository.RuleRepository;
+import com.ruleengine.repository.SchemaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RuleServiceTest {
+
+    @Mock
+    private RuleRepository ruleRepository;
+    @Mock
+    private SchemaRepository schemaRepository;
+    @Mock
+    private RuleProjectRepository projectRepository;
+    @Mock
+    private JsonToDrlTranspiler transpiler;
+    @Mock
+    private DroolsService droolsService;
+    @Mock
+    private RuleDependencyAnalyzer dependencyAnalyzer;
+    @Mock
+    private ReferenceDataService referenceDataService;
+    @Mock
+    private ExecutionLogWriter executionLogWriter;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Captor
+    private ArgumentCaptor<List<DynamicFact>> facts;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private RuleService service;
+
+    private Schema order;
+    private Schema customer;
+    private RuleProject project;
+
+    @BeforeEach
+    void setUp() {
+        service = new RuleService(ruleRepository, schemaRepository, projectRepository, transpiler, droolsService,
+                dependencyAnalyzer, referenceDataService, executionLogWriter,
+                new ExecutionPlanCache(1 << 20, 1 << 20), new ReadCache(true, 1 << 20, 1 << 20, 1 << 20, 0),
+                new ParsedSchemaCache(objectMapper, 1 << 20), new ParsedRuleCache(objectMapper, 1 << 20),
+                transactionManager, objectMapper);
+
+        order = schema(1L, "Order");
+        customer = schema(2L, "Customer");
+        RuleProject parent = new RuleProject();
+        parent.setId(10L);
+        parent.setInputSchemas(List.of(order, customer));
+        project = new RuleProject();
+        project.setId(11L);
+        project.setParentProject(parent);
+        project.setInputSchemas(List.of());
+
+        Rule rule = new Rule();
+        rule.setId(100L);
+        rule.setName("Big order of a known customer");
+        rule.setSchema(order);
+        rule.setProject(project);
+        lenient().when(ruleRepository.findAllById(List.of(100L))).thenReturn(List.of(rule));
+    }
+
+    @Test
+    void factsBySchemaAreTypedByTheSchemaTheyAreListedUnder() {
+        when(droolsService.executeRules(any(), any(), facts.capture(), any()))
+                .thenReturn(ExecuteRulesResponse.builder().success(true).firedRules(List.of()).build());
+
+        ExecuteRulesRequest request = ExecuteRulesRequest.builder()
+                .ruleIds(List.of(100L))
+                .facts(List.of(Map.of("id", 1)))
+                .factsBySchema(Map.of("Customer", List.of(Map.of("id", 7), Map.of("id", 8))))
+                .dryRun(true)
+                .build();
+        ExecuteRulesResponse response = service.executeRules(request, false);
+
+        // Customer is no rule's schema, but an input of the rule's template project
+        assertEquals(List.of("Order", "Customer", "Customer"),
+                facts.getValue().stream().map(DynamicFact::getFactType).collect(Collectors.toList()));
+        assertEquals(List.of(Map.of("id", 1)), response.getResultFactsBySchema().get("Order"));
+        assertEquals(List.of(Map.of("id", 7), Map.of("id", 8)), response.getResultFactsBySchema().get("Customer"));
+    }
+
+    @Test
+    void factsBySchemaOfAnotherProjectsSchemaAreRejected() {
+        ExecuteRulesRequest request = ExecuteRulesRequest.builder()
+                .ruleIds(List.of(100L))
+                .factsBySchema(Map.of("Invoice", List.of(Map.of("id", 1))))
+                .dryRun(true)
+                .build();
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> service.executeRules(request, false));
+        assertTrue(e.getMessage().contains("Invoice"));
+        verifyNoInteractions(schemaRepository);
+        verify(droolsService, never()).executeRules(any(), any(), anyList(), any());
+    }
+
+    @Test
+    void resultFactsAreWrittenFromThePayloadEncodedForTheHistory() throws Exception {
+        List<Map<String, Object>> resultFacts = new ArrayList<>(List.of(Map.of("id", 1, "total", 250)));
+        when(droolsService.executeRules(any(), any(), anyList(), any()))
+                .thenReturn(ExecuteRulesResponse.builder().success(true).resultFacts(resultFacts)
+                        .firedRules(List.of()).build());
+        ExecuteRulesRequest request = ExecuteRulesRequest.builder()
+                .ruleIds(List.of(100L))
+                .facts(List.of(Map.of("id", 1)))
+                .build();
+
+        ExecuteRulesResponse response = service.executeRules(request, false);
+        // Changes after encoding are not written: the response sends what the history stores
+        resultFacts.add(Map.of("id", 2));
+
+        ExecutionHistory history = service.toExecutionHistory(null, request, response);
+        assertSame(response.getPayloads().getResultFactsJson(), history.getOutputFacts());
+        assertSame(response.getPayloads().getInputFactsJson(), history.getInputFacts());
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(response));
+        assertEquals(objectMapper.readTree("[{\"id\":1,\"total\":250}]"), json.get("resultFacts"));
+        assertTrue(json.get("success").asBoolean());
+        assertFalse(json.has("payloads"));
+    }
+
+    @Test
+    void dryRunsSerializeTheResultFacts() throws Exception {
+        when(droolsService.executeRules(any(), any(), anyList(), any()))
+                .thenReturn(ExecuteRulesResponse.builder().success(true)
+                        .resultFacts(List.of(Map.of("id", 1, "total", 250))).firedRules(List.of()).build());
+        ExecuteRulesRequest request = ExecuteRulesRequest.builder()
+                .ruleIds(List.of(100L))
+                .facts(List.of(Map.of("id", 1)))
+                .dryRun(true)
+                .build();
+
+        ExecuteRulesResponse response = service.executeRules(request, false);
+
+        assertNull(response.getPayloads());
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(response));
+        assertEquals(objectMapper.readTree("[{\"id\":1,\"total\":250}]"), json.get("resultFacts"));
+    }
+
+    @Test
+    void webhooksAreAwaitedAfterTheTransactionCommits() {
+        ExecuteRulesResponse fired = ExecuteRulesResponse.builder().success(true).firedRules(List.of()).build();
+        when(droolsService.executeRules(any(), any(), anyList(), any())).thenReturn(fired);
+        ExecuteRulesRequest request = ExecuteRulesRequest.builder()
+                .ruleIds(List.of(100L))
+                .facts(List.of(Map.of("id", 1)))
+                .webhookWaitMs(2000L)
+                .dryRun(true)
+                .build();
+
+        assertSame(fired, service.executeRules(request));
+
+        InOrder order = inOrder(droolsService, transactionManager);
+        order.verify(droolsService).executeRules(any(), any(), anyList(), any());
+        order.verify(transactionManager).commit(any());
+        order.verify(droolsService).awaitWebhooks(fired, 2000L);
+    }
+
+    @Test
+    void firedRuleRecordsCarryCountsAndTimesOfKnownRules() {
+        ExecuteRulesResponse response = ExecuteRulesResponse.builder()
+                .success(true)
+                .firedRules(List.of(
+                        ExecuteRulesResponse.FiredRule.builder().ruleId(100L).ruleName("Big order")
+                                .fireCount(3).executionTimeMicros(450).build(),
+                        // Rules of DRL without a stored rule have no ID and are not recorded
+                        ExecuteRulesResponse.FiredRule.builder().ruleName("Ad hoc").fireCount(1).build()))
+                .build();
+
+        List<ExecutionFiredRule> records = service.toFiredRuleRecords(response);
+
+        assertEquals(1, records.size());
+        assertEquals(100L, records.get(0).getRuleId());
+        assertEquals(3, records.get(0).getFireCount());
+        assertEquals(450, records.get(0).getExecutionTimeMicros());
+        assertNull(records.get(0).getExecutionHistoryId());
+    }
+
+    private static Schema schema(Long id, String name) {
+        Schema schema = new Schema();
+        schema.setId(id);
+        schema.setName(name);
+        return schema;
+    }
+}
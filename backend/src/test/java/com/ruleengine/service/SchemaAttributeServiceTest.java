@@ -2,6 +2,7 @@ package com.ruleengine.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.ruleengine.cache.ReadCache;
 import com.ruleengine.drools.DroolsService;
 import com.ruleengine.drools.JsonToDrlTranspiler;
 import com.ruleengine.dto.ApplyAttributeChangeRequest;
@@ -11,6 +12,7 @@ import com.ruleengine.dto.RuleDefinition;
 import com.ruleengine.model.Rule;
 import com.ruleengine.model.RuleProject;
 import com.ruleengine.model.Schema;
+import com.ruleengine.parser.ParsedSchemaCache;
 import com.ruleengine.repository.RuleRepository;
 import com.ruleengine.repository.SchemaRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -49,7 +51,9 @@ class SchemaAttributeServiceTest {
 
     @BeforeEach
     void setUp() {
-        service = new SchemaAttributeService(schemaRepository, ruleRepository, objectMapper, transpiler, droolsService);
+        service = new SchemaAttributeService(schemaRepository, ruleRepository, objectMapper, transpiler, droolsService,
+                new ExecutionPlanCache(1 << 30, 1 << 30), new ReadCache(true, 1 << 20, 1 << 20, 1 << 20, 0),
+                new ParsedSchemaCache(objectMapper, 1 << 20));
 
         project = new RuleProject();
         project.setId(10L);
@@ -108,7 +112,7 @@ class SchemaAttributeServiceTest {
     void applyAttributeChange_Rename_ShouldUpdateSchemaAndRule() throws Exception {
         when(schemaRepository.findById(1L)).thenReturn(Optional.of(schema));
         when(ruleRepository.findBySchemaId(1L)).thenReturn(List.of(rule));
-        when(transpiler.transpile(any(RuleDefinition.class), anyString(), anyString()))
+        when(transpiler.transpile(any(RuleDefinition.class), anyString(), anyString(), any()))
                 .thenReturn("package com.test; rule 'r' when then end");
         when(droolsService.validateDrl(anyString())).thenReturn(Collections.emptyList());
 
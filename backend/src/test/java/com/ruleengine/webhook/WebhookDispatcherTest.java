@@ -0,0 +1,180 @@
+package com.ruleengine.webhook;
+
+import com.ruleengine.dto.ExecuteRulesResponse.WebhookResult;
+import com.ruleengine.dto.WebhookHostStatsDto;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebhookDispatcherTest {
+
+    private HttpServer server;
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final List<String> collected = new java.util.concurrent.CopyOnWriteArrayList<>();
+    private String baseUrl;
+
+    @BeforeEach
+    void startServer() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/ok", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.createContext("/error", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            exchange.sendResponseHeaders(503, -1);
+            exchange.close();
+        });
+        server.createContext("/collect", exchange -> {
+            collected.add(new String(exchange.getRequestBody().readAllBytes()));
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.createContext("/slow", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.setExecutor(java.util.concurrent.Executors.newCachedThreadPool());
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void stopServer() {
+        release.countDown();
+        server.stop(0);
+    }
+
+    @Test
+    void waitsForDeliveryUntilDeadline() {
+        WebhookDispatcher dispatcher = dispatcher(4, 2);
+        WebhookDispatch ok = dispatcher.dispatch(request("/ok"));
+        WebhookDispatch slow = dispatcher.dispatch(request("/slow"));
+
+        List<WebhookResult> results = dispatcher.awaitResults(List.of(ok, slow), 1000L);
+
+        assertEquals(WebhookResult.DELIVERED, results.get(0).getStatus());
+        assertEquals(200, results.get(0).getStatusCode());
+        assertEquals(WebhookResult.PENDING, results.get(1).getStatus());
+        assertEquals(slow.getId(), results.get(1).getDispatchId());
+        assertTrue(dispatcher.findDispatch(slow.getId()).isPresent());
+    }
+
+    @Test
+    void limitsConcurrencyPerHost() {
+        WebhookDispatcher dispatcher = dispatcher(1, 1);
+        WebhookDispatch first = dispatcher.dispatch(request("/slow"));
+        WebhookDispatch queued = dispatcher.dispatch(request("/slow"));
+        WebhookDispatch overflow = dispatcher.dispatch(request("/slow"));
+
+        assertEquals(WebhookResult.REJECTED, overflow.resultOrPending().getStatus());
+        assertEquals(1, dispatcher.getHostStats().get(0).getInFlight());
+        assertEquals(1, dispatcher.getHostStats().get(0).getQueued());
+
+        release.countDown();
+        List<WebhookResult> results = dispatcher.awaitResults(List.of(first, queued), 5000L);
+        assertTrue(results.stream().allMatch(WebhookResult::isSuccess));
+    }
+
+    @Test
+    void opensCircuitAfterRepeatedFailures() {
+        WebhookDispatcher dispatcher = dispatcher(4, 10);
+        List<WebhookDispatch> failing = List.of(dispatcher.dispatch(request("/error")),
+                dispatcher.dispatch(request("/error")));
+        dispatcher.awaitResults(failing, 5000L);
+
+        WebhookDispatch rejected = dispatcher.dispatch(request("/ok"));
+
+        assertEquals(WebhookResult.REJECTED, rejected.resultOrPending().getStatus());
+        assertEquals("OPEN", dispatcher.getHostStats().get(0).getCircuitState());
+    }
+
+    @Test
+    void batchesPayloadsIntoJsonArrays() {
+        WebhookDispatcher dispatcher = dispatcher(4, 10);
+        WebhookBatcher batcher = new WebhookBatcher(dispatcher, 100, 1000);
+        WebhookRequest target = new WebhookRequest(baseUrl + "/collect", "POST", null, null);
+
+        List<WebhookBatcher.BatchedCall> calls = batcher.submit(target,
+                List.of("1".getBytes(), "2".getBytes(), "3".getBytes()), 2, 0);
+        dispatcher.await(calls.stream().map(WebhookBatcher.BatchedCall::getResult).collect(Collectors.toList()),
+                5000L);
+
+        assertEquals(List.of("[1,2]", "[3]"), collected.stream().sorted().collect(Collectors.toList()));
+        WebhookResult second = calls.get(1).getResult().join();
+        assertEquals(calls.get(0).getDispatchId(), second.getDispatchId());
+        assertEquals(1, second.getBatchIndex());
+        assertEquals(2, second.getBatchSize());
+        assertEquals(0, calls.get(2).getResult().join().getBatchIndex());
+    }
+
+    @Test
+    void lingerCoalescesSeparateSubmissions() {
+        WebhookDispatcher dispatcher = dispatcher(4, 10);
+        WebhookBatcher batcher = new WebhookBatcher(dispatcher, 100, 1000);
+        WebhookRequest target = new WebhookRequest(baseUrl + "/collect", "POST", null, null);
+
+        WebhookBatcher.BatchedCall first = batcher.submit(target, List.of("{\"a\":1}".getBytes()), 10, 200).get(0);
+        WebhookBatcher.BatchedCall second = batcher.submit(target, List.of("{\"a\":2}".getBytes()), 10, 200).get(0);
+        dispatcher.await(List.of(first.getResult(), second.getResult()), 5000L);
+
+        assertEquals(List.of("[{\"a\":1},{\"a\":2}]"), collected);
+        assertEquals(first.getDispatchId(), second.getDispatchId());
+        assertTrue(second.getResult().join().isSuccess());
+    }
+
+    @Test
+    void callThatCannotBeBuiltDoesNotHoldTheHalfOpenTrial() throws Exception {
+        WebhookDispatcher dispatcher = new WebhookDispatcher(2, 1000, 5000, 4, 10, 2, 50, 1000, 10_000, 100, 0);
+        dispatcher.awaitResults(List.of(dispatcher.dispatch(request("/error")),
+                dispatcher.dispatch(request("/error"))), 5000L);
+        assertEquals("OPEN", dispatcher.getHostStats().get(0).getCircuitState());
+        Thread.sleep(100);
+
+        WebhookDispatch badMethod = dispatcher.dispatch(
+                new WebhookRequest(baseUrl + "/ok", "NOT A METHOD", null, null));
+        assertEquals(WebhookResult.FAILED, badMethod.resultOrPending().getStatus());
+
+        WebhookDispatch trial = dispatcher.dispatch(request("/ok"));
+        assertEquals(WebhookResult.DELIVERED, dispatcher.awaitResults(List.of(trial), 5000L).get(0).getStatus());
+        assertEquals("CLOSED", dispatcher.getHostStats().get(0).getCircuitState());
+    }
+
+    @Test
+    void dropsIdleLanes() throws Exception {
+        WebhookDispatcher dispatcher = new WebhookDispatcher(2, 1000, 5000, 4, 10, 2, 60_000, 1000, 10_000, 100, 50);
+        dispatcher.awaitResults(List.of(dispatcher.dispatch(request("/ok"))), 5000L);
+        Thread.sleep(100);
+
+        WebhookDispatch other = dispatcher.dispatch(
+                new WebhookRequest(baseUrl.replace("127.0.0.1", "localhost") + "/ok", "POST", null, null));
+        dispatcher.awaitResults(List.of(other), 5000L);
+
+        assertEquals(List.of("http://localhost:" + server.getAddress().getPort()),
+                dispatcher.getHostStats().stream().map(WebhookHostStatsDto::getHost).collect(Collectors.toList()));
+    }
+
+    private WebhookDispatcher dispatcher(int maxConcurrency, int maxQueued) {
+        return new WebhookDispatcher(2, 1000, 5000, maxConcurrency, maxQueued, 2, 60_000, 1000, 10_000, 100, 0);
+    }
+
+    private WebhookRequest request(String path) {
+        return new WebhookRequest(baseUrl + path, "POST", null, "{}".getBytes());
+    }
+}
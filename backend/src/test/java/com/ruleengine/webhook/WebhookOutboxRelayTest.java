@@ -0,0 +1,115 @@
+package com.ruleengine.webhook;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ruleengine.dto.ExecuteRulesResponse.WebhookResult;
+import com.ruleengine.model.WebhookOutboxEntry;
+import com.ruleengine.model.WebhookOutboxStatus;
+import com.ruleengine.multitenancy.TenantContext;
+import com.ruleengine.multitenancy.TenantDatabaseManager;
+import com.ruleengine.repository.WebhookOutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WebhookOutboxRelayTest {
+
+    @Mock
+    private WebhookOutboxRepository outboxRepository;
+    @Mock
+    private WebhookDispatcher webhookDispatcher;
+    @Mock
+    private TenantDatabaseManager tenantDatabaseManager;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private WebhookOutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        relay = new WebhookOutboxRelay(outboxRepository, webhookDispatcher, tenantDatabaseManager,
+                transactionManager, new ObjectMapper(), false, 1, 10, 2, 1000, 60000, 1000, 60000, 3, 7, 3600000);
+    }
+
+    private static WebhookOutboxEntry entry(long id, int attempts) {
+        WebhookOutboxEntry entry = new WebhookOutboxEntry();
+        entry.setId(id);
+        entry.setIdempotencyKey("key-" + id);
+        entry.setUrl("http://example.com/hook");
+        entry.setMethod("POST");
+        entry.setDestination("http://example.com:80");
+        entry.setStatus(WebhookOutboxStatus.PENDING);
+        entry.setAttempts(attempts);
+        entry.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+        return entry;
+    }
+
+    private static WebhookResult result(String status, int statusCode, boolean success) {
+        return WebhookResult.builder().status(status).statusCode(statusCode).success(success).build();
+    }
+
+    @Test
+    void drainsEveryRegisteredTenantWithoutNewExecutions() {
+        when(tenantDatabaseManager.getTenantIds()).thenReturn(List.of("default", "acme"));
+        when(outboxRepository.findDue(any(), any())).thenAnswer(
+                inv -> "acme".equals(TenantContext.getTenantId()) ? List.of(entry(1, 0)) : List.of());
+        when(outboxRepository.claim(eq(1L), any(), any(), anyString())).thenReturn(1);
+        when(webhookDispatcher.dispatch(any(WebhookRequest.class))).thenReturn(mock(WebhookDispatch.class));
+        when(webhookDispatcher.awaitResults(anyList(), anyLong()))
+                .thenReturn(List.of(result(WebhookResult.DELIVERED, 200, true)));
+        when(outboxRepository.complete(anyLong(), anyString(), any(), anyInt(), any(), anyInt(), any(), any(), any()))
+                .thenReturn(1);
+
+        assertEquals(1, relay.relayOnce());
+
+        ArgumentCaptor<String> claimOwner = ArgumentCaptor.forClass(String.class);
+        verify(outboxRepository).claim(eq(1L), any(), any(), claimOwner.capture());
+        verify(outboxRepository).complete(eq(1L), eq(claimOwner.getValue()), eq(WebhookOutboxStatus.DELIVERED),
+                eq(1), any(), eq(200), isNull(), notNull(), any());
+    }
+
+    @Test
+    void claimsAtMostThePerDestinationLimitAndRecordsFailures() {
+        when(tenantDatabaseManager.getTenantIds()).thenReturn(List.of("default"));
+        when(outboxRepository.findDue(any(), any())).thenReturn(List.of(entry(1, 0), entry(2, 2), entry(3, 0)));
+        when(outboxRepository.claim(anyLong(), any(), any(), anyString())).thenReturn(1);
+        when(webhookDispatcher.dispatch(any(WebhookRequest.class))).thenReturn(mock(WebhookDispatch.class));
+        when(webhookDispatcher.awaitResults(anyList(), anyLong())).thenReturn(List.of(
+                result(WebhookResult.FAILED, 503, false), result(WebhookResult.FAILED, 503, false)));
+        // The second entry's lease was lost; its outcome is dropped without failing the pass
+        when(outboxRepository.complete(anyLong(), anyString(), any(), anyInt(), any(), anyInt(), any(), any(), any()))
+                .thenReturn(1, 0);
+
+        assertEquals(2, relay.relayOnce());
+
+        verify(outboxRepository, never()).claim(eq(3L), any(), any(), anyString());
+        verify(outboxRepository).complete(eq(1L), anyString(), eq(WebhookOutboxStatus.PENDING), eq(1), any(),
+                eq(503), any(), isNull(), any());
+        // Third failed attempt with max-attempts 3
+        verify(outboxRepository).complete(eq(2L), anyString(), eq(WebhookOutboxStatus.DEAD), eq(3), any(),
+                eq(503), any(), isNull(), any());
+    }
+
+    @Test
+    void purgesDeliveredAndDeadEntriesOfEveryTenant() {
+        when(tenantDatabaseManager.getTenantIds()).thenReturn(List.of("default", "acme"));
+        when(outboxRepository.findCompletedIds(eq(List.of(WebhookOutboxStatus.DELIVERED, WebhookOutboxStatus.DEAD)),
+                any(), any())).thenReturn(List.of(1L, 2L)).thenReturn(List.of(3L));
+
+        relay.purgeCompleted();
+
+        verify(outboxRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(outboxRepository).deleteAllByIdInBatch(List.of(3L));
+    }
+}